@@ -0,0 +1,177 @@
+package library;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 벤치마크마다 새로 만드는 내장 H2(MySQL 호환 모드) 데이터베이스입니다.
+ * 스키마는 schema.sql 을 그대로 실행하고, 도서/회원/휴일 데이터를 채우는 도우미를 제공합니다.
+ */
+final class BenchDatabase {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final String[] TITLE_WORDS = {
+            "자바", "데이터베이스", "알고리즘", "네트워크", "운영체제", "컴파일러", "객체지향", "설계",
+            "Java", "Concurrency", "Patterns", "Systems", "Performance", "Effective", "Modern", "Guide"
+    };
+    private static final String[] AUTHORS = {"김철수", "이영희", "박민수", "최지은", "Goetz", "Bloch", "Knuth", "Fowler"};
+
+    private final Properties properties;
+
+    private BenchDatabase(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 이름이 겹치지 않는 새 메모리 DB 를 만들고 스키마를 적용합니다.
+     */
+    static BenchDatabase create(String name) {
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:" + name + "-" + SEQUENCE.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.username", "sa");
+        props.setProperty("db.password", "");
+        // 벤치마크 중에는 백그라운드 스레드가 측정에 끼어들지 않게 한다.
+        props.setProperty("holiday.refreshIntervalMs", "0");
+        BenchDatabase database = new BenchDatabase(props);
+        database.runScript("/schema.sql");
+        return database;
+    }
+
+    Properties properties() {
+        return properties;
+    }
+
+    /**
+     * 같은 설정에서 저장 엔진만 library.storage=memory 로 바꿉니다. 이름이 겹치지 않는 빈 메모리 저장소를 씁니다.
+     */
+    Properties memoryProperties() {
+        Properties props = new Properties();
+        props.putAll(properties);
+        props.setProperty("library.storage", "memory");
+        props.setProperty("library.storage.name", properties.getProperty("db.url"));
+        return props;
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(properties.getProperty("db.url"),
+                properties.getProperty("db.username"), properties.getProperty("db.password"));
+    }
+
+    private void runScript(String resource) {
+        String script;
+        try (InputStream in = BenchDatabase.class.getResourceAsStream(resource)) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(resource + " 을(를) 읽을 수 없습니다.", e);
+        }
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            for (String sql : script.split(";")) {
+                String trimmed = sql.replaceAll("(?m)^--.*$", "").trim();
+                if (!trimmed.isEmpty()) {
+                    stmt.execute(trimmed);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("스키마 생성 중 오류 발생: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 제목 검색이 의미 있도록 단어를 섞은 제목으로 도서를 채웁니다.
+     */
+    void seedBooks(int count) throws SQLException {
+        String sql = "INSERT INTO books (title, author, isbn, publisher, stock) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, bookTitle(i));
+                pstmt.setString(2, AUTHORS[i % AUTHORS.length]);
+                pstmt.setString(3, String.format("978%010d", i));
+                pstmt.setString(4, "벤치출판");
+                pstmt.setInt(5, 1_000_000);
+                pstmt.addBatch();
+                if (i % 1000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * seedBooks(int) 와 같은 도서를 저장소 API 로 채웁니다. (메모리 엔진용)
+     */
+    static void seedBooks(BookRepository books, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            books.insert(bookTitle(i), AUTHORS[i % AUTHORS.length], String.format("978%010d", i), "벤치출판", 1_000_000);
+        }
+    }
+
+    private static String bookTitle(int i) {
+        return TITLE_WORDS[i % TITLE_WORDS.length] + " "
+                + TITLE_WORDS[(i / TITLE_WORDS.length + 3) % TITLE_WORDS.length] + " " + (i + 1) + "판";
+    }
+
+    void seedMembers(int count) throws SQLException {
+        String sql = "INSERT INTO members (name, phone_number) VALUES (?, ?)";
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, "회원" + i);
+                pstmt.setString(2, String.format("010-%04d-%04d", i / 10000, i % 10000));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    static void seedMembers(MemberRepository members, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            members.insert("회원" + i, String.format("010-%04d-%04d", i / 10000, i % 10000));
+        }
+    }
+
+    /**
+     * 기준일부터 평일만 골라 휴일을 count 개 등록합니다.
+     * 주말 정책과 겹치지 않아야 합성 정책에서 휴일 수가 그대로 반영됩니다.
+     */
+    void seedHolidays(LocalDate from, int count) throws SQLException {
+        String sql = "INSERT INTO holidays (holiday_date, description) VALUES (?, ?)";
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            LocalDate date = from;
+            // 10k 개가 되어도 수십 년 안에 들도록 평일 사흘에 하루꼴로 넣는다.
+            for (int i = 0; i < count; date = date.plusDays(1)) {
+                if (date.getDayOfWeek().getValue() <= 5 && date.toEpochDay() % 3 == 0) {
+                    pstmt.setDate(1, Date.valueOf(date));
+                    pstmt.setString(2, "벤치 휴일 " + i);
+                    pstmt.addBatch();
+                    i++;
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * Library 의 안내 메시지 출력이 측정에 섞이지 않도록 표준 출력을 버립니다.
+     */
+    static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,97 @@
+package library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library 의 JDBC 경로(도서/회원 CRUD, 대출/반납)를 내장 H2 에서 측정합니다.
+ * 실제 MySQL 과 절대값은 다르지만, 연결 풀/문장 캐시/트랜잭션 처리 비용의 변화를 비교하는 용도입니다.
+ * storage=memory 는 같은 작업을 메모리 저장 엔진(library.storage=memory)에서 측정합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrudBenchmark {
+    private static final int BOOKS = 10_000;
+    private static final int MEMBERS = 1_000;
+
+    @Param({"jdbc", "memory"})
+    public String storage;
+
+    private BenchDatabase database;
+    private Library library;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.silenceStdout();
+        database = BenchDatabase.create("crud");
+        if ("memory".equals(storage)) {
+            Properties props = database.memoryProperties();
+            LibraryStorage memory = LibraryStorage.shared(props);
+            BenchDatabase.seedBooks(memory.books(), BOOKS);
+            BenchDatabase.seedMembers(memory.members(), MEMBERS);
+            library = new Library(new WeekendHoliday(), props, memory);
+        } else {
+            database.seedBooks(BOOKS);
+            database.seedMembers(MEMBERS);
+            library = new Library(new WeekendHoliday(), database.properties());
+        }
+    }
+
+    private int nextBookId() {
+        return (next++ % BOOKS) + 1;
+    }
+
+    @Benchmark
+    public boolean addBook() {
+        int n = next++;
+        return library.addBook("벤치 도서 " + n, "벤치 저자", "979" + n, "벤치출판", 1);
+    }
+
+    @Benchmark
+    public Book findBookById() {
+        return library.findBookById(nextBookId());
+    }
+
+    @Benchmark
+    public Book findBookByIsbn() {
+        return library.findBookByIsbn(String.format("978%010d", nextBookId() - 1));
+    }
+
+    @Benchmark
+    public boolean updateBookStock() {
+        return library.updateBookStock(nextBookId(), 1_000_000);
+    }
+
+    @Benchmark
+    public long streamBooksFirstPage() {
+        return library.streamBooks().limit(100).count();
+    }
+
+    @Benchmark
+    public boolean addMember() {
+        int n = next++;
+        return library.addMember("벤치회원" + n, "010-9999-" + (n % 10000));
+    }
+
+    @Benchmark
+    public boolean updateMemberPhoneNumber() {
+        int n = next++;
+        return library.updateMemberPhoneNumber((n % MEMBERS) + 1, "010-8888-" + (n % 10000));
+    }
+
+    @Benchmark
+    public Loan borrowAndReturn() throws SQLException {
+        int bookId = nextBookId();
+        int memberId = (next % MEMBERS) + 1;
+        Loan loan = library.checkOut(bookId, memberId);
+        return library.checkIn(loan.getLoanId());
+    }
+}
@@ -0,0 +1,123 @@
+package library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library.calculateDueDate 를 휴일 정책별로 측정합니다.
+ * 같은 정책으로 하루씩 isHoliday 를 확인하며 세는 단순 반복(naive)을 기준선으로 함께 잽니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DueDateBenchmark {
+    static final int DATES = 1024;
+    static final LocalDate FIRST_DATE = LocalDate.of(2025, 1, 1);
+
+    /**
+     * 대출일로 쓸 날짜들. 여러 해에 걸쳐 흩어 두어 연도별 비트맵 전환도 포함되게 한다.
+     */
+    static LocalDate[] startDates(long seed) {
+        Random random = new Random(seed);
+        LocalDate[] dates = new LocalDate[DATES];
+        for (int i = 0; i < DATES; i++) {
+            dates[i] = FIRST_DATE.plusDays(random.nextInt(365 * 20));
+        }
+        return dates;
+    }
+
+    static LocalDate naiveDueDate(HolidayPolicy policy, LocalDate startDate, int daysToAdd) {
+        LocalDate dueDate = startDate;
+        int added = 0;
+        while (added < daysToAdd) {
+            dueDate = dueDate.plusDays(1);
+            if (!policy.isHoliday(dueDate)) {
+                added++;
+            }
+        }
+        return dueDate;
+    }
+
+    @State(Scope.Benchmark)
+    public static class WeekendState {
+        HolidayPolicy policy;
+        Library library;
+        LocalDate[] dates;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchDatabase.silenceStdout();
+            BenchDatabase database = BenchDatabase.create("weekend");
+            policy = new WeekendHoliday();
+            library = new Library(policy, database.properties());
+            dates = startDates(42);
+        }
+
+        LocalDate nextDate() {
+            return dates[next++ & (DATES - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CustomState {
+        /** holidays 테이블에 넣을 휴일 수 */
+        @Param({"10", "100", "1000", "10000"})
+        public int holidays;
+
+        /** true 면 Main 과 같이 주말 정책과 합성해 compile() 한 정책을 쓴다. */
+        @Param({"false", "true"})
+        public boolean withWeekends;
+
+        CustomHoliday customHoliday;
+        HolidayPolicy policy;
+        Library library;
+        LocalDate[] dates;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchDatabase.silenceStdout();
+            BenchDatabase database = BenchDatabase.create("custom");
+            database.seedHolidays(FIRST_DATE, holidays);
+            customHoliday = new CustomHoliday(database.properties());
+            policy = withWeekends ? new WeekendHoliday().or(customHoliday).compile() : customHoliday;
+            library = new Library(policy, database.properties());
+            dates = startDates(42);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            customHoliday.close();
+        }
+
+        LocalDate nextDate() {
+            return dates[next++ & (DATES - 1)];
+        }
+    }
+
+    @Benchmark
+    public LocalDate weekendDueDate(WeekendState state) {
+        return state.library.calculateDueDate(state.nextDate(), Library.LOAN_PERIOD_DAYS);
+    }
+
+    @Benchmark
+    public LocalDate weekendDueDateNaive(WeekendState state) {
+        return naiveDueDate(state.policy, state.nextDate(), Library.LOAN_PERIOD_DAYS);
+    }
+
+    @Benchmark
+    public LocalDate customDueDate(CustomState state) {
+        return state.library.calculateDueDate(state.nextDate(), Library.LOAN_PERIOD_DAYS);
+    }
+
+    @Benchmark
+    public LocalDate customDueDateNaive(CustomState state) {
+        return naiveDueDate(state.policy, state.nextDate(), Library.LOAN_PERIOD_DAYS);
+    }
+}
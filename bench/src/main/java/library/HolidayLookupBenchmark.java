@@ -0,0 +1,60 @@
+package library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 휴일 정책의 isHoliday 단건 조회를 측정합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HolidayLookupBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int holidays;
+
+    private WeekendHoliday weekendHoliday;
+    private CustomHoliday customHoliday;
+    private HolidayPolicy compiledPolicy;
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchDatabase database = BenchDatabase.create("lookup");
+        database.seedHolidays(DueDateBenchmark.FIRST_DATE, holidays);
+        weekendHoliday = new WeekendHoliday();
+        customHoliday = new CustomHoliday(database.properties());
+        compiledPolicy = weekendHoliday.or(customHoliday).compile();
+        dates = DueDateBenchmark.startDates(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        customHoliday.close();
+    }
+
+    private LocalDate nextDate() {
+        return dates[next++ & (DueDateBenchmark.DATES - 1)];
+    }
+
+    @Benchmark
+    public boolean weekend() {
+        return weekendHoliday.isHoliday(nextDate());
+    }
+
+    @Benchmark
+    public boolean custom() {
+        return customHoliday.isHoliday(nextDate());
+    }
+
+    @Benchmark
+    public boolean weekendOrCustomCompiled() {
+        return compiledPolicy.isHoliday(nextDate());
+    }
+}
@@ -0,0 +1,78 @@
+package library;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 제목 검색을 측정합니다.
+ * n-gram 색인 자체, 색인과 ID 조회를 거치는 Library.searchBooksByTitle, 그리고 기준선인 LIKE '%키워드%' 스캔을 비교합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    private static final String[] KEYWORDS = {"자바", "데이터베이스 설계", "Concurrency", "성능", "Modern Java", "1234판"};
+
+    @Param({"1000", "10000"})
+    public int books;
+
+    private BenchDatabase database;
+    private Library library;
+    private NGramIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchDatabase.silenceStdout();
+        database = BenchDatabase.create("search");
+        database.seedBooks(books);
+        library = new Library(new WeekendHoliday(), database.properties());
+        index = new NGramIndex();
+        try (Connection conn = database.connect();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT book_id, title FROM books");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                index.add(rs.getInt(1), rs.getString(2));
+            }
+        }
+        // Library 의 색인은 첫 검색 때 만들어지므로 측정 전에 한 번 채운다.
+        library.searchBooksByTitle(KEYWORDS[0]);
+    }
+
+    private String nextKeyword() {
+        return KEYWORDS[next++ % KEYWORDS.length];
+    }
+
+    @Benchmark
+    public int[] ngramIndex() {
+        return index.search(nextKeyword());
+    }
+
+    @Benchmark
+    public void librarySearchByTitle() {
+        library.searchBooksByTitle(nextKeyword());
+    }
+
+    @Benchmark
+    public int likeScan() throws SQLException {
+        int count = 0;
+        try (Connection conn = database.connect();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT book_id, title FROM books WHERE title LIKE ?")) {
+            pstmt.setString(1, "%" + nextKeyword() + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,75 @@
+-- 벤치마크용 H2(MySQL 호환 모드) 스키마. 운영 MySQL 스키마와 같은 열 이름을 쓴다.
+CREATE TABLE books (
+    book_id   INT AUTO_INCREMENT PRIMARY KEY,
+    title     VARCHAR(255) NOT NULL,
+    author    VARCHAR(255),
+    isbn      VARCHAR(32),
+    publisher VARCHAR(255),
+    stock     INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_books_isbn ON books (isbn);
+CREATE INDEX idx_books_updated ON books (updated_at);
+CREATE TABLE members (
+    member_id    INT AUTO_INCREMENT PRIMARY KEY,
+    name         VARCHAR(100) NOT NULL,
+    phone_number VARCHAR(20)
+);
+CREATE TABLE loans (
+    loan_id     INT AUTO_INCREMENT PRIMARY KEY,
+    book_id     INT NOT NULL,
+    member_id   INT NOT NULL,
+    loan_date   DATE NOT NULL,
+    due_date    DATE NOT NULL,
+    return_date DATE,
+    extended_days INT NOT NULL DEFAULT 0,
+    fine        INT NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_loans_book ON loans (book_id);
+CREATE INDEX idx_loans_member ON loans (member_id);
+CREATE INDEX idx_loans_open_due ON loans (return_date, due_date);
+CREATE TABLE holidays (
+    holiday_date DATE PRIMARY KEY,
+    description  VARCHAR(255)
+);
+CREATE TABLE holiday_changes (
+    change_id    BIGINT AUTO_INCREMENT PRIMARY KEY,
+    holiday_date DATE NOT NULL,
+    change_type  CHAR(1) NOT NULL,
+    changed_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE TABLE holiday_version (
+    version_id INT PRIMARY KEY,
+    version    BIGINT NOT NULL
+);
+CREATE TABLE hot_inventory (
+    book_id INT PRIMARY KEY,
+    escrow  INT NOT NULL
+);
+CREATE TABLE hot_reservations (
+    loan_id INT PRIMARY KEY,
+    book_id INT NOT NULL
+);
+CREATE TABLE import_checkpoints (
+    source_name       VARCHAR(255) PRIMARY KEY,
+    records_processed BIGINT NOT NULL,
+    updated_at        TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE TABLE journal_checkpoints (
+    journal_id    VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+CREATE TABLE replica_heartbeat (
+    heartbeat_id INT PRIMARY KEY,
+    beat_millis  BIGINT NOT NULL
+);
+CREATE TABLE holds (
+    hold_id     INT AUTO_INCREMENT PRIMARY KEY,
+    book_id     INT NOT NULL,
+    member_id   INT NOT NULL,
+    placed_on   DATE NOT NULL,
+    status      CHAR(1) NOT NULL,
+    ready_until DATE
+);
+CREATE INDEX idx_holds_book_status ON holds (book_id, status, hold_id);
+CREATE INDEX idx_holds_status_ready ON holds (status, ready_until);
@@ -0,0 +1,311 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Library 의 작업을 비동기로 실행하는 창구입니다.
+ * 콘솔에 출력하는 대신 Book/Member/Loan 값을 CompletableFuture 로 돌려주며,
+ * 업무 규칙 위반은 LibraryException, DB 오류는 SQLException 으로 future 가 예외 완료됩니다.
+ * <p>
+ * 작업마다 가상 스레드 하나를 쓰므로 대기 중인 요청이 수천 개여도 플랫폼 스레드를 점유하지 않습니다.
+ * 동시에 DB 를 쓰는 작업 수는 세마포어로 커넥션 풀 크기만큼으로 제한해,
+ * 나머지 요청은 풀의 대기 시간 제한에 걸리지 않고 세마포어에서 순서대로 기다립니다.
+ * 전체 목록을 흘려보내는 forEachBook/forEachMember 는 한 페이지를 읽는 동안만 허가를 쥐고,
+ * 받은 쪽(느린 HTTP 클라이언트 등)에 넘기는 동안에는 허가를 놓습니다.
+ */
+public class AsyncLibrary implements AutoCloseable {
+    private final Library library;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * 커넥션 풀 크기만큼 동시에 실행하는 비동기 창구를 만듭니다.
+     * @param library 실제 작업을 수행할 Library
+     */
+    public AsyncLibrary(Library library) {
+        this(library, library.getConnectionPoolSize());
+    }
+
+    /**
+     * @param library 실제 작업을 수행할 Library
+     * @param maxConcurrency 동시에 실행할 최대 작업 수 (1 이상)
+     */
+    public AsyncLibrary(Library library, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency 는 1 이상이어야 합니다: " + maxConcurrency);
+        }
+        this.library = library;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("library-async-", 0).factory());
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        return future;
+    }
+
+    // --- 도서 ---
+
+    public CompletableFuture<Book> addBook(String title, String author, String isbn, String publisher, int stock) {
+        return submit(() -> library.insertBook(title, author, isbn, publisher, stock));
+    }
+
+    public CompletableFuture<Optional<Book>> findBookById(int bookId) {
+        return submit(() -> Optional.ofNullable(library.findBookById(bookId)));
+    }
+
+    public CompletableFuture<Optional<Book>> findBookByIsbn(String isbn) {
+        return submit(() -> Optional.ofNullable(library.findBookByIsbn(isbn)));
+    }
+
+    public CompletableFuture<List<Book>> searchBooksByTitle(String keyword) {
+        return submit(() -> library.findBooksByTitle(keyword));
+    }
+
+    public CompletableFuture<List<Book>> searchBooksByAuthor(String keyword) {
+        return submit(() -> library.findBooksByAuthor(keyword));
+    }
+
+    /**
+     * 도서 ID 순으로 최대 limit 권을 돌려줍니다. 전체 목록은 Library.streamBooks() 로 직접 읽습니다.
+     */
+    public CompletableFuture<List<Book>> listBooks(int limit) {
+        return submit(() -> collect(library.streamBooks(), limit));
+    }
+
+    /**
+     * 모든 도서를 도서 ID 순으로 읽어 하나씩 넘겨줍니다. 목록을 메모리에 모으지 않으므로
+     * 응답 스트림에 바로 쓰는 용도입니다. consumer 는 작업 스레드에서 허가 없이 호출됩니다.
+     */
+    public CompletableFuture<Void> forEachBook(Consumer<Book> consumer) {
+        return forEachPage(library::streamBooks, consumer);
+    }
+
+    public CompletableFuture<Book> updateBookStock(int bookId, int newStock) {
+        return submit(() -> library.setBookStock(bookId, newStock));
+    }
+
+    public CompletableFuture<Void> deleteBook(int bookId) {
+        return submit(() -> {
+            library.removeBook(bookId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Map<Integer, Library.BulkOutcome>> updateStocks(Map<Integer, Integer> newStocks) {
+        Map<Integer, Integer> copy = new LinkedHashMap<>(newStocks);
+        return submit(() -> library.updateStocks(copy));
+    }
+
+    public CompletableFuture<Map<Integer, Library.BulkOutcome>> deleteBooks(Collection<Integer> bookIds) {
+        List<Integer> copy = List.copyOf(bookIds);
+        return submit(() -> library.deleteBooks(copy));
+    }
+
+    // --- 회원 ---
+
+    public CompletableFuture<Member> addMember(String name, String phoneNumber) {
+        return submit(() -> library.insertMember(name, phoneNumber));
+    }
+
+    public CompletableFuture<Optional<Member>> findMemberById(int memberId) {
+        return submit(() -> Optional.ofNullable(library.findMemberById(memberId)));
+    }
+
+    public CompletableFuture<List<Member>> searchMembersByPhone(String suffix) {
+        return submit(() -> library.findMembersByPhoneSuffix(suffix));
+    }
+
+    public CompletableFuture<List<Member>> searchMembersByName(String prefix) {
+        return submit(() -> library.findMembersByNamePrefix(prefix));
+    }
+
+    public CompletableFuture<List<Member>> listMembers(int limit) {
+        return submit(() -> collect(library.streamMembers(), limit));
+    }
+
+    public CompletableFuture<Void> forEachMember(Consumer<Member> consumer) {
+        return forEachPage(library::streamMembers, consumer);
+    }
+
+    public CompletableFuture<Member> updateMemberPhoneNumber(int memberId, String newPhoneNumber) {
+        return submit(() -> library.setMemberPhoneNumber(memberId, newPhoneNumber));
+    }
+
+    public CompletableFuture<Void> deleteMember(int memberId) {
+        return submit(() -> {
+            library.removeMember(memberId);
+            return null;
+        });
+    }
+
+    // --- 대출/반납 ---
+
+    public CompletableFuture<Loan> borrowBook(int bookId, int memberId) {
+        return submit(() -> library.checkOut(bookId, memberId));
+    }
+
+    public CompletableFuture<Loan> returnBook(int loanId) {
+        return submit(() -> library.checkIn(loanId));
+    }
+
+    public CompletableFuture<Loan> extendDueDate(int loanId, int days) {
+        return submit(() -> library.renew(loanId, days));
+    }
+
+    public CompletableFuture<Optional<Loan>> findLoanById(int loanId) {
+        return submit(() -> Optional.ofNullable(library.findLoanById(loanId)));
+    }
+
+    // --- 예약 ---
+
+    public CompletableFuture<Hold> placeHold(int bookId, int memberId) {
+        return submit(() -> library.placeHold(bookId, memberId));
+    }
+
+    public CompletableFuture<Hold> cancelHold(int holdId) {
+        return submit(() -> library.cancelHold(holdId));
+    }
+
+    public CompletableFuture<Optional<Hold>> findHoldById(int holdId) {
+        return submit(() -> Optional.ofNullable(library.findHoldById(holdId)));
+    }
+
+    /**
+     * @return 대기열에서 몇 번째인지 (1부터), 대기 중이 아니면 0. 메모리만 보므로 바로 돌아옵니다.
+     */
+    public int holdPosition(Hold hold) {
+        return library.holdPosition(hold);
+    }
+
+    // --- 인기 도서 ---
+
+    public CompletableFuture<Integer> designateHotTitle(int bookId, int maxEscrow) {
+        return submit(() -> library.makeHotTitle(bookId, maxEscrow));
+    }
+
+    public CompletableFuture<Void> releaseHotTitle(int bookId) {
+        return submit(() -> {
+            library.clearHotTitle(bookId);
+            return null;
+        });
+    }
+
+    // --- 휴일 변경 반영 ---
+
+    /**
+     * 휴일 정책 기준 영업일인지 확인합니다. 메모리의 달력만 보므로 바로 돌려줍니다.
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return library.isBusinessDay(date);
+    }
+
+    /**
+     * 휴일을 바꾸고 그 변경으로 반납 예정일이 바뀐 대출 수를 돌려줍니다. (Library.changeHolidays)
+     */
+    public CompletableFuture<Integer> changeHolidays(Library.HolidayChange change) {
+        return submit(() -> library.changeHolidays(change));
+    }
+
+    public CompletableFuture<Integer> rebaseDueDates(LocalDate changedDate) {
+        return submit(() -> library.rebaseDueDates(changedDate));
+    }
+
+    // 허가를 쥔 채로 한 페이지만큼 꺼내고, 허가를 놓은 뒤 consumer 에 넘긴다.
+    // 스트림은 소비하는 만큼만 다음 페이지를 조회하므로 DB 를 읽는 동안에만 허가를 쥐게 된다.
+    private <T> CompletableFuture<Void> forEachPage(Supplier<Stream<T>> source, Consumer<T> consumer) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            int pageSize = library.getPageSize();
+            List<T> page = new ArrayList<>(pageSize);
+            Stream<T> stream = null;
+            try {
+                Iterator<T> rows = null;
+                while (true) {
+                    permits.acquire();
+                    try {
+                        if (stream == null) {
+                            stream = source.get();
+                            rows = stream.iterator();
+                        }
+                        while (page.size() < pageSize && rows.hasNext()) {
+                            page.add(rows.next());
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    page.forEach(consumer);
+                    page.clear();
+                }
+                future.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (IllegalStateException e) {
+                // KeysetPageIterator 는 SQLException 을 IllegalStateException 으로 감싸 던진다.
+                future.completeExceptionally(e.getCause() instanceof SQLException ? e.getCause() : e);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                if (stream != null) {
+                    stream.close();
+                }
+            }
+        });
+        return future;
+    }
+
+    private static <T> List<T> collect(Stream<T> stream, int limit) throws SQLException {
+        try (Stream<T> s = stream) {
+            return s.limit(limit).collect(Collectors.toList());
+        } catch (IllegalStateException e) {
+            // KeysetPageIterator 는 SQLException 을 IllegalStateException 으로 감싸 던진다.
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 새 작업을 받지 않고, 이미 받은 작업이 끝날 때까지 기다립니다.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * books 테이블의 한 행을 나타내는 불변 값 객체입니다.
+ */
+public class Book {
+    private final int bookId;
+    private final String title;
+    private final String author;
+    private final String isbn;
+    private final String publisher;
+    private final int stock;
+
+    public Book(int bookId, String title, String author, String isbn, String publisher, int stock) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.isbn = isbn;
+        this.publisher = publisher;
+        this.stock = stock;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, 제목: %s, 저자: %s, ISBN: %s, 출판사: %s, 재고: %d",
+                bookId, title, author, isbn, publisher, stock);
+    }
+}
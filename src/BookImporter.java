@@ -0,0 +1,527 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량의 도서 목록(CSV/TSV/MARC)을 books 테이블에 적재합니다.
+ * <ul>
+ *     <li>파싱은 별도 작업 스레드에서 하고, 적재 스레드는 청크 단위로 넘겨받아 JDBC 배치로 씁니다.</li>
+ *     <li>청크 하나가 트랜잭션 하나입니다. db.url 에 rewriteBatchedStatements=true 를 주면
+ *     드라이버가 배치를 여러 행 INSERT 문으로 바꿔 보냅니다.</li>
+ *     <li>청크를 커밋할 때 같은 트랜잭션에서 import_checkpoints 에 처리한 레코드 수를 기록하므로,
+ *     중간에 실패해도 같은 소스 이름으로 다시 실행하면 이어서 적재합니다. 끝까지 적재하면 체크포인트를 지우므로
+ *     같은 경로에 고친 파일을 다시 적재하면 처음부터 읽습니다.</li>
+ * </ul>
+ * <pre>
+ * CREATE TABLE import_checkpoints (
+ *     source_name       VARCHAR(255) PRIMARY KEY,
+ *     records_processed BIGINT NOT NULL,
+ *     updated_at        TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+ * );
+ * </pre>
+ * CSV/TSV 는 title, author, isbn, publisher, stock 순서의 열을 기대하며 첫 줄이 헤더(title ...)이면 건너뜁니다.
+ * MARC(ISO 2709) 는 245$a 를 제목, 100$a 를 저자, 020$a 를 ISBN, 260$b/264$b 를 출판사로 읽고 재고는 1 로 둡니다.
+ */
+public class BookImporter {
+    public enum Format {
+        CSV, TSV, MARC;
+
+        /**
+         * 파일 확장자로 형식을 추측합니다. (.mrc/.marc → MARC, .tsv/.tab → TSV, 그 외 CSV)
+         */
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".mrc") || lower.endsWith(".marc")) {
+                return MARC;
+            }
+            if (lower.endsWith(".tsv") || lower.endsWith(".tab")) {
+                return TSV;
+            }
+            return CSV;
+        }
+    }
+
+    // 거부된 행 사유는 이 개수까지만 보관한다.
+    private static final int MAX_REJECT_SAMPLES = 100;
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final ConnectionSource connectionSource;
+    private final int chunkSize;
+
+    public BookImporter(ConnectionSource connectionSource, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+        }
+        this.connectionSource = connectionSource;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 파일을 적재합니다. 같은 파일 이름으로 이전에 중단된 적재가 있으면 체크포인트 이후부터 이어서 합니다.
+     * @param file 적재할 파일
+     * @param format 파일 형식
+     * @return 적재 결과
+     */
+    public Result importFile(Path file, Format format) throws IOException, SQLException {
+        String sourceName = file.toAbsolutePath().normalize().toString();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return importStream(sourceName, input, format);
+        }
+    }
+
+    /**
+     * 입력 스트림을 적재합니다.
+     * @param sourceName 체크포인트 키로 쓸 소스 이름
+     * @param input 입력
+     * @param format 입력 형식
+     * @return 적재 결과
+     */
+    public Result importStream(String sourceName, InputStream input, Format format) throws IOException, SQLException {
+        long resumeFrom = loadCheckpoint(sourceName);
+        Result result = new Result(resumeFrom);
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Parser parser = new Parser(input, format, resumeFrom, queue);
+        Thread parserThread = new Thread(parser, "book-import-parser");
+        parserThread.setDaemon(true);
+        long start = System.nanoTime();
+        parserThread.start();
+
+        String insertSql = "INSERT INTO books (title, author, isbn, publisher, stock) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            while (true) {
+                Chunk chunk = takeChunk(queue);
+                if (chunk.isEnd()) {
+                    break;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                    for (String[] row : chunk.rows) {
+                        pstmt.setString(1, row[0]);
+                        pstmt.setString(2, row[1]);
+                        pstmt.setString(3, row[2]);
+                        pstmt.setString(4, row[3]);
+                        pstmt.setInt(5, Integer.parseInt(row[4]));
+                        pstmt.addBatch();
+                    }
+                    if (!chunk.rows.isEmpty()) {
+                        pstmt.executeBatch();
+                    }
+                    saveCheckpoint(conn, sourceName, chunk.lastRecordNumber);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    parser.cancel();
+                    throw e;
+                }
+                result.imported += chunk.rows.size();
+                result.recordsProcessed = chunk.lastRecordNumber;
+                result.addRejects(chunk.rejects);
+            }
+            // 파서는 실패를 기록한 뒤에 END 를 넣으므로 여기서 보이는 failure 가 최종 결과다.
+            if (parser.failure == null) {
+                try {
+                    clearCheckpoint(conn, sourceName);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        } finally {
+            parser.cancel();
+        }
+        if (parser.failure instanceof IOException e) {
+            throw e;
+        }
+        if (parser.failure != null) {
+            throw new IOException("도서 목록을 읽는 중 오류가 발생했습니다: " + parser.failure.getMessage(), parser.failure);
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Chunk takeChunk(BlockingQueue<Chunk> queue) throws SQLException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("도서 적재가 중단되었습니다.", e);
+        }
+    }
+
+    private long loadCheckpoint(String sourceName) throws SQLException {
+        String sql = "SELECT records_processed FROM import_checkpoints WHERE source_name = ?";
+        try (Connection conn = connectionSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, sourceName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong("records_processed") : 0L;
+            }
+        }
+    }
+
+    private void saveCheckpoint(Connection conn, String sourceName, long recordsProcessed) throws SQLException {
+        String sql = "INSERT INTO import_checkpoints (source_name, records_processed) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE records_processed = VALUES(records_processed)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, sourceName);
+            pstmt.setLong(2, recordsProcessed);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void clearCheckpoint(Connection conn, String sourceName) throws SQLException {
+        String sql = "DELETE FROM import_checkpoints WHERE source_name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, sourceName);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 적재 결과. 처리량과 거부된 행을 알려 줍니다.
+     */
+    public static class Result {
+        private final long resumedFrom;
+        private long recordsProcessed;
+        private long imported;
+        private long rejected;
+        private long elapsedNanos;
+        private final List<String> rejectSamples = new ArrayList<>();
+
+        Result(long resumedFrom) {
+            this.resumedFrom = resumedFrom;
+            this.recordsProcessed = resumedFrom;
+        }
+
+        private void addRejects(List<String> rejects) {
+            rejected += rejects.size();
+            for (String reject : rejects) {
+                if (rejectSamples.size() >= MAX_REJECT_SAMPLES) {
+                    break;
+                }
+                rejectSamples.add(reject);
+            }
+        }
+
+        public long getResumedFrom() {
+            return resumedFrom;
+        }
+
+        public long getRecordsProcessed() {
+            return recordsProcessed;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public List<String> getRejectSamples() {
+            return rejectSamples;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : imported * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("적재 %d건, 거부 %d건, 처리한 레코드 %d (재개 위치 %d), %.1f행/초",
+                    imported, rejected, recordsProcessed, resumedFrom, getRowsPerSecond());
+        }
+    }
+
+    private static final class Chunk {
+        private static final Chunk END = new Chunk(-1);
+
+        private final List<String[]> rows = new ArrayList<>();
+        private final List<String> rejects = new ArrayList<>();
+        private long lastRecordNumber;
+
+        private Chunk(long lastRecordNumber) {
+            this.lastRecordNumber = lastRecordNumber;
+        }
+
+        private boolean isEnd() {
+            return this == END;
+        }
+    }
+
+    /**
+     * 작업 스레드에서 입력을 읽어 검증한 뒤 청크 단위로 큐에 넣습니다.
+     */
+    private final class Parser implements Runnable {
+        private final InputStream input;
+        private final Format format;
+        private final long skipRecords;
+        private final BlockingQueue<Chunk> queue;
+        private volatile boolean cancelled;
+        // 읽기 오류나 잘못된 레코드(길이 필드 등)로 파싱이 멈춘 원인
+        private volatile Exception failure;
+
+        private Parser(InputStream input, Format format, long skipRecords, BlockingQueue<Chunk> queue) {
+            this.input = input;
+            this.format = format;
+            this.skipRecords = skipRecords;
+            this.queue = queue;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (format == Format.MARC) {
+                    parseMarc();
+                } else {
+                    parseDelimited(format == Format.TSV ? '\t' : ',');
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            } finally {
+                offer(Chunk.END);
+            }
+        }
+
+        private void parseDelimited(char delimiter) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            long recordNumber = 0;
+            Chunk chunk = new Chunk(0);
+            List<String> fields;
+            boolean first = true;
+            while (!cancelled && (fields = readRecord(reader, delimiter)) != null) {
+                if (first) {
+                    first = false;
+                    if (!fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase("title")) {
+                        continue; // 헤더
+                    }
+                }
+                recordNumber++;
+                if (recordNumber <= skipRecords) {
+                    continue;
+                }
+                accept(chunk, recordNumber, fields);
+                if (chunk.rows.size() + chunk.rejects.size() >= chunkSize) {
+                    offer(chunk);
+                    chunk = new Chunk(recordNumber);
+                }
+            }
+            if (!chunk.rows.isEmpty() || !chunk.rejects.isEmpty()) {
+                offer(chunk);
+            }
+        }
+
+        // 따옴표로 감싼 필드(구분자/줄바꿈/"" 포함)를 지원하는 최소한의 CSV 레코드 파서
+        private List<String> readRecord(BufferedReader reader, char delimiter) throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"') {
+                            if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                                field.append('"');
+                                i++;
+                            } else {
+                                quoted = false;
+                            }
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"' && field.length() == 0) {
+                        quoted = true;
+                    } else if (c == delimiter) {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private void parseMarc() throws IOException {
+            long recordNumber = 0;
+            Chunk chunk = new Chunk(0);
+            byte[] record;
+            while (!cancelled && (record = readMarcRecord()) != null) {
+                recordNumber++;
+                if (recordNumber <= skipRecords) {
+                    continue;
+                }
+                List<String> fields;
+                try {
+                    fields = parseMarcRecord(record);
+                } catch (RuntimeException e) {
+                    chunk.rejects.add("레코드 " + recordNumber + ": MARC 형식 오류 (" + e.getMessage() + ")");
+                    fields = null;
+                }
+                if (fields != null) {
+                    accept(chunk, recordNumber, fields);
+                }
+                chunk.lastRecordNumber = recordNumber;
+                if (chunk.rows.size() + chunk.rejects.size() >= chunkSize) {
+                    offer(chunk);
+                    chunk = new Chunk(recordNumber);
+                }
+            }
+            if (!chunk.rows.isEmpty() || !chunk.rejects.isEmpty()) {
+                offer(chunk);
+            }
+        }
+
+        // ISO 2709: 앞 5바이트가 레코드 길이
+        private byte[] readMarcRecord() throws IOException {
+            byte[] lengthBytes = input.readNBytes(5);
+            if (lengthBytes.length == 0) {
+                return null;
+            }
+            String lengthText = new String(lengthBytes, StandardCharsets.US_ASCII).trim();
+            if (lengthBytes.length < 5 || lengthText.isEmpty()) {
+                return null;
+            }
+            int length = Integer.parseInt(lengthText);
+            byte[] record = new byte[length];
+            System.arraycopy(lengthBytes, 0, record, 0, 5);
+            int read = input.readNBytes(record, 5, length - 5);
+            if (read < length - 5) {
+                throw new IOException("MARC 레코드가 중간에 끝났습니다.");
+            }
+            return record;
+        }
+
+        private List<String> parseMarcRecord(byte[] record) {
+            int baseAddress = Integer.parseInt(new String(record, 12, 5, StandardCharsets.US_ASCII));
+            String title = null, author = null, isbn = null, publisher = null;
+            for (int entry = 24; entry + 12 <= baseAddress - 1; entry += 12) {
+                String tag = new String(record, entry, 3, StandardCharsets.US_ASCII);
+                int length = Integer.parseInt(new String(record, entry + 3, 4, StandardCharsets.US_ASCII));
+                int offset = Integer.parseInt(new String(record, entry + 7, 5, StandardCharsets.US_ASCII));
+                String data = new String(record, baseAddress + offset, length, StandardCharsets.UTF_8);
+                switch (tag) {
+                    case "245":
+                        title = title != null ? title : subfield(data, 'a');
+                        break;
+                    case "100":
+                        author = author != null ? author : subfield(data, 'a');
+                        break;
+                    case "020":
+                        isbn = isbn != null ? isbn : subfield(data, 'a');
+                        break;
+                    case "260":
+                    case "264":
+                        publisher = publisher != null ? publisher : subfield(data, 'b');
+                        break;
+                    default:
+                }
+            }
+            List<String> fields = new ArrayList<>();
+            fields.add(trimMarcPunctuation(title));
+            fields.add(trimMarcPunctuation(author));
+            fields.add(isbn == null ? null : isbn.split(" ")[0]);
+            fields.add(trimMarcPunctuation(publisher));
+            fields.add("1");
+            return fields;
+        }
+
+        private String subfield(String data, char code) {
+            // 하위 필드 구분자 0x1F, 필드 종료자 0x1E
+            for (String part : data.split("\u001F")) {
+                if (!part.isEmpty() && part.charAt(0) == code) {
+                    return part.substring(1).replace("\u001E", "");
+                }
+            }
+            return null;
+        }
+
+        private String trimMarcPunctuation(String value) {
+            if (value == null) {
+                return null;
+            }
+            return value.trim().replaceAll("[\\s/:;,.]+$", "");
+        }
+
+        private void accept(Chunk chunk, long recordNumber, List<String> fields) {
+            chunk.lastRecordNumber = recordNumber;
+            if (fields.size() < 5) {
+                chunk.rejects.add("레코드 " + recordNumber + ": 열이 부족합니다 (" + fields.size() + "개)");
+                return;
+            }
+            String title = fields.get(0) == null ? "" : fields.get(0).trim();
+            if (title.isEmpty()) {
+                chunk.rejects.add("레코드 " + recordNumber + ": 제목이 비어 있습니다");
+                return;
+            }
+            String stock = fields.get(4) == null ? "" : fields.get(4).trim();
+            try {
+                if (Integer.parseInt(stock) < 0) {
+                    chunk.rejects.add("레코드 " + recordNumber + ": 재고가 음수입니다 (" + stock + ")");
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                chunk.rejects.add("레코드 " + recordNumber + ": 재고가 숫자가 아닙니다 (" + stock + ")");
+                return;
+            }
+            chunk.rows.add(new String[]{title, trimToNull(fields.get(1)), trimToNull(fields.get(2)),
+                    trimToNull(fields.get(3)), stock});
+        }
+
+        private String trimToNull(String value) {
+            if (value == null) {
+                return null;
+            }
+            String trimmed = value.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+
+        private void offer(Chunk chunk) {
+            try {
+                while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled && chunk != Chunk.END) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 도서 저장소. Library 는 캐시/색인/오프라인 처리를 맡고, 실제로 읽고 쓰는 일은 이 인터페이스에 맡깁니다.
+ * 엔진마다 구현이 있습니다. (JdbcBookRepository, InMemoryStorage)
+ * 업무 규칙 위반은 LibraryException 으로, 저장소 오류는 SQLException 으로 알립니다.
+ */
+public interface BookRepository {
+    /**
+     * @return 새 도서 ID 가 채워진 도서
+     */
+    Book insert(String title, String author, String isbn, String publisher, int stock) throws SQLException;
+
+    /**
+     * @return 도서, 없으면 null
+     */
+    Book findById(int bookId) throws SQLException;
+
+    /**
+     * @return ISBN 이 같은 도서 하나, 없으면 null
+     */
+    Book findByIsbn(String isbn) throws SQLException;
+
+    /**
+     * @param bookIds 찾을 도서 ID
+     * @return 있는 도서만, 순서는 정해져 있지 않음
+     */
+    List<Book> findByIds(int[] bookIds) throws SQLException;
+
+    /**
+     * 제목에 keyword 가 들어 있는 도서를 찾습니다. (n-gram 색인이 없을 때 쓰는 느린 경로)
+     */
+    List<Book> findByTitleContaining(String keyword) throws SQLException;
+
+    /**
+     * 저자에 keyword 가 들어 있는 도서를 찾습니다. (n-gram 색인이 없을 때 쓰는 느린 경로)
+     */
+    List<Book> findByAuthorContaining(String keyword) throws SQLException;
+
+    /**
+     * 모든 도서를 도서 ID 순으로 지연 조회합니다. 스트림은 반드시 닫아야 합니다.
+     * @param pageSize 한 번에 가져올 행 수
+     * @param fetchSize 드라이버가 한 번에 받아 올 행 수 (JDBC 엔진만 사용)
+     */
+    Stream<Book> stream(int pageSize, int fetchSize);
+
+    /**
+     * @return 재고가 바뀐 도서, 도서가 없으면 null
+     */
+    Book updateStock(int bookId, int newStock) throws SQLException;
+
+    /**
+     * 반납하지 않은 대출이 없을 때만 도서를 지웁니다.
+     * @return APPLIED, NOT_FOUND, ACTIVE_LOANS 중 하나
+     */
+    Library.BulkOutcome delete(int bookId) throws SQLException;
+
+    /**
+     * 여러 도서의 재고를 한 번에 바꿉니다. 하나라도 저장소 오류가 나면 전부 되돌립니다.
+     * @param newStocks 도서 ID → 새 재고 수량
+     * @return 도서 ID 별 결과 (newStocks 의 순서대로)
+     * @throws LibraryException 도서 ID 나 재고 수량이 null 인 항목이 있는 경우 (NOT_ALLOWED, 아무 것도 바꾸지 않음)
+     */
+    Map<Integer, Library.BulkOutcome> updateStocks(Map<Integer, Integer> newStocks) throws SQLException;
+
+    /**
+     * 여러 도서를 한 번에 지웁니다. 대출 중인 도서는 지우지 않고 결과에 사유를 남깁니다.
+     * @param bookIds 지울 도서 ID (중복 없이)
+     * @return 도서 ID 별 결과 (bookIds 의 순서대로)
+     * @throws LibraryException 도서 ID 가 null 인 항목이 있는 경우 (NOT_ALLOWED, 아무 것도 지우지 않음)
+     */
+    Map<Integer, Library.BulkOutcome> deleteAll(Collection<Integer> bookIds) throws SQLException;
+}
@@ -0,0 +1,211 @@
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * HolidayPolicy 를 연도별 비트맵으로 미리 계산해 두고 영업일(휴일이 아닌 날) 계산을 상수 시간에 처리합니다.
+ * 각 연도는 366비트 비트맵(long 6개)과 워드 단위 누적 영업일 수를 가지며,
+ * 처음 필요할 때 한 번만 정책을 조회해 만들어집니다.
+ * 정책의 휴일이 바뀌면 해당 날짜의 비트만 다시 계산합니다.
+ */
+public class BusinessDayCalendar {
+    // 모든 날이 휴일인 정책에서 무한히 진행하지 않도록 하는 한계
+    private static final int MAX_YEAR_SPAN = 100;
+
+    private final HolidayPolicy holidayPolicy;
+    private final ConcurrentMap<Integer, YearCalendar> years = new ConcurrentHashMap<>();
+
+    public BusinessDayCalendar(HolidayPolicy holidayPolicy) {
+        this.holidayPolicy = holidayPolicy;
+        holidayPolicy.addChangeListener(this::refresh);
+    }
+
+    /**
+     * 특정 날짜가 영업일인지 확인합니다.
+     * @param date 확인할 날짜
+     * @return 휴일이 아니면 true
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return yearOf(date.getYear()).isBusinessDay(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * 시작일 다음 날부터 세어 영업일 n 일째 되는 날을 구합니다.
+     * @param startDate 시작 날짜 (세지 않음)
+     * @param businessDays 더할 영업일 수 (0 이상)
+     * @return 계산된 날짜, businessDays 가 0 이면 startDate
+     */
+    public LocalDate plusBusinessDays(LocalDate startDate, int businessDays) {
+        if (businessDays < 0) {
+            throw new IllegalArgumentException("businessDays 는 0 이상이어야 합니다: " + businessDays);
+        }
+        if (businessDays == 0) {
+            return startDate;
+        }
+        int year = startDate.getYear();
+        YearCalendar calendar = yearOf(year);
+        // 올해 1월 1일부터 startDate 까지의 영업일 수에 더해, 해당 순번의 영업일을 찾는다.
+        long target = (long) calendar.countThrough(startDate.getDayOfYear() - 1) + businessDays;
+        for (int span = 0; span <= MAX_YEAR_SPAN; span++) {
+            if (target <= calendar.total) {
+                return LocalDate.ofYearDay(year, calendar.select((int) target) + 1);
+            }
+            target -= calendar.total;
+            year++;
+            calendar = yearOf(year);
+        }
+        throw new IllegalStateException(startDate + " 이후 " + MAX_YEAR_SPAN + "년 안에 영업일을 찾을 수 없습니다.");
+    }
+
+    /**
+     * 특정 날짜 다음의 첫 영업일을 구합니다.
+     * @param date 기준 날짜 (포함하지 않음)
+     * @return 다음 영업일
+     */
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return plusBusinessDays(date, 1);
+    }
+
+    /**
+     * from 다음 날부터 to 까지(to 포함)의 영업일 수를 구합니다.
+     * plusBusinessDays(from, n) 과 짝을 이루며, to 가 from 이전이면 음수를 돌려줍니다.
+     * @param from 시작 날짜 (포함하지 않음)
+     * @param to 끝 날짜 (포함)
+     * @return 영업일 수
+     */
+    public long businessDaysBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return -businessDaysBetween(to, from);
+        }
+        long count = (long) yearOf(to.getYear()).countThrough(to.getDayOfYear() - 1)
+                - yearOf(from.getYear()).countThrough(from.getDayOfYear() - 1);
+        for (int year = from.getYear(); year < to.getYear(); year++) {
+            count += yearOf(year).total;
+        }
+        return count;
+    }
+
+    /**
+     * 기간 안의 휴일을 비트셋으로 돌려줍니다. i 번째 비트는 from 으로부터 i 일 뒤의 날짜입니다.
+     * @param from 시작 날짜 (포함)
+     * @param to 끝 날짜 (포함)
+     * @return 휴일 비트셋
+     */
+    public BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BitSet holidays = new BitSet(Math.max(days, 0));
+        int offset = 0;
+        LocalDate date = from;
+        while (offset < days) {
+            YearCalendar calendar = yearOf(date.getYear());
+            int day = date.getDayOfYear() - 1;
+            int end = Math.min(date.lengthOfYear(), day + days - offset);
+            for (; day < end; day++, offset++) {
+                if (!calendar.isBusinessDay(day)) {
+                    holidays.set(offset);
+                }
+            }
+            date = LocalDate.of(date.getYear() + 1, 1, 1);
+        }
+        return holidays;
+    }
+
+    /**
+     * 휴일 정책이 바뀐 날짜의 비트만 다시 계산합니다. 아직 만들어지지 않은 연도는 무시합니다.
+     * @param date 바뀐 날짜
+     */
+    public void refresh(LocalDate date) {
+        years.computeIfPresent(date.getYear(),
+                (year, calendar) -> calendar.withDay(date.getDayOfYear() - 1, !holidayPolicy.isHoliday(date)));
+    }
+
+    /**
+     * 미리 계산한 모든 연도를 버립니다. 정책이 통째로 바뀐 경우에 사용합니다.
+     */
+    public void invalidateAll() {
+        years.clear();
+    }
+
+    private YearCalendar yearOf(int year) {
+        return years.computeIfAbsent(year, this::buildYear);
+    }
+
+    private YearCalendar buildYear(int year) {
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        int length = firstDay.lengthOfYear();
+        // 정책의 일괄 조회로 한 해의 휴일을 받아 영업일 비트맵으로 뒤집는다.
+        long[] holidays = holidayPolicy.holidaysBetween(firstDay, firstDay.withDayOfYear(length)).toLongArray();
+        long[] bits = new long[YearCalendar.WORDS];
+        for (int w = 0; w < YearCalendar.WORDS; w++) {
+            bits[w] = ~(w < holidays.length ? holidays[w] : 0L);
+        }
+        // 한 해의 길이를 넘는 비트는 지운다.
+        bits[length >>> 6] &= (1L << (length & 63)) - 1;
+        for (int w = (length >>> 6) + 1; w < YearCalendar.WORDS; w++) {
+            bits[w] = 0L;
+        }
+        return new YearCalendar(bits);
+    }
+
+    /**
+     * 한 해의 영업일 비트맵. 변경 시에는 새 객체를 만들어 교체하므로 읽기 쪽은 잠금이 필요 없습니다.
+     */
+    static final class YearCalendar {
+        static final int WORDS = 6; // 366 비트
+
+        private final long[] bits;
+        // prefix[w] = 0..w-1 워드의 영업일 수
+        private final int[] prefix = new int[WORDS];
+        private final int total;
+
+        YearCalendar(long[] bits) {
+            this.bits = bits;
+            int sum = 0;
+            for (int w = 0; w < WORDS; w++) {
+                prefix[w] = sum;
+                sum += Long.bitCount(bits[w]);
+            }
+            this.total = sum;
+        }
+
+        boolean isBusinessDay(int day) {
+            return (bits[day >>> 6] & (1L << day)) != 0;
+        }
+
+        /**
+         * 0번째 날부터 day 번째 날까지(포함)의 영업일 수.
+         */
+        int countThrough(int day) {
+            int w = day >>> 6;
+            long mask = (day & 63) == 63 ? -1L : (1L << ((day & 63) + 1)) - 1;
+            return prefix[w] + Long.bitCount(bits[w] & mask);
+        }
+
+        /**
+         * k 번째(1부터) 영업일의 연중 인덱스.
+         */
+        int select(int k) {
+            int w = WORDS - 1;
+            while (prefix[w] >= k) {
+                w--;
+            }
+            long word = bits[w];
+            for (int skip = k - prefix[w] - 1; skip > 0; skip--) {
+                word &= word - 1;
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        YearCalendar withDay(int day, boolean businessDay) {
+            long[] copy = bits.clone();
+            if (businessDay) {
+                copy[day >>> 6] |= 1L << day;
+            } else {
+                copy[day >>> 6] &= ~(1L << day);
+            }
+            return new YearCalendar(copy);
+        }
+    }
+}
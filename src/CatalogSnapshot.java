@@ -0,0 +1,560 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 도서 목록 전체를 담은 메모리 매핑 스냅샷 파일입니다. 재시작 직후에도 도서 조회와 목록을 DB 없이 바로 돌려줍니다.
+ * <pre>
+ * 헤더 (64바이트): magic, version, 레코드 수, 문자열 힙 시작 위치, 워터마크(DB 시각, epoch ms)
+ * 레코드 (24바이트, book_id 오름차순): book_id, stock, title/author/isbn/publisher 의 힙 위치 (없으면 -1)
+ * 문자열 힙: (unsigned short 길이 + UTF-8 바이트) 의 연속
+ * </pre>
+ * 데이터는 힙 밖(매핑된 파일)에 있으므로 도서 수가 많아도 GC 대상이 늘지 않습니다.
+ * 스냅샷 이후의 변경은 작은 덧씌움(overlay) 맵에 둡니다.
+ * <ul>
+ *     <li>로컬 쓰기는 invalidate() 로 표시하며, 표시된 도서는 다시 읽을 때까지 스냅샷으로 답하지 않습니다.</li>
+ *     <li>catchUp() 은 books.updated_at 이 워터마크 이후인 행만 읽어 덧씌움에 반영합니다. (다른 인스턴스의 변경 포함)</li>
+ *     <li>write() 는 스냅샷과 덧씌움을 합쳐 새 파일을 쓰고 바꿔 끼운 뒤, 파일에 들어간 덧씌움 항목을 비웁니다.</li>
+ * </ul>
+ * <pre>
+ * ALTER TABLE books ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+ * CREATE INDEX idx_books_updated ON books (updated_at);
+ * </pre>
+ * 파일 하나는 2GB 까지 매핑할 수 있습니다.
+ */
+public class CatalogSnapshot implements AutoCloseable {
+    private static final int MAGIC = 0x4C424331; // "LBC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 24;
+    private static final int NO_STRING = -1;
+    // 커밋이 늦게 끝난 트랜잭션을 놓치지 않도록 워터마크보다 이만큼 앞에서부터 다시 읽는다. (다시 읽어도 결과는 같다)
+    private static final long CATCH_UP_SLACK_MILLIS = 5_000;
+    private static final int ID_LOOKUP_CHUNK = 500;
+
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP";
+    private static final String DELTA_SQL = "SELECT book_id, title, author, isbn, publisher, stock FROM books "
+            + "WHERE updated_at >= ? ORDER BY book_id";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM books";
+
+    private final Path path;
+    private final ConnectionSource connectionSource;
+    private final Supplier<Stream<Book>> databaseScan;
+    // 스냅샷 이후 바뀐 도서. 값이 DIRTY 이면 DB 를 다시 읽어야 하고, book 이 null 이면 삭제된 도서다.
+    private final Map<Integer, Entry> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private volatile Mapping mapping;
+    // 덧씌움을 반영한 DB 시각. 다음 catchUp 은 이 시각 이후의 변경만 읽는다.
+    private volatile long watermarkMillis;
+    // 행 수가 맞지 않아(다른 곳에서 삭제 등) 다음 write 때 DB 에서 다시 만들어야 하는지
+    private volatile boolean rebuildRequired;
+
+    /**
+     * 스냅샷 파일을 매핑합니다. 파일이 없거나 형식이 맞지 않으면 DB 를 한 번 훑어 백그라운드에서 새로 만듭니다.
+     * @param path 스냅샷 파일 경로
+     * @param connectionSource 커넥션 풀 (변경분 조회용)
+     * @param databaseScan 모든 도서를 도서 ID 순으로 DB 에서 읽는 스트림 (스냅샷을 처음 만들 때 사용)
+     * @param catchUpIntervalMillis 변경분을 가져오는 주기
+     * @param writeIntervalMillis 스냅샷 파일을 다시 쓰는 주기
+     */
+    public CatalogSnapshot(Path path, ConnectionSource connectionSource, Supplier<Stream<Book>> databaseScan,
+                           long catchUpIntervalMillis, long writeIntervalMillis) {
+        this.path = path;
+        this.connectionSource = connectionSource;
+        this.databaseScan = databaseScan;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            this.mapping = Mapping.open(path);
+        } catch (IOException e) {
+            System.err.println("도서 스냅샷 읽기 중 오류 발생: " + e.getMessage() + " (새로 만듭니다)");
+        }
+        if (mapping != null) {
+            watermarkMillis = mapping.watermarkMillis;
+            scheduler.execute(this::catchUpQuietly); // 꺼져 있던 동안의 변경을 바로 따라잡는다.
+        } else {
+            rebuildRequired = true;
+            scheduler.execute(this::writeQuietly);
+        }
+        scheduler.scheduleWithFixedDelay(this::catchUpQuietly, catchUpIntervalMillis, catchUpIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::writeQuietly, writeIntervalMillis, writeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 스냅샷 파일이 매핑되어 조회에 쓸 수 있는지
+     */
+    public boolean isReady() {
+        return mapping != null;
+    }
+
+    /**
+     * @return 스냅샷에 있는 도서 수 (덧씌움 제외)
+     */
+    public int mappedCount() {
+        Mapping current = mapping;
+        return current == null ? 0 : current.count;
+    }
+
+    /**
+     * 도서 ID 로 찾습니다.
+     * @return 도서, 스냅샷으로 답할 수 없거나(없음, 로컬 쓰기 뒤 아직 다시 읽지 않음, 삭제됨) 준비되지 않았으면 null
+     */
+    public Book find(int bookId) {
+        Entry entry = overlay.get(bookId);
+        if (entry != null) {
+            return entry.book; // DIRTY 와 삭제 표시는 book 이 null
+        }
+        Mapping current = mapping;
+        if (current == null) {
+            return null;
+        }
+        int index = current.indexOf(bookId);
+        return index < 0 ? null : current.read(index);
+    }
+
+    /**
+     * 로컬 쓰기 후 호출합니다. 이 도서는 다음 catchUp/resolveDirty 전까지 스냅샷으로 답하지 않습니다.
+     */
+    public void invalidate(int bookId) {
+        overlay.put(bookId, new Entry(null, true, invalidations.incrementAndGet()));
+    }
+
+    /**
+     * 도서 ID 순의 전체 도서 스트림. 로컬 쓰기로 표시된 도서는 스냅샷 값으로 나오므로,
+     * 최신 값이 필요하면 먼저 resolveDirty() 를 호출합니다.
+     */
+    public Stream<Book> stream() {
+        Mapping current = mapping;
+        int[] overlayIds = overlay.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        Iterator<Book> iterator = new MergeIterator(current, overlayIds, overlay);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    /**
+     * 로컬 쓰기로 표시된 도서만 DB 에서 다시 읽어 덧씌움에 반영합니다.
+     */
+    public void resolveDirty() throws SQLException {
+        List<Integer> dirty = new ArrayList<>();
+        overlay.forEach((bookId, entry) -> {
+            if (entry.dirty) {
+                dirty.add(bookId);
+            }
+        });
+        if (dirty.isEmpty()) {
+            return;
+        }
+        long since = invalidations.get();
+        try (Connection conn = connectionSource.getConnection()) {
+            for (int from = 0; from < dirty.size(); from += ID_LOOKUP_CHUNK) {
+                List<Integer> chunk = dirty.subList(from, Math.min(dirty.size(), from + ID_LOOKUP_CHUNK));
+                String sql = "SELECT book_id, title, author, isbn, publisher, stock FROM books WHERE book_id IN ("
+                        + "?,".repeat(chunk.size() - 1) + "?)";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    List<Integer> missing = new ArrayList<>(chunk);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Book book = mapBook(rs);
+                            missing.remove(Integer.valueOf(book.getBookId()));
+                            apply(book.getBookId(), book, since);
+                        }
+                    }
+                    for (int bookId : missing) {
+                        apply(bookId, null, since);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 워터마크 이후에 바뀐 도서(books.updated_at 기준)를 읽어 덧씌움에 반영합니다.
+     * @return 반영한 도서 수
+     */
+    public synchronized int catchUp() throws SQLException {
+        if (mapping == null) {
+            return 0;
+        }
+        long since = invalidations.get();
+        int applied = 0;
+        long now;
+        try (Connection conn = connectionSource.getConnection()) {
+            now = databaseNow(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(DELTA_SQL)) {
+                pstmt.setTimestamp(1, new Timestamp(watermarkMillis - CATCH_UP_SLACK_MILLIS));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Book book = mapBook(rs);
+                        apply(book.getBookId(), book, since);
+                        applied++;
+                    }
+                }
+            }
+            watermarkMillis = now;
+            resolveDirty();
+            // 다른 곳에서 지운 도서는 updated_at 으로 보이지 않으므로 행 수로 확인한다.
+            try (PreparedStatement pstmt = conn.prepareStatement(COUNT_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getLong(1) != liveCount()) {
+                    rebuildRequired = true;
+                }
+            }
+        }
+        return applied;
+    }
+
+    // 조회를 시작한 뒤 다시 표시된 도서는 방금 읽은 값이 오래된 것일 수 있으므로 덮어쓰지 않는다.
+    // 읽은 값에는 조회를 시작할 때의 표시 번호를 남겨, 다시 만든 파일이 이 값을 담고 있는지 판단한다.
+    private void apply(int bookId, Book book, long since) {
+        overlay.compute(bookId, (id, old) -> old != null && old.dirty && old.version > since
+                ? old
+                : new Entry(book, false, since));
+    }
+
+    private long liveCount() {
+        Mapping current = mapping;
+        long count = current == null ? 0 : current.count;
+        for (Map.Entry<Integer, Entry> e : overlay.entrySet()) {
+            boolean inSnapshot = current != null && current.indexOf(e.getKey()) >= 0;
+            Entry entry = e.getValue();
+            if (entry.dirty) {
+                continue; // 알 수 없으므로 스냅샷 상태로 센다.
+            }
+            if (inSnapshot && entry.book == null) {
+                count--;
+            } else if (!inSnapshot && entry.book != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 스냅샷과 덧씌움을 합쳐(행 수가 맞지 않으면 DB 를 다시 훑어) 새 파일을 쓰고 매핑을 바꿉니다.
+     */
+    public synchronized void write() throws IOException, SQLException {
+        if (rebuildRequired || mapping == null) {
+            rebuild();
+            return;
+        }
+        catchUp();
+        Map<Integer, Entry> written = new HashMap<>();
+        overlay.forEach((bookId, entry) -> {
+            if (!entry.dirty) {
+                written.put(bookId, entry);
+            }
+        });
+        int[] ids = written.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        Iterator<Book> merged = new MergeIterator(mapping, ids, written);
+        publish(merged, watermarkMillis);
+        // 파일에 들어간 값 그대로인 항목만 지운다. 그사이 바뀐 항목은 남겨 둔다.
+        written.forEach(overlay::remove);
+    }
+
+    private void rebuild() throws IOException, SQLException {
+        long now;
+        try (Connection conn = connectionSource.getConnection()) {
+            now = databaseNow(conn);
+        }
+        long since = invalidations.get();
+        try (Stream<Book> books = databaseScan.get()) {
+            publish(books.iterator(), now);
+        } catch (IllegalStateException e) {
+            throw new SQLException("도서 스냅샷 생성 중 DB 조회 실패: " + e.getMessage(), e);
+        }
+        watermarkMillis = now;
+        rebuildRequired = false;
+        // 훑기 전에 표시되었거나 읽은 항목은 새 파일에 들어 있다. 훑는 동안 생긴 것만 남긴다.
+        overlay.entrySet().removeIf(e -> e.getValue().version <= since);
+    }
+
+    private void publish(Iterator<Book> books, long watermark) throws IOException {
+        Path records = path.resolveSibling(path.getFileName() + ".tmp");
+        Path heap = path.resolveSibling(path.getFileName() + ".heap.tmp");
+        int count = 0;
+        try (FileChannel recordOut = FileChannel.open(records, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel heapOut = FileChannel.open(heap, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ)) {
+            ByteBuffer recordBuffer = ByteBuffer.allocateDirect(64 * 1024);
+            ByteBuffer heapBuffer = ByteBuffer.allocateDirect(64 * 1024);
+            long[] heapPosition = {0L};
+            recordOut.position(HEADER_SIZE);
+            while (books.hasNext()) {
+                Book book = books.next();
+                if (recordBuffer.remaining() < RECORD_SIZE) {
+                    drain(recordBuffer, recordOut);
+                }
+                recordBuffer.putInt(book.getBookId());
+                recordBuffer.putInt(book.getStock());
+                recordBuffer.putInt(putString(book.getTitle(), heapBuffer, heapOut, heapPosition));
+                recordBuffer.putInt(putString(book.getAuthor(), heapBuffer, heapOut, heapPosition));
+                recordBuffer.putInt(putString(book.getIsbn(), heapBuffer, heapOut, heapPosition));
+                recordBuffer.putInt(putString(book.getPublisher(), heapBuffer, heapOut, heapPosition));
+                count++;
+            }
+            drain(recordBuffer, recordOut);
+            drain(heapBuffer, heapOut);
+            long heapStart = HEADER_SIZE + (long) count * RECORD_SIZE;
+            if (heapStart + heapPosition[0] > Integer.MAX_VALUE) {
+                throw new IOException("도서 스냅샷이 2GB 를 넘습니다.");
+            }
+            heapOut.position(0);
+            long copied = 0;
+            while (copied < heapPosition[0]) {
+                copied += heapOut.transferTo(copied, heapPosition[0] - copied, recordOut);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0).putLong(heapStart).putLong(watermark);
+            header.flip();
+            recordOut.write(header, 0);
+            recordOut.force(true);
+        } finally {
+            Files.deleteIfExists(heap);
+        }
+        Files.move(records, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // 이전 매핑은 읽는 중인 스레드가 있을 수 있으므로 GC 가 풀도록 둔다.
+        mapping = Mapping.open(path);
+    }
+
+    private static int putString(String value, ByteBuffer heapBuffer, FileChannel heapOut, long[] heapPosition) throws IOException {
+        if (value == null) {
+            return NO_STRING;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        if (heapBuffer.remaining() < 2 + length) {
+            drain(heapBuffer, heapOut);
+        }
+        int offset = (int) heapPosition[0];
+        heapBuffer.putShort((short) length);
+        heapBuffer.put(bytes, 0, length);
+        heapPosition[0] += 2 + length;
+        return offset;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long databaseNow(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(NOW_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    private static Book mapBook(ResultSet rs) throws SQLException {
+        return new Book(rs.getInt("book_id"), rs.getString("title"), rs.getString("author"),
+                rs.getString("isbn"), rs.getString("publisher"), rs.getInt("stock"));
+    }
+
+    private void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (SQLException e) {
+            System.err.println("도서 스냅샷 갱신 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | SQLException e) {
+            System.err.println("도서 스냅샷 저장 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 백그라운드 갱신을 멈춥니다. 파일은 마지막으로 쓴 상태로 남습니다.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class Entry {
+        private final Book book;
+        private final boolean dirty;
+        private final long version;
+
+        private Entry(Book book, boolean dirty, long version) {
+            this.book = book;
+            this.dirty = dirty;
+            this.version = version;
+        }
+    }
+
+    /**
+     * 매핑된 스냅샷 파일 하나. 한번 만들면 바뀌지 않는다.
+     */
+    private static final class Mapping {
+        private final MappedByteBuffer buffer;
+        private final int count;
+        private final int heapStart;
+        private final long watermarkMillis;
+
+        private Mapping(MappedByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("도서 스냅샷 형식이 아닙니다.");
+            }
+            this.count = buffer.getInt(8);
+            long heap = buffer.getLong(16);
+            if (count < 0 || heap != HEADER_SIZE + (long) count * RECORD_SIZE || heap > buffer.capacity()) {
+                throw new IOException("도서 스냅샷 헤더가 손상되었습니다.");
+            }
+            this.heapStart = (int) heap;
+            this.watermarkMillis = buffer.getLong(24);
+        }
+
+        static Mapping open(Path path) throws IOException {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.order(ByteOrder.BIG_ENDIAN);
+                return new Mapping(buffer);
+            }
+        }
+
+        int bookIdAt(int index) {
+            return buffer.getInt(HEADER_SIZE + index * RECORD_SIZE);
+        }
+
+        int indexOf(int bookId) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midId = bookIdAt(mid);
+                if (midId < bookId) {
+                    low = mid + 1;
+                } else if (midId > bookId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        Book read(int index) {
+            int base = HEADER_SIZE + index * RECORD_SIZE;
+            return new Book(buffer.getInt(base), string(buffer.getInt(base + 8)), string(buffer.getInt(base + 12)),
+                    string(buffer.getInt(base + 16)), string(buffer.getInt(base + 20)), buffer.getInt(base + 4));
+        }
+
+        private String string(int offset) {
+            if (offset == NO_STRING) {
+                return null;
+            }
+            int position = heapStart + offset;
+            int length = buffer.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 스냅샷 레코드와 덧씌움(정렬된 ID)을 도서 ID 순으로 합친다. 같은 ID 는 덧씌움이 이긴다.
+     */
+    private static final class MergeIterator implements Iterator<Book> {
+        private final Mapping mapping;
+        private final int[] overlayIds;
+        private final Map<Integer, Entry> overlay;
+        private int mappedIndex;
+        private int overlayIndex;
+        private Book next;
+
+        private MergeIterator(Mapping mapping, int[] overlayIds, Map<Integer, Entry> overlay) {
+            this.mapping = mapping;
+            this.overlayIds = overlayIds;
+            this.overlay = overlay;
+            advance();
+        }
+
+        private void advance() {
+            int mappedCount = mapping == null ? 0 : mapping.count;
+            next = null;
+            while (next == null && (mappedIndex < mappedCount || overlayIndex < overlayIds.length)) {
+                int mappedId = mappedIndex < mappedCount ? mapping.bookIdAt(mappedIndex) : Integer.MAX_VALUE;
+                int overlayId = overlayIndex < overlayIds.length ? overlayIds[overlayIndex] : Integer.MAX_VALUE;
+                if (overlayIndex < overlayIds.length && overlayId <= mappedId) {
+                    Entry entry = overlay.get(overlayId);
+                    if (overlayId == mappedId) {
+                        mappedIndex++;
+                    }
+                    overlayIndex++;
+                    if (entry == null || entry.dirty) {
+                        // 그사이 파일에 반영되어 지워졌거나 다시 표시된 경우: 스냅샷 값이라도 있으면 그것을 쓴다.
+                        if (overlayId == mappedId) {
+                            next = mapping.read(mappedIndex - 1);
+                        }
+                    } else {
+                        next = entry.book;
+                    }
+                } else {
+                    next = mapping.read(mappedIndex++);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Book next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Book book = next;
+            advance();
+            return book;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 다른 정책을 연도별 비트맵(BusinessDayCalendar)으로 미리 계산해 둔 정책입니다.
+ * isHoliday 는 원래 정책이 몇 개로 조합되어 있든 비트 하나만 확인합니다.
+ * 원래 정책의 휴일이 바뀌면 해당 날짜의 비트만 다시 계산합니다.
+ */
+public class CompiledHolidayPolicy implements HolidayPolicy {
+    private final BusinessDayCalendar calendar;
+    private final List<Consumer<LocalDate>> changeListeners = new CopyOnWriteArrayList<>();
+
+    public CompiledHolidayPolicy(HolidayPolicy source) {
+        // 달력이 먼저 원래 정책의 변경을 반영한 뒤에 이 정책의 리스너가 통지받도록 순서를 지킨다.
+        this.calendar = new BusinessDayCalendar(source);
+        source.addChangeListener(date -> {
+            for (Consumer<LocalDate> listener : changeListeners) {
+                listener.accept(date);
+            }
+        });
+    }
+
+    @Override
+    public boolean isHoliday(LocalDate date) {
+        return !calendar.isBusinessDay(date);
+    }
+
+    @Override
+    public BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        return calendar.holidaysBetween(from, to);
+    }
+
+    @Override
+    public void addChangeListener(Consumer<LocalDate> listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public HolidayPolicy compile() {
+        return this;
+    }
+}
@@ -0,0 +1,58 @@
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * 두 HolidayPolicy 를 합집합/교집합/제외로 조합한 정책입니다.
+ * holidaysBetween 은 각 정책의 비트셋을 한 번씩 구해 비트 연산으로 합칩니다.
+ */
+public class CompositeHolidayPolicy implements HolidayPolicy {
+    public enum Operator {
+        UNION, INTERSECTION, EXCEPT
+    }
+
+    private final Operator operator;
+    private final HolidayPolicy left;
+    private final HolidayPolicy right;
+
+    public CompositeHolidayPolicy(Operator operator, HolidayPolicy left, HolidayPolicy right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public boolean isHoliday(LocalDate date) {
+        switch (operator) {
+            case UNION:
+                return left.isHoliday(date) || right.isHoliday(date);
+            case INTERSECTION:
+                return left.isHoliday(date) && right.isHoliday(date);
+            default:
+                return left.isHoliday(date) && !right.isHoliday(date);
+        }
+    }
+
+    @Override
+    public BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        BitSet holidays = left.holidaysBetween(from, to);
+        BitSet other = right.holidaysBetween(from, to);
+        switch (operator) {
+            case UNION:
+                holidays.or(other);
+                break;
+            case INTERSECTION:
+                holidays.and(other);
+                break;
+            default:
+                holidays.andNot(other);
+        }
+        return holidays;
+    }
+
+    @Override
+    public void addChangeListener(Consumer<LocalDate> listener) {
+        left.addChangeListener(listener);
+        right.addChangeListener(listener);
+    }
+}
@@ -0,0 +1,631 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Library 와 CustomHoliday 가 함께 사용하는 JDBC 커넥션 풀입니다.
+ * db.properties 의 db.url / db.username / db.password 로 연결하며,
+ * 아래 선택 키로 동작을 조정할 수 있습니다.
+ * <ul>
+ *     <li>db.pool.maxSize (기본 10) - 최대 물리 커넥션 수</li>
+ *     <li>db.pool.minIdle (기본 1) - 유휴 정리 후에도 남겨 둘 커넥션 수</li>
+ *     <li>db.pool.borrowTimeoutMs (기본 30000) - 커넥션 대기 최대 시간</li>
+ *     <li>db.pool.idleTimeoutMs (기본 600000) - 이 시간 이상 쉬고 있는 커넥션은 정리</li>
+ *     <li>db.pool.validationTimeoutSec (기본 2) - 대여 시 isValid 검사 제한 시간</li>
+ *     <li>db.pool.statementCacheSize (기본 50) - 커넥션별 PreparedStatement 캐시 크기</li>
+ *     <li>db.pool.warmUp (기본 minIdle) - warmUp() 이 미리 열어 둘 커넥션 수</li>
+ * </ul>
+ * getConnection() 이 돌려주는 커넥션은 close() 하면 풀로 반환되므로
+ * 기존처럼 try-with-resources 로 사용하면 됩니다.
+ * 커넥션에서 만든 Statement 와 ResultSet 은 실행 횟수와 읽은 행 수를 LibraryMetrics 에 기록합니다.
+ */
+public class ConnectionPool {
+    private static final Map<String, ConnectionPool> SHARED_POOLS = new HashMap<>();
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final int warmUpSize;
+
+    // 가상 스레드가 커넥션을 기다리는 동안 캐리어 스레드를 붙잡지 않도록 모니터 대신 ReentrantLock 을 쓴다.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private int totalCount;
+    private int activeCount;
+    private boolean closed;
+
+    // 풀 지표
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private final ScheduledExecutorService evictor;
+    private final LibraryMetrics metrics = LibraryMetrics.global();
+
+    private ConnectionPool(Properties dbProps) {
+        this.url = dbProps.getProperty("db.url");
+        this.username = dbProps.getProperty("db.username");
+        this.password = dbProps.getProperty("db.password");
+        this.maxSize = intProperty(dbProps, "db.pool.maxSize", 10);
+        this.minIdle = intProperty(dbProps, "db.pool.minIdle", 1);
+        this.borrowTimeoutMillis = intProperty(dbProps, "db.pool.borrowTimeoutMs", 30_000);
+        this.idleTimeoutMillis = intProperty(dbProps, "db.pool.idleTimeoutMs", 600_000);
+        this.validationTimeoutSeconds = intProperty(dbProps, "db.pool.validationTimeoutSec", 2);
+        this.statementCacheSize = intProperty(dbProps, "db.pool.statementCacheSize", 50);
+        this.warmUpSize = intProperty(dbProps, "db.pool.warmUp", minIdle);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 같은 접속 정보(url, username)에 대해 하나의 풀을 공유합니다.
+     * @param dbProps db.properties 에서 읽은 설정
+     * @return 공유 커넥션 풀
+     */
+    public static synchronized ConnectionPool shared(Properties dbProps) {
+        String key = dbProps.getProperty("db.url") + "|" + dbProps.getProperty("db.username");
+        ConnectionPool pool = SHARED_POOLS.get(key);
+        if (pool == null || pool.isClosed()) {
+            pool = new ConnectionPool(dbProps);
+            SHARED_POOLS.put(key, pool);
+        }
+        return pool;
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("잘못된 설정 값 " + key + "=" + value + ", 기본값 " + defaultValue + " 을(를) 사용합니다.");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 풀에서 커넥션을 빌립니다. 사용이 끝나면 반드시 close() 해야 풀로 반환됩니다.
+     * @return 풀 커넥션
+     * @throws SQLException 제한 시간 내에 커넥션을 얻지 못했거나 연결에 실패한 경우
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new SQLException("커넥션 풀이 종료되었습니다.");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                        activeCount++;
+                        break;
+                    }
+                    if (totalCount < maxSize) {
+                        totalCount++;
+                        activeCount++;
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        recordWait(start);
+                        throw new SQLException("커넥션 풀에서 " + borrowTimeoutMillis + "ms 안에 커넥션을 얻지 못했습니다.");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("커넥션 대기 중 인터럽트되었습니다.", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, username, password));
+                    createdCount.incrementAndGet();
+                    metrics.connectionOpened();
+                } catch (SQLException e) {
+                    lock.lock();
+                    try {
+                        totalCount--;
+                        activeCount--;
+                        available.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                // 검증 실패한 커넥션은 버리고 다시 시도
+                validationFailures.incrementAndGet();
+                discard(candidate);
+                continue;
+            }
+
+            recordWait(start);
+            borrowCount.incrementAndGet();
+            metrics.connectionBorrowed();
+            return candidate.borrow();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordWait(long startNanos) {
+        long waited = System.nanoTime() - startNanos;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    private void release(PooledConnection pooled, boolean broken) {
+        if (broken) {
+            discard(pooled);
+            return;
+        }
+        lock.lock();
+        try {
+            activeCount--;
+            if (closed) {
+                totalCount--;
+            } else {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                available.signalAll();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        pooled.closePhysical();
+    }
+
+    private void discard(PooledConnection pooled) {
+        lock.lock();
+        try {
+            activeCount--;
+            totalCount--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        pooled.closePhysical();
+    }
+
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        ArrayDeque<PooledConnection> evicted = new ArrayDeque<>();
+        lock.lock();
+        try {
+            // 가장 오래 쉬고 있던 커넥션은 덱의 뒤쪽에 있다.
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt < idleTimeoutMillis) {
+                    break;
+                }
+                it.remove();
+                totalCount--;
+                evicted.add(pooled);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : evicted) {
+            evictedCount.incrementAndGet();
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * db.pool.warmUp 개수만큼 커넥션을 미리 열어 유휴 목록에 넣어 둡니다.
+     * 첫 요청이 물리 연결 수립을 기다리지 않도록 시작 직후 백그라운드에서 호출합니다.
+     * @return 예열 후 풀이 가진 물리 커넥션 수
+     * @throws SQLException 연결에 실패한 경우
+     */
+    public int warmUp() throws SQLException {
+        int target = Math.min(warmUpSize, maxSize);
+        ArrayDeque<Connection> borrowed = new ArrayDeque<>();
+        try {
+            // 유휴 커넥션을 먼저 빌려 가므로 target 개를 한꺼번에 빌렸다 돌려주면 부족한 만큼만 새로 연다.
+            while (borrowed.size() < target) {
+                borrowed.push(getConnection());
+            }
+        } finally {
+            for (Connection conn : borrowed) {
+                conn.close();
+            }
+        }
+        return getTotalCount();
+    }
+
+    /**
+     * 풀을 닫습니다. 유휴 커넥션은 즉시 닫히고, 사용 중인 커넥션은 반환될 때 닫힙니다.
+     */
+    public void close() {
+        ArrayDeque<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayDeque<>(idle);
+            totalCount -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- 풀 지표 ---
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return activeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    public long getValidationFailureCount() {
+        return validationFailures.get();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * 현재 풀 상태를 한 줄 문자열로 돌려줍니다.
+     */
+    public String metricsSummary() {
+        return String.format("active=%d, idle=%d, total=%d/%d, borrows=%d, avgWait=%.2fms, maxWait=%dms, "
+                        + "created=%d, evicted=%d, validationFailures=%d, stmtCache(hit=%d, miss=%d)",
+                getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getCreatedCount(), getEvictedCount(),
+                getValidationFailureCount(), getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    /**
+     * 물리 커넥션 하나와 그 커넥션에 딸린 PreparedStatement 캐시를 보관합니다.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<String, CachedStatement> statementCache;
+        private long lastReturnedAt = System.currentTimeMillis();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > statementCacheSize && !eldest.getValue().inUse) {
+                        eldest.getValue().closePhysical();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Connection borrow() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConnectionHandler(this));
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            if (statementCacheSize <= 0) {
+                return (PreparedStatement) countingStatement(PreparedStatement.class, physical.prepareStatement(sql));
+            }
+            CachedStatement cached = statementCache.get(sql);
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+            } else if (cached == null) {
+                statementCacheMisses.incrementAndGet();
+                cached = new CachedStatement(physical.prepareStatement(sql));
+                statementCache.put(sql, cached);
+            } else {
+                // 같은 SQL 이 동시에 두 번 열린 경우는 캐시하지 않는다.
+                statementCacheMisses.incrementAndGet();
+                return (PreparedStatement) countingStatement(PreparedStatement.class, physical.prepareStatement(sql));
+            }
+            return cached.checkOut();
+        }
+
+        /**
+         * 풀로 돌아가기 전에 트랜잭션 상태를 기본값으로 되돌립니다.
+         */
+        private void reset() throws SQLException {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly()) {
+                physical.setReadOnly(false);
+            }
+            physical.clearWarnings();
+            for (CachedStatement cached : statementCache.values()) {
+                cached.checkIn();
+            }
+        }
+
+        private void closePhysical() {
+            for (CachedStatement cached : statementCache.values()) {
+                cached.closePhysical();
+            }
+            statementCache.clear();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("커넥션 종료 중 오류 발생: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 풀 커넥션의 close() 를 가로채 풀로 반환하고, prepareStatement(String) 은 캐시를 거치게 합니다.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private ConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                if (!returned) {
+                    returned = true;
+                    boolean broken = false;
+                    try {
+                        pooled.reset();
+                    } catch (SQLException e) {
+                        broken = true;
+                    }
+                    release(pooled, broken);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return returned || pooled.physical.isClosed();
+            }
+            if (returned) {
+                throw new SQLException("이미 풀로 반환된 커넥션입니다.");
+            }
+            if (name.equals("unwrap") && args[0] == Connection.class) {
+                return proxy;
+            }
+            if (name.equals("prepareStatement") && args != null && args.length == 1) {
+                return pooled.prepare((String) args[0]);
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                // createStatement, prepareStatement(sql, 옵션) 등 캐시하지 않는 문장도 지표는 센다.
+                return countingStatement(method.getReturnType(), result);
+            }
+            return result;
+        }
+    }
+
+    private Object countingStatement(Class<?> type, Object statement) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> invokeCounting(statement, method, args));
+    }
+
+    /**
+     * Statement 의 메서드를 호출하면서 execute* 호출 수를 세고, 돌려주는 ResultSet 은 CountingResultSet 으로 감싸 행 수를 셉니다.
+     */
+    private static Object invokeCounting(Object statement, Method method, Object[] args) throws Throwable {
+        Object result;
+        try {
+            result = method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (method.getName().startsWith("execute")) {
+            LibraryMetrics.global().statementExecuted();
+        }
+        if (result instanceof ResultSet) {
+            return new CountingResultSet((ResultSet) result, LibraryMetrics.global());
+        }
+        return result;
+    }
+
+    /**
+     * 캐시된 PreparedStatement. 빌려 줄 때마다 새 프록시를 돌려주고, 프록시를 close() 하면 물리적으로 닫지 않고
+     * 파라미터와 fetchSize/maxRows/queryTimeout 을 처음 값으로 되돌립니다. 닫힌 프록시는 더 이상 쓸 수 없습니다.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private boolean inUse;
+        // 빌려 줄 때와 돌려받을 때마다 올린다. 프록시는 자기가 받은 값과 다르면 닫힌 것으로 본다.
+        private int generation;
+
+        private CachedStatement(PreparedStatement physical) throws SQLException {
+            this.physical = physical;
+            this.defaultFetchSize = physical.getFetchSize();
+            this.defaultMaxRows = physical.getMaxRows();
+            this.defaultQueryTimeout = physical.getQueryTimeout();
+        }
+
+        private PreparedStatement checkOut() {
+            inUse = true;
+            int checkout = ++generation;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("close")) {
+                            if (checkout == generation) {
+                                checkIn();
+                            }
+                            return null;
+                        }
+                        if (name.equals("isClosed")) {
+                            return checkout != generation || physical.isClosed();
+                        }
+                        if (checkout != generation) {
+                            throw new SQLException("이미 닫힌 PreparedStatement 입니다.");
+                        }
+                        return invokeCounting(physical, method, args);
+                    });
+        }
+
+        /**
+         * 빌려 준 프록시를 닫고, 다음에 빌려 줄 수 있도록 물리 문장을 처음 상태로 되돌립니다.
+         * 되돌리다 실패하면 inUse 를 그대로 두어 다시 빌려 주지 않습니다.
+         */
+        private void checkIn() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            generation++;
+            ResultSet open = physical.getResultSet();
+            if (open != null) {
+                open.close();
+            }
+            physical.clearParameters();
+            physical.clearBatch();
+            physical.clearWarnings();
+            // 드라이버에 따라 fetchSize 가 maxRows 를 넘지 못하므로 maxRows 를 먼저 되돌린다.
+            physical.setMaxRows(defaultMaxRows);
+            physical.setFetchSize(defaultFetchSize);
+            physical.setQueryTimeout(defaultQueryTimeout);
+            inUse = false;
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // 이미 닫힌 경우 무시
+            }
+        }
+    }
+}
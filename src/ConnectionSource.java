@@ -0,0 +1,9 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 커넥션을 빌려 오는 방법. 보조 클래스들이 Library 의 커넥션 풀을 그대로 쓰도록 넘겨받는다.
+ */
+public interface ConnectionSource {
+    Connection getConnection() throws SQLException;
+}
@@ -1,39 +1,331 @@
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+/**
+ * DB 의 holidays 테이블을 메모리에 올려 두고 사용하는 휴일 정책입니다.
+ * 여러 인스턴스가 같은 DB 를 쓸 때 다른 인스턴스의 변경도 반영되도록,
+ * 휴일 추가/삭제는 holiday_changes 변경 로그에 버전(change_id)과 함께 기록되고
+ * 백그라운드 갱신 스레드가 마지막으로 본 버전 이후의 변경만 가져와 반영합니다.
+ * <pre>
+ * CREATE TABLE holiday_changes (
+ *     change_id    BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *     holiday_date DATE NOT NULL,
+ *     change_type  CHAR(1) NOT NULL,  -- 'A': 추가, 'R': 삭제
+ *     changed_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+ * );
+ * CREATE TABLE holiday_version (     -- 휴일 쓰기를 한 줄로 세우는 잠금 행 (change_id 가 커밋 순서대로 보이게)
+ *     version_id INT PRIMARY KEY,
+ *     version    BIGINT NOT NULL
+ * );
+ * </pre>
+ * 갱신 주기는 db.properties 의 holiday.refreshIntervalMs (기본 30000, 0 이면 사용 안 함) 로 정합니다.
+ * 휴일과 변경 로그는 HolidayRepository 를 거쳐 읽고 쓰므로 library.storage=memory 에서도 같은 방식으로 동작합니다.
+ * <p>
+ * 휴일은 생성할 때 읽지 않고 연도 단위로 처음 필요할 때 읽습니다. 처음에는 올해 ±1년을 한 번에 읽고,
+ * 그 밖의 연도가 조회되면 지금까지 읽은 범위에서 그 해까지를 한 번에 읽어, 읽은 연도가 늘 이어진 범위가 되게 합니다.
+ * 그래서 조회할 때는 범위를 담은 long 하나만 보면 됩니다. 아직 읽지 않은 연도의 변경 로그는 무시해도 되는데,
+ * 그 연도를 읽을 때 테이블의 현재 상태를 가져오기 때문입니다.
+ * <p>
+ * 연도 읽기가 실패하면 그동안 그 해는 휴일이 없는 것처럼 보이고, 그 사이 만들어진 달력(BusinessDayCalendar)은
+ * 휴일 없는 연도를 캐시해 둡니다. 실패한 연도는 조회 스레드에서 다시 읽지 않고 백그라운드 스레드가
+ * 간격을 늘려 가며(최대 MAX_RETRY_DELAY_MILLIS) 다시 읽고, 읽는 데 성공하면 그 해의 휴일 날짜를
+ * 변경 리스너에 통지해 달력이 바로잡히게 합니다.
+ */
 public class CustomHoliday implements HolidayPolicy {
-    private List<LocalDate> customHolidays;
-    private Properties dbProps;
+    // 처음 읽을 때 함께 읽는 올해 앞뒤 연도 수
+    private static final int INITIAL_YEAR_WINDOW = 1;
+    // 실패한 연도를 다시 읽는 간격 (실패할 때마다 두 배, 최대 MAX_RETRY_DELAY_MILLIS)
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 10 * 60 * 1000;
+    // 아직 아무 연도도 읽지 않았을 때의 범위 (시작 > 끝)
+    private static final long NO_YEARS = yearRange(1, 0);
+
+    // 휴일을 epoch day 로 정렬해 둔 불변 배열. 변경 시 새 배열로 통째로 교체한다. (읽은 연도의 휴일만 담는다)
+    private final AtomicReference<int[]> customHolidays = new AtomicReference<>(new int[0]);
+    // 읽기를 시도한 연도 범위 (시작 연도는 상위 32비트, 끝 연도는 하위 32비트). 조회마다 이 값 하나만 읽는다.
+    private volatile long attemptedYears = NO_YEARS;
+    // 그중 읽기에 실패해 아직 휴일 없이 보이는 연도 범위들. loadLock 을 잡고 새 배열로 교체한다.
+    // 나중에 읽으면 그 해의 휴일을 리스너에 통지한다.
+    private volatile long[] failedYears = new long[0];
+    // 연도 읽기와 변경 로그 반영이 엇갈리지 않게 한다. 가상 스레드가 기다려도 캐리어를 붙잡지 않도록 ReentrantLock 을 쓴다.
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final HolidayRepository repository;
+    private final List<Consumer<LocalDate>> changeListeners = new CopyOnWriteArrayList<>();
+    private final LibraryMetrics metrics = LibraryMetrics.global();
+
+    // 마지막으로 반영한 holiday_changes.change_id (-1 이면 아직 아무 연도도 읽지 않음)
+    private volatile long lastSeenVersion = -1;
+    private ScheduledExecutorService refresher;
+    private boolean closed;
+    // 실패한 연도 재시도 (loadLock 을 잡고 바꾼다)
+    private boolean retryScheduled;
+    private long retryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
 
     public CustomHoliday(Properties dbProps) {
-        this.dbProps = dbProps;
-        this.customHolidays = loadHolidaysFromDatabase();
+        this(LibraryStorage.shared(dbProps).holidays(),
+                Long.parseLong(dbProps.getProperty("holiday.refreshIntervalMs", "30000").trim()));
+    }
+
+    /**
+     * @param repository 휴일 저장소
+     * @param refreshIntervalMillis 변경 로그 갱신 주기 (0 이면 사용 안 함)
+     */
+    public CustomHoliday(HolidayRepository repository, long refreshIntervalMillis) {
+        this.repository = repository;
+        if (refreshIntervalMillis > 0) {
+            startRefresher(refreshIntervalMillis);
+        }
+    }
+
+    private static long yearRange(int fromYear, int toYear) {
+        return ((long) fromYear << 32) | (toYear & 0xFFFFFFFFL);
+    }
+
+    private static int fromYear(long range) {
+        return (int) (range >> 32);
     }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbProps.getProperty("db.url"),
-                dbProps.getProperty("db.username"),
-                dbProps.getProperty("db.password"));
+    private static int toYear(long range) {
+        return (int) range;
     }
 
-    private List<LocalDate> loadHolidaysFromDatabase() {
-        List<LocalDate> holidays = new ArrayList<>();
-        String sql = "SELECT holiday_date FROM holidays";
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    private static boolean contains(long range, int year) {
+        return year >= fromYear(range) && year <= toYear(range);
+    }
 
-            while (rs.next()) {
-                holidays.add(rs.getDate("holiday_date").toLocalDate());
+    // 읽기를 시도했고 실패하지 않은 연도인지
+    private boolean isLoaded(int year) {
+        if (!contains(attemptedYears, year)) {
+            return false;
+        }
+        for (long failed : failedYears) {
+            if (contains(failed, year)) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    // 해당 연도를 아직 읽지 않았다면 읽는다. 처음 읽을 때는 올해 앞뒤 연도를 함께 읽고,
+    // 그 뒤로는 읽은 범위에서 그 해까지 이어서 읽는다. 실패한 연도는 여기서 다시 읽지 않는다. (retryFailedYears)
+    private void ensureYear(int year) {
+        if (contains(attemptedYears, year)) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            long attempted = attemptedYears;
+            if (contains(attempted, year)) {
+                return;
+            }
+            if (attempted == NO_YEARS) {
+                int current = LocalDate.now().getYear();
+                int from = Math.min(year, current - INITIAL_YEAR_WINDOW);
+                int to = Math.max(year, current + INITIAL_YEAR_WINDOW);
+                loadYears(from, to, new ArrayList<>());
+                attemptedYears = yearRange(from, to);
+            } else if (year < fromYear(attempted)) {
+                loadYears(year, fromYear(attempted) - 1, new ArrayList<>());
+                attemptedYears = yearRange(year, toYear(attempted));
+            } else {
+                loadYears(toYear(attempted) + 1, year, new ArrayList<>());
+                attemptedYears = yearRange(fromYear(attempted), year);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * 연도 범위의 휴일을 아직 읽지 않았다면 미리 읽어 둡니다. (시작 시 백그라운드 예열용)
+     * @param fromYear 시작 연도 (포함)
+     * @param toYear 끝 연도 (포함)
+     */
+    public void preloadYears(int fromYear, int toYear) {
+        for (int year = fromYear; year <= toYear; year++) {
+            ensureYear(year);
+        }
+    }
+
+    /**
+     * @return DB 에서 휴일을 읽어 온 연도 수
+     */
+    public int loadedYearCount() {
+        long attempted = attemptedYears;
+        int count = Math.max(toYear(attempted) - fromYear(attempted) + 1, 0);
+        for (long failed : failedYears) {
+            count -= toYear(failed) - fromYear(failed) + 1;
+        }
+        return count;
+    }
+
+    // loadLock 을 잡은 채로 호출한다. 처음 읽는 범위이거나 전에 실패한 범위 하나를 통째로 받는다.
+    // 실패하면 실패한 범위로 남기고 백그라운드 재시도를 예약한다.
+    // 전에 실패했던 범위를 읽었다면 그 범위의 휴일 날짜를 recovered 에 담는다. (잠금을 놓은 뒤 통지할 것)
+    @SuppressWarnings("try")
+    private boolean loadYears(int fromYear, int toYear, List<LocalDate> recovered) {
+        int[][] holidays = {new int[16]};
+        int[] size = new int[1];
+        long version;
+        try (LibraryMetrics.Timer timer = metrics.time("loadHolidayYears")) {
+            version = repository.loadBetween(LocalDate.of(fromYear, 1, 1), LocalDate.of(toYear, 12, 31), key -> {
+                if (size[0] == holidays[0].length) {
+                    holidays[0] = Arrays.copyOf(holidays[0], size[0] * 2);
+                }
+                holidays[0][size[0]++] = key;
+            });
         } catch (SQLException e) {
             System.err.println("데이터베이스에서 휴일 정보를 로드하는 중 오류 발생: " + e.getMessage());
-            // 에러를 던지거나 다른 방식으로 처리할 수 있습니다.
+            long range = yearRange(fromYear, toYear);
+            long[] failed = failedYears;
+            if (!Arrays.stream(failed).anyMatch(r -> r == range)) {
+                long[] next = Arrays.copyOf(failed, failed.length + 1);
+                next[failed.length] = range;
+                failedYears = next;
+            }
+            scheduleRetry();
+            return false;
+        }
+        int[] keys = sortedDistinct(holidays[0], size[0]);
+        long range = yearRange(fromYear, toYear);
+        long[] failed = failedYears;
+        if (Arrays.stream(failed).anyMatch(r -> r == range)) {
+            for (int key : keys) {
+                recovered.add(LocalDate.ofEpochDay(key));
+            }
+            failedYears = Arrays.stream(failed).filter(r -> r != range).toArray();
+        }
+        mergeIntoCache(keys);
+        // 처음 읽은 버전부터 변경 로그를 따라간다. 이후 읽은 연도의 버전이 더 크면
+        // 그 사이의 변경은 이미 반영된 상태로 읽었으므로 다시 적용해도 결과가 같다.
+        if (lastSeenVersion < 0) {
+            lastSeenVersion = version;
+        }
+        return true;
+    }
+
+    // loadLock 을 잡은 채로 호출한다. 이미 예약되어 있으면 그 재시도에 맡긴다.
+    private void scheduleRetry() {
+        if (retryScheduled) {
+            return;
+        }
+        ScheduledExecutorService executor = executor();
+        if (executor == null) {
+            return; // 닫혔다.
+        }
+        retryScheduled = true;
+        executor.schedule(this::retryFailedYears, retryDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 실패했던 연도 범위를 다시 읽는다. 또 실패하면 간격을 두 배로 늘려 다시 예약한다.
+    private void retryFailedYears() {
+        List<LocalDate> recovered = new ArrayList<>();
+        loadLock.lock();
+        try {
+            // 읽는 동안에는 retryScheduled 를 그대로 두어 loadYears 가 따로 예약하지 않게 한다.
+            boolean allLoaded = true;
+            for (long range : failedYears) {
+                allLoaded &= loadYears(fromYear(range), toYear(range), recovered);
+            }
+            retryScheduled = false;
+            if (allLoaded) {
+                retryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
+            } else {
+                retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+                scheduleRetry();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+        recovered.forEach(this::fireHolidayChanged);
+    }
+
+    // 새로 읽은 연도의 휴일을 캐시에 합친다.
+    private void mergeIntoCache(int[] keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        while (true) {
+            int[] current = customHolidays.get();
+            int[] merged = Arrays.copyOf(current, current.length + keys.length);
+            System.arraycopy(keys, 0, merged, current.length, keys.length);
+            int[] next = sortedDistinct(merged, merged.length);
+            if (customHolidays.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static int toKey(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    private static int[] sortedDistinct(int[] keys, int size) {
+        int[] sorted = Arrays.copyOf(keys, size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+
+    // 로컬 캐시에 휴일 추가 (CAS 로 새 스냅샷을 게시하므로 읽는 쪽은 잠금 없이 일관된 배열을 본다)
+    private boolean addToCache(LocalDate date) {
+        if (!isLoaded(date.getYear())) {
+            return false; // 그 연도를 읽을 때 반영된다.
+        }
+        int key = toKey(date);
+        while (true) {
+            int[] current = customHolidays.get();
+            int index = Arrays.binarySearch(current, key);
+            if (index >= 0) {
+                return false;
+            }
+            int insertAt = -index - 1;
+            int[] next = new int[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insertAt);
+            next[insertAt] = key;
+            System.arraycopy(current, insertAt, next, insertAt + 1, current.length - insertAt);
+            if (customHolidays.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // 로컬 캐시에서 휴일 삭제
+    private boolean removeFromCache(LocalDate date) {
+        if (!isLoaded(date.getYear())) {
+            return false;
+        }
+        int key = toKey(date);
+        while (true) {
+            int[] current = customHolidays.get();
+            int index = Arrays.binarySearch(current, key);
+            if (index < 0) {
+                return false;
+            }
+            int[] next = new int[current.length - 1];
+            System.arraycopy(current, 0, next, 0, index);
+            System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+            if (customHolidays.compareAndSet(current, next)) {
+                return true;
+            }
         }
-        return holidays;
     }
 
     /**
@@ -42,42 +334,159 @@ public class CustomHoliday implements HolidayPolicy {
      * @param description 휴일 설명
      */
     public void addHoliday(LocalDate date, String description) {
-        String sql = "INSERT INTO holidays (holiday_date, description) VALUES (?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDate(1, Date.valueOf(date));
-            pstmt.setString(2, description);
-            pstmt.executeUpdate();
-            this.customHolidays.add(date); // 로컬 캐시 업데이트
+        try {
+            insertHoliday(date, description);
             System.out.println("휴일 '" + description + "' (" + date + ") 이(가) 추가되었습니다.");
         } catch (SQLException e) {
             System.err.println("휴일 추가 중 오류 발생: " + e.getMessage());
         }
     }
 
+    /**
+     * 새로운 휴일을 추가하고 변경 로그에 남깁니다.
+     * @param date 휴일 날짜
+     * @param description 휴일 설명
+     * @throws SQLException DB 오류 (이미 있는 날짜 포함)
+     */
+    @SuppressWarnings("try")
+    public void insertHoliday(LocalDate date, String description) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("addHoliday")) {
+            repository.insert(date, description);
+            if (addToCache(date)) { // 로컬 캐시 업데이트
+                fireHolidayChanged(date);
+            }
+        }
+    }
+
     /**
      * 데이터베이스에서 휴일을 삭제합니다.
      * @param date 삭제할 휴일 날짜
      */
     public void removeHoliday(LocalDate date) {
-        String sql = "DELETE FROM holidays WHERE holiday_date = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDate(1, Date.valueOf(date));
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                this.customHolidays.remove(date); // 로컬 캐시 업데이트
-                System.out.println("휴일 (" + date + ") 이(가) 삭제되었습니다.");
-            } else {
-                System.out.println("해당 날짜의 휴일이 존재하지 않습니다.");
-            }
+        try {
+            deleteHoliday(date);
+            System.out.println("휴일 (" + date + ") 이(가) 삭제되었습니다.");
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
         } catch (SQLException e) {
             System.err.println("휴일 삭제 중 오류 발생: " + e.getMessage());
         }
     }
 
+    /**
+     * 휴일을 삭제하고 변경 로그에 남깁니다.
+     * @param date 삭제할 휴일 날짜
+     * @throws LibraryException 해당 날짜의 휴일이 없는 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public void deleteHoliday(LocalDate date) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("removeHoliday")) {
+            if (!repository.delete(date)) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "해당 날짜의 휴일이 존재하지 않습니다.");
+            }
+            if (removeFromCache(date)) { // 로컬 캐시 업데이트
+                fireHolidayChanged(date);
+            }
+        }
+    }
+
+    /**
+     * 마지막으로 본 버전 이후의 변경만 가져와 메모리의 휴일 목록에 반영합니다.
+     * 자기 자신이 기록한 변경도 다시 읽히지만, 캐시 반영은 멱등이므로 문제가 없습니다.
+     * 읽기에 실패했던 연도는 여기서 다시 읽지 않습니다. (별도 재시도가 간격을 늘려 가며 읽음)
+     * @return 반영한 변경 로그 건수
+     */
+    public int refreshChanges() {
+        int[] applied = new int[1];
+        List<LocalDate> changedDates = new ArrayList<>();
+        loadLock.lock();
+        try {
+            if (lastSeenVersion < 0) {
+                return 0; // 아직 아무 연도도 읽지 않았다.
+            }
+            try {
+                repository.changesSince(lastSeenVersion, (changeId, date, added) -> {
+                    boolean changed = added ? addToCache(date) : removeFromCache(date);
+                    if (changed) {
+                        changedDates.add(date);
+                    }
+                    lastSeenVersion = changeId;
+                    applied[0]++;
+                });
+            } catch (SQLException e) {
+                System.err.println("휴일 변경 내역 갱신 중 오류 발생: " + e.getMessage());
+            }
+        } finally {
+            loadLock.unlock();
+        }
+        // 리스너(달력)는 연도를 만들면서 이 정책을 다시 조회하므로 잠금을 놓은 뒤에 통지한다.
+        changedDates.forEach(this::fireHolidayChanged);
+        return applied[0];
+    }
+
+    /**
+     * @return 마지막으로 반영한 휴일 변경 로그 버전
+     */
+    public long getLastSeenVersion() {
+        return lastSeenVersion;
+    }
+
+    private void startRefresher(long intervalMillis) {
+        executor().scheduleWithFixedDelay(this::refreshChanges, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 변경 로그 갱신과 실패한 연도 재시도가 함께 쓰는 스레드. 처음 필요할 때 만든다. 닫혔으면 null.
+    private synchronized ScheduledExecutorService executor() {
+        if (refresher == null && !closed) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "holiday-refresher");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return refresher;
+    }
+
+    /**
+     * 백그라운드 갱신과 재시도를 멈춥니다.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    @Override
+    public void addChangeListener(Consumer<LocalDate> listener) {
+        changeListeners.add(listener);
+    }
+
+    private void fireHolidayChanged(LocalDate date) {
+        for (Consumer<LocalDate> listener : changeListeners) {
+            listener.accept(date);
+        }
+    }
+
     @Override
     public boolean isHoliday(LocalDate date) {
-        return customHolidays.contains(date);
+        ensureYear(date.getYear());
+        return Arrays.binarySearch(customHolidays.get(), toKey(date)) >= 0;
+    }
+
+    @Override
+    public BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        preloadYears(from.getYear(), to.getYear());
+        int[] snapshot = customHolidays.get();
+        int fromKey = toKey(from);
+        int toKey = toKey(to);
+        BitSet holidays = new BitSet(Math.max(toKey - fromKey + 1, 0));
+        int index = Arrays.binarySearch(snapshot, fromKey);
+        for (int i = index >= 0 ? index : -index - 1; i < snapshot.length && snapshot[i] <= toKey; i++) {
+            holidays.set(snapshot[i] - fromKey);
+        }
+        return holidays;
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+import java.time.LocalDate;
+
+/**
+ * holds 테이블의 한 행(도서 예약)을 나타내는 불변 값 객체입니다.
+ * 재고가 없을 때 대기열에 올라가(WAITING) 반납된 책을 순서대로 받고(READY), 받기 기한 안에 대출하면 끝납니다(FULFILLED).
+ */
+public class Hold {
+    public enum Status {
+        /** 책을 기다리는 중 */
+        WAITING,
+        /** 반납된 책이 이 예약을 위해 보관 중 (받기 기한까지) */
+        READY,
+        /** 보관된 책을 대출함 */
+        FULFILLED,
+        /** 회원이 취소함 */
+        CANCELLED,
+        /** 받기 기한이 지남 */
+        EXPIRED;
+
+        /**
+         * @return 아직 끝나지 않은(대기 중이거나 책이 보관 중인) 예약인지
+         */
+        public boolean isActive() {
+            return this == WAITING || this == READY;
+        }
+    }
+
+    private final int holdId;
+    private final int bookId;
+    private final int memberId;
+    private final LocalDate placedOn;
+    private final Status status;
+    private final LocalDate readyUntil;
+
+    public Hold(int holdId, int bookId, int memberId, LocalDate placedOn, Status status, LocalDate readyUntil) {
+        this.holdId = holdId;
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.placedOn = placedOn;
+        this.status = status;
+        this.readyUntil = readyUntil;
+    }
+
+    public int getHoldId() {
+        return holdId;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public int getMemberId() {
+        return memberId;
+    }
+
+    public LocalDate getPlacedOn() {
+        return placedOn;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return 보관된 책의 받기 기한, 책을 받은 적이 없으면 null
+     */
+    public LocalDate getReadyUntil() {
+        return readyUntil;
+    }
+
+    /**
+     * @return 상태만 바꾼 예약 (받기 기한은 READY 로 바꿀 때만 새로 정합니다)
+     */
+    public Hold withStatus(Status newStatus, LocalDate newReadyUntil) {
+        return new Hold(holdId, bookId, memberId, placedOn, newStatus, newReadyUntil);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, 도서 ID: %d, 회원 ID: %d, 예약일: %s, 상태: %s, 받기 기한: %s",
+                holdId, bookId, memberId, placedOn, status, readyUntil == null ? "-" : readyUntil);
+    }
+}
@@ -0,0 +1,257 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 재고가 없는 도서의 예약 대기열입니다. (library.holds.enabled=true)
+ * <p>
+ * 재고가 없을 때 대출을 되풀이해 시도하는 대신 예약을 한 번 넣으면, 반납 트랜잭션이 책을 재고로 돌리지 않고
+ * 가장 먼저 들어온 대기 예약에 넘깁니다(READY). 예약한 회원은 받기 기한(영업일 기준) 안에 대출하면 됩니다.
+ * <p>
+ * 예약의 원본은 저장소(holds 테이블)에 있고, 이 클래스는 도서별 대기열과 (도서, 회원) → 예약을 잠금 없는
+ * 동시성 자료구조로 메모리에 둡니다. 반납할 때 대기 예약이 있는지는 메모리만 보고 정하므로
+ * 예약이 없는 도서의 반납은 예약 때문에 DB 를 더 읽지 않습니다.
+ * 받기 기한이 지난 예약은 주기적으로 만료시키고, 그때 메모리도 저장소에 맞춰 다시 읽습니다.
+ */
+public class HoldQueues implements LoanRepository.HoldHandOff {
+    private final HoldRepository repository;
+    private final Supplier<LocalDate> pickupDeadline;
+    private final IntConsumer stockChangedListener;
+    private final Consumer<String> notifier;
+    // 도서 ID → 대기(WAITING) 예약, 들어온 순서
+    private volatile Map<Integer, ConcurrentLinkedQueue<Hold>> waiting = new ConcurrentHashMap<>();
+    // (도서 ID, 회원 ID) → 끝나지 않은 예약. 같은 회원의 중복 예약을 막고 대출 때 보관된 책을 찾는다.
+    private volatile Map<Long, Hold> active = new ConcurrentHashMap<>();
+    // 저장소에 넣는 중이라 아직 대기열에 없는 예약 수. 0 이 아니면 반납은 저장소의 대기 예약을 직접 확인한다.
+    private final AtomicInteger placing = new AtomicInteger();
+    private volatile boolean loaded;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param repository 예약 저장소
+     * @param pickupDeadline 지금 책을 넘겨받는 예약의 받기 기한
+     * @param sweepIntervalMillis 받기 기한이 지난 예약을 정리하는 주기
+     * @param stockChangedListener 취소나 정리로 재고가 바뀌었을 수 있는 도서 ID 를 통지받을 리스너 (캐시 무효화용)
+     * @param notifier 책이 예약에 넘어가거나 예약이 만료될 때 보여 줄 문장을 받음
+     */
+    public HoldQueues(HoldRepository repository, Supplier<LocalDate> pickupDeadline, long sweepIntervalMillis,
+                      IntConsumer stockChangedListener, Consumer<String> notifier) {
+        this.repository = repository;
+        this.pickupDeadline = pickupDeadline;
+        this.stockChangedListener = stockChangedListener;
+        this.notifier = notifier;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hold-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                sweep(LocalDate.now());
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("예약 정리 중 오류 발생: " + e.getMessage());
+            }
+        }, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long key(int bookId, int memberId) {
+        return ((long) bookId << 32) | (memberId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 처음 쓰기 전에 저장소의 끝나지 않은 예약을 읽어 둡니다. 이미 읽었으면 바로 돌아옵니다.
+     */
+    public void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                reload();
+                loaded = true;
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // 새 자료구조를 채운 뒤 한 번에 바꿔 끼운다. 읽는 사이에 바뀐 예약은 다음 정리 때 맞춰진다.
+    private void reload() throws SQLException {
+        Map<Integer, ConcurrentLinkedQueue<Hold>> newWaiting = new ConcurrentHashMap<>();
+        Map<Long, Hold> newActive = new ConcurrentHashMap<>();
+        for (Hold hold : repository.findActive()) {
+            newActive.put(key(hold.getBookId(), hold.getMemberId()), hold);
+            if (hold.getStatus() == Hold.Status.WAITING) {
+                newWaiting.computeIfAbsent(hold.getBookId(), ignored -> new ConcurrentLinkedQueue<>()).add(hold);
+            }
+        }
+        this.waiting = newWaiting;
+        this.active = newActive;
+    }
+
+    /**
+     * @return 회원의 이 도서에 대한 끝나지 않은 예약, 없으면 null
+     */
+    public Hold activeFor(int bookId, int memberId) throws SQLException {
+        ensureLoaded();
+        return active.get(key(bookId, memberId));
+    }
+
+    /**
+     * 대기 예약을 넣습니다. 같은 회원이 이미 이 도서를 예약했다면 새로 넣지 않고 그 예약을 돌려줍니다.
+     * 예약 넣기와 다시 읽기(reload)는 loadLock 으로 한 번에 하나씩 하므로, 다시 읽은 자료구조가 새 예약을
+     * 두 번 담거나 중복 검사가 방금 넣은 예약을 다른 예약으로 잘못 보는 일이 없습니다.
+     * @return 대기열에 있는 회원의 예약
+     */
+    public Hold place(int bookId, int memberId) throws SQLException {
+        ensureLoaded();
+        long key = key(bookId, memberId);
+        loadLock.lock();
+        try {
+            Hold existing = active.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            placing.incrementAndGet();
+            try {
+                Hold placed = repository.place(bookId, memberId, LocalDate.now());
+                // 커밋 직후의 반납이 이미 이 예약에 책을 넘겼을 수 있다. (handedOff 가 먼저 READY 로 바꿔 둔다)
+                ConcurrentLinkedQueue<Hold> queue = waiting.computeIfAbsent(bookId, ignored -> new ConcurrentLinkedQueue<>());
+                queue.add(placed);
+                Hold current = active.putIfAbsent(key, placed);
+                if (current != null && current.getStatus() != Hold.Status.WAITING) {
+                    queue.removeIf(queued -> queued.getHoldId() == placed.getHoldId());
+                    return current;
+                }
+                return placed;
+            } finally {
+                placing.decrementAndGet();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * 예약을 취소합니다. 보관 중이던 책은 다음 대기 예약에 넘어가거나 재고로 돌아갑니다.
+     * @return 취소된 예약
+     * @throws LibraryException 예약이 없거나 이미 끝난 경우 (NOT_FOUND)
+     */
+    public Hold cancel(int holdId) throws SQLException {
+        ensureLoaded();
+        List<Hold> changed = repository.cancel(holdId, pickupDeadline.get());
+        applyAll(changed);
+        return changed.get(0);
+    }
+
+    /**
+     * 삭제된 도서의 끝나지 않은 예약을 모두 취소합니다. (도서 삭제가 커밋된 뒤)
+     * @return 취소된 예약 수
+     */
+    public int cancelForBook(int bookId) throws SQLException {
+        ensureLoaded();
+        List<Hold> cancelled = repository.cancelForBook(bookId);
+        applyAll(cancelled);
+        return cancelled.size();
+    }
+
+    /**
+     * 보관된 책을 대출했음을 반영합니다. (LoanRepository.checkOutHold 커밋 뒤)
+     */
+    public void fulfilled(Hold hold) {
+        apply(hold.withStatus(Hold.Status.FULFILLED, hold.getReadyUntil()));
+    }
+
+    /**
+     * 받기 기한이 asOf 보다 앞선 예약을 만료시키고 책을 다음 대기 예약에 넘긴 뒤, 메모리를 저장소에 맞춥니다.
+     * @return 만료된 예약 수
+     */
+    public int sweep(LocalDate asOf) throws SQLException {
+        ensureLoaded();
+        List<Hold> changed = repository.sweep(asOf, pickupDeadline.get());
+        applyAll(changed);
+        loadLock.lock();
+        try {
+            reload();
+        } finally {
+            loadLock.unlock();
+        }
+        return (int) changed.stream().filter(hold -> hold.getStatus() == Hold.Status.EXPIRED).count();
+    }
+
+    /**
+     * @return 대기열에서 몇 번째인지 (1부터), 대기 중이 아니면 0
+     */
+    public int position(Hold hold) {
+        ConcurrentLinkedQueue<Hold> queue = waiting.get(hold.getBookId());
+        if (queue == null || hold.getStatus() != Hold.Status.WAITING) {
+            return 0;
+        }
+        int position = 1;
+        for (Hold queued : queue) {
+            if (queued.getHoldId() == hold.getHoldId()) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    private void applyAll(List<Hold> changed) {
+        for (Hold hold : changed) {
+            stockChangedListener.accept(hold.getBookId());
+            if (hold.getStatus() == Hold.Status.READY) {
+                handedOff(hold);
+            } else {
+                apply(hold);
+                if (hold.getStatus() == Hold.Status.EXPIRED) {
+                    notifier.accept("예약 ID " + hold.getHoldId() + " (회원 ID " + hold.getMemberId()
+                            + ") 의 받기 기한이 지나 도서 ID " + hold.getBookId() + " 의 보관을 풀었습니다.");
+                }
+            }
+        }
+    }
+
+    // 저장소에서 상태가 바뀐 예약을 메모리에 반영한다.
+    private void apply(Hold hold) {
+        long key = key(hold.getBookId(), hold.getMemberId());
+        ConcurrentLinkedQueue<Hold> queue = waiting.get(hold.getBookId());
+        if (queue != null) {
+            queue.removeIf(queued -> queued.getHoldId() == hold.getHoldId());
+        }
+        if (hold.getStatus().isActive()) {
+            active.put(key, hold);
+        } else {
+            active.computeIfPresent(key, (k, current) -> current.getHoldId() == hold.getHoldId() ? null : current);
+        }
+    }
+
+    @Override
+    public LocalDate readyUntil(int bookId) {
+        ConcurrentLinkedQueue<Hold> queue = waiting.get(bookId);
+        if ((queue == null || queue.isEmpty()) && placing.get() == 0) {
+            return null;
+        }
+        return pickupDeadline.get();
+    }
+
+    @Override
+    public void handedOff(Hold hold) {
+        apply(hold);
+        notifier.accept("도서 ID " + hold.getBookId() + " 을(를) 예약 ID " + hold.getHoldId() + " (회원 ID "
+                + hold.getMemberId() + ") 을 위해 보관합니다. 받기 기한: " + hold.getReadyUntil());
+    }
+}
@@ -0,0 +1,49 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 도서 예약 저장소. 예약이 끝나면서 보관 중이던 책이 풀리면 같은 원자적 단위 안에서
+ * 다음 대기 예약에 넘기거나(READY) 대기 예약이 없으면 재고로 돌립니다.
+ * 엔진마다 구현이 있습니다. (JdbcHoldRepository, InMemoryStorage)
+ */
+public interface HoldRepository {
+    /**
+     * 대기 예약(WAITING)을 추가합니다. 같은 회원의 중복 예약은 호출자(Library)가 걸러 냅니다.
+     * @return 새 예약 ID 가 채워진 예약
+     * @throws SQLException 도서나 회원이 없는 경우 포함
+     */
+    Hold place(int bookId, int memberId, LocalDate placedOn) throws SQLException;
+
+    /**
+     * @return 예약 (끝난 예약 포함), 없으면 null
+     */
+    Hold findById(int holdId) throws SQLException;
+
+    /**
+     * @return 끝나지 않은(WAITING, READY) 예약 전부, 예약 ID 순
+     */
+    List<Hold> findActive() throws SQLException;
+
+    /**
+     * 끝나지 않은 예약을 취소합니다. 보관 중이던 책은 다음 대기 예약에 넘기거나 재고로 돌립니다.
+     * @param readyUntil 책을 넘겨받은 예약의 받기 기한
+     * @return 상태가 바뀐 예약 (취소된 예약이 처음, 책을 넘겨받은 예약이 있으면 그 다음)
+     * @throws LibraryException 예약이 없거나 이미 끝난 경우 (NOT_FOUND)
+     */
+    List<Hold> cancel(int holdId, LocalDate readyUntil) throws SQLException;
+
+    /**
+     * 삭제된 도서의 끝나지 않은 예약을 모두 취소합니다. 보관 중이던 책도 함께 없어졌으므로 다음 예약에 넘기지 않습니다.
+     * @return 취소된 예약
+     */
+    List<Hold> cancelForBook(int bookId) throws SQLException;
+
+    /**
+     * 받기 기한이 asOf 보다 앞선 READY 예약을 만료시키고 책을 다음 대기 예약에 넘깁니다.
+     * 대기 예약이 있는데 재고가 남은 도서(재고 수정, 오프라인 반납 재생 등)도 재고를 대기 예약에 넘깁니다.
+     * @param readyUntil 책을 넘겨받은 예약의 받기 기한
+     * @return 상태가 바뀐 예약
+     */
+    List<Hold> sweep(LocalDate asOf, LocalDate readyUntil) throws SQLException;
+}
@@ -1,4 +1,7 @@
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.function.Consumer;
 
 public interface HolidayPolicy {
     /**
@@ -8,6 +11,69 @@ public interface HolidayPolicy {
      */
     boolean isHoliday(LocalDate date);
 
+    /**
+     * 휴일이 추가/삭제될 때 바뀐 날짜를 통지받을 리스너를 등록합니다.
+     * 휴일이 바뀌지 않는 정책은 아무 것도 하지 않습니다.
+     * @param listener 바뀐 날짜를 받을 리스너
+     */
+    default void addChangeListener(Consumer<LocalDate> listener) {
+    }
+
+    /**
+     * 기간 안의 휴일을 비트셋으로 한 번에 가져옵니다. i 번째 비트는 from 으로부터 i 일 뒤의 날짜입니다.
+     * 기본 구현은 하루씩 isHoliday 를 호출하며, 구현체는 더 빠른 방법으로 재정의할 수 있습니다.
+     * @param from 시작 날짜 (포함)
+     * @param to 끝 날짜 (포함)
+     * @return 휴일 비트셋
+     */
+    default BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BitSet holidays = new BitSet(Math.max(days, 0));
+        LocalDate date = from;
+        for (int i = 0; i < days; i++, date = date.plusDays(1)) {
+            if (isHoliday(date)) {
+                holidays.set(i);
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * 두 정책 중 하나라도 휴일이면 휴일인 정책을 만듭니다. (합집합)
+     * @param other 함께 적용할 정책
+     * @return 조합된 정책
+     */
+    default HolidayPolicy or(HolidayPolicy other) {
+        return new CompositeHolidayPolicy(CompositeHolidayPolicy.Operator.UNION, this, other);
+    }
+
+    /**
+     * 두 정책 모두 휴일일 때만 휴일인 정책을 만듭니다. (교집합)
+     * @param other 함께 적용할 정책
+     * @return 조합된 정책
+     */
+    default HolidayPolicy and(HolidayPolicy other) {
+        return new CompositeHolidayPolicy(CompositeHolidayPolicy.Operator.INTERSECTION, this, other);
+    }
+
+    /**
+     * 이 정책의 휴일 중 다른 정책이 휴일로 보는 날을 제외합니다. (예: 주말 중 보강 근무일)
+     * @param exceptions 휴일에서 제외할 날짜를 정의하는 정책
+     * @return 조합된 정책
+     */
+    default HolidayPolicy except(HolidayPolicy exceptions) {
+        return new CompositeHolidayPolicy(CompositeHolidayPolicy.Operator.EXCEPT, this, exceptions);
+    }
+
+    /**
+     * 정책을 연도별 비트맵으로 미리 계산한 정책으로 바꿉니다.
+     * 조합된 정책도 isHoliday 한 번에 비트 하나만 확인하게 됩니다.
+     * @return 미리 계산된 정책
+     */
+    default HolidayPolicy compile() {
+        return new CompiledHolidayPolicy(this);
+    }
+
     /**
      * 휴일 목록을 가져옵니다.
      * @return 휴일 날짜 목록
@@ -0,0 +1,44 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.function.IntConsumer;
+
+/**
+ * 사용자 정의 휴일 저장소. 휴일을 바꿀 때마다 변경 로그에 번호를 붙여 남기므로,
+ * 여러 프로세스가 마지막으로 본 번호 이후의 변경만 읽어 캐시를 맞출 수 있습니다.
+ * 엔진마다 구현이 있습니다. (JdbcHolidayRepository, InMemoryStorage)
+ */
+public interface HolidayRepository {
+    /**
+     * 변경 로그 한 건을 받습니다.
+     */
+    @FunctionalInterface
+    interface ChangeConsumer {
+        void accept(long changeId, LocalDate date, boolean added);
+    }
+
+    /**
+     * 기간 안의 휴일을 epoch day 로 넘기고, 같은 시점의 변경 로그 번호를 돌려줍니다.
+     * @param from 시작 날짜 (포함)
+     * @param to 끝 날짜 (포함)
+     * @param epochDays 휴일 하나마다 호출됨 (순서는 정해져 있지 않음)
+     * @return 휴일을 읽은 시점의 마지막 변경 로그 번호 (없으면 0)
+     */
+    long loadBetween(LocalDate from, LocalDate to, IntConsumer epochDays) throws SQLException;
+
+    /**
+     * 휴일을 추가하고 변경 로그에 남깁니다.
+     * @throws SQLException 이미 있는 날짜인 경우 포함
+     */
+    void insert(LocalDate date, String description) throws SQLException;
+
+    /**
+     * 휴일을 지우고 변경 로그에 남깁니다.
+     * @return 지웠으면 true, 그 날짜의 휴일이 없으면 false
+     */
+    boolean delete(LocalDate date) throws SQLException;
+
+    /**
+     * afterChangeId 다음 변경 로그를 번호 순으로 넘깁니다.
+     */
+    void changesSince(long afterChangeId, ChangeConsumer consumer) throws SQLException;
+}
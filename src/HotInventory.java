@@ -0,0 +1,531 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * 대출이 몰리는 인기 도서의 재고를 메모리에서 나눠 주는 선택 기능입니다.
+ * <p>
+ * 인기 도서로 지정하면 books.stock 의 재고를 hot_inventory.escrow 로 옮겨(에스크로) 메모리의
+ * 줄무늬(striped) CAS 카운터에 올립니다. 대출은 카운터에서 예약 토큰을 받은 뒤 loans 와
+ * hot_reservations 에 행을 추가하기만 하므로 books 행 잠금을 기다리지 않습니다.
+ * 주기적인 flush 가 확정된 예약만큼 escrow 를 줄이고, 그 사이 반납으로 books.stock 에 쌓인
+ * 재고를 escrow 로 다시 옮깁니다. 다시 옮기는 양은 에스크로에서 나갔다가 반납된 대출 수와 지정할 때 정한
+ * 상한(maxEscrow)을 넘지 않으므로, 관리자가 인기 도서의 재고를 늘려도(setBookStock/updateStocks) 늘린 재고는 books.stock 에 남습니다.
+ * <p>
+ * 메모리 카운터는 escrow 보다 많이 나눠 줄 수 없고, 확정된 대출은 hot_reservations 에 남아 있으므로
+ * 비정상 종료 후에도 reconcile() 이 "escrow - 확정 예약" 만큼만 books.stock 으로 돌려주어 초과 대출이 생기지 않습니다.
+ * <pre>
+ * CREATE TABLE hot_inventory (
+ *     book_id INT PRIMARY KEY,
+ *     escrow  INT NOT NULL
+ * );
+ * CREATE TABLE hot_reservations (
+ *     loan_id INT PRIMARY KEY,
+ *     book_id INT NOT NULL,
+ *     INDEX (book_id)
+ * );
+ * </pre>
+ * 같은 DB 에서는 하나의 인스턴스만 인기 도서 모드(library.hotInventory.enabled)를 켜야 합니다.
+ * hot_inventory 는 인스턴스별로 나뉘어 있지 않아서, 시작할 때 reconcile() 이 다른 인스턴스가 쓰고 있는
+ * 에스크로까지 books.stock 으로 돌려주고, 그러면 그 인스턴스의 메모리 재고와 합쳐 초과 대출이 생깁니다.
+ */
+public class HotInventory {
+    private static final int STRIPES = 8;
+    // 줄무늬 사이의 거짓 공유를 피하기 위한 간격 (int 16개 = 64바이트)
+    private static final int PADDING = 16;
+    // 반납 여부를 IN 절로 확인할 때 한 번에 넣는 대출 ID 수
+    private static final int LOOKUP_CHUNK = 500;
+
+    private final ConnectionSource connectionSource;
+    private final IntConsumer stockChangedListener;
+    private final ConcurrentMap<Integer, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong tokenSequence = new AtomicLong();
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param connectionSource 커넥션 풀
+     * @param flushIntervalMillis 확정된 예약과 반납을 DB 에 반영하는 주기
+     * @param stockChangedListener flush 로 books.stock 이 바뀐 도서 ID 를 통지받을 리스너 (캐시 무효화용)
+     */
+    public HotInventory(ConnectionSource connectionSource, long flushIntervalMillis, IntConsumer stockChangedListener) {
+        this.connectionSource = connectionSource;
+        this.stockChangedListener = stockChangedListener;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hot-inventory-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 예약 토큰. 대출이 커밋되면 confirm, 실패하면 release 해야 합니다.
+     */
+    public static final class Reservation {
+        private final StripedCounter counter;
+        private final int bookId;
+        private final long token;
+        private boolean settled;
+
+        private Reservation(StripedCounter counter, int bookId, long token) {
+            this.counter = counter;
+            this.bookId = bookId;
+            this.token = token;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public long getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * 이전 실행에서 남은 에스크로를 정리합니다. 확정된 예약만큼 빼고 나머지를 books.stock 으로 돌려줍니다.
+     * 시작할 때, 인기 도서를 지정하기 전에 한 번 호출합니다.
+     * hot_inventory 의 모든 행을 이전 실행의 것으로 보므로, 인기 도서 모드를 켠 다른 인스턴스가 같은 DB 를
+     * 쓰고 있으면 안 됩니다. (클래스 설명 참고)
+     */
+    public void reconcile() throws SQLException {
+        List<Integer> bookIds = new ArrayList<>();
+        try (Connection conn = connectionSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT book_id FROM hot_inventory");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                bookIds.add(rs.getInt("book_id"));
+            }
+        }
+        for (int bookId : bookIds) {
+            release(bookId, true);
+        }
+    }
+
+    /**
+     * @param bookId 도서 ID
+     * @return 인기 도서로 지정되어 있는지 여부
+     */
+    public boolean isHot(int bookId) {
+        return counters.containsKey(bookId);
+    }
+
+    /**
+     * 도서를 인기 도서로 지정하고 books.stock 의 재고를 최대 maxEscrow 권까지 메모리로 옮깁니다.
+     * 지정과 해제의 마무리(카운터 제거와 에스크로 반환)는 같은 모니터에서 처리하므로, 한 도서가 두 번 지정되거나
+     * 해제 중인 도서의 에스크로 행에 새 에스크로가 섞이지 않습니다.
+     * @param bookId 도서 ID
+     * @param maxEscrow 메모리로 옮길 최대 재고 (0 이하이면 전부)
+     * @return 옮긴 재고 수, 이미 인기 도서이면 0, 도서가 없으면 -1
+     */
+    public synchronized int designate(int bookId, int maxEscrow) throws SQLException {
+        if (counters.containsKey(bookId)) {
+            return 0;
+        }
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int stock = lockStock(conn, bookId);
+                if (stock < 0) {
+                    conn.rollback();
+                    return -1;
+                }
+                int escrow = maxEscrow > 0 ? Math.min(stock, maxEscrow) : stock;
+                moveStock(conn, bookId, -escrow);
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO hot_inventory (book_id, escrow) VALUES (?, ?) "
+                                + "ON DUPLICATE KEY UPDATE escrow = escrow + VALUES(escrow)")) {
+                    pstmt.setInt(1, bookId);
+                    pstmt.setInt(2, escrow);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                StripedCounter counter = new StripedCounter(maxEscrow > 0 ? maxEscrow : escrow);
+                counter.add(escrow);
+                counters.put(bookId, counter);
+                stockChangedListener.accept(bookId);
+                return escrow;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 인기 도서 지정을 해제하고 남은 에스크로를 books.stock 으로 돌려줍니다.
+     * 새 예약을 막은 뒤 이미 나간 예약이 확정/취소될 때까지 기다립니다. 기다리다 인터럽트되거나
+     * 에스크로를 돌려주지 못하면 카운터를 다시 열어 인기 도서로 남겨 둡니다.
+     * @param bookId 도서 ID
+     */
+    public void undesignate(int bookId) throws SQLException {
+        StripedCounter counter = counters.get(bookId);
+        if (counter == null) {
+            return;
+        }
+        counter.close();
+        boolean released = false;
+        try {
+            counter.awaitSettled();
+            synchronized (this) {
+                // 동시에 해제한 쪽이 이미 정리했다면 할 일이 없다.
+                if (!counters.remove(bookId, counter)) {
+                    released = true;
+                    return;
+                }
+                try {
+                    release(bookId, false);
+                    released = true;
+                } finally {
+                    if (!released) {
+                        counters.put(bookId, counter);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("인기 도서 해제 대기 중 인터럽트되었습니다.", e);
+        } finally {
+            if (!released) {
+                counter.reopen();
+            }
+        }
+    }
+
+    /**
+     * 메모리 재고에서 한 권을 예약합니다. DB 를 조회하지 않습니다.
+     * @param bookId 도서 ID
+     * @return 예약 토큰, 재고가 없거나 인기 도서가 아니면 null
+     */
+    public Reservation tryReserve(int bookId) {
+        StripedCounter counter = counters.get(bookId);
+        if (counter == null || !counter.tryDecrement()) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        granted.incrementAndGet();
+        return new Reservation(counter, bookId, tokenSequence.incrementAndGet());
+    }
+
+    /**
+     * 예약으로 만든 대출을 확정 예약으로 기록합니다. 호출자의 대출 트랜잭션 안에서 호출해야 합니다.
+     * @param conn 대출 트랜잭션 커넥션
+     * @param reservation 예약 토큰
+     * @param loanId 추가된 대출 기록 ID
+     */
+    public void recordConfirmed(Connection conn, Reservation reservation, int loanId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO hot_reservations (loan_id, book_id) VALUES (?, ?)")) {
+            pstmt.setInt(1, loanId);
+            pstmt.setInt(2, reservation.bookId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 대출 트랜잭션이 커밋된 뒤 호출합니다.
+     */
+    public void confirm(Reservation reservation) {
+        if (!reservation.settled) {
+            reservation.settled = true;
+            reservation.counter.settle();
+        }
+    }
+
+    /**
+     * 대출이 실패했을 때 예약한 한 권을 메모리 재고로 되돌립니다.
+     */
+    public void release(Reservation reservation) {
+        if (reservation.settled) {
+            return;
+        }
+        reservation.settled = true;
+        reservation.counter.add(1);
+        reservation.counter.settle();
+    }
+
+    /**
+     * @param bookId 도서 ID
+     * @return 메모리에서 바로 나눠 줄 수 있는 재고, 인기 도서가 아니면 -1
+     */
+    public int available(int bookId) {
+        StripedCounter counter = counters.get(bookId);
+        return counter == null ? -1 : counter.sum();
+    }
+
+    public long getGrantedCount() {
+        return granted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * 모든 인기 도서의 확정 예약과 반납 재고를 DB 에 반영합니다.
+     */
+    public void flushAll() {
+        for (Integer bookId : counters.keySet()) {
+            try {
+                flush(bookId);
+            } catch (SQLException e) {
+                System.err.println("인기 도서 재고 반영 중 오류 발생 (도서 ID " + bookId + "): " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 확정 예약만큼 escrow 를 줄이고, books.stock 에 쌓인 반납 재고를 escrow 와 메모리로 옮깁니다.
+     * 옮기는 양은 에스크로에서 나간 대출 중 반납된 수와 escrow 상한까지 남은 자리를 넘지 않습니다.
+     */
+    private synchronized void flush(int bookId) throws SQLException {
+        StripedCounter counter = counters.get(bookId);
+        if (counter == null) {
+            return;
+        }
+        List<Integer> settled;
+        List<Integer> returned;
+        int toppedUp;
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                settled = settleReservations(conn, bookId);
+                List<Integer> lent = new ArrayList<>(counter.lentLoans);
+                lent.addAll(settled);
+                returned = findReturned(conn, lent);
+                int stock = Math.max(lockStock(conn, bookId), 0);
+                int escrow = lockEscrow(conn, bookId) - settled.size();
+                int room = Math.max(counter.cap - escrow, 0);
+                toppedUp = Math.min(stock, Math.min(returned.size(), room));
+                moveStock(conn, bookId, -toppedUp);
+                adjustEscrow(conn, bookId, toppedUp - settled.size());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        // 반납된 대출은 옮기지 못했더라도(상한이 찼거나 예약에 넘어간 경우) 더 따라가지 않는다.
+        counter.lentLoans.addAll(settled);
+        returned.forEach(counter.lentLoans::remove);
+        if (toppedUp > 0) {
+            counter.add(toppedUp);
+            stockChangedListener.accept(bookId);
+        }
+    }
+
+    // escrow 를 정리해 books.stock 으로 돌려준다. crashed 이면 메모리 상태 없이 DB 만으로 계산한다.
+    private synchronized void release(int bookId, boolean crashed) throws SQLException {
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int consumed = settleReservations(conn, bookId).size();
+                int escrow = lockEscrow(conn, bookId);
+                int remaining = Math.max(escrow - consumed, 0);
+                moveStock(conn, bookId, remaining);
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM hot_inventory WHERE book_id = ?")) {
+                    pstmt.setInt(1, bookId);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                if (crashed) {
+                    System.out.println("인기 도서 ID " + bookId + " 의 남은 에스크로 " + remaining + " 권을 재고로 되돌렸습니다.");
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        stockChangedListener.accept(bookId);
+    }
+
+    // 확정 예약 행을 잠가 세고 지운다. 지운 행 수가 이번에 소비된 에스크로다.
+    private List<Integer> settleReservations(Connection conn, int bookId) throws SQLException {
+        List<Integer> loanIds = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT loan_id FROM hot_reservations WHERE book_id = ? FOR UPDATE")) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    loanIds.add(rs.getInt("loan_id"));
+                }
+            }
+        }
+        if (loanIds.isEmpty()) {
+            return loanIds;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM hot_reservations WHERE loan_id = ?")) {
+            for (int loanId : loanIds) {
+                pstmt.setInt(1, loanId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return loanIds;
+    }
+
+    // 에스크로에서 나간 대출 중 반납된 것을 찾는다.
+    private List<Integer> findReturned(Connection conn, List<Integer> loanIds) throws SQLException {
+        List<Integer> returned = new ArrayList<>();
+        for (int from = 0; from < loanIds.size(); from += LOOKUP_CHUNK) {
+            List<Integer> chunk = loanIds.subList(from, Math.min(loanIds.size(), from + LOOKUP_CHUNK));
+            String sql = "SELECT loan_id FROM loans WHERE return_date IS NOT NULL AND loan_id IN ("
+                    + JdbcBookRepository.placeholders(chunk.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    pstmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        returned.add(rs.getInt("loan_id"));
+                    }
+                }
+            }
+        }
+        return returned;
+    }
+
+    private int lockStock(Connection conn, int bookId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT stock FROM books WHERE book_id = ? FOR UPDATE")) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("stock") : -1;
+            }
+        }
+    }
+
+    private int lockEscrow(Connection conn, int bookId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT escrow FROM hot_inventory WHERE book_id = ? FOR UPDATE")) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("escrow") : 0;
+            }
+        }
+    }
+
+    private void moveStock(Connection conn, int bookId, int delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE books SET stock = stock + ? WHERE book_id = ?")) {
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, bookId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void adjustEscrow(Connection conn, int bookId, int delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE hot_inventory SET escrow = escrow + ? WHERE book_id = ?")) {
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, bookId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 백그라운드 반영을 멈추고 마지막으로 한 번 반영합니다.
+     */
+    public void close() {
+        flusher.shutdown();
+        flushAll();
+    }
+
+    /**
+     * 스레드별로 다른 칸에서 CAS 로 증감하는 재고 카운터. 한 칸이 비면 다른 칸을 찾아본다.
+     */
+    private static final class StripedCounter {
+        private final AtomicIntegerArray cells = new AtomicIntegerArray(STRIPES * PADDING);
+        // 나갔지만 아직 확정/취소되지 않은 예약 수
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // escrow 상한. 반납 재고를 다시 옮겨도 escrow 가 이보다 커지지 않는다.
+        private final int cap;
+        // 에스크로에서 나가 아직 반납되지 않은 대출 ID (flush 에서만 바꾼다)
+        private final Set<Integer> lentLoans = new HashSet<>();
+        private volatile boolean closed;
+
+        StripedCounter(int cap) {
+            this.cap = cap;
+        }
+
+        private static int home() {
+            return (int) (Thread.currentThread().threadId() % STRIPES);
+        }
+
+        void add(int amount) {
+            int index = home() * PADDING;
+            cells.addAndGet(index, amount);
+        }
+
+        boolean tryDecrement() {
+            inFlight.incrementAndGet();
+            if (!closed) {
+                int start = home();
+                for (int i = 0; i < STRIPES; i++) {
+                    int index = ((start + i) % STRIPES) * PADDING;
+                    int value = cells.get(index);
+                    while (value > 0) {
+                        if (cells.compareAndSet(index, value, value - 1)) {
+                            return true;
+                        }
+                        value = cells.get(index);
+                    }
+                }
+            }
+            settle();
+            return false;
+        }
+
+        int sum() {
+            int sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cells.get(i * PADDING);
+            }
+            return sum;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        void reopen() {
+            closed = false;
+        }
+
+        // 나간 예약 하나가 확정/취소되었다. 마지막 하나면 해제를 기다리는 스레드를 깨운다.
+        void settle() {
+            if (inFlight.decrementAndGet() == 0 && closed) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        // 닫힌 뒤 나가 있는 예약이 모두 확정/취소될 때까지 기다린다.
+        synchronized void awaitSettled() throws InterruptedException {
+            while (inFlight.get() > 0) {
+                wait();
+            }
+        }
+    }
+}
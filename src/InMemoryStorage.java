@@ -0,0 +1,839 @@
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 프로세스 메모리에만 두는 저장 엔진입니다. (library.storage=memory)
+ * 지점 하나짜리 설치나 테스트에서 DB 없이 Library 전체를 돌릴 때 씁니다. 프로세스가 끝나면 데이터도 사라집니다.
+ * <p>
+ * 도서/회원/대출은 ID 를 박싱하지 않는 IntObjectMap 에 두고, ID 의 하위 비트로 고른 줄무늬(stripe)마다
+ * 읽기/쓰기 잠금을 따로 두어 서로 다른 도서를 다루는 작업은 부딪히지 않습니다.
+ * 여러 줄무늬를 잡아야 하는 작업은 항상 대출 → 도서 → 회원 순서로 잡아 교착이 생기지 않습니다.
+ * 예약은 도서의 대기열에 두고 도서 줄무늬 쓰기 잠금 안에서만 상태를 바꿉니다.
+ * <p>
+ * JDBC 엔진과 다른 점:
+ * <ul>
+ *     <li>없는 회원에게는 대출하지 않습니다. (NOT_FOUND) 회원별 미반납 대출 수를 세어 회원 삭제를 막기 위해서입니다.</li>
+ *     <li>일괄 재고 수정/삭제는 도서마다 따로 반영됩니다. 저장소 오류가 나지 않으므로 되돌릴 일이 없습니다.</li>
+ *     <li>목록 스트림은 페이지 크기와 상관없이 ID 순으로 한 건씩 읽습니다.</li>
+ * </ul>
+ */
+public class InMemoryStorage implements LibraryStorage {
+    private static final int STRIPES = 64;
+    private static final Map<String, InMemoryStorage> NAMED = new HashMap<>();
+
+    private final Stripe<BookRow>[] bookStripes = newStripes();
+    private final Stripe<MemberRow>[] memberStripes = newStripes();
+    private final Stripe<Loan>[] loanStripes = newStripes();
+    private final AtomicInteger lastBookId = new AtomicInteger();
+    private final AtomicInteger lastMemberId = new AtomicInteger();
+    private final AtomicInteger lastLoanId = new AtomicInteger();
+    private final AtomicInteger lastHoldId = new AtomicInteger();
+    // 예약 ID → 예약 (끝난 예약 포함). 값은 도서 줄무늬 쓰기 잠금 안에서만 바꾼다.
+    private final ConcurrentHashMap<Integer, Hold> holdsById = new ConcurrentHashMap<>();
+    // ISBN → 그 ISBN 을 가진 도서 ID 하나 (같은 ISBN 이 여럿이면 먼저 등록된 도서)
+    private final ConcurrentHashMap<String, Integer> isbnIndex = new ConcurrentHashMap<>();
+
+    private final Books books = new Books();
+    private final Members members = new Members();
+    private final Loans loans = new Loans();
+    private final Holds holds = new Holds();
+    private final Holidays holidays = new Holidays();
+
+    /**
+     * 같은 이름이면 프로세스 안에서 같은 저장소를 돌려줍니다. (Library 와 CustomHoliday 가 함께 쓰도록)
+     * @param name library.storage.name
+     */
+    public static synchronized InMemoryStorage named(String name) {
+        return NAMED.computeIfAbsent(name, ignored -> new InMemoryStorage());
+    }
+
+    @Override
+    public BookRepository books() {
+        return books;
+    }
+
+    @Override
+    public MemberRepository members() {
+        return members;
+    }
+
+    @Override
+    public LoanRepository loans() {
+        return loans;
+    }
+
+    @Override
+    public HoldRepository holds() {
+        return holds;
+    }
+
+    @Override
+    public HolidayRepository holidays() {
+        return holidays;
+    }
+
+    @Override
+    public ConnectionSource connections() {
+        return null;
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    // --- 줄무늬 잠금 ---
+
+    private static final class Stripe<V> {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final IntObjectMap<V> rows = new IntObjectMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Stripe<V>[] newStripes() {
+        Stripe<V>[] stripes = (Stripe<V>[]) new Stripe<?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        return stripes;
+    }
+
+    // AUTO_INCREMENT 처럼 연속된 ID 가 줄무늬를 골고루 돌도록 하위 비트로 고른다.
+    private static <V> Stripe<V> stripe(Stripe<V>[] stripes, int id) {
+        return stripes[id & (STRIPES - 1)];
+    }
+
+    private static <V, R> R read(Stripe<V>[] stripes, int id, IntFunction<R> reader) {
+        Stripe<V> stripe = stripe(stripes, id);
+        stripe.lock.readLock().lock();
+        try {
+            return reader.apply(id);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    // 줄무늬를 하나씩 읽기 잠금으로 훑어 조건에 맞는 값을 모은다. (색인이 없을 때 쓰는 느린 경로)
+    private static <V, R> List<R> scan(Stripe<V>[] stripes, Function<V, R> mapper, Predicate<R> filter) {
+        List<R> matched = new ArrayList<>();
+        for (Stripe<V> stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                stripe.rows.forEach((id, row) -> {
+                    R value = mapper.apply(row);
+                    if (filter.test(value)) {
+                        matched.add(value);
+                    }
+                });
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return matched;
+    }
+
+    // 도서 한 권. 재고, 미반납 대출 수, 대기 예약은 줄무늬 쓰기 잠금 안에서만 바꾼다.
+    private static final class BookRow {
+        Book book;
+        int openLoans;
+        // 대기(WAITING) 예약의 예약 ID, 들어온 순서. 예약이 없는 도서는 null
+        ArrayDeque<Integer> waiting;
+
+        BookRow(Book book) {
+            this.book = book;
+        }
+    }
+
+    private static final class MemberRow {
+        Member member;
+        int openLoans;
+
+        MemberRow(Member member) {
+            this.member = member;
+        }
+    }
+
+    private static Book withStock(Book book, int stock) {
+        return new Book(book.getBookId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPublisher(), stock);
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return value != null && value.contains(keyword);
+    }
+
+    // --- 도서 ---
+
+    private final class Books implements BookRepository {
+        @Override
+        public Book insert(String title, String author, String isbn, String publisher, int stock) {
+            int bookId = lastBookId.incrementAndGet();
+            Book book = new Book(bookId, title, author, isbn, publisher, stock);
+            Stripe<BookRow> stripe = stripe(bookStripes, bookId);
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.rows.put(bookId, new BookRow(book));
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+            if (isbn != null) {
+                isbnIndex.putIfAbsent(isbn, bookId);
+            }
+            return book;
+        }
+
+        @Override
+        public Book findById(int bookId) {
+            return read(bookStripes, bookId, id -> {
+                BookRow row = stripe(bookStripes, id).rows.get(id);
+                return row == null ? null : row.book;
+            });
+        }
+
+        @Override
+        public Book findByIsbn(String isbn) {
+            Integer bookId = isbnIndex.get(isbn);
+            Book book = bookId == null ? null : findById(bookId);
+            return book != null && isbn.equals(book.getIsbn()) ? book : null;
+        }
+
+        @Override
+        public List<Book> findByIds(int[] bookIds) {
+            List<Book> found = new ArrayList<>(bookIds.length);
+            for (int bookId : bookIds) {
+                Book book = findById(bookId);
+                if (book != null) {
+                    found.add(book);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public List<Book> findByTitleContaining(String keyword) {
+            return sorted(scan(bookStripes, row -> row.book, book -> contains(book.getTitle(), keyword)));
+        }
+
+        @Override
+        public List<Book> findByAuthorContaining(String keyword) {
+            return sorted(scan(bookStripes, row -> row.book, book -> contains(book.getAuthor(), keyword)));
+        }
+
+        private List<Book> sorted(List<Book> found) {
+            found.sort(Comparator.comparingInt(Book::getBookId));
+            return found;
+        }
+
+        @Override
+        public Stream<Book> stream(int pageSize, int fetchSize) {
+            return IntStream.rangeClosed(1, lastBookId.get()).mapToObj(this::findById).filter(Objects::nonNull);
+        }
+
+        @Override
+        public Book updateStock(int bookId, int newStock) {
+            Stripe<BookRow> stripe = stripe(bookStripes, bookId);
+            stripe.lock.writeLock().lock();
+            try {
+                BookRow row = stripe.rows.get(bookId);
+                if (row == null) {
+                    return null;
+                }
+                row.book = withStock(row.book, newStock);
+                return row.book;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Library.BulkOutcome delete(int bookId) {
+            Book removed;
+            Stripe<BookRow> stripe = stripe(bookStripes, bookId);
+            stripe.lock.writeLock().lock();
+            try {
+                BookRow row = stripe.rows.get(bookId);
+                if (row == null) {
+                    return Library.BulkOutcome.NOT_FOUND;
+                }
+                if (row.openLoans > 0) {
+                    return Library.BulkOutcome.ACTIVE_LOANS;
+                }
+                stripe.rows.remove(bookId);
+                removed = row.book;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+            String isbn = removed.getIsbn();
+            if (isbn != null && isbnIndex.remove(isbn, bookId)) {
+                // 같은 ISBN 의 다른 도서가 남아 있으면 그 도서로 이어 붙인다.
+                scan(bookStripes, row -> row.book, book -> isbn.equals(book.getIsbn())).stream()
+                        .mapToInt(Book::getBookId).min()
+                        .ifPresent(next -> isbnIndex.putIfAbsent(isbn, next));
+            }
+            return Library.BulkOutcome.APPLIED;
+        }
+
+        @Override
+        public Map<Integer, Library.BulkOutcome> updateStocks(Map<Integer, Integer> newStocks) {
+            JdbcBookRepository.requireStocks(newStocks); // 앞쪽 도서만 바뀐 채로 실패하지 않게 먼저 확인한다.
+            Map<Integer, Library.BulkOutcome> outcomes = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Integer> entry : newStocks.entrySet()) {
+                Book book = updateStock(entry.getKey(), entry.getValue());
+                outcomes.put(entry.getKey(), book != null ? Library.BulkOutcome.APPLIED : Library.BulkOutcome.NOT_FOUND);
+            }
+            return outcomes;
+        }
+
+        @Override
+        public Map<Integer, Library.BulkOutcome> deleteAll(Collection<Integer> bookIds) {
+            JdbcBookRepository.requireBookIds(bookIds);
+            Map<Integer, Library.BulkOutcome> outcomes = new LinkedHashMap<>();
+            for (int bookId : bookIds) {
+                outcomes.put(bookId, delete(bookId));
+            }
+            return outcomes;
+        }
+    }
+
+    // --- 회원 ---
+
+    private final class Members implements MemberRepository {
+        @Override
+        public Member insert(String name, String phoneNumber) {
+            int memberId = lastMemberId.incrementAndGet();
+            Member member = new Member(memberId, name, phoneNumber);
+            Stripe<MemberRow> stripe = stripe(memberStripes, memberId);
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.rows.put(memberId, new MemberRow(member));
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+            return member;
+        }
+
+        @Override
+        public Member findById(int memberId) {
+            return read(memberStripes, memberId, id -> {
+                MemberRow row = stripe(memberStripes, id).rows.get(id);
+                return row == null ? null : row.member;
+            });
+        }
+
+        @Override
+        public List<Member> findByIds(int[] memberIds) {
+            List<Member> found = new ArrayList<>(memberIds.length);
+            for (int memberId : memberIds) {
+                Member member = findById(memberId);
+                if (member != null) {
+                    found.add(member);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public List<Member> findByNamePrefix(String prefix, int limit) {
+            return firstById(scan(memberStripes, row -> row.member,
+                    member -> member.getName() != null && member.getName().startsWith(prefix)), limit);
+        }
+
+        @Override
+        public List<Member> findByPhoneSuffix(String suffix, int limit) {
+            return firstById(scan(memberStripes, row -> row.member,
+                    member -> member.getPhoneNumber() != null && member.getPhoneNumber().endsWith(suffix)), limit);
+        }
+
+        private List<Member> firstById(List<Member> found, int limit) {
+            found.sort(Comparator.comparingInt(Member::getMemberId));
+            return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+        }
+
+        @Override
+        public Stream<Member> stream(int pageSize, int fetchSize) {
+            return IntStream.rangeClosed(1, lastMemberId.get()).mapToObj(this::findById).filter(Objects::nonNull);
+        }
+
+        @Override
+        public Member updatePhoneNumber(int memberId, String newPhoneNumber) {
+            Stripe<MemberRow> stripe = stripe(memberStripes, memberId);
+            stripe.lock.writeLock().lock();
+            try {
+                MemberRow row = stripe.rows.get(memberId);
+                if (row == null) {
+                    return null;
+                }
+                row.member = new Member(memberId, row.member.getName(), newPhoneNumber);
+                return row.member;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Library.BulkOutcome delete(int memberId) {
+            Stripe<MemberRow> stripe = stripe(memberStripes, memberId);
+            stripe.lock.writeLock().lock();
+            try {
+                MemberRow row = stripe.rows.get(memberId);
+                if (row == null) {
+                    return Library.BulkOutcome.NOT_FOUND;
+                }
+                if (row.openLoans > 0) {
+                    return Library.BulkOutcome.ACTIVE_LOANS;
+                }
+                stripe.rows.remove(memberId);
+                return Library.BulkOutcome.APPLIED;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // --- 대출 ---
+
+    private final class Loans implements LoanRepository {
+        // 도서 줄무늬 → 회원 줄무늬 순으로 잡고 재고와 미반납 수를 함께 바꾼 뒤, 잠금을 놓고 대출 기록을 넣는다.
+        // 새 대출 ID 는 아직 아무도 모르므로 기록이 조금 늦게 보여도 된다.
+        @Override
+        public Loan checkOut(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) {
+            Stripe<BookRow> bookStripe = stripe(bookStripes, bookId);
+            bookStripe.lock.writeLock().lock();
+            try {
+                BookRow book = bookStripe.rows.get(bookId);
+                if (book == null) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
+                }
+                if (book.book.getStock() <= 0) {
+                    throw new LibraryException(LibraryException.Reason.OUT_OF_STOCK, "도서 ID " + bookId + " 의 재고가 없습니다.");
+                }
+                Stripe<MemberRow> memberStripe = stripe(memberStripes, memberId);
+                memberStripe.lock.writeLock().lock();
+                try {
+                    MemberRow member = memberStripe.rows.get(memberId);
+                    if (member == null) {
+                        throw new LibraryException(LibraryException.Reason.NOT_FOUND, "회원 ID " + memberId + " 를 찾을 수 없습니다.");
+                    }
+                    member.openLoans++;
+                } finally {
+                    memberStripe.lock.writeLock().unlock();
+                }
+                book.book = withStock(book.book, book.book.getStock() - 1);
+                book.openLoans++;
+            } finally {
+                bookStripe.lock.writeLock().unlock();
+            }
+            return insertLoan(bookId, memberId, loanDate, dueDate);
+        }
+
+        private Loan insertLoan(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) {
+            int loanId = lastLoanId.incrementAndGet();
+            Loan loan = new Loan(loanId, bookId, memberId, loanDate, dueDate, null);
+            Stripe<Loan> loanStripe = stripe(loanStripes, loanId);
+            loanStripe.lock.writeLock().lock();
+            try {
+                loanStripe.rows.put(loanId, loan);
+            } finally {
+                loanStripe.lock.writeLock().unlock();
+            }
+            return loan;
+        }
+
+        // 보관 중인 책은 이미 재고에서 빠져 있으므로 재고는 그대로 두고 미반납 수만 센다.
+        @Override
+        public Loan checkOutHold(int holdId, LocalDate loanDate, LocalDate dueDate) {
+            Hold hold = holdsById.get(holdId);
+            if (hold == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "예약 ID " + holdId + " 로 보관 중인 책이 없습니다.");
+            }
+            int bookId = hold.getBookId();
+            int memberId = hold.getMemberId();
+            Stripe<BookRow> bookStripe = stripe(bookStripes, bookId);
+            bookStripe.lock.writeLock().lock();
+            try {
+                BookRow book = bookStripe.rows.get(bookId);
+                if (book == null || holdsById.get(holdId).getStatus() != Hold.Status.READY) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND, "예약 ID " + holdId + " 로 보관 중인 책이 없습니다.");
+                }
+                Stripe<MemberRow> memberStripe = stripe(memberStripes, memberId);
+                memberStripe.lock.writeLock().lock();
+                try {
+                    MemberRow member = memberStripe.rows.get(memberId);
+                    if (member == null) {
+                        throw new LibraryException(LibraryException.Reason.NOT_FOUND, "회원 ID " + memberId + " 를 찾을 수 없습니다.");
+                    }
+                    member.openLoans++;
+                } finally {
+                    memberStripe.lock.writeLock().unlock();
+                }
+                book.openLoans++;
+                holdsById.put(holdId, hold.withStatus(Hold.Status.FULFILLED, hold.getReadyUntil()));
+            } finally {
+                bookStripe.lock.writeLock().unlock();
+            }
+            return insertLoan(bookId, memberId, loanDate, dueDate);
+        }
+
+        @Override
+        public Loan checkIn(int loanId, LocalDate returnDate, HoldHandOff handOff) {
+            Hold handedTo = null;
+            Loan returned;
+            Stripe<Loan> loanStripe = stripe(loanStripes, loanId);
+            loanStripe.lock.writeLock().lock();
+            try {
+                Loan loan = requireOpen(loanStripe, loanId);
+                returned = new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(), loan.getDueDate(), returnDate,
+                        loan.getExtendedDays());
+                loanStripe.rows.put(loanId, returned);
+
+                Stripe<BookRow> bookStripe = stripe(bookStripes, loan.getBookId());
+                bookStripe.lock.writeLock().lock();
+                try {
+                    BookRow book = bookStripe.rows.get(loan.getBookId());
+                    if (book != null) {
+                        handedTo = handOffOrRestock(book, handOff.readyUntil(loan.getBookId()));
+                        book.openLoans--;
+                    }
+                } finally {
+                    bookStripe.lock.writeLock().unlock();
+                }
+                Stripe<MemberRow> memberStripe = stripe(memberStripes, loan.getMemberId());
+                memberStripe.lock.writeLock().lock();
+                try {
+                    MemberRow member = memberStripe.rows.get(loan.getMemberId());
+                    if (member != null) {
+                        member.openLoans--;
+                    }
+                } finally {
+                    memberStripe.lock.writeLock().unlock();
+                }
+            } finally {
+                loanStripe.lock.writeLock().unlock();
+            }
+            if (handedTo != null) {
+                handOff.handedOff(handedTo);
+            }
+            return returned;
+        }
+
+        private Loan requireOpen(Stripe<Loan> stripe, int loanId) {
+            Loan loan = stripe.rows.get(loanId);
+            if (loan == null || loan.isReturned()) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                        "대출 기록 ID " + loanId + " 를 찾을 수 없거나 이미 반납되었습니다.");
+            }
+            return loan;
+        }
+
+        @Override
+        public Loan renew(int loanId, int days, DueDateRule dueDates) {
+            Stripe<Loan> stripe = stripe(loanStripes, loanId);
+            stripe.lock.writeLock().lock();
+            try {
+                Loan loan = requireOpen(stripe, loanId);
+                int extendedDays = loan.getExtendedDays() + days;
+                Loan renewed = new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(),
+                        dueDates.dueDate(loan.getLoanDate(), extendedDays), null, extendedDays);
+                stripe.rows.put(loanId, renewed);
+                return renewed;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Loan findById(int loanId) {
+            return read(loanStripes, loanId, id -> stripe(loanStripes, id).rows.get(id));
+        }
+
+        @Override
+        public int rebaseDueDates(LocalDate date, DueDateRule dueDates) {
+            int rebased = 0;
+            List<Loan> changed = new ArrayList<>();
+            for (Stripe<Loan> stripe : loanStripes) {
+                stripe.lock.writeLock().lock();
+                try {
+                    changed.clear();
+                    stripe.rows.forEach((loanId, loan) -> {
+                        if (!loan.isReturned()
+                                && (date == null || !loan.getDueDate().isBefore(date) && loan.getLoanDate().isBefore(date))) {
+                            LocalDate dueDate = dueDates.dueDate(loan.getLoanDate(), loan.getExtendedDays());
+                            if (!dueDate.equals(loan.getDueDate())) {
+                                changed.add(new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(), dueDate, null,
+                                        loan.getExtendedDays()));
+                            }
+                        }
+                    });
+                    for (Loan loan : changed) {
+                        stripe.rows.put(loan.getLoanId(), loan);
+                    }
+                    rebased += changed.size();
+                } finally {
+                    stripe.lock.writeLock().unlock();
+                }
+            }
+            return rebased;
+        }
+    }
+
+    // --- 예약 ---
+
+    // 도서 줄무늬 쓰기 잠금 안에서 풀린 책 한 권을 가장 오래된 대기 예약에 넘기거나, 없으면 재고로 돌린다.
+    private Hold handOffOrRestock(BookRow book, LocalDate readyUntil) {
+        Integer next = readyUntil == null || book.waiting == null ? null : book.waiting.poll();
+        if (next == null) {
+            book.book = withStock(book.book, book.book.getStock() + 1);
+            return null;
+        }
+        Hold ready = holdsById.get(next).withStatus(Hold.Status.READY, readyUntil);
+        holdsById.put(next, ready);
+        return ready;
+    }
+
+    private final class Holds implements HoldRepository {
+        @Override
+        public Hold place(int bookId, int memberId, LocalDate placedOn) {
+            Stripe<BookRow> bookStripe = stripe(bookStripes, bookId);
+            bookStripe.lock.writeLock().lock();
+            try {
+                BookRow book = bookStripe.rows.get(bookId);
+                if (book == null) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
+                }
+                if (members.findById(memberId) == null) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND, "회원 ID " + memberId + " 를 찾을 수 없습니다.");
+                }
+                Hold hold = new Hold(lastHoldId.incrementAndGet(), bookId, memberId, placedOn, Hold.Status.WAITING, null);
+                holdsById.put(hold.getHoldId(), hold);
+                if (book.waiting == null) {
+                    book.waiting = new ArrayDeque<>();
+                }
+                book.waiting.add(hold.getHoldId());
+                return hold;
+            } finally {
+                bookStripe.lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Hold findById(int holdId) {
+            return holdsById.get(holdId);
+        }
+
+        @Override
+        public List<Hold> findActive() {
+            List<Hold> active = new ArrayList<>();
+            for (Hold hold : holdsById.values()) {
+                if (hold.getStatus().isActive()) {
+                    active.add(hold);
+                }
+            }
+            active.sort(Comparator.comparingInt(Hold::getHoldId));
+            return active;
+        }
+
+        @Override
+        public List<Hold> cancel(int holdId, LocalDate readyUntil) {
+            Hold hold = holdsById.get(holdId);
+            if (hold == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "예약 ID " + holdId + " 를 찾을 수 없거나 이미 끝났습니다.");
+            }
+            List<Hold> changed = new ArrayList<>();
+            Stripe<BookRow> bookStripe = stripe(bookStripes, hold.getBookId());
+            bookStripe.lock.writeLock().lock();
+            try {
+                hold = holdsById.get(holdId);
+                if (!hold.getStatus().isActive()) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND, "예약 ID " + holdId + " 를 찾을 수 없거나 이미 끝났습니다.");
+                }
+                finish(bookStripe.rows.get(hold.getBookId()), hold, Hold.Status.CANCELLED, readyUntil, changed);
+            } finally {
+                bookStripe.lock.writeLock().unlock();
+            }
+            return changed;
+        }
+
+        // 도서 행이 이미 지워져 대기열도 함께 사라졌으므로 예약 상태만 바꾼다.
+        @Override
+        public List<Hold> cancelForBook(int bookId) {
+            List<Hold> cancelled = new ArrayList<>();
+            Stripe<BookRow> bookStripe = stripe(bookStripes, bookId);
+            bookStripe.lock.writeLock().lock();
+            try {
+                for (Hold hold : holdsById.values()) {
+                    if (hold.getBookId() == bookId && hold.getStatus().isActive()) {
+                        Hold finished = hold.withStatus(Hold.Status.CANCELLED, hold.getReadyUntil());
+                        holdsById.put(hold.getHoldId(), finished);
+                        cancelled.add(finished);
+                    }
+                }
+            } finally {
+                bookStripe.lock.writeLock().unlock();
+            }
+            cancelled.sort(Comparator.comparingInt(Hold::getHoldId));
+            return cancelled;
+        }
+
+        @Override
+        public List<Hold> sweep(LocalDate asOf, LocalDate readyUntil) {
+            List<Hold> changed = new ArrayList<>();
+            for (Hold candidate : holdsById.values()) {
+                if (candidate.getStatus() != Hold.Status.READY || !candidate.getReadyUntil().isBefore(asOf)) {
+                    continue;
+                }
+                Stripe<BookRow> bookStripe = stripe(bookStripes, candidate.getBookId());
+                bookStripe.lock.writeLock().lock();
+                try {
+                    Hold hold = holdsById.get(candidate.getHoldId());
+                    if (hold.getStatus() == Hold.Status.READY && hold.getReadyUntil().isBefore(asOf)) {
+                        finish(bookStripe.rows.get(hold.getBookId()), hold, Hold.Status.EXPIRED, readyUntil, changed);
+                    }
+                } finally {
+                    bookStripe.lock.writeLock().unlock();
+                }
+            }
+            for (Stripe<BookRow> stripe : bookStripes) {
+                stripe.lock.writeLock().lock();
+                try {
+                    stripe.rows.forEach((bookId, book) -> {
+                        while (readyUntil != null && book.waiting != null && !book.waiting.isEmpty() && book.book.getStock() > 0) {
+                            book.book = withStock(book.book, book.book.getStock() - 1);
+                            changed.add(handOffOrRestock(book, readyUntil));
+                        }
+                    });
+                } finally {
+                    stripe.lock.writeLock().unlock();
+                }
+            }
+            return changed;
+        }
+
+        // 도서 줄무늬 쓰기 잠금 안에서 예약을 끝내고, 보관 중이던 책은 다음 대기 예약이나 재고로 돌린다.
+        // 끝난 예약과 책을 넘겨받은 예약을 차례로 changed 에 넣는다.
+        private void finish(BookRow book, Hold hold, Hold.Status status, LocalDate readyUntil, List<Hold> changed) {
+            Hold finished = hold.withStatus(status, hold.getReadyUntil());
+            holdsById.put(hold.getHoldId(), finished);
+            changed.add(finished);
+            if (book != null) {
+                if (hold.getStatus() == Hold.Status.WAITING) {
+                    book.waiting.remove(hold.getHoldId());
+                } else {
+                    Hold next = handOffOrRestock(book, readyUntil);
+                    if (next != null) {
+                        changed.add(next);
+                    }
+                }
+            }
+        }
+    }
+
+    // --- 휴일 ---
+
+    // 휴일은 수백 건 수준이라 잠금 하나로 충분하다. 변경 로그는 번호(1부터)를 배열 위치로 쓴다.
+    private static final class Holidays implements HolidayRepository {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final IntObjectMap<String> holidays = new IntObjectMap<>();
+        // 에포크 이전 날짜(음수)도 담도록 날짜와 종류를 따로 둔다.
+        private int[] changeDays = new int[16];
+        private boolean[] changeAdded = new boolean[16];
+        private int changeCount;
+
+        // IntObjectMap 은 키 0 을 쓰지 않으므로 1970-01-01 을 피해 하나 밀어 둔다.
+        private static int key(LocalDate date) {
+            long epochDay = date.toEpochDay();
+            return (int) (epochDay >= 0 ? epochDay + 1 : epochDay);
+        }
+
+        private static int epochDay(int key) {
+            return key > 0 ? key - 1 : key;
+        }
+
+        @Override
+        public long loadBetween(LocalDate from, LocalDate to, IntConsumer epochDays) {
+            int fromDay = (int) from.toEpochDay();
+            int toDay = (int) to.toEpochDay();
+            lock.readLock().lock();
+            try {
+                holidays.forEach((key, description) -> {
+                    int day = epochDay(key);
+                    if (day >= fromDay && day <= toDay) {
+                        epochDays.accept(day);
+                    }
+                });
+                return changeCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void insert(LocalDate date, String description) throws SQLException {
+            lock.writeLock().lock();
+            try {
+                if (holidays.containsKey(key(date))) {
+                    throw new SQLIntegrityConstraintViolationException("이미 등록된 휴일입니다: " + date);
+                }
+                holidays.put(key(date), description);
+                recordChange(date, true);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean delete(LocalDate date) {
+            lock.writeLock().lock();
+            try {
+                if (!holidays.containsKey(key(date))) {
+                    return false;
+                }
+                holidays.remove(key(date));
+                recordChange(date, false);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void recordChange(LocalDate date, boolean added) {
+            if (changeCount == changeDays.length) {
+                changeDays = Arrays.copyOf(changeDays, changeCount * 2);
+                changeAdded = Arrays.copyOf(changeAdded, changeCount * 2);
+            }
+            changeDays[changeCount] = (int) date.toEpochDay();
+            changeAdded[changeCount] = added;
+            changeCount++;
+        }
+
+        @Override
+        public void changesSince(long afterChangeId, ChangeConsumer consumer) {
+            lock.readLock().lock();
+            try {
+                for (int i = (int) Math.max(afterChangeId, 0); i < changeCount; i++) {
+                    consumer.accept(i + 1, LocalDate.ofEpochDay(changeDays[i]), changeAdded[i]);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
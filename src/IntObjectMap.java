@@ -0,0 +1,192 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * int 키를 박싱하지 않고 값에 연결하는 열린 주소(선형 탐사) 해시 맵입니다.
+ * 키 배열과 값 배열 두 개만 쓰므로 항목마다 Entry/Integer 객체가 생기지 않습니다.
+ * 삭제는 뒤 항목을 당겨 채우는 방식(backward shift)이라 묘비가 쌓이지 않습니다.
+ * <p>
+ * 동기화하지 않으므로 여러 스레드가 쓰려면 호출자가 잠가야 합니다. (InMemoryStorage 의 줄무늬 잠금)
+ * 키 0 은 빈 칸 표시로 쓰므로 넣을 수 없고, 조회/삭제하면 항상 없는 키로 봅니다. (DB 의 AUTO_INCREMENT ID 는 1 부터 시작합니다.)
+ */
+public class IntObjectMap<V> {
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 크기를 늘리지 않고 담을 수 있어야 하는 항목 수
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // 연속된 ID 가 이웃 칸에 몰리지 않도록 섞는다. (Murmur3 finalizer)
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(int key) {
+        if (key == EMPTY) {
+            return -1; // 빈 칸과 같은 값이라 그대로 찾으면 빈 칸을 항목으로 잘못 돌려준다.
+        }
+        int i = mix(key) & mask;
+        while (true) {
+            int k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * @return 키에 연결된 값, 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return 이전 값, 없었으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("키 0 은 넣을 수 없습니다.");
+        }
+        int i = mix(key) & mask;
+        while (true) {
+            int k = keys[i];
+            if (k == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return null;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 키에 값이 없으면 만들어 넣고, 있으면 그 값을 돌려줍니다.
+     */
+    public V computeIfAbsent(int key, IntFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return 지운 값, 없었으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        // 지운 칸 뒤로 이어진 항목 중 제자리가 빈 칸보다 앞인 것을 당겨 탐사 사슬이 끊기지 않게 한다.
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = mix(k) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * 키/값 쌍을 하나씩 넘깁니다. 순서는 정해져 있지 않으며, 도는 동안 맵을 바꾸면 안 됩니다.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k != EMPTY) {
+                int j = mix(k) & mask;
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+}
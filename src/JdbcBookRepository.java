@@ -0,0 +1,365 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * books 테이블을 쓰는 BookRepository 입니다.
+ */
+public class JdbcBookRepository implements BookRepository {
+    // ID 목록으로 조회할 때 IN 절 하나에 넣는 최대 개수
+    static final int ID_LOOKUP_CHUNK = 500;
+
+    private static final String BOOK_COLUMNS = "book_id, title, author, isbn, publisher, stock";
+    private static final String BOOK_PAGE_SQL = "SELECT " + BOOK_COLUMNS + " FROM books "
+            + "WHERE book_id > ? ORDER BY book_id LIMIT ?";
+    // 반납하지 않은 대출이 없을 때만 지운다. (book_id 를 두 번 바인딩)
+    private static final String DELETE_BOOK_SQL = "DELETE FROM books WHERE book_id = ? "
+            + "AND NOT EXISTS (SELECT 1 FROM loans WHERE book_id = ? AND return_date IS NULL)";
+
+    private final ConnectionSource connections;
+
+    public JdbcBookRepository(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    static Book mapBook(ResultSet rs) throws SQLException {
+        return new Book(rs.getInt("book_id"),
+                rs.getString("title"),
+                rs.getString("author"),
+                rs.getString("isbn"),
+                rs.getString("publisher"),
+                rs.getInt("stock"));
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public Book insert(String title, String author, String isbn, String publisher, int stock) throws SQLException {
+        String sql = "INSERT INTO books (title, author, isbn, publisher, stock) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, title);
+            pstmt.setString(2, author);
+            pstmt.setString(3, isbn);
+            pstmt.setString(4, publisher);
+            pstmt.setInt(5, stock);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("생성된 도서 ID 를 받지 못했습니다.");
+                }
+                return new Book(keys.getInt(1), title, author, isbn, publisher, stock);
+            }
+        }
+    }
+
+    @Override
+    public Book findById(int bookId) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            return selectBook(conn, bookId);
+        }
+    }
+
+    @Override
+    public Book findByIsbn(String isbn) throws SQLException {
+        String sql = "SELECT " + BOOK_COLUMNS + " FROM books WHERE isbn = ?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, isbn);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapBook(rs) : null;
+            }
+        }
+    }
+
+    private static Book selectBook(Connection conn, int bookId) throws SQLException {
+        String sql = "SELECT " + BOOK_COLUMNS + " FROM books WHERE book_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapBook(rs) : null;
+            }
+        }
+    }
+
+    // IN 절로 나누어 조회한다.
+    @Override
+    public List<Book> findByIds(int[] bookIds) throws SQLException {
+        List<Book> books = new ArrayList<>(bookIds.length);
+        if (bookIds.length == 0) {
+            return books;
+        }
+        try (Connection conn = connections.getConnection()) {
+            for (int from = 0; from < bookIds.length; from += ID_LOOKUP_CHUNK) {
+                int to = Math.min(bookIds.length, from + ID_LOOKUP_CHUNK);
+                String sql = "SELECT " + BOOK_COLUMNS + " FROM books WHERE book_id IN (" + placeholders(to - from) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = from; i < to; i++) {
+                        pstmt.setInt(i - from + 1, bookIds[i]);
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            books.add(mapBook(rs));
+                        }
+                    }
+                }
+            }
+        }
+        return books;
+    }
+
+    @Override
+    public List<Book> findByTitleContaining(String keyword) throws SQLException {
+        return findByLike("title", keyword);
+    }
+
+    @Override
+    public List<Book> findByAuthorContaining(String keyword) throws SQLException {
+        return findByLike("author", keyword);
+    }
+
+    private List<Book> findByLike(String column, String keyword) throws SQLException {
+        String sql = "SELECT " + BOOK_COLUMNS + " FROM books WHERE " + column + " LIKE ?";
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, "%" + keyword + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    books.add(mapBook(rs));
+                }
+            }
+        }
+        return books;
+    }
+
+    // 도서 ID 기준 키셋 페이지네이션. 스트림을 소비하는 만큼만 다음 페이지를 조회한다.
+    @Override
+    public Stream<Book> stream(int pageSize, int fetchSize) {
+        return new KeysetPageIterator<>(connections, BOOK_PAGE_SQL, "book_id",
+                JdbcBookRepository::mapBook, pageSize, fetchSize).stream();
+    }
+
+    @Override
+    public Book updateStock(int bookId, int newStock) throws SQLException {
+        String sql = "UPDATE books SET stock = ? WHERE book_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            int affectedRows;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, newStock);
+                pstmt.setInt(2, bookId);
+                affectedRows = pstmt.executeUpdate();
+            }
+            return affectedRows > 0 ? selectBook(conn, bookId) : null;
+        }
+    }
+
+    // 대출 중인 기록 확인과 삭제는 DELETE 한 문장으로 처리한다.
+    @Override
+    public Library.BulkOutcome delete(int bookId) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_BOOK_SQL)) {
+                pstmt.setInt(1, bookId);
+                pstmt.setInt(2, bookId);
+                if (pstmt.executeUpdate() > 0) {
+                    return Library.BulkOutcome.APPLIED;
+                }
+            }
+            // 실패한 경우에만 원인을 구분하기 위해 조회한다.
+            return selectBook(conn, bookId) == null ? Library.BulkOutcome.NOT_FOUND : Library.BulkOutcome.ACTIVE_LOANS;
+        }
+    }
+
+    // 한 트랜잭션에서 JDBC 배치 하나로 바꾼다.
+    @Override
+    public Map<Integer, Library.BulkOutcome> updateStocks(Map<Integer, Integer> newStocks) throws SQLException {
+        requireStocks(newStocks);
+        List<Integer> bookIds = new ArrayList<>(newStocks.keySet());
+        Library.BulkOutcome[] outcomes = new Library.BulkOutcome[bookIds.size()];
+        if (bookIds.isEmpty()) {
+            return toOutcomeMap(bookIds, outcomes);
+        }
+        String sql = "UPDATE books SET stock = ? WHERE book_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] counts;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int bookId : bookIds) {
+                        pstmt.setInt(1, newStocks.get(bookId));
+                        pstmt.setInt(2, bookId);
+                        pstmt.addBatch();
+                    }
+                    counts = pstmt.executeBatch();
+                }
+                List<Integer> unknown = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                        unknown.add(bookIds.get(i));
+                    } else {
+                        outcomes[i] = counts[i] > 0 ? Library.BulkOutcome.APPLIED : Library.BulkOutcome.NOT_FOUND;
+                    }
+                }
+                // 드라이버가 문장별 건수를 주지 않은 경우에만 존재 여부를 한 번 더 조회한다.
+                if (!unknown.isEmpty()) {
+                    Set<Integer> existing = selectExistingBookIds(conn, unknown);
+                    for (int i = 0; i < counts.length; i++) {
+                        if (outcomes[i] == null) {
+                            outcomes[i] = existing.contains(bookIds.get(i)) ? Library.BulkOutcome.APPLIED : Library.BulkOutcome.NOT_FOUND;
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return toOutcomeMap(bookIds, outcomes);
+    }
+
+    // 대출 중인 도서는 loans 와의 안티 조인 한 번으로 걸러 내고, 남은 도서만 JDBC 배치로 지운다.
+    @Override
+    public Map<Integer, Library.BulkOutcome> deleteAll(Collection<Integer> bookIds) throws SQLException {
+        requireBookIds(bookIds);
+        List<Integer> ids = new ArrayList<>(bookIds);
+        Library.BulkOutcome[] outcomes = new Library.BulkOutcome[ids.size()];
+        if (ids.isEmpty()) {
+            return toOutcomeMap(ids, outcomes);
+        }
+        Map<Integer, Library.BulkOutcome> classified = new HashMap<>();
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                classifyForDelete(conn, ids, classified);
+                List<Integer> deletable = new ArrayList<>();
+                for (int bookId : ids) {
+                    if (classified.get(bookId) == Library.BulkOutcome.APPLIED) {
+                        deletable.add(bookId);
+                    }
+                }
+                if (!deletable.isEmpty()) {
+                    int[] counts;
+                    // 조회와 삭제 사이에 대출이 생겨도 NOT EXISTS 조건이 삭제를 막는다.
+                    try (PreparedStatement pstmt = conn.prepareStatement(DELETE_BOOK_SQL)) {
+                        for (int bookId : deletable) {
+                            pstmt.setInt(1, bookId);
+                            pstmt.setInt(2, bookId);
+                            pstmt.addBatch();
+                        }
+                        counts = pstmt.executeBatch();
+                    }
+                    List<Integer> raced = new ArrayList<>();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            raced.add(deletable.get(i));
+                        }
+                    }
+                    if (!raced.isEmpty()) {
+                        Set<Integer> existing = selectExistingBookIds(conn, raced);
+                        for (int bookId : raced) {
+                            classified.put(bookId, existing.contains(bookId) ? Library.BulkOutcome.ACTIVE_LOANS : Library.BulkOutcome.NOT_FOUND);
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            outcomes[i] = classified.getOrDefault(ids.get(i), Library.BulkOutcome.NOT_FOUND);
+        }
+        return toOutcomeMap(ids, outcomes);
+    }
+
+    // books LEFT JOIN 반납되지 않은 loans: 짝이 없는 도서는 삭제 가능, 있으면 대출 중, 결과에 없으면 없는 도서.
+    private static void classifyForDelete(Connection conn, List<Integer> bookIds, Map<Integer, Library.BulkOutcome> classified)
+            throws SQLException {
+        for (int from = 0; from < bookIds.size(); from += ID_LOOKUP_CHUNK) {
+            int to = Math.min(bookIds.size(), from + ID_LOOKUP_CHUNK);
+            String sql = "SELECT b.book_id, l.loan_id FROM books b "
+                    + "LEFT JOIN loans l ON l.book_id = b.book_id AND l.return_date IS NULL "
+                    + "WHERE b.book_id IN (" + placeholders(to - from) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = from; i < to; i++) {
+                    pstmt.setInt(i - from + 1, bookIds.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int bookId = rs.getInt(1);
+                        rs.getInt(2);
+                        if (!rs.wasNull()) {
+                            classified.put(bookId, Library.BulkOutcome.ACTIVE_LOANS);
+                        } else {
+                            classified.putIfAbsent(bookId, Library.BulkOutcome.APPLIED);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<Integer> selectExistingBookIds(Connection conn, List<Integer> bookIds) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        for (int from = 0; from < bookIds.size(); from += ID_LOOKUP_CHUNK) {
+            int to = Math.min(bookIds.size(), from + ID_LOOKUP_CHUNK);
+            String sql = "SELECT book_id FROM books WHERE book_id IN (" + placeholders(to - from) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = from; i < to; i++) {
+                    pstmt.setInt(i - from + 1, bookIds.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    // 배치를 쌓다가 언박싱에서 NullPointerException 이 나지 않도록 시작 전에 거른다. (메모리 엔진도 같이 쓴다)
+    static void requireStocks(Map<Integer, Integer> newStocks) {
+        for (Map.Entry<Integer, Integer> entry : newStocks.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_ALLOWED, "도서 ID 가 비어 있습니다.");
+            }
+            if (entry.getValue() == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                        "도서 ID " + entry.getKey() + " 의 재고 수량이 비어 있습니다.");
+            }
+        }
+    }
+
+    // 일괄 삭제에서 앞쪽 도서만 지워진 채로 실패하지 않게 먼저 확인한다.
+    static void requireBookIds(Collection<Integer> bookIds) {
+        for (Integer bookId : bookIds) {
+            if (bookId == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_ALLOWED, "도서 ID 가 비어 있습니다.");
+            }
+        }
+    }
+
+    static Map<Integer, Library.BulkOutcome> toOutcomeMap(List<Integer> bookIds, Library.BulkOutcome[] outcomes) {
+        Map<Integer, Library.BulkOutcome> result = new LinkedHashMap<>();
+        for (int i = 0; i < outcomes.length; i++) {
+            result.put(bookIds.get(i), outcomes[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,258 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * holds 테이블을 쓰는 HoldRepository 입니다. 예약 상태와 재고(또는 다음 예약으로 넘기는 책)는 한 트랜잭션으로 바꿉니다.
+ * 상태는 한 글자로 저장합니다. (W: 대기, R: 보관 중, F: 대출함, C: 취소, E: 기한 지남)
+ */
+public class JdbcHoldRepository implements HoldRepository {
+    private static final String HOLD_COLUMNS = "hold_id, book_id, member_id, placed_on, status, ready_until";
+
+    private final ConnectionSource connections;
+
+    public JdbcHoldRepository(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    static Hold mapHold(ResultSet rs) throws SQLException {
+        Date readyUntil = rs.getDate("ready_until");
+        return new Hold(rs.getInt("hold_id"), rs.getInt("book_id"), rs.getInt("member_id"),
+                rs.getDate("placed_on").toLocalDate(), toStatus(rs.getString("status")),
+                readyUntil == null ? null : readyUntil.toLocalDate());
+    }
+
+    static String toCode(Hold.Status status) {
+        return status.name().substring(0, 1);
+    }
+
+    private static Hold.Status toStatus(String code) {
+        switch (code) {
+            case "W":
+                return Hold.Status.WAITING;
+            case "R":
+                return Hold.Status.READY;
+            case "F":
+                return Hold.Status.FULFILLED;
+            case "C":
+                return Hold.Status.CANCELLED;
+            case "E":
+                return Hold.Status.EXPIRED;
+            default:
+                throw new IllegalStateException("알 수 없는 예약 상태입니다: " + code);
+        }
+    }
+
+    @Override
+    public Hold place(int bookId, int memberId, LocalDate placedOn) throws SQLException {
+        String sql = "INSERT INTO holds (book_id, member_id, placed_on, status) VALUES (?, ?, ?, 'W')";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, bookId);
+            pstmt.setInt(2, memberId);
+            pstmt.setDate(3, Date.valueOf(placedOn));
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("생성된 예약 ID 를 받지 못했습니다.");
+                }
+                return new Hold(keys.getInt(1), bookId, memberId, placedOn, Hold.Status.WAITING, null);
+            }
+        }
+    }
+
+    @Override
+    public Hold findById(int holdId) throws SQLException {
+        String sql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE hold_id = ?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, holdId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapHold(rs) : null;
+            }
+        }
+    }
+
+    @Override
+    public List<Hold> findActive() throws SQLException {
+        String sql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE status IN ('W', 'R') ORDER BY hold_id";
+        List<Hold> holds = new ArrayList<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                holds.add(mapHold(rs));
+            }
+        }
+        return holds;
+    }
+
+    @Override
+    public List<Hold> cancel(int holdId, LocalDate readyUntil) throws SQLException {
+        String selectSql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE hold_id = ? AND status IN ('W', 'R') FOR UPDATE";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Hold hold;
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setInt(1, holdId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                                    "예약 ID " + holdId + " 를 찾을 수 없거나 이미 끝났습니다.");
+                        }
+                        hold = mapHold(rs);
+                    }
+                }
+                List<Hold> changed = new ArrayList<>();
+                changed.add(finish(conn, hold, Hold.Status.CANCELLED));
+                if (hold.getStatus() == Hold.Status.READY) {
+                    Hold next = handOffOrRestock(conn, hold.getBookId(), readyUntil);
+                    if (next != null) {
+                        changed.add(next);
+                    }
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<Hold> cancelForBook(int bookId) throws SQLException {
+        String selectSql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE book_id = ? AND status IN ('W', 'R') FOR UPDATE";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Hold> active = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setInt(1, bookId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            active.add(mapHold(rs));
+                        }
+                    }
+                }
+                List<Hold> cancelled = new ArrayList<>();
+                for (Hold hold : active) {
+                    cancelled.add(finish(conn, hold, Hold.Status.CANCELLED));
+                }
+                conn.commit();
+                return cancelled;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // 만료와 재고 넘기기는 한 트랜잭션으로 한다. (holds (status, ready_until) 색인이 있으면 테이블 전체를 읽지 않는다.)
+    @Override
+    public List<Hold> sweep(LocalDate asOf, LocalDate readyUntil) throws SQLException {
+        String expiredSql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE status = 'R' AND ready_until < ? FOR UPDATE";
+        String stockedSql = "SELECT DISTINCT h.book_id FROM holds h JOIN books b ON b.book_id = h.book_id "
+                + "WHERE h.status = 'W' AND b.stock > 0";
+        String takeStockSql = "UPDATE books SET stock = stock - 1 WHERE book_id = ? AND stock > 0";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Hold> expired = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(expiredSql)) {
+                    pstmt.setDate(1, Date.valueOf(asOf));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            expired.add(mapHold(rs));
+                        }
+                    }
+                }
+                List<Hold> changed = new ArrayList<>();
+                for (Hold hold : expired) {
+                    changed.add(finish(conn, hold, Hold.Status.EXPIRED));
+                    Hold next = handOffOrRestock(conn, hold.getBookId(), readyUntil);
+                    if (next != null) {
+                        changed.add(next);
+                    }
+                }
+
+                List<Integer> stockedBookIds = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(stockedSql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        stockedBookIds.add(rs.getInt(1));
+                    }
+                }
+                try (PreparedStatement takeStock = conn.prepareStatement(takeStockSql)) {
+                    for (int bookId : stockedBookIds) {
+                        Hold next;
+                        // 재고를 먼저 한 권 빼고, 넘길 대기 예약이 없으면 handOffOrRestock 이 다시 채운다.
+                        do {
+                            takeStock.setInt(1, bookId);
+                            if (takeStock.executeUpdate() == 0) {
+                                break;
+                            }
+                            next = handOffOrRestock(conn, bookId, readyUntil);
+                            if (next != null) {
+                                changed.add(next);
+                            }
+                        } while (next != null);
+                    }
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 호출자의 트랜잭션 안에서 풀린 책 한 권을 이 도서의 가장 오래된 대기 예약에 넘깁니다.
+     * 대기 예약이 없거나 readyUntil 이 null 이면 재고를 한 권 늘립니다.
+     * @return 책을 넘겨받은(READY) 예약, 재고로 돌렸으면 null
+     */
+    static Hold handOffOrRestock(Connection conn, int bookId, LocalDate readyUntil) throws SQLException {
+        if (readyUntil != null) {
+            String selectSql = "SELECT " + HOLD_COLUMNS + " FROM holds WHERE book_id = ? AND status = 'W' "
+                    + "ORDER BY hold_id LIMIT 1 FOR UPDATE";
+            Hold next = null;
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                pstmt.setInt(1, bookId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        next = mapHold(rs);
+                    }
+                }
+            }
+            if (next != null) {
+                String updateSql = "UPDATE holds SET status = 'R', ready_until = ? WHERE hold_id = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setDate(1, Date.valueOf(readyUntil));
+                    pstmt.setInt(2, next.getHoldId());
+                    pstmt.executeUpdate();
+                }
+                return next.withStatus(Hold.Status.READY, readyUntil);
+            }
+        }
+        JdbcLoanRepository.increaseBookStock(conn, bookId);
+        return null;
+    }
+
+    /**
+     * 호출자의 트랜잭션 안에서 예약을 끝난 상태로 바꿉니다.
+     * @return 바뀐 예약
+     */
+    static Hold finish(Connection conn, Hold hold, Hold.Status status) throws SQLException {
+        String sql = "UPDATE holds SET status = ? WHERE hold_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, toCode(status));
+            pstmt.setInt(2, hold.getHoldId());
+            pstmt.executeUpdate();
+        }
+        return hold.withStatus(status, hold.getReadyUntil());
+    }
+}
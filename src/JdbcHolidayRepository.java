@@ -0,0 +1,128 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.function.IntConsumer;
+
+/**
+ * holidays / holiday_changes / holiday_version 테이블을 쓰는 HolidayRepository 입니다.
+ * 휴일 쓰기는 holiday_version 의 한 행을 먼저 잠가 한 번에 하나씩 커밋되므로,
+ * 변경 로그 번호(AUTO_INCREMENT)가 커밋 순서와 같아 마지막으로 본 번호 뒤만 읽어도 변경을 놓치지 않습니다.
+ */
+public class JdbcHolidayRepository implements HolidayRepository {
+    private static final String CHANGE_ADDED = "A";
+    private static final String CHANGE_REMOVED = "R";
+
+    private final ConnectionSource connections;
+
+    public JdbcHolidayRepository(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public long loadBetween(LocalDate from, LocalDate to, IntConsumer epochDays) throws SQLException {
+        long version = 0;
+        String versionSql = "SELECT COALESCE(MAX(change_id), 0) FROM holiday_changes";
+        String sql = "SELECT holiday_date FROM holidays WHERE holiday_date BETWEEN ? AND ?";
+        try (Connection conn = connections.getConnection()) {
+            // 버전과 휴일 목록을 같은 스냅샷에서 읽어야 그 사이의 변경을 놓치지 않는다.
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(versionSql)) {
+                    if (rs.next()) {
+                        version = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setDate(1, Date.valueOf(from));
+                    pstmt.setDate(2, Date.valueOf(to));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            epochDays.accept((int) rs.getDate(1).toLocalDate().toEpochDay());
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public void insert(LocalDate date, String description) throws SQLException {
+        String sql = "INSERT INTO holidays (holiday_date, description) VALUES (?, ?)";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                lockVersion(conn);
+                pstmt.setDate(1, Date.valueOf(date));
+                pstmt.setString(2, description);
+                pstmt.executeUpdate();
+                recordChange(conn, date, CHANGE_ADDED);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean delete(LocalDate date) throws SQLException {
+        String sql = "DELETE FROM holidays WHERE holiday_date = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                lockVersion(conn);
+                pstmt.setDate(1, Date.valueOf(date));
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                recordChange(conn, date, CHANGE_REMOVED);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // 변경 로그 번호는 INSERT 때 정해지지만 커밋은 순서가 바뀔 수 있다. (N+1 이 N 보다 먼저 커밋되면
+    // 읽는 쪽이 N+1 까지 보고 N 을 영영 건너뛴다.) 버전 행을 트랜잭션 끝까지 잠가 휴일 쓰기를 한 줄로 세운다.
+    private static void lockVersion(Connection conn) throws SQLException {
+        String sql = "INSERT INTO holiday_version (version_id, version) VALUES (1, 1) "
+                + "ON DUPLICATE KEY UPDATE version = version + 1";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    // 휴일 변경을 같은 트랜잭션 안에서 변경 로그에 남긴다.
+    private void recordChange(Connection conn, LocalDate date, String changeType) throws SQLException {
+        String sql = "INSERT INTO holiday_changes (holiday_date, change_type) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(date));
+            pstmt.setString(2, changeType);
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void changesSince(long afterChangeId, ChangeConsumer consumer) throws SQLException {
+        String sql = "SELECT change_id, holiday_date, change_type FROM holiday_changes WHERE change_id > ? ORDER BY change_id";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, afterChangeId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getLong("change_id"), rs.getDate("holiday_date").toLocalDate(),
+                            !CHANGE_REMOVED.equals(rs.getString("change_type")));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * loans 테이블을 쓰는 LoanRepository 입니다. 재고 증감(또는 예약으로 넘기는 책)과 대출 기록 변경은 한 트랜잭션으로 처리합니다.
+ * 휴일이 바뀌면 반납 예정일을 대출일과 연장 영업일 수로 다시 계산하므로 연장 일수를 따로 남깁니다.
+ * <pre>
+ * ALTER TABLE loans ADD COLUMN extended_days INT NOT NULL DEFAULT 0;
+ * </pre>
+ */
+public class JdbcLoanRepository implements LoanRepository {
+    private static final String LOAN_COLUMNS = "loan_id, book_id, member_id, loan_date, due_date, return_date, extended_days";
+
+    private final ConnectionSource connections;
+
+    public JdbcLoanRepository(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    static Loan mapLoan(ResultSet rs) throws SQLException {
+        Date returnDate = rs.getDate("return_date");
+        return new Loan(rs.getInt("loan_id"), rs.getInt("book_id"), rs.getInt("member_id"),
+                rs.getDate("loan_date").toLocalDate(), rs.getDate("due_date").toLocalDate(),
+                returnDate == null ? null : returnDate.toLocalDate(), rs.getInt("extended_days"));
+    }
+
+    @Override
+    public Loan checkOut(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                decreaseBookStock(conn, bookId);
+                int loanId = insertLoan(conn, bookId, memberId, loanDate, dueDate);
+                conn.commit();
+                return new Loan(loanId, bookId, memberId, loanDate, dueDate, null);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Loan checkOutHold(int holdId, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        // 도서 행도 함께 잠가, 그사이 삭제된 도서로는 대출 기록을 만들지 않는다.
+        String selectSql = "SELECT h.book_id, h.member_id FROM holds h JOIN books b ON b.book_id = h.book_id "
+                + "WHERE h.hold_id = ? AND h.status = 'R' FOR UPDATE";
+        String updateSql = "UPDATE holds SET status = 'F' WHERE hold_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int bookId;
+                int memberId;
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setInt(1, holdId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                                    "예약 ID " + holdId + " 로 보관 중인 책이 없습니다.");
+                        }
+                        bookId = rs.getInt("book_id");
+                        memberId = rs.getInt("member_id");
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setInt(1, holdId);
+                    pstmt.executeUpdate();
+                }
+                int loanId = insertLoan(conn, bookId, memberId, loanDate, dueDate);
+                conn.commit();
+                return new Loan(loanId, bookId, memberId, loanDate, dueDate, null);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 호출자의 트랜잭션 안에서 대출 기록만 추가합니다. (재고를 이미 다른 곳에서 예약한 인기 도서용)
+     * @return 생성된 대출 기록 ID
+     */
+    static int insertLoan(Connection conn, int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        String sql = "INSERT INTO loans (book_id, member_id, loan_date, due_date) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, bookId);
+            pstmt.setInt(2, memberId);
+            pstmt.setDate(3, Date.valueOf(loanDate));
+            pstmt.setDate(4, Date.valueOf(dueDate));
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("생성된 대출 기록 ID 를 받지 못했습니다.");
+                }
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    @Override
+    public Loan checkIn(int loanId, LocalDate returnDate, HoldHandOff handOff) throws SQLException {
+        String updateSql = "UPDATE loans SET return_date = ? WHERE loan_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Loan loan = lockOpenLoan(conn, loanId);
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setDate(1, Date.valueOf(returnDate));
+                    pstmt.setInt(2, loanId);
+                    pstmt.executeUpdate();
+                }
+                Hold handedTo = JdbcHoldRepository.handOffOrRestock(conn, loan.getBookId(), handOff.readyUntil(loan.getBookId()));
+                conn.commit();
+                if (handedTo != null) {
+                    handOff.handedOff(handedTo);
+                }
+                return new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(), loan.getDueDate(), returnDate,
+                        loan.getExtendedDays());
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Loan renew(int loanId, int days, DueDateRule dueDates) throws SQLException {
+        String updateSql = "UPDATE loans SET due_date = ?, extended_days = ? WHERE loan_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Loan loan = lockOpenLoan(conn, loanId);
+                int extendedDays = loan.getExtendedDays() + days;
+                LocalDate dueDate = dueDates.dueDate(loan.getLoanDate(), extendedDays);
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setDate(1, Date.valueOf(dueDate));
+                    pstmt.setInt(2, extendedDays);
+                    pstmt.setInt(3, loanId);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(), dueDate, null, extendedDays);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Loan findById(int loanId) throws SQLException {
+        String sql = "SELECT " + LOAN_COLUMNS + " FROM loans WHERE loan_id = ?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, loanId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapLoan(rs) : null;
+            }
+        }
+    }
+
+    // 조회와 갱신은 한 트랜잭션에서 하며, 갱신은 JDBC 배치 하나로 보낸다.
+    // (loans (return_date, due_date) 색인이 있으면 테이블 전체를 읽지 않는다.)
+    @Override
+    public int rebaseDueDates(LocalDate date, DueDateRule dueDates) throws SQLException {
+        String selectSql = "SELECT loan_id, loan_date, due_date, extended_days FROM loans WHERE return_date IS NULL"
+                + (date == null ? "" : " AND due_date >= ? AND loan_date < ?") + " FOR UPDATE";
+        String updateSql = "UPDATE loans SET due_date = ? WHERE loan_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rebased = 0;
+                try (PreparedStatement select = conn.prepareStatement(selectSql);
+                     PreparedStatement update = conn.prepareStatement(updateSql)) {
+                    if (date != null) {
+                        select.setDate(1, Date.valueOf(date));
+                        select.setDate(2, Date.valueOf(date));
+                    }
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            LocalDate loanDate = rs.getDate("loan_date").toLocalDate();
+                            LocalDate dueDate = rs.getDate("due_date").toLocalDate();
+                            LocalDate rebasedDueDate = dueDates.dueDate(loanDate, rs.getInt("extended_days"));
+                            if (!rebasedDueDate.equals(dueDate)) {
+                                update.setDate(1, Date.valueOf(rebasedDueDate));
+                                update.setInt(2, rs.getInt("loan_id"));
+                                update.addBatch();
+                                rebased++;
+                            }
+                        }
+                    }
+                    if (rebased > 0) {
+                        update.executeBatch();
+                    }
+                }
+                conn.commit();
+                return rebased;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // 반납하지 않은 대출 기록을 호출자의 트랜잭션 안에서 잠그고 읽는다.
+    private static Loan lockOpenLoan(Connection conn, int loanId) throws SQLException {
+        String selectSql = "SELECT " + LOAN_COLUMNS + " FROM loans WHERE loan_id = ? AND return_date IS NULL FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+            pstmt.setInt(1, loanId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                            "대출 기록 ID " + loanId + " 를 찾을 수 없거나 이미 반납되었습니다.");
+                }
+                return mapLoan(rs);
+            }
+        }
+    }
+
+    /**
+     * 재고가 남아 있으면 한 권 감소시킵니다. 조건부 UPDATE 한 번으로 확인과 감소를 함께 처리하므로
+     * 호출자의 트랜잭션 안에서 동시 대출이 재고를 음수로 만들 수 없습니다.
+     * @throws LibraryException 재고가 없거나(OUT_OF_STOCK) 도서가 없는 경우(NOT_FOUND)
+     */
+    private static void decreaseBookStock(Connection conn, int bookId) throws SQLException {
+        String updateSql = "UPDATE books SET stock = stock - 1 WHERE book_id = ? AND stock > 0";
+        try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+            pstmt.setInt(1, bookId);
+            if (pstmt.executeUpdate() > 0) {
+                return;
+            }
+        }
+
+        // 실패한 경우에만 원인을 구분하기 위해 조회한다.
+        String selectSql = "SELECT 1 FROM books WHERE book_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+            pstmt.setInt(1, bookId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    throw new LibraryException(LibraryException.Reason.OUT_OF_STOCK, "도서 ID " + bookId + " 의 재고가 없습니다.");
+                }
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
+            }
+        }
+    }
+
+    // 도서 재고 증가 (반납 시 호출자의 트랜잭션 안에서 사용)
+    static boolean increaseBookStock(Connection conn, int bookId) throws SQLException {
+        String sql = "UPDATE books SET stock = stock + 1 WHERE book_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, bookId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+}
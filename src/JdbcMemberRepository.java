@@ -0,0 +1,156 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * members 테이블을 쓰는 MemberRepository 입니다.
+ */
+public class JdbcMemberRepository implements MemberRepository {
+    private static final String MEMBER_PAGE_SQL = "SELECT member_id, name, phone_number FROM members "
+            + "WHERE member_id > ? ORDER BY member_id LIMIT ?";
+
+    private final ConnectionSource connections;
+
+    public JdbcMemberRepository(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    static Member mapMember(ResultSet rs) throws SQLException {
+        return new Member(rs.getInt("member_id"), rs.getString("name"), rs.getString("phone_number"));
+    }
+
+    @Override
+    public Member insert(String name, String phoneNumber) throws SQLException {
+        String sql = "INSERT INTO members (name, phone_number) VALUES (?, ?)";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, name);
+            pstmt.setString(2, phoneNumber);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("생성된 회원 ID 를 받지 못했습니다.");
+                }
+                return new Member(keys.getInt(1), name, phoneNumber);
+            }
+        }
+    }
+
+    @Override
+    public Member findById(int memberId) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            return selectMember(conn, memberId);
+        }
+    }
+
+    private static Member selectMember(Connection conn, int memberId) throws SQLException {
+        String sql = "SELECT member_id, name, phone_number FROM members WHERE member_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, memberId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapMember(rs) : null;
+            }
+        }
+    }
+
+    // 색인이 돌려준 순서(이름 순/번호 순)를 지키며 IN 절로 나누어 조회한다.
+    @Override
+    public List<Member> findByIds(int[] memberIds) throws SQLException {
+        Map<Integer, Member> loaded = new HashMap<>();
+        if (memberIds.length > 0) {
+            try (Connection conn = connections.getConnection()) {
+                for (int from = 0; from < memberIds.length; from += JdbcBookRepository.ID_LOOKUP_CHUNK) {
+                    int to = Math.min(memberIds.length, from + JdbcBookRepository.ID_LOOKUP_CHUNK);
+                    String sql = "SELECT member_id, name, phone_number FROM members WHERE member_id IN ("
+                            + JdbcBookRepository.placeholders(to - from) + ")";
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        for (int i = from; i < to; i++) {
+                            pstmt.setInt(i - from + 1, memberIds[i]);
+                        }
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                Member member = mapMember(rs);
+                                loaded.put(member.getMemberId(), member);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        List<Member> members = new ArrayList<>(loaded.size());
+        for (int memberId : memberIds) {
+            Member member = loaded.get(memberId);
+            if (member != null) {
+                members.add(member);
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int limit) throws SQLException {
+        return findByLike("name", prefix + "%", limit);
+    }
+
+    @Override
+    public List<Member> findByPhoneSuffix(String suffix, int limit) throws SQLException {
+        return findByLike("phone_number", "%" + suffix, limit);
+    }
+
+    private List<Member> findByLike(String column, String pattern, int limit) throws SQLException {
+        String sql = "SELECT member_id, name, phone_number FROM members WHERE " + column + " LIKE ? "
+                + "ORDER BY member_id LIMIT " + limit;
+        List<Member> members = new ArrayList<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, pattern);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(mapMember(rs));
+                }
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public Stream<Member> stream(int pageSize, int fetchSize) {
+        return new KeysetPageIterator<>(connections, MEMBER_PAGE_SQL, "member_id",
+                JdbcMemberRepository::mapMember, pageSize, fetchSize).stream();
+    }
+
+    @Override
+    public Member updatePhoneNumber(int memberId, String newPhoneNumber) throws SQLException {
+        String sql = "UPDATE members SET phone_number = ? WHERE member_id = ?";
+        try (Connection conn = connections.getConnection()) {
+            int affectedRows;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, newPhoneNumber);
+                pstmt.setInt(2, memberId);
+                affectedRows = pstmt.executeUpdate();
+            }
+            return affectedRows > 0 ? selectMember(conn, memberId) : null;
+        }
+    }
+
+    // 반납하지 않은 대출 확인과 삭제는 DELETE 한 문장으로 처리한다.
+    @Override
+    public Library.BulkOutcome delete(int memberId) throws SQLException {
+        String sql = "DELETE FROM members WHERE member_id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM loans WHERE member_id = ? AND return_date IS NULL)";
+        try (Connection conn = connections.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, memberId);
+                pstmt.setInt(2, memberId);
+                if (pstmt.executeUpdate() > 0) {
+                    return Library.BulkOutcome.APPLIED;
+                }
+            }
+            // 실패한 경우에만 원인을 구분하기 위해 조회한다.
+            return selectMember(conn, memberId) == null ? Library.BulkOutcome.NOT_FOUND : Library.BulkOutcome.ACTIVE_LOANS;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * JDBC 왕복 횟수를 JMX 로 노출합니다. ObjectName 은 library:type=Jdbc 입니다.
+ */
+public interface JdbcStatsMXBean {
+    /** 새로 연 물리 커넥션 수 */
+    long getConnectionsOpened();
+
+    /** 풀에서 커넥션을 빌린 횟수 */
+    long getConnectionsBorrowed();
+
+    /** execute/executeQuery/executeUpdate/executeBatch 호출 수 */
+    long getStatementsExecuted();
+
+    /** ResultSet 에서 읽은 행 수 */
+    long getRowsFetched();
+}
@@ -0,0 +1,99 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * db.url 의 MySQL 을 쓰는 저장 엔진입니다. 커넥션은 ConnectionPool.shared 로 빌리며,
+ * 커넥션을 얻지 못한 실패는 StorageUnavailableException 으로 바꿔 던집니다.
+ * db.replica.url 이 있으면 forReads 가 돌려주는 조회용 저장소는 ReplicaRouter 로 복제본에서 읽습니다.
+ */
+public class JdbcStorage implements LibraryStorage {
+    private final Properties dbProps;
+    private final ConnectionSource connections;
+    private final JdbcBookRepository books;
+    private final JdbcMemberRepository members;
+    private final JdbcLoanRepository loans;
+    private final JdbcHoldRepository holds;
+    private final JdbcHolidayRepository holidays;
+    private final ReplicaRouter replicaRouter;
+
+    public JdbcStorage(Properties dbProps) {
+        this.dbProps = dbProps;
+        this.connections = this::getConnection;
+        this.replicaRouter = ReplicaRouter.shared(dbProps);
+        this.books = new JdbcBookRepository(connections);
+        this.members = new JdbcMemberRepository(connections);
+        this.loans = new JdbcLoanRepository(connections);
+        this.holds = new JdbcHoldRepository(connections);
+        this.holidays = new JdbcHolidayRepository(connections);
+    }
+
+    // 복제본에서 읽는 조회용 저장소. 커넥션만 다르고 SQL 은 같다.
+    private JdbcStorage(JdbcStorage primary, ConnectionSource readConnections) {
+        this.dbProps = primary.dbProps;
+        this.connections = readConnections;
+        this.replicaRouter = null;
+        this.books = new JdbcBookRepository(readConnections);
+        this.members = new JdbcMemberRepository(readConnections);
+        this.loans = new JdbcLoanRepository(readConnections);
+        this.holds = new JdbcHoldRepository(readConnections);
+        this.holidays = new JdbcHolidayRepository(readConnections);
+    }
+
+    private Connection getConnection() throws SQLException {
+        try {
+            return ConnectionPool.shared(dbProps).getConnection();
+        } catch (SQLException e) {
+            throw new StorageUnavailableException(e);
+        }
+    }
+
+    @Override
+    public LibraryStorage forReads(ReplicaRouter.Session session) {
+        if (replicaRouter == null) {
+            return this;
+        }
+        return new JdbcStorage(this, () -> {
+            try {
+                return replicaRouter.getReadConnection(session);
+            } catch (SQLException e) {
+                throw new StorageUnavailableException(e);
+            }
+        });
+    }
+
+    @Override
+    public BookRepository books() {
+        return books;
+    }
+
+    @Override
+    public MemberRepository members() {
+        return members;
+    }
+
+    @Override
+    public LoanRepository loans() {
+        return loans;
+    }
+
+    @Override
+    public HoldRepository holds() {
+        return holds;
+    }
+
+    @Override
+    public HolidayRepository holidays() {
+        return holidays;
+    }
+
+    @Override
+    public ConnectionSource connections() {
+        return connections;
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return ConnectionPool.shared(dbProps).getMaxSize();
+    }
+}
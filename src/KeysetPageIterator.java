@@ -0,0 +1,99 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 정수 키(book_id, member_id 등) 기준 키셋 페이지네이션으로 결과를 한 페이지씩 읽어 오는 반복자입니다.
+ * 페이지 SQL 은 "... WHERE key > ? ORDER BY key LIMIT ?" 형태여야 하며,
+ * 한 페이지를 읽는 동안만 커넥션을 빌리므로 소비가 느려도 풀을 붙잡고 있지 않습니다.
+ * 페이지 안에서는 fetchSize 단위로 가져오므로, db.url 에 useCursorFetch=true 를 주면
+ * MySQL 서버 측 커서로 스트리밍됩니다.
+ */
+public class KeysetPageIterator<T> implements Iterator<T> {
+    /**
+     * 결과 행 하나를 값 객체로 바꿉니다.
+     */
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private final ConnectionSource connectionSource;
+    private final String pageSql;
+    private final String keyColumn;
+    private final RowMapper<T> rowMapper;
+    private final int pageSize;
+    private final int fetchSize;
+
+    private final ArrayDeque<T> buffer = new ArrayDeque<>();
+    private long lastKey;
+    private boolean exhausted;
+
+    public KeysetPageIterator(ConnectionSource connectionSource, String pageSql, String keyColumn,
+                              RowMapper<T> rowMapper, int pageSize, int fetchSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize 는 1 이상이어야 합니다: " + pageSize);
+        }
+        this.connectionSource = connectionSource;
+        this.pageSql = pageSql;
+        this.keyColumn = keyColumn;
+        this.rowMapper = rowMapper;
+        this.pageSize = pageSize;
+        this.fetchSize = fetchSize;
+        this.lastKey = Long.MIN_VALUE;
+    }
+
+    /**
+     * 지연 평가되는 Stream 으로 감쌉니다. 스트림을 끝까지 소비하지 않으면 다음 페이지는 조회하지 않습니다.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (buffer.isEmpty() && !exhausted) {
+            fetchNextPage();
+        }
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.pollFirst();
+    }
+
+    private void fetchNextPage() {
+        int rows = 0;
+        try (Connection conn = connectionSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(pageSql)) {
+            pstmt.setFetchSize(fetchSize);
+            pstmt.setLong(1, lastKey);
+            pstmt.setInt(2, pageSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    buffer.addLast(rowMapper.map(rs));
+                    lastKey = rs.getLong(keyColumn);
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            exhausted = true;
+            throw new IllegalStateException("페이지 조회 중 오류 발생: " + e.getMessage(), e);
+        }
+        if (rows < pageSize) {
+            exhausted = true;
+        }
+    }
+}
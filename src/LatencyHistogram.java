@@ -0,0 +1,119 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HdrHistogram 과 같은 로그-선형 버킷으로 지연 시간(나노초)을 기록하는 히스토그램입니다.
+ * 256 미만의 값은 1 단위로, 그 이상은 2의 거듭제곱 구간마다 128 칸으로 나누어 세므로
+ * 어느 값이든 상대 오차가 1% 미만입니다. 약 18분(2^40ns)을 넘는 값은 최댓값 칸에 넣습니다.
+ * 기록은 잠금 없이 원자적 카운터로 처리하므로 여러 스레드가 동시에 record 해도 됩니다.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final long MAX_TRACKABLE = (1L << 40) - 1;
+    private static final int BUCKETS = indexOf(MAX_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * 지연 시간 하나를 기록합니다.
+     * @param nanos 걸린 시간 (나노초, 음수는 0 으로 취급)
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    // 값 -> 칸 번호. 비트 길이가 SUB_BUCKET_BITS 를 넘으면 넘는 만큼 오른쪽으로 밀어 상위 8비트만 남긴다.
+    private static int indexOf(long value) {
+        int bitLength = 64 - Long.numberOfLeadingZeros(value);
+        if (bitLength <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = bitLength - SUB_BUCKET_BITS;
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    // 칸에 들어가는 가장 큰 값
+    private static long highestValueOf(int index) {
+        if (index < (1 << SUB_BUCKET_BITS)) {
+            return index;
+        }
+        int shift = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = index - ((long) shift << (SUB_BUCKET_BITS - 1));
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = totalCount.sum();
+        return count == 0 ? 0.0 : (double) totalNanos.sum() / count;
+    }
+
+    /**
+     * 백분위 값을 구합니다. 해당 순위가 들어 있는 칸의 상한을 돌려줍니다.
+     * @param percentile 0 ~ 100
+     * @return 나노초, 기록이 없으면 0
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * 모든 기록을 지웁니다. 진행 중인 record 와 겹치면 그 기록은 남을 수 있습니다.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * 개수와 주요 백분위를 한 줄 문자열로 돌려줍니다. (밀리초)
+     */
+    public String summary() {
+        return String.format("count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms",
+                getCount(), getMeanNanos() / 1_000_000.0, toMillis(valueAtPercentile(50)),
+                toMillis(valueAtPercentile(90)), toMillis(valueAtPercentile(99)),
+                toMillis(valueAtPercentile(99.9)), toMillis(getMaxNanos()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -1,34 +1,377 @@
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class Library {
+    // 기본 대출 기간 (휴일 제외 일수)
+    static final int LOAN_PERIOD_DAYS = 14;
+    // 목록 조회 시 한 번에 가져오는 페이지 크기와 드라이버 fetch 크기 기본값
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 100;
+    // 일괄 등록 시 한 트랜잭션에 넣는 레코드 수 기본값
+    private static final int DEFAULT_IMPORT_CHUNK_SIZE = 1000;
+    // 도서 캐시 크기 기본값
+    private static final int DEFAULT_BOOK_CACHE_SIZE = 10_000;
+    // 연체료 계산 기본값 (영업일 하루당 금액, 한 번에 처리하는 대출 수)
+    private static final int DEFAULT_FINE_PER_DAY = 100;
+    private static final int DEFAULT_FINE_CHUNK_SIZE = 10_000;
+    // 회원 검색 한 번에 돌려주는 최대 인원
+    private static final int MEMBER_SEARCH_LIMIT = 100;
+    // 오프라인 저널 파일 크기와 재생 시 한 트랜잭션에 넣는 레코드 수 기본값
+    private static final int DEFAULT_JOURNAL_SIZE_MB = 64;
+    private static final int DEFAULT_JOURNAL_BATCH_SIZE = 500;
+    // 예약한 책을 보관해 두는 기간 (휴일 제외 일수)과 받기 기한이 지난 예약을 정리하는 주기 기본값
+    private static final int DEFAULT_HOLD_PICKUP_DAYS = 3;
+    private static final long DEFAULT_HOLD_SWEEP_INTERVAL_MS = 3_600_000L;
+
+    /**
+     * 일괄 수정/삭제에서 도서 하나의 처리 결과입니다.
+     */
+    public enum BulkOutcome {
+        /** 요청대로 반영됨 */
+        APPLIED,
+        /** 도서가 없음 */
+        NOT_FOUND,
+        /** 반납하지 않은 대출이 있어 삭제하지 않음 */
+        ACTIVE_LOANS
+    }
+
     private Properties dbProps;
+    // 도서/회원/대출을 실제로 읽고 쓰는 저장 엔진 (library.storage)
+    private LibraryStorage storage;
+    // 엔진의 JDBC 커넥션. SQL 에 직접 기대는 부가 기능만 쓰며, 메모리 엔진이면 null
+    private ConnectionSource connections;
+    // 전체 목록과 검색처럼 보고서성 조회에 쓰는 저장소. db.replica.url 이 있으면 복제본에서 읽는다.
+    private LibraryStorage reads;
+    // 이 Library 의 마지막 쓰기 시각. 그 쓰기를 아직 받지 못한 복제본에서는 읽지 않는다.
+    private final ReplicaRouter.Session readSession = new ReplicaRouter.Session();
     private HolidayPolicy holidayPolicy;
+    private BusinessDayCalendar businessDayCalendar;
+    // changeHolidays 안에서 휴일 변경 통지로 다시 계산한 대출 수를 모은다. (통지는 변경한 스레드에서 온다)
+    private final ThreadLocal<int[]> rebasedByChange = new ThreadLocal<>();
+    // 제목/저자 부분 문자열 검색용 n-gram 색인 (첫 검색 때 만든다)
+    private final NGramIndex titleIndex = new NGramIndex();
+    private final NGramIndex authorIndex = new NGramIndex();
+    private volatile boolean searchIndexReady;
+    private final ReentrantLock searchIndexLock = new ReentrantLock();
+    // 전화번호 뒷자리/이름 앞부분 회원 검색용 색인 (첫 검색 때 만든다)
+    private final MemberIndex memberIndex = new MemberIndex();
+    private volatile boolean memberIndexReady;
+    private final ReentrantLock memberIndexLock = new ReentrantLock();
+    // book_id/ISBN 읽기 캐시. 로컬 쓰기가 일어날 때마다 bookWriteEpoch 를 올리고 해당 항목을 지운다.
+    private TinyLfuCache<Integer, Book> bookCache = new TinyLfuCache<>(DEFAULT_BOOK_CACHE_SIZE);
+    private TinyLfuCache<String, Integer> isbnCache = new TinyLfuCache<>(DEFAULT_BOOK_CACHE_SIZE);
+    private final AtomicLong bookWriteEpoch = new AtomicLong();
+    // 공개 작업별 지연 시간 (JMX/JFR 로 노출)
+    private final LibraryMetrics metrics = LibraryMetrics.global();
+    // 인기 도서 메모리 재고 (library.hotInventory.enabled=true 일 때만 사용)
+    private HotInventory hotInventory;
+    // DB 에 닿지 않을 때 변경을 저널에 쌓는 오프라인 모드 (library.journal.enabled=true 일 때만 사용)
+    private OfflineMode offlineMode;
+    // 재고가 없는 도서의 예약 대기열 (library.holds.enabled=true 일 때만 사용)
+    private HoldQueues holdQueues;
+    // 오프라인 중 캐시 검사/갱신과 저널 기록을 한 단위로 묶는다.
+    private final ReentrantLock offlineLock = new ReentrantLock();
+    // 재시작 직후에도 도서 조회/목록을 바로 돌려주는 메모리 매핑 스냅샷 (library.snapshot.enabled=true 일 때만 사용)
+    private CatalogSnapshot catalogSnapshot;
+    // 최근에 보거나 만든 대출 기록. 오프라인 반납 때 도서 재고를 맞추는 데 쓴다.
+    private TinyLfuCache<Integer, Loan> loanCache = new TinyLfuCache<>(DEFAULT_BOOK_CACHE_SIZE);
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int importChunkSize = DEFAULT_IMPORT_CHUNK_SIZE;
+    private int finePerDay = DEFAULT_FINE_PER_DAY;
+    private int maxFine;
+    private int fineChunkSize = DEFAULT_FINE_CHUNK_SIZE;
+    private boolean warmUpIndexes;
 
     public Library(HolidayPolicy holidayPolicy) {
+        this(holidayPolicy, loadDefaultProperties());
+    }
+
+    /**
+     * 이미 읽어 둔 설정으로 Library 를 만듭니다. (벤치마크/테스트용 내장 DB 등)
+     * 저장 엔진은 library.storage 로 고릅니다. (LibraryStorage.shared)
+     * @param holidayPolicy 휴일 정책
+     * @param dbProps db.url 등 접속 정보와 library.* 설정
+     */
+    public Library(HolidayPolicy holidayPolicy, Properties dbProps) {
+        this(holidayPolicy, dbProps, LibraryStorage.shared(dbProps));
+    }
+
+    /**
+     * 저장 엔진을 직접 넘겨 Library 를 만듭니다. (예: 테스트에서 new InMemoryStorage())
+     * 인기 도서, 오프라인 저널, 도서 스냅샷은 엔진이 JDBC 커넥션을 줄 때만 켜집니다.
+     * @param holidayPolicy 휴일 정책
+     * @param dbProps library.* 설정
+     * @param storage 저장 엔진
+     */
+    public Library(HolidayPolicy holidayPolicy, Properties dbProps, LibraryStorage storage) {
         this.holidayPolicy = holidayPolicy;
-        this.dbProps = new Properties();
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("db.properties")) {
-            if (input == null) {
-                System.err.println("Sorry, unable to find db.properties");
-                return;
+        this.businessDayCalendar = new BusinessDayCalendar(holidayPolicy);
+        // 달력이 먼저 변경을 반영하도록 달력보다 뒤에 등록한다.
+        holidayPolicy.addChangeListener(this::holidayChanged);
+        this.dbProps = dbProps;
+        this.storage = storage;
+        this.connections = storage.connections();
+        this.reads = storage.forReads(readSession);
+        this.pageSize = Integer.parseInt(dbProps.getProperty("library.pageSize", String.valueOf(DEFAULT_PAGE_SIZE)).trim());
+        this.fetchSize = Integer.parseInt(dbProps.getProperty("library.fetchSize", String.valueOf(DEFAULT_FETCH_SIZE)).trim());
+        this.importChunkSize = Integer.parseInt(dbProps.getProperty("library.importChunkSize", String.valueOf(DEFAULT_IMPORT_CHUNK_SIZE)).trim());
+        this.finePerDay = Integer.parseInt(dbProps.getProperty("library.fine.perDay", String.valueOf(DEFAULT_FINE_PER_DAY)).trim());
+        this.maxFine = Integer.parseInt(dbProps.getProperty("library.fine.max", "0").trim());
+        this.fineChunkSize = Integer.parseInt(dbProps.getProperty("library.fine.chunkSize", String.valueOf(DEFAULT_FINE_CHUNK_SIZE)).trim());
+        int bookCacheSize = Integer.parseInt(dbProps.getProperty("library.bookCacheSize", String.valueOf(DEFAULT_BOOK_CACHE_SIZE)).trim());
+        this.bookCache = new TinyLfuCache<>(bookCacheSize);
+        this.isbnCache = new TinyLfuCache<>(bookCacheSize);
+        this.loanCache = new TinyLfuCache<>(bookCacheSize);
+        this.warmUpIndexes = Boolean.parseBoolean(dbProps.getProperty("library.warmUp.indexes", "false").trim());
+
+        if (Boolean.parseBoolean(dbProps.getProperty("library.holds.enabled", "false").trim())) {
+            int pickupDays = Integer.parseInt(dbProps.getProperty("library.holds.pickupDays", String.valueOf(DEFAULT_HOLD_PICKUP_DAYS)).trim());
+            long sweepInterval = Long.parseLong(dbProps.getProperty("library.holds.sweepIntervalMs", String.valueOf(DEFAULT_HOLD_SWEEP_INTERVAL_MS)).trim());
+            this.holdQueues = new HoldQueues(storage.holds(), () -> calculateDueDate(LocalDate.now(), pickupDays),
+                    sweepInterval, this::invalidateBook, System.out::println);
+        }
+
+        if (connections == null) {
+            return; // 아래 기능은 모두 SQL 로 동작한다.
+        }
+
+        if (Boolean.parseBoolean(dbProps.getProperty("library.hotInventory.enabled", "false").trim())) {
+            long flushInterval = Long.parseLong(dbProps.getProperty("library.hotInventory.flushIntervalMs", "1000").trim());
+            this.hotInventory = new HotInventory(connections, flushInterval, this::invalidateBook);
+            try {
+                // 이전 실행이 비정상 종료되었다면 남은 에스크로를 먼저 정리한다.
+                hotInventory.reconcile();
+            } catch (SQLException e) {
+                System.err.println("인기 도서 재고 정리 중 오류 발생: " + e.getMessage());
+            }
+        }
+
+        if (Boolean.parseBoolean(dbProps.getProperty("library.snapshot.enabled", "false").trim())) {
+            Path snapshotPath = Paths.get(dbProps.getProperty("library.snapshot.path", "library-catalog.snapshot").trim());
+            long catchUpInterval = Long.parseLong(dbProps.getProperty("library.snapshot.catchUpIntervalMs", "30000").trim());
+            long writeInterval = Long.parseLong(dbProps.getProperty("library.snapshot.writeIntervalMs", "600000").trim());
+            this.catalogSnapshot = new CatalogSnapshot(snapshotPath, connections,
+                    () -> streamBooks(pageSize, fetchSize), catchUpInterval, writeInterval);
+        }
+
+        if (Boolean.parseBoolean(dbProps.getProperty("library.journal.enabled", "false").trim())) {
+            Path journalPath = Paths.get(dbProps.getProperty("library.journal.path", "library-offline.journal").trim());
+            int sizeMb = Integer.parseInt(dbProps.getProperty("library.journal.sizeMb", String.valueOf(DEFAULT_JOURNAL_SIZE_MB)).trim());
+            boolean fsync = Boolean.parseBoolean(dbProps.getProperty("library.journal.fsync", "true").trim());
+            long probeInterval = Long.parseLong(dbProps.getProperty("library.journal.probeIntervalMs", "5000").trim());
+            int replayBatchSize = Integer.parseInt(dbProps.getProperty("library.journal.batchSize", String.valueOf(DEFAULT_JOURNAL_BATCH_SIZE)).trim());
+            try {
+                OfflineJournal journal = new OfflineJournal(journalPath, sizeMb * 1024 * 1024, fsync);
+                this.offlineMode = new OfflineMode(connections, journal, replayBatchSize, probeInterval,
+                        this::holdHandOff, this::invalidateAfterReplay, System.out::println);
+            } catch (IOException e) {
+                System.err.println("오프라인 저널 열기 중 오류 발생: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Properties loadDefaultProperties() {
+        Properties props = LibraryConfig.load();
+        if (props == null) {
+            System.err.println("Sorry, unable to find db.properties");
+            return new Properties();
+        }
+        return props;
+    }
+
+    // SQL 에 직접 기대는 기능(일괄 등록, 연체료 계산)은 JDBC 엔진에서만 쓸 수 있다.
+    private ConnectionSource requireConnections(String feature) {
+        if (connections == null) {
+            throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                    feature + " 은(는) JDBC 저장 엔진에서만 쓸 수 있습니다. (library.storage=jdbc)");
+        }
+        return connections;
+    }
+
+    /**
+     * 첫 요청이 느리지 않도록 필요한 준비를 백그라운드에서 동시에 시작합니다.
+     * <ul>
+     *     <li>커넥션 풀 - db.pool.warmUp 개수만큼 미리 연결</li>
+     *     <li>영업일 달력 - 올해 ±1년의 휴일을 읽어 연도별 비트맵 계산</li>
+     *     <li>검색/회원 색인 - library.warmUp.indexes=true 일 때만</li>
+     *     <li>예약 대기열 - library.holds.enabled=true 일 때만</li>
+     *     <li>반납 예정일 - 지난 실행이 휴일 변경 뒤 다시 계산하지 못하고 끝났을 수 있으므로 미반납 대출 전체를 맞춤</li>
+     * </ul>
+     * 기다리지 않아도 되며, 예열이 끝나기 전에 들어온 요청은 평소처럼 필요한 것을 직접 읽습니다.
+     * 걸린 시간은 LibraryMetrics 의 warmUp 지표로 남습니다.
+     * @return 모든 예열이 끝나면 완료되는 future
+     */
+    public CompletableFuture<Void> warmUp() {
+        long start = System.nanoTime();
+        // 휴일/색인 적재는 synchronized 구간 안에서 DB 를 읽으므로 가상 스레드 대신 데몬 플랫폼 스레드를 쓴다.
+        Executor executor = task -> Thread.ofPlatform().daemon().name("library-warmup").start(task);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        if (connections != null) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    ConnectionPool.shared(dbProps).warmUp();
+                } catch (SQLException e) {
+                    System.err.println("커넥션 풀 예열 중 오류 발생: " + e.getMessage());
+                }
+            }, executor));
+        }
+        tasks.add(CompletableFuture.runAsync(() -> {
+            int year = LocalDate.now().getYear();
+            for (int y = year - 1; y <= year + 1; y++) {
+                businessDayCalendar.isBusinessDay(LocalDate.of(y, 1, 1));
+            }
+        }, executor));
+        if (warmUpIndexes) {
+            tasks.add(CompletableFuture.runAsync(this::ensureSearchIndex, executor));
+            tasks.add(CompletableFuture.runAsync(this::ensureMemberIndex, executor));
+        }
+        tasks.add(CompletableFuture.runAsync(() -> {
+            try {
+                int rebased = reconcileDueDates();
+                if (rebased > 0) {
+                    System.out.println("휴일 기준에 맞지 않던 대출 " + rebased + "건의 반납 예정일이 조정되었습니다.");
+                }
+            } catch (SQLException e) {
+                System.err.println("반납 예정일 조정 중 오류 발생: " + e.getMessage());
+            }
+        }, executor));
+        if (holdQueues != null) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    holdQueues.ensureLoaded();
+                } catch (SQLException e) {
+                    System.err.println("예약 대기열 읽기 중 오류 발생: " + e.getMessage());
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        System.err.println("시작 예열 중 오류 발생: " + e.getMessage());
+                    }
+                    metrics.warmUpFinished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                });
+    }
+
+    /**
+     * @return DB 에 닿지 않아 변경을 로컬 저널에 쌓고 있는 중인지
+     */
+    public boolean isOffline() {
+        return offlineMode != null && offlineMode.isOffline();
+    }
+
+    /**
+     * @return 오프라인 중 쌓인 뒤 아직 DB 에 반영하지 않은 변경 수 (오프라인 모드를 쓰지 않으면 0)
+     */
+    public int pendingOfflineChanges() {
+        return offlineMode == null ? 0 : offlineMode.pendingCount();
+    }
+
+    // 오프라인이면 null 을 돌려준다. DB 에 닿지 않아 커넥션을 얻지 못했다면 오프라인으로 바꾸고 null 을 돌려준다.
+    // 커넥션을 얻은 뒤의 오류는 커밋 여부를 알 수 없으므로 저널로 넘기지 않고 그대로 던진다.
+    private Connection connectOrOffline() throws SQLException {
+        if (offlineMode == null) {
+            return connections.getConnection();
+        }
+        if (offlineMode.isOffline()) {
+            return null;
+        }
+        try {
+            return connections.getConnection();
+        } catch (SQLException e) {
+            if (!noteConnectionFailure(e)) {
+                throw e;
             }
-            dbProps.load(input);
-        } catch (IOException ex) {
-            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    // 저장소에 닿지 못해 아무 것도 반영되지 않은 실패만 오프라인 저널로 넘길 수 있다.
+    private boolean canGoOffline(SQLException e) {
+        return e instanceof StorageUnavailableException && noteConnectionFailure(e);
+    }
+
+    // DB 에 닿지 않아 생긴 오류라면 오프라인으로 바꾸고 true 를 돌려준다.
+    private boolean noteConnectionFailure(SQLException e) {
+        if (offlineMode == null || !OfflineMode.isConnectionFailure(e)) {
+            return false;
         }
+        if (!offlineMode.isOffline()) {
+            System.err.println("DB 에 연결할 수 없어 오프라인 모드로 전환합니다: " + e.getMessage());
+            offlineMode.enter();
+        }
+        return true;
+    }
+
+    // 오프라인 변경은 캐시나 스냅샷에 있는 도서에만 할 수 있다.
+    private Book requireCachedBook(int bookId) {
+        Book book = bookCache.get(bookId);
+        if (book == null && catalogSnapshot != null) {
+            book = catalogSnapshot.find(bookId);
+        }
+        if (book == null) {
+            throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                    "오프라인 모드에서는 캐시에 없는 도서 ID " + bookId + " 를 처리할 수 없습니다.");
+        }
+        return book;
+    }
+
+    private static Book withStock(Book book, int stock) {
+        return new Book(book.getBookId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPublisher(), stock);
+    }
+
+    // 저널 재생으로 DB 가 바뀌었으므로 오프라인 중 캐시에 반영해 둔 추정값을 버린다.
+    private void invalidateAfterReplay() {
+        readSession.noteWrite();
+        bookWriteEpoch.incrementAndGet();
+        bookCache.invalidateAll();
+        loanCache.invalidateAll();
+        refreshCatalogSnapshot();
+    }
+
+    // 로컬 쓰기를 거치지 않고 도서가 바뀌었을 때(일괄 등록, 저널 재생) 스냅샷이 변경분을 바로 따라잡게 한다.
+    private void refreshCatalogSnapshot() {
+        if (catalogSnapshot == null) {
+            return;
+        }
+        try {
+            catalogSnapshot.catchUp();
+        } catch (SQLException e) {
+            System.err.println("도서 스냅샷 갱신 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return 저장 엔진이 동시에 처리할 수 있는 작업 수 (JDBC 엔진이면 커넥션 풀의 최대 커넥션 수)
+     */
+    int getConnectionPoolSize() {
+        return storage.maxConcurrency();
     }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbProps.getProperty("db.url"),
-                dbProps.getProperty("db.username"),
-                dbProps.getProperty("db.password"));
+    /**
+     * @return 목록을 키셋 페이지로 읽을 때 한 번의 쿼리로 가져오는 행 수 (library.pageSize)
+     */
+    int getPageSize() {
+        return pageSize;
     }
 
     // --- 도서 관리 기능 (CRUD) ---
@@ -43,19 +386,10 @@ public class Library {
      * @return 성공 여부
      */
     public boolean addBook(String title, String author, String isbn, String publisher, int stock) {
-        String sql = "INSERT INTO books (title, author, isbn, publisher, stock) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, title);
-            pstmt.setString(2, author);
-            pstmt.setString(3, isbn);
-            pstmt.setString(4, publisher);
-            pstmt.setInt(5, stock);
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("도서 '" + title + "' (ISBN: " + isbn + ") 이(가) 추가되었습니다.");
-                return true;
-            }
+        try {
+            insertBook(title, author, isbn, publisher, stock);
+            System.out.println("도서 '" + title + "' (ISBN: " + isbn + ") 이(가) 추가되었습니다.");
+            return true;
         } catch (SQLException e) {
             System.err.println("도서 추가 중 오류 발생: " + e.getMessage());
         }
@@ -63,60 +397,335 @@ public class Library {
     }
 
     /**
-     * 모든 도서 목록을 조회합니다.
+     * 새로운 도서를 추가하고, 생성된 도서 ID 를 담은 도서를 돌려줍니다.
+     * @return 추가된 도서
+     * @throws SQLException DB 오류
      */
-    public void viewAllBooks() {
-        String sql = "SELECT book_id, title, author, isbn, publisher, stock FROM books";
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    @SuppressWarnings("try")
+    public Book insertBook(String title, String author, String isbn, String publisher, int stock) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("addBook")) {
+            Book book = storage.books().insert(title, author, isbn, publisher, stock);
+            invalidateBook(book.getBookId());
+            isbnCache.invalidate(isbn);
+            indexBook(book.getBookId(), title, author);
+            return book;
+        }
+    }
+
+    /**
+     * 파일의 도서 목록을 일괄 등록합니다. 형식은 확장자로 정합니다. (.csv, .tsv, .mrc)
+     * 중간에 실패했다면 같은 파일로 다시 호출하면 마지막으로 커밋된 청크 다음부터 이어서 등록합니다.
+     * @param filePath 등록할 파일 경로
+     * @return 적재 결과, 실패하면 null
+     */
+    @SuppressWarnings("try")
+    public BookImporter.Result importBooks(String filePath) {
+        try (LibraryMetrics.Timer timer = metrics.time("importBooks")) {
+            Path file = Paths.get(filePath);
+            try {
+                BookImporter importer = new BookImporter(requireConnections("도서 일괄 등록"), importChunkSize);
+                BookImporter.Result result = importer.importFile(file, BookImporter.Format.fromFileName(filePath));
+                System.out.println("도서 일괄 등록 완료: " + result);
+                for (String reject : result.getRejectSamples()) {
+                    System.out.println("  거부: " + reject);
+                }
+                return result;
+            } catch (LibraryException e) {
+                System.out.println(e.getMessage());
+                return null;
+            } catch (IOException | SQLException e) {
+                System.err.println("도서 일괄 등록 중 오류 발생: " + e.getMessage() + " (다시 실행하면 이어서 등록합니다)");
+                return null;
+            } finally {
+                // 색인을 건너뛰고 들어간 도서가 있으므로 다음 검색 때 색인을 다시 만든다.
+                // 색인을 만드는 중에 비우면 반쯤 빈 색인이 준비된 것으로 표시되므로 같은 잠금 안에서 비운다.
+                readSession.noteWrite();
+                refreshCatalogSnapshot();
+                searchIndexLock.lock();
+                try {
+                    searchIndexReady = false;
+                    titleIndex.clear();
+                    authorIndex.clear();
+                } finally {
+                    searchIndexLock.unlock();
+                }
+            }
+        }
+    }
 
+    /**
+     * 모든 도서 목록을 조회합니다. 도서 ID 순으로 페이지 단위로 읽으므로 전체 목록을 메모리에 올리지 않습니다.
+     */
+    @SuppressWarnings("try")
+    public void viewAllBooks() {
+        try (LibraryMetrics.Timer timer = metrics.time("viewAllBooks")) {
             System.out.println("--- 모든 도서 목록 ---");
-            while (rs.next()) {
-                System.out.printf("ID: %d, 제목: %s, 저자: %s, ISBN: %s, 출판사: %s, 재고: %d%n",
-                        rs.getInt("book_id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getString("isbn"),
-                        rs.getString("publisher"),
-                        rs.getInt("stock"));
+            try (Stream<Book> books = streamBooks()) {
+                books.forEach(System.out::println);
+            } catch (IllegalStateException e) {
+                System.err.println("도서 목록 조회 중 오류 발생: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 모든 도서를 도서 ID 순으로 지연 조회하는 스트림을 돌려줍니다. (설정된 페이지/fetch 크기 사용)
+     * 도서 스냅샷이 준비되어 있으면 DB 를 훑지 않고 스냅샷에서 읽고, 아니면 읽기 복제본이 있을 때 복제본에서 읽습니다.
+     * @return 도서 스트림
+     */
+    public Stream<Book> streamBooks() {
+        if (catalogSnapshot != null && catalogSnapshot.isReady()) {
+            // 로컬 쓰기로 바뀐 도서만 DB 에서 다시 읽는다. 오프라인이면 스냅샷에 있는 값 그대로 보여 준다.
+            if (!isOffline()) {
+                try {
+                    catalogSnapshot.resolveDirty();
+                } catch (SQLException e) {
+                    noteConnectionFailure(e);
+                    System.err.println("도서 스냅샷 갱신 중 오류 발생: " + e.getMessage());
+                }
+            }
+            return catalogSnapshot.stream();
+        }
+        return reads.books().stream(pageSize, fetchSize);
+    }
+
+    /**
+     * 모든 도서를 도서 ID 기준 키셋 페이지네이션으로 지연 조회하는 스트림을 돌려줍니다.
+     * 스트림을 소비하는 만큼만 다음 페이지를 조회합니다.
+     * @param pageSize 한 번의 쿼리로 가져올 행 수
+     * @param fetchSize 드라이버가 한 번에 받아 올 행 수
+     * @return 도서 스트림
+     */
+    public Stream<Book> streamBooks(int pageSize, int fetchSize) {
+        return storage.books().stream(pageSize, fetchSize);
+    }
+
+    /**
+     * 도서 ID 로 도서를 찾습니다. 캐시에 있으면 DB 를 조회하지 않습니다.
+     * @param bookId 도서 ID
+     * @return 도서, 없으면 null
+     */
+    @SuppressWarnings("try")
+    public Book findBookById(int bookId) {
+        try (LibraryMetrics.Timer timer = metrics.time("findBookById")) {
+            Book cached = bookCache.get(bookId);
+            if (cached != null) {
+                return cached;
+            }
+            if (catalogSnapshot != null) {
+                Book snapshot = catalogSnapshot.find(bookId);
+                if (snapshot != null) {
+                    return snapshot;
+                }
+            }
+            return loadBook(books -> books.findById(bookId));
+        }
+    }
+
+    /**
+     * ISBN 으로 도서를 찾습니다. 캐시에 있으면 DB 를 조회하지 않습니다.
+     * @param isbn ISBN
+     * @return 도서, 없으면 null
+     */
+    @SuppressWarnings("try")
+    public Book findBookByIsbn(String isbn) {
+        try (LibraryMetrics.Timer timer = metrics.time("findBookByIsbn")) {
+            Integer bookId = isbnCache.get(isbn);
+            if (bookId != null) {
+                Book book = findBookById(bookId);
+                if (book != null && isbn.equals(book.getIsbn())) {
+                    return book;
+                }
+                isbnCache.invalidate(isbn);
+            }
+            return loadBook(books -> books.findByIsbn(isbn));
+        }
+    }
+
+    @FunctionalInterface
+    private interface BookLookup {
+        Book find(BookRepository books) throws SQLException;
+    }
+
+    private Book loadBook(BookLookup lookup) {
+        if (isOffline()) {
+            return null; // 오프라인이면 캐시에 있는 도서만 보여 준다.
+        }
+        // 조회 전에 쓰기 세대를 기억해 두고, 조회 도중 로컬 쓰기가 있었다면 캐시에 남기지 않는다.
+        long epoch = bookWriteEpoch.get();
+        try {
+            Book book = lookup.find(storage.books());
+            if (book != null) {
+                cacheBook(book, epoch);
+                return book;
             }
         } catch (SQLException e) {
-            System.err.println("도서 목록 조회 중 오류 발생: " + e.getMessage());
+            noteConnectionFailure(e);
+            System.err.println("도서 조회 중 오류 발생: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void cacheBook(Book book, long epochBeforeRead) {
+        bookCache.put(book.getBookId(), book);
+        if (book.getIsbn() != null) {
+            isbnCache.put(book.getIsbn(), book.getBookId());
         }
+        // 읽는 동안 쓰기가 있었다면 방금 넣은 값이 오래된 것일 수 있으므로 지운다.
+        if (bookWriteEpoch.get() != epochBeforeRead) {
+            bookCache.invalidate(book.getBookId());
+        }
+    }
+
+    // 로컬 쓰기 후 호출한다. 세대를 먼저 올려야 진행 중인 조회가 오래된 값을 남기지 못한다.
+    private void invalidateBook(int bookId) {
+        readSession.noteWrite();
+        bookWriteEpoch.incrementAndGet();
+        bookCache.invalidate(bookId);
+        if (catalogSnapshot != null) {
+            catalogSnapshot.invalidate(bookId);
+        }
+    }
+
+    /**
+     * @return 도서 캐시 통계 (적중/실패/축출)
+     */
+    public String bookCacheStats() {
+        return "bookCache[" + bookCache.statsSummary() + "], isbnCache[" + isbnCache.statsSummary() + "]";
     }
 
     /**
-     * 제목으로 도서를 검색합니다.
+     * 제목으로 도서를 검색해 출력합니다.
      * @param keyword 검색할 제목 키워드
      */
     public void searchBooksByTitle(String keyword) {
-        String sql = "SELECT book_id, title, author, isbn, publisher, stock FROM books WHERE title LIKE ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + keyword + "%");
-            try (ResultSet rs = pstmt.executeQuery()) {
-                System.out.println("--- '" + keyword + "' (으)로 검색된 도서 ---");
-                boolean found = false;
-                while (rs.next()) {
-                    found = true;
-                    System.out.printf("ID: %d, 제목: %s, 저자: %s, ISBN: %s, 출판사: %s, 재고: %d%n",
-                            rs.getInt("book_id"),
-                            rs.getString("title"),
-                            rs.getString("author"),
-                            rs.getString("isbn"),
-                            rs.getString("publisher"),
-                            rs.getInt("stock"));
-                }
-                if (!found) {
-                    System.out.println("검색 결과가 없습니다.");
-                }
-            }
+        try {
+            printSearchResult(keyword, findBooksByTitle(keyword));
+        } catch (SQLException e) {
+            System.err.println("도서 검색 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 제목으로 도서를 검색합니다. 메모리의 n-gram 색인으로 일치하는 도서 ID 를 찾은 뒤
+     * 해당 ID 의 최신 행만 DB 에서 가져옵니다.
+     * @param keyword 검색할 제목 키워드
+     * @return 도서 ID 순으로 정렬된 검색 결과
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public List<Book> findBooksByTitle(String keyword) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("searchBooksByTitle")) {
+            return searchBooks(titleIndex, keyword, "title");
+        }
+    }
+
+    /**
+     * 저자로 도서를 검색해 출력합니다.
+     * @param keyword 검색할 저자 키워드
+     */
+    public void searchBooksByAuthor(String keyword) {
+        try {
+            printSearchResult(keyword, findBooksByAuthor(keyword));
         } catch (SQLException e) {
             System.err.println("도서 검색 중 오류 발생: " + e.getMessage());
         }
     }
 
+    /**
+     * 저자로 도서를 검색합니다.
+     * @param keyword 검색할 저자 키워드
+     * @return 도서 ID 순으로 정렬된 검색 결과
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public List<Book> findBooksByAuthor(String keyword) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("searchBooksByAuthor")) {
+            return searchBooks(authorIndex, keyword, "author");
+        }
+    }
+
+    private List<Book> searchBooks(NGramIndex index, String keyword, String column) throws SQLException {
+        if (ensureSearchIndex()) {
+            return findBooksByIds(index.search(keyword));
+        }
+        return column.equals("title")
+                ? reads.books().findByTitleContaining(keyword)
+                : reads.books().findByAuthorContaining(keyword);
+    }
+
+    private static void printSearchResult(String keyword, List<Book> books) {
+        System.out.println("--- '" + keyword + "' (으)로 검색된 도서 ---");
+        if (books.isEmpty()) {
+            System.out.println("검색 결과가 없습니다.");
+        }
+        for (Book book : books) {
+            System.out.println(book);
+        }
+    }
+
+    // 색인을 아직 만들지 않았다면 전체 도서를 한 번 훑어 만든다. 실패하면 LIKE 검색으로 대신한다.
+    private boolean ensureSearchIndex() {
+        if (searchIndexReady) {
+            return true;
+        }
+        // 색인을 만드는 동안 DB 를 읽으므로, 가상 스레드가 기다려도 캐리어를 붙잡지 않는 잠금을 쓴다.
+        searchIndexLock.lock();
+        try {
+            if (!searchIndexReady) {
+                try (Stream<Book> books = streamBooks()) {
+                    books.forEach(book -> indexBook(book.getBookId(), book.getTitle(), book.getAuthor()));
+                    searchIndexReady = true;
+                } catch (IllegalStateException e) {
+                    System.err.println("검색 색인 생성 중 오류 발생: " + e.getMessage());
+                }
+            }
+        } finally {
+            searchIndexLock.unlock();
+        }
+        return searchIndexReady;
+    }
+
+    private void indexBook(int bookId, String title, String author) {
+        titleIndex.add(bookId, title);
+        authorIndex.add(bookId, author);
+    }
+
+    private void unindexBook(int bookId) {
+        titleIndex.remove(bookId);
+        authorIndex.remove(bookId);
+    }
+
+    // 색인이 찾은 도서 ID 를 캐시에서 먼저 찾고, 없는 것만 조회용 저장소(복제본)에서 한 번에 조회한다.
+    // 복제본은 이 Library 의 쓰기를 모두 받은 것만 고르므로 캐시에 넣어도 로컬 쓰기보다 오래된 값이 남지 않는다.
+    private List<Book> findBooksByIds(int[] bookIds) throws SQLException {
+        List<Book> books = new ArrayList<>(bookIds.length);
+        int[] missing = new int[bookIds.length];
+        int missingCount = 0;
+        for (int bookId : bookIds) {
+            Book cached = bookCache.get(bookId);
+            if (cached == null && catalogSnapshot != null) {
+                cached = catalogSnapshot.find(bookId);
+            }
+            if (cached != null) {
+                books.add(cached);
+            } else {
+                missing[missingCount++] = bookId;
+            }
+        }
+        if (missingCount == 0 || isOffline()) {
+            return books; // 오프라인이면 캐시에 있는 도서만 돌려준다.
+        }
+        long epoch = bookWriteEpoch.get();
+        List<Book> loaded = reads.books().findByIds(Arrays.copyOf(missing, missingCount));
+        for (Book book : loaded) {
+            cacheBook(book, epoch);
+        }
+        books.addAll(loaded);
+        books.sort(Comparator.comparingInt(Book::getBookId));
+        return books;
+    }
+
     /**
      * 특정 도서의 정보를 수정합니다. (예: 재고 수량 변경)
      * @param bookId 수정할 도서 ID
@@ -124,114 +733,1070 @@ public class Library {
      * @return 성공 여부
      */
     public boolean updateBookStock(int bookId, int newStock) {
-        String sql = "UPDATE books SET stock = ? WHERE book_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, newStock);
-            pstmt.setInt(2, bookId);
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("도서 ID " + bookId + " 의 재고가 " + newStock + " (으)로 업데이트되었습니다.");
-                return true;
-            } else {
-                System.out.println("도서 ID " + bookId + " 를 찾을 수 없거나 재고 변경이 필요 없습니다.");
-            }
+        try {
+            setBookStock(bookId, newStock);
+            System.out.println("도서 ID " + bookId + " 의 재고가 " + newStock + " (으)로 업데이트되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
         } catch (SQLException e) {
             System.err.println("도서 재고 수정 중 오류 발생: " + e.getMessage());
         }
         return false;
     }
 
+    /**
+     * 도서의 재고 수량을 바꾸고 바뀐 도서를 돌려줍니다.
+     * @param bookId 수정할 도서 ID
+     * @param newStock 새 재고 수량
+     * @return 수정된 도서
+     * @throws LibraryException 도서가 없는 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Book setBookStock(int bookId, int newStock) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("updateBookStock")) {
+            if (isOffline()) {
+                return setBookStockOffline(bookId, newStock);
+            }
+            Book book;
+            try {
+                book = storage.books().updateStock(bookId, newStock);
+            } catch (SQLException e) {
+                if (!canGoOffline(e)) {
+                    throw e;
+                }
+                return setBookStockOffline(bookId, newStock);
+            }
+            invalidateBook(bookId);
+            if (book == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                        "도서 ID " + bookId + " 를 찾을 수 없거나 재고 변경이 필요 없습니다.");
+            }
+            return book;
+        }
+    }
+
+    // 캐시의 재고를 바꾸고 저널에 남긴다. 그사이 온라인으로 돌아왔다면 DB 로 처리한다.
+    private Book setBookStockOffline(int bookId, int newStock) throws SQLException {
+        Book[] updated = new Book[1];
+        boolean recorded = offlineMode.record(journal -> {
+            offlineLock.lock();
+            try {
+                Book book = requireCachedBook(bookId);
+                long sequence = journal.appendStock(bookId, newStock);
+                updated[0] = withStock(book, newStock);
+                bookCache.put(bookId, updated[0]);
+                return sequence;
+            } finally {
+                offlineLock.unlock();
+            }
+        });
+        return recorded ? updated[0] : setBookStock(bookId, newStock);
+    }
+
     /**
      * 특정 도서를 데이터베이스에서 삭제합니다.
      * @param bookId 삭제할 도서 ID
      * @return 성공 여부
      */
     public boolean deleteBook(int bookId) {
-        // 먼저 해당 도서의 대출 기록이 있는지 확인
-        if (hasActiveLoans(bookId)) {
-            System.out.println("도서 ID " + bookId + " 는 현재 대출 중인 기록이 있어 삭제할 수 없습니다.");
-            return false;
+        try {
+            removeBook(bookId);
+            System.out.println("도서 ID " + bookId + " 이(가) 삭제되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("도서 삭제 중 오류 발생: " + e.getMessage());
         }
+        return false;
+    }
 
-        String sql = "DELETE FROM books WHERE book_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, bookId);
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("도서 ID " + bookId + " 이(가) 삭제되었습니다.");
-                return true;
-            } else {
-                System.out.println("도서 ID " + bookId + " 를 찾을 수 없습니다.");
+    /**
+     * 도서를 삭제합니다. 대출 중인 기록 확인과 삭제는 저장소가 한 번에 처리합니다. (JDBC 엔진은 DELETE 한 문장)
+     * 인기 도서이면 먼저 지정을 해제해 메모리 재고를 books 테이블로 돌려줍니다.
+     * @param bookId 삭제할 도서 ID
+     * @throws LibraryException 대출 중인 기록이 있거나(ACTIVE_LOANS) 도서가 없는 경우(NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public void removeBook(int bookId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("deleteBook")) {
+            undesignateHotTitles(List.of(bookId));
+            BulkOutcome outcome = storage.books().delete(bookId);
+            invalidateBook(bookId);
+            if (outcome == BulkOutcome.APPLIED) {
+                unindexBook(bookId);
+                dropHoldsForBook(bookId);
+                return;
+            }
+            if (outcome == BulkOutcome.NOT_FOUND) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
             }
+            throw new LibraryException(LibraryException.Reason.ACTIVE_LOANS,
+                    "도서 ID " + bookId + " 는 현재 대출 중인 기록이 있어 삭제할 수 없습니다.");
+        }
+    }
+
+    // 인기 도서의 재고는 hot_inventory 에 묶여 있으므로, 삭제하기 전에 지정을 해제해 books.stock 으로 돌려 놓는다.
+    // 대출 중이라 삭제가 거절되어도 해제된 채로 남는다. (다시 지정하면 된다)
+    private void undesignateHotTitles(Collection<Integer> bookIds) throws SQLException {
+        if (hotInventory == null) {
+            return;
+        }
+        for (int bookId : bookIds) {
+            if (hotInventory.isHot(bookId)) {
+                hotInventory.undesignate(bookId);
+            }
+        }
+    }
+
+    // 삭제는 이미 커밋되었으므로 예약을 정리하다 난 오류는 알리기만 한다. (남은 예약으로는 대출되지 않는다)
+    private void dropHoldsForBook(int bookId) {
+        if (holdQueues == null) {
+            return;
+        }
+        try {
+            holdQueues.cancelForBook(bookId);
         } catch (SQLException e) {
-            System.err.println("도서 삭제 중 오류 발생: " + e.getMessage());
+            System.err.println("예약 정리 중 오류 발생: " + e.getMessage());
         }
-        return false;
     }
 
-    private boolean checkAndDecreaseBookStock(int bookId) {
-        String selectSql = "SELECT stock FROM books WHERE book_id = ?";
-        String updateSql = "UPDATE books SET stock = stock - 1 WHERE book_id = ? AND stock > 0";
-
-        try (Connection conn = getConnection();
-             PreparedStatement selectPstmt = conn.prepareStatement(selectSql);
-             PreparedStatement updatePstmt = conn.prepareStatement(updateSql)) {
-
-            selectPstmt.setInt(1, bookId);
-            try (ResultSet rs = selectPstmt.executeQuery()) {
-                if (rs.next()) {
-                    int currentStock = rs.getInt("stock");
-                    if (currentStock > 0) {
-                        updatePstmt.setInt(1, bookId);
-                        int affectedRows = updatePstmt.executeUpdate();
-                        return affectedRows > 0;
-                    } else {
-                        System.out.println("도서 ID " + bookId + " 의 재고가 없습니다.");
-                        return false;
-                    }
-                } else {
-                    System.out.println("도서 ID " + bookId + " 를 찾을 수 없습니다.");
-                    return false;
+    // --- 일괄 수정/삭제 (재고 실사 등) ---
+
+    /**
+     * 여러 도서의 재고를 한 번에 바꿉니다. (JDBC 엔진은 한 트랜잭션에서 JDBC 배치 하나로)
+     * 없는 도서는 건너뛰고 결과에 NOT_FOUND 로 남기며, DB 오류가 나면 전부 되돌립니다.
+     * @param newStocks 도서 ID → 새 재고 수량
+     * @return 도서 ID 별 결과 (newStocks 의 순서대로)
+     * @throws LibraryException 도서 ID 나 재고 수량이 null 인 항목이 있는 경우 (NOT_ALLOWED, 아무 것도 바꾸지 않음)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Map<Integer, BulkOutcome> updateStocks(Map<Integer, Integer> newStocks) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("updateStocks")) {
+            JdbcBookRepository.requireStocks(newStocks); // 아래 캐시 무효화 루프가 null ID 로 실패하지 않게 먼저 확인한다.
+            try {
+                return storage.books().updateStocks(newStocks);
+            } finally {
+                for (int bookId : newStocks.keySet()) {
+                    invalidateBook(bookId);
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("도서 재고 확인/감소 중 오류 발생: " + e.getMessage());
         }
-        return false;
     }
 
-    // 도서 재고 증가 (대출 실패 시 롤백용)
-    private boolean increaseBookStock(int bookId) {
-        String sql = "UPDATE books SET stock = stock + 1 WHERE book_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, bookId);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+    /**
+     * 여러 도서를 한 번에 삭제합니다. JDBC 엔진은 한 트랜잭션에서 대출 중인 도서를 loans 와의 안티 조인 한 번으로 걸러 내고,
+     * 남은 도서만 JDBC 배치로 지웁니다. 걸러진 도서는 삭제하지 않고 결과에 사유를 남깁니다.
+     * 인기 도서는 먼저 지정을 해제합니다.
+     * @param bookIds 삭제할 도서 ID (중복은 한 번만 처리)
+     * @return 도서 ID 별 결과 (APPLIED, NOT_FOUND, ACTIVE_LOANS)
+     * @throws LibraryException 도서 ID 가 null 인 항목이 있는 경우 (NOT_ALLOWED, 아무 것도 지우지 않음)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Map<Integer, BulkOutcome> deleteBooks(Collection<Integer> bookIds) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("deleteBooks")) {
+            JdbcBookRepository.requireBookIds(bookIds);
+            List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(bookIds));
+            undesignateHotTitles(ids);
+            Map<Integer, BulkOutcome> outcomes;
+            try {
+                outcomes = storage.books().deleteAll(ids);
+            } finally {
+                for (int bookId : ids) {
+                    invalidateBook(bookId);
+                }
+            }
+            outcomes.forEach((bookId, outcome) -> {
+                if (outcome == BulkOutcome.APPLIED) {
+                    unindexBook(bookId);
+                    dropHoldsForBook(bookId);
+                }
+            });
+            return outcomes;
+        }
+    }
+
+    // --- 회원 관리 기능 (CRUD) ---
+
+    /**
+     * 새로운 회원을 등록합니다.
+     * @param name 이름
+     * @param phoneNumber 전화번호
+     * @return 성공 여부
+     */
+    public boolean addMember(String name, String phoneNumber) {
+        try {
+            insertMember(name, phoneNumber);
+            System.out.println("회원 '" + name + "' (전화번호: " + phoneNumber + ") 이(가) 등록되었습니다.");
+            return true;
         } catch (SQLException e) {
-            System.err.println("도서 재고 증가 중 오류 발생: " + e.getMessage());
+            System.err.println("회원 등록 중 오류 발생: " + e.getMessage());
         }
         return false;
     }
 
     /**
-     * 휴일을 고려하여 반납 예정일을 계산합니다.
-     * @param startDate 시작 날짜
-     * @param daysToAdd 추가할 일수
-     * @return 계산된 반납 예정일
+     * 새로운 회원을 등록하고, 생성된 회원 ID 를 담은 회원을 돌려줍니다.
+     * @param name 이름
+     * @param phoneNumber 전화번호
+     * @return 등록된 회원
+     * @throws SQLException DB 오류
      */
-    private LocalDate calculateDueDate(LocalDate startDate, int daysToAdd) {
-        LocalDate currentDate = startDate;
-        int addedDays = 0;
+    @SuppressWarnings("try")
+    public Member insertMember(String name, String phoneNumber) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("addMember")) {
+            Member member = storage.members().insert(name, phoneNumber);
+            readSession.noteWrite();
+            memberIndex.add(member.getMemberId(), name, phoneNumber);
+            return member;
+        }
+    }
 
-        while (addedDays < daysToAdd) {
-            currentDate = currentDate.plusDays(1);
-            if (!holidayPolicy.isHoliday(currentDate)) {
-                addedDays++;
-            }
+    /**
+     * 회원 ID 로 회원을 찾습니다.
+     * @param memberId 회원 ID
+     * @return 회원, 없으면 null
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Member findMemberById(int memberId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("findMemberById")) {
+            return storage.members().findById(memberId);
         }
-        return currentDate;
+    }
+
+    /**
+     * 모든 회원 목록을 조회합니다. 회원 ID 순으로 페이지 단위로 읽습니다.
+     */
+    @SuppressWarnings("try")
+    public void viewAllMembers() {
+        try (LibraryMetrics.Timer timer = metrics.time("viewAllMembers")) {
+            System.out.println("--- 모든 회원 목록 ---");
+            try (Stream<Member> members = streamMembers()) {
+                members.forEach(System.out::println);
+            } catch (IllegalStateException e) {
+                System.err.println("회원 목록 조회 중 오류 발생: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 모든 회원을 회원 ID 순으로 지연 조회하는 스트림을 돌려줍니다. (설정된 페이지/fetch 크기 사용)
+     * 읽기 복제본이 있으면 복제본에서 읽습니다.
+     * @return 회원 스트림
+     */
+    public Stream<Member> streamMembers() {
+        return reads.members().stream(pageSize, fetchSize);
+    }
+
+    /**
+     * 모든 회원을 회원 ID 기준 키셋 페이지네이션으로 지연 조회하는 스트림을 돌려줍니다.
+     * @param pageSize 한 번의 쿼리로 가져올 행 수
+     * @param fetchSize 드라이버가 한 번에 받아 올 행 수
+     * @return 회원 스트림
+     */
+    public Stream<Member> streamMembers(int pageSize, int fetchSize) {
+        return storage.members().stream(pageSize, fetchSize);
+    }
+
+    /**
+     * 전화번호 뒷자리로 회원을 찾아 출력합니다.
+     * @param suffix 전화번호 뒷자리 (예: 5678)
+     */
+    public void searchMembersByPhone(String suffix) {
+        try {
+            printMemberSearchResult(suffix, findMembersByPhoneSuffix(suffix));
+        } catch (SQLException e) {
+            System.err.println("회원 검색 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 전화번호가 주어진 숫자로 끝나는 회원을 찾습니다. 숫자 외 문자(-, 공백)는 무시합니다.
+     * @param suffix 전화번호 뒷자리
+     * @return 일치하는 회원 (최대 100명)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public List<Member> findMembersByPhoneSuffix(String suffix) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("searchMembersByPhone")) {
+            if (ensureMemberIndex()) {
+                return storage.members().findByIds(memberIndex.findByPhoneSuffix(suffix, MEMBER_SEARCH_LIMIT));
+            }
+            return storage.members().findByPhoneSuffix(MemberIndex.digitsOf(suffix), MEMBER_SEARCH_LIMIT);
+        }
+    }
+
+    /**
+     * 이름 앞부분으로 회원을 찾아 출력합니다.
+     * @param prefix 이름 앞부분
+     */
+    public void searchMembersByName(String prefix) {
+        try {
+            printMemberSearchResult(prefix, findMembersByNamePrefix(prefix));
+        } catch (SQLException e) {
+            System.err.println("회원 검색 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 이름이 주어진 문자열로 시작하는 회원을 이름 순으로 찾습니다.
+     * 한글은 자모 단위로 비교하므로 "김ㅊ", "김처" 처럼 입력 중인 글자로도 찾습니다.
+     * @param prefix 이름 앞부분
+     * @return 일치하는 회원 (최대 100명)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public List<Member> findMembersByNamePrefix(String prefix) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("searchMembersByName")) {
+            if (ensureMemberIndex()) {
+                return storage.members().findByIds(memberIndex.findByNamePrefix(prefix, MEMBER_SEARCH_LIMIT));
+            }
+            return storage.members().findByNamePrefix(prefix, MEMBER_SEARCH_LIMIT);
+        }
+    }
+
+    private static void printMemberSearchResult(String keyword, List<Member> members) {
+        System.out.println("--- '" + keyword + "' 회원 검색 결과 ---");
+        if (members.isEmpty()) {
+            System.out.println("일치하는 회원이 없습니다.");
+        } else {
+            members.forEach(System.out::println);
+        }
+    }
+
+    private boolean ensureMemberIndex() {
+        if (memberIndexReady) {
+            return true;
+        }
+        memberIndexLock.lock();
+        try {
+            if (!memberIndexReady) {
+                try (Stream<Member> members = streamMembers()) {
+                    memberIndex.build(members);
+                    memberIndexReady = true;
+                } catch (IllegalStateException e) {
+                    System.err.println("회원 색인 생성 중 오류 발생: " + e.getMessage());
+                }
+            }
+        } finally {
+            memberIndexLock.unlock();
+        }
+        return memberIndexReady;
+    }
+
+    /**
+     * 회원의 전화번호를 수정합니다.
+     * @param memberId 수정할 회원 ID
+     * @param newPhoneNumber 새 전화번호
+     * @return 성공 여부
+     */
+    public boolean updateMemberPhoneNumber(int memberId, String newPhoneNumber) {
+        try {
+            setMemberPhoneNumber(memberId, newPhoneNumber);
+            System.out.println("회원 ID " + memberId + " 의 전화번호가 " + newPhoneNumber + " (으)로 수정되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("회원 전화번호 수정 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 회원의 전화번호를 바꾸고 바뀐 회원을 돌려줍니다.
+     * @param memberId 수정할 회원 ID
+     * @param newPhoneNumber 새 전화번호
+     * @return 수정된 회원
+     * @throws LibraryException 회원이 없는 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Member setMemberPhoneNumber(int memberId, String newPhoneNumber) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("updateMemberPhoneNumber")) {
+            Member member = storage.members().updatePhoneNumber(memberId, newPhoneNumber);
+            readSession.noteWrite();
+            if (member == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "회원 ID " + memberId + " 를 찾을 수 없습니다.");
+            }
+            memberIndex.add(memberId, member.getName(), member.getPhoneNumber());
+            return member;
+        }
+    }
+
+    /**
+     * 회원을 삭제합니다. 반납하지 않은 대출이 있으면 삭제하지 않습니다.
+     * @param memberId 삭제할 회원 ID
+     * @return 성공 여부
+     */
+    public boolean deleteMember(int memberId) {
+        try {
+            removeMember(memberId);
+            System.out.println("회원 ID " + memberId + " 이(가) 삭제되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("회원 삭제 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 회원을 삭제합니다. 반납하지 않은 대출 확인과 삭제는 저장소가 한 번에 처리합니다. (JDBC 엔진은 DELETE 한 문장)
+     * @param memberId 삭제할 회원 ID
+     * @throws LibraryException 반납하지 않은 대출이 있거나(ACTIVE_LOANS) 회원이 없는 경우(NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public void removeMember(int memberId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("deleteMember")) {
+            BulkOutcome outcome = storage.members().delete(memberId);
+            if (outcome == BulkOutcome.APPLIED) {
+                readSession.noteWrite();
+                memberIndex.remove(memberId);
+                return;
+            }
+            if (outcome == BulkOutcome.NOT_FOUND) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "회원 ID " + memberId + " 를 찾을 수 없습니다.");
+            }
+            throw new LibraryException(LibraryException.Reason.ACTIVE_LOANS,
+                    "회원 ID " + memberId + " 는 반납하지 않은 대출이 있어 삭제할 수 없습니다.");
+        }
+    }
+
+    // --- 대출/반납 관리 기능 ---
+
+    /**
+     * 도서를 대출합니다. 재고 감소와 대출 기록 추가는 하나의 트랜잭션으로 처리됩니다.
+     * 예약 대기열을 쓰면 재고가 없을 때 다시 시도하는 대신 예약을 넣습니다.
+     * @param bookId 대출할 도서 ID
+     * @param memberId 대출하는 회원 ID
+     * @return 성공 여부 (예약만 넣었으면 false)
+     */
+    public boolean borrowBook(int bookId, int memberId) {
+        try {
+            Loan loan = checkOut(bookId, memberId);
+            System.out.println("도서 ID " + bookId + " 이(가) 회원 ID " + memberId + " 에게 대출되었습니다. 반납 예정일: " + loan.getDueDate());
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+            if (e.getReason() == LibraryException.Reason.OUT_OF_STOCK && holdQueues != null && !isOffline()) {
+                reserveBook(bookId, memberId);
+            }
+        } catch (SQLException e) {
+            System.err.println("도서 대출 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 도서를 대출하고 새 대출 기록을 돌려줍니다.
+     * 회원을 위해 보관 중인 책(READY 예약)이 있으면 재고 대신 그 책을 대출합니다.
+     * 오프라인 모드에서는 캐시의 재고로 판단해 저널에 남기며, 대출 기록 ID 는 DB 에 재생될 때 정해지므로 0 입니다.
+     * @param bookId 대출할 도서 ID
+     * @param memberId 대출하는 회원 ID
+     * @return 대출 기록
+     * @throws LibraryException 도서가 없거나(NOT_FOUND) 재고가 없는 경우(OUT_OF_STOCK),
+     * 오프라인인데 캐시에 없는 도서이거나 인기 도서인 경우(NOT_ALLOWED)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Loan checkOut(int bookId, int memberId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("borrowBook")) {
+            LocalDate loanDate = LocalDate.now();
+            LocalDate dueDate = calculateDueDate(loanDate, LOAN_PERIOD_DAYS);
+
+            if (holdQueues != null && !isOffline()) {
+                Hold hold;
+                try {
+                    hold = holdQueues.activeFor(bookId, memberId);
+                } catch (SQLException e) {
+                    if (!canGoOffline(e)) {
+                        throw e;
+                    }
+                    return checkOutOffline(bookId, memberId, loanDate, dueDate);
+                }
+                if (hold != null && hold.getStatus() == Hold.Status.READY) {
+                    return checkOutHold(hold, loanDate, dueDate);
+                }
+            }
+            // 인기 도서는 books 행을 잠그지 않고 메모리 재고에서 예약한다.
+            if (hotInventory != null && hotInventory.isHot(bookId)) {
+                return checkOutReserved(bookId, memberId, loanDate, dueDate);
+            }
+            if (isOffline()) {
+                return checkOutOffline(bookId, memberId, loanDate, dueDate);
+            }
+            Loan loan;
+            try {
+                loan = storage.loans().checkOut(bookId, memberId, loanDate, dueDate);
+            } catch (SQLException e) {
+                if (!canGoOffline(e)) {
+                    throw e;
+                }
+                return checkOutOffline(bookId, memberId, loanDate, dueDate);
+            }
+            invalidateBook(bookId);
+            loanCache.put(loan.getLoanId(), loan);
+            dropWaitingHold(bookId, memberId);
+            return loan;
+        }
+    }
+
+    // 보관된 책은 이미 재고에서 빠져 있으므로 예약을 FULFILLED 로 바꾸며 대출 기록만 남긴다.
+    private Loan checkOutHold(Hold hold, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        Loan loan = storage.loans().checkOutHold(hold.getHoldId(), loanDate, dueDate);
+        holdQueues.fulfilled(hold);
+        readSession.noteWrite();
+        loanCache.put(loan.getLoanId(), loan);
+        return loan;
+    }
+
+    // 대기 중이던 회원이 재고로 바로 빌렸다면 그 예약은 더 기다릴 필요가 없다.
+    // 대출은 이미 커밋되었으므로 정리하다 난 오류는 알리기만 한다.
+    private void dropWaitingHold(int bookId, int memberId) {
+        if (holdQueues == null) {
+            return;
+        }
+        try {
+            Hold hold = holdQueues.activeFor(bookId, memberId);
+            if (hold != null && hold.getStatus() == Hold.Status.WAITING) {
+                holdQueues.cancel(hold.getHoldId());
+            }
+        } catch (LibraryException e) {
+            // 그사이 다른 곳에서 끝났다.
+        } catch (SQLException e) {
+            System.err.println("예약 정리 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    // 메모리 재고에서 예약한 뒤 대출 기록과 확정 기록을 한 트랜잭션으로 남긴다. (인기 도서는 JDBC 엔진에서만 켜진다)
+    private Loan checkOutReserved(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        HotInventory.Reservation reservation = hotInventory.tryReserve(bookId);
+        if (reservation == null) {
+            throw new LibraryException(LibraryException.Reason.OUT_OF_STOCK, "도서 ID " + bookId + " 의 재고가 없습니다.");
+        }
+        try (Connection conn = connectOrOffline()) {
+            if (conn == null) {
+                return checkOutOffline(bookId, memberId, loanDate, dueDate);
+            }
+            conn.setAutoCommit(false);
+            try {
+                int loanId = JdbcLoanRepository.insertLoan(conn, bookId, memberId, loanDate, dueDate);
+                hotInventory.recordConfirmed(conn, reservation, loanId);
+                conn.commit();
+                hotInventory.confirm(reservation);
+                Loan loan = new Loan(loanId, bookId, memberId, loanDate, dueDate, null);
+                loanCache.put(loanId, loan);
+                dropWaitingHold(bookId, memberId);
+                return loan;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            hotInventory.release(reservation); // 확정되지 않은 예약만 되돌린다.
+        }
+    }
+
+    private Loan checkOutOffline(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws SQLException {
+        // 인기 도서의 재고는 메모리 에스크로에 있어 캐시의 재고로 판단할 수 없다.
+        if (hotInventory != null && hotInventory.isHot(bookId)) {
+            throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                    "오프라인 모드에서는 인기 도서 ID " + bookId + " 를 대출할 수 없습니다.");
+        }
+        boolean recorded = offlineMode.record(journal -> {
+            offlineLock.lock();
+            try {
+                Book book = requireCachedBook(bookId);
+                if (book.getStock() <= 0) {
+                    throw new LibraryException(LibraryException.Reason.OUT_OF_STOCK, "도서 ID " + bookId + " 의 재고가 없습니다.");
+                }
+                long sequence = journal.appendBorrow(bookId, memberId, loanDate, dueDate);
+                bookCache.put(bookId, withStock(book, book.getStock() - 1));
+                return sequence;
+            } finally {
+                offlineLock.unlock();
+            }
+        });
+        return recorded ? new Loan(0, bookId, memberId, loanDate, dueDate, null) : checkOut(bookId, memberId);
+    }
+
+    /**
+     * 인기 도서로 지정해 재고를 메모리에서 나눠 주도록 합니다. (library.hotInventory.enabled=true 필요)
+     * @param bookId 도서 ID
+     * @param maxEscrow 메모리로 옮길 최대 재고 (0 이하이면 전부)
+     * @return 성공 여부
+     */
+    public boolean designateHotTitle(int bookId, int maxEscrow) {
+        try {
+            int available = makeHotTitle(bookId, maxEscrow);
+            System.out.println("도서 ID " + bookId + " 이(가) 인기 도서로 지정되었습니다. 메모리 재고: " + available);
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("인기 도서 지정 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 인기 도서로 지정하고 메모리에서 나눠 줄 수 있는 재고 수를 돌려줍니다.
+     * @param bookId 도서 ID
+     * @param maxEscrow 메모리로 옮길 최대 재고 (0 이하이면 전부)
+     * @return 메모리 재고
+     * @throws LibraryException 인기 도서 모드가 꺼져 있거나(NOT_ALLOWED) 도서가 없는 경우(NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public int makeHotTitle(int bookId, int maxEscrow) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("designateHotTitle")) {
+            if (hotInventory == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                        "인기 도서 모드가 꺼져 있습니다. (library.hotInventory.enabled)");
+            }
+            if (hotInventory.designate(bookId, maxEscrow) < 0) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
+            }
+            return hotInventory.available(bookId);
+        }
+    }
+
+    /**
+     * 인기 도서 지정을 해제하고 남은 재고를 books 테이블로 돌려줍니다.
+     * @param bookId 도서 ID
+     * @return 성공 여부
+     */
+    public boolean releaseHotTitle(int bookId) {
+        try {
+            clearHotTitle(bookId);
+            System.out.println("도서 ID " + bookId + " 의 인기 도서 지정이 해제되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("인기 도서 해제 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 인기 도서 지정을 해제합니다.
+     * @param bookId 도서 ID
+     * @throws LibraryException 인기 도서가 아닌 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public void clearHotTitle(int bookId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("releaseHotTitle")) {
+            if (hotInventory == null || !hotInventory.isHot(bookId)) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 는 인기 도서가 아닙니다.");
+            }
+            hotInventory.undesignate(bookId);
+        }
+    }
+
+    /**
+     * 도서를 반납합니다. 반납일 기록과 재고 증가(또는 다음 예약에 책 넘기기)는 하나의 트랜잭션으로 처리됩니다.
+     * @param loanId 반납할 대출 기록 ID
+     * @return 성공 여부
+     */
+    public boolean returnBook(int loanId) {
+        try {
+            Loan loan = checkIn(loanId);
+            System.out.println("대출 기록 ID " + loanId + " (도서 ID " + loan.getBookId() + ") 이(가) 반납되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("도서 반납 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 도서를 반납 처리하고 반납일이 기록된 대출 기록을 돌려줍니다.
+     * 예약 대기열을 쓰면 이 도서의 가장 오래된 대기 예약에 책을 넘기고, 받기 기한은 영업일 기준으로 정합니다.
+     * 오프라인 모드에서는 저널에 남기며, 캐시에 없는 대출 기록이면 도서/회원 ID 와 대출일이 비어 있는 기록을 돌려줍니다.
+     * @param loanId 반납할 대출 기록 ID
+     * @return 반납된 대출 기록
+     * @throws LibraryException 대출 기록이 없거나 이미 반납된 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Loan checkIn(int loanId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("returnBook")) {
+            if (isOffline()) {
+                return checkInOffline(loanId);
+            }
+            Loan returned;
+            try {
+                returned = storage.loans().checkIn(loanId, LocalDate.now(), holdHandOff());
+            } catch (SQLException e) {
+                if (!canGoOffline(e)) {
+                    throw e;
+                }
+                return checkInOffline(loanId);
+            }
+            invalidateBook(returned.getBookId());
+            loanCache.put(loanId, returned);
+            return returned;
+        }
+    }
+
+    // 대기열을 처음 쓰기 전에 저장소의 예약을 읽어 두어야 반납이 대기 예약을 놓치지 않는다.
+    private LoanRepository.HoldHandOff holdHandOff() throws SQLException {
+        if (holdQueues == null) {
+            return LoanRepository.HoldHandOff.NONE;
+        }
+        holdQueues.ensureLoaded();
+        return holdQueues;
+    }
+
+    private Loan checkInOffline(int loanId) throws SQLException {
+        LocalDate returnDate = LocalDate.now();
+        Loan[] returned = new Loan[1];
+        boolean recorded = offlineMode.record(journal -> {
+            offlineLock.lock();
+            try {
+                Loan loan = loanCache.get(loanId);
+                if (loan != null && loan.isReturned()) {
+                    throw new LibraryException(LibraryException.Reason.NOT_FOUND,
+                            "대출 기록 ID " + loanId + " 를 찾을 수 없거나 이미 반납되었습니다.");
+                }
+                long sequence = journal.appendReturn(loanId, returnDate);
+                if (loan == null) {
+                    returned[0] = new Loan(loanId, 0, 0, null, null, returnDate);
+                } else {
+                    returned[0] = new Loan(loanId, loan.getBookId(), loan.getMemberId(), loan.getLoanDate(), loan.getDueDate(), returnDate);
+                    Book book = bookCache.get(loan.getBookId());
+                    if (book != null) {
+                        bookCache.put(book.getBookId(), withStock(book, book.getStock() + 1));
+                    }
+                }
+                loanCache.put(loanId, returned[0]);
+                return sequence;
+            } finally {
+                offlineLock.unlock();
+            }
+        });
+        return recorded ? returned[0] : checkIn(loanId);
+    }
+
+    /**
+     * 재고가 없는 도서를 예약 대기열에 올립니다. 반납되면 순서대로 책을 보관해 둡니다.
+     * @param bookId 예약할 도서 ID
+     * @param memberId 예약하는 회원 ID
+     * @return 성공 여부 (이미 예약한 도서이면 그 예약을 보여 주고 true)
+     */
+    public boolean reserveBook(int bookId, int memberId) {
+        try {
+            Hold hold = placeHold(bookId, memberId);
+            if (hold.getStatus() == Hold.Status.READY) {
+                System.out.println("예약 ID " + hold.getHoldId() + " 로 보관 중인 책이 있습니다. 받기 기한: " + hold.getReadyUntil());
+            } else {
+                System.out.println("도서 ID " + bookId + " 을(를) 예약했습니다. 예약 ID: " + hold.getHoldId()
+                        + ", 대기 순번: " + holdPosition(hold));
+            }
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("도서 예약 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 도서를 예약 대기열에 올리고 예약을 돌려줍니다. 같은 회원이 이미 예약한 도서이면 그 예약을 돌려줍니다.
+     * @param bookId 예약할 도서 ID
+     * @param memberId 예약하는 회원 ID
+     * @return 회원의 예약
+     * @throws LibraryException 예약 대기열이 꺼져 있거나 재고가 남아 있는 경우(NOT_ALLOWED), 도서나 회원이 없는 경우(NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Hold placeHold(int bookId, int memberId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("placeHold")) {
+            requireHolds();
+            Hold existing = holdQueues.activeFor(bookId, memberId);
+            if (existing != null) {
+                return existing;
+            }
+            Book book = storage.books().findById(bookId);
+            if (book == null) {
+                throw new LibraryException(LibraryException.Reason.NOT_FOUND, "도서 ID " + bookId + " 를 찾을 수 없습니다.");
+            }
+            boolean hot = hotInventory != null && hotInventory.isHot(bookId);
+            if (hot ? hotInventory.available(bookId) > 0 : book.getStock() > 0) {
+                throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                        "도서 ID " + bookId + " 은(는) 재고가 있어 바로 대출할 수 있습니다.");
+            }
+            Hold hold = holdQueues.place(bookId, memberId);
+            readSession.noteWrite();
+            return hold;
+        }
+    }
+
+    /**
+     * 예약을 취소합니다. 보관 중이던 책은 다음 예약에 넘어가거나 재고로 돌아갑니다.
+     * @param holdId 취소할 예약 ID
+     * @return 성공 여부
+     */
+    public boolean cancelReservation(int holdId) {
+        try {
+            Hold hold = cancelHold(holdId);
+            System.out.println("예약 ID " + holdId + " (도서 ID " + hold.getBookId() + ") 이(가) 취소되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("예약 취소 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 예약을 취소하고 취소된 예약을 돌려줍니다.
+     * @param holdId 취소할 예약 ID
+     * @return 취소된 예약
+     * @throws LibraryException 예약 대기열이 꺼져 있거나(NOT_ALLOWED) 예약이 없거나 이미 끝난 경우(NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Hold cancelHold(int holdId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("cancelHold")) {
+            requireHolds();
+            return holdQueues.cancel(holdId);
+        }
+    }
+
+    /**
+     * @param holdId 예약 ID
+     * @return 예약 (끝난 예약 포함), 없으면 null
+     * @throws LibraryException 예약 대기열이 꺼져 있는 경우 (NOT_ALLOWED)
+     * @throws SQLException DB 오류
+     */
+    public Hold findHoldById(int holdId) throws SQLException {
+        requireHolds();
+        return storage.holds().findById(holdId);
+    }
+
+    /**
+     * @return 대기열에서 몇 번째인지 (1부터), 대기 중이 아니거나 예약 대기열이 꺼져 있으면 0
+     */
+    public int holdPosition(Hold hold) {
+        return holdQueues == null ? 0 : holdQueues.position(hold);
+    }
+
+    /**
+     * 받기 기한이 asOf 보다 앞선 예약을 만료시키고 책을 다음 예약에 넘깁니다. (보통은 library.holds.sweepIntervalMs 마다 저절로 돕니다)
+     * @param asOf 기준 날짜
+     * @return 만료된 예약 수
+     * @throws LibraryException 예약 대기열이 꺼져 있는 경우 (NOT_ALLOWED)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public int expireHolds(LocalDate asOf) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("expireHolds")) {
+            requireHolds();
+            return holdQueues.sweep(asOf);
+        }
+    }
+
+    private void requireHolds() {
+        if (holdQueues == null) {
+            throw new LibraryException(LibraryException.Reason.NOT_ALLOWED,
+                    "예약 대기열이 꺼져 있습니다. (library.holds.enabled)");
+        }
+    }
+
+    /**
+     * 반납 예정일을 휴일을 제외한 일수만큼 연장합니다.
+     * @param loanId 연장할 대출 기록 ID
+     * @param days 연장할 일수
+     * @return 성공 여부
+     */
+    public boolean extendDueDate(int loanId, int days) {
+        try {
+            Loan loan = renew(loanId, days);
+            System.out.println("대출 기록 ID " + loanId + " 의 반납 예정일이 " + loan.getDueDate() + " (으)로 연장되었습니다.");
+            return true;
+        } catch (LibraryException e) {
+            System.out.println(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("반납일 연장 중 오류 발생: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 반납 예정일을 휴일을 제외한 일수만큼 연장하고 바뀐 대출 기록을 돌려줍니다.
+     * @param loanId 연장할 대출 기록 ID
+     * @param days 연장할 일수
+     * @return 연장된 대출 기록
+     * @throws LibraryException 대출 기록이 없거나 이미 반납된 경우 (NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Loan renew(int loanId, int days) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("extendDueDate")) {
+            Loan renewed = storage.loans().renew(loanId, days, this::dueDateOf);
+            loanCache.put(loanId, renewed);
+            return renewed;
+        }
+    }
+
+    /**
+     * 대출 기록 ID 로 대출 기록을 찾습니다. (반납된 기록 포함)
+     * @param loanId 대출 기록 ID
+     * @return 대출 기록, 없으면 null
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public Loan findLoanById(int loanId) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("findLoanById")) {
+            Loan loan = storage.loans().findById(loanId);
+            if (loan != null) {
+                loanCache.put(loanId, loan);
+            }
+            return loan;
+        }
+    }
+
+    /**
+     * 휴일을 바꾸는 작업을 실행하고, 그 변경으로 반납 예정일이 다시 계산된 미반납 대출 수를 돌려줍니다.
+     * 반납 예정일은 휴일 정책의 변경 리스너가 다시 계산하므로, 이 메서드를 거치지 않은 변경
+     * (다른 인스턴스가 바꾼 휴일 포함)도 똑같이 반영되고 건수만 출력됩니다.
+     * @param change 휴일 추가/삭제 (예: () -> customHoliday.insertHoliday(date, description))
+     * @return 반납 예정일이 바뀐 대출 수
+     * @throws LibraryException 휴일 변경이 거부된 경우 (예: 없는 휴일 삭제 NOT_FOUND)
+     * @throws SQLException DB 오류
+     */
+    public int changeHolidays(HolidayChange change) throws SQLException {
+        int[] rebased = new int[1];
+        rebasedByChange.set(rebased);
+        try {
+            change.apply();
+        } finally {
+            rebasedByChange.remove();
+        }
+        return rebased[0];
+    }
+
+    /**
+     * changeHolidays 로 실행할 휴일 변경입니다.
+     */
+    @FunctionalInterface
+    public interface HolidayChange {
+        void apply() throws SQLException;
+    }
+
+    // 휴일 정책의 변경 리스너. 휴일이 추가/삭제된 스레드(다른 인스턴스의 변경이면 갱신 스레드)에서 호출된다.
+    private void holidayChanged(LocalDate changedDate) {
+        try {
+            int rebased = rebaseDueDates(changedDate);
+            int[] counter = rebasedByChange.get();
+            if (counter != null) {
+                counter[0] += rebased;
+            } else if (rebased > 0) {
+                System.out.println("휴일 변경(" + changedDate + ")으로 대출 " + rebased + "건의 반납 예정일이 조정되었습니다.");
+            }
+        } catch (SQLException e) {
+            // 다음 시작 때 reconcileDueDates 가 다시 맞춘다.
+            System.err.println("반납 예정일 조정 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * changedDate 의 휴일이 바뀐 뒤, 대출 기간(대출일 다음 날 ~ 반납 예정일)에 그 날짜가 들어 있는
+     * 미반납 대출만 골라 반납 예정일을 대출일 + (대출 기간 + 연장 영업일 수)로 새 달력에서 다시 계산합니다.
+     * 결과가 대출 기록만으로 정해지므로 몇 번을 다시 실행해도, 그 사이 새 대출이 들어와도 같은 결과가 됩니다.
+     * 휴일 정책의 변경 리스너가 부르므로 휴일을 바꾼 쪽에서 따로 부를 필요는 없습니다.
+     * 조회와 갱신은 저장소가 한 트랜잭션으로 처리합니다. (JDBC 엔진은 갱신을 배치 하나로 보냅니다)
+     * @param changedDate 휴일이 추가/삭제된 날짜
+     * @return 반납 예정일이 바뀐 대출 수
+     * @throws SQLException DB 오류
+     */
+    @SuppressWarnings("try")
+    public int rebaseDueDates(LocalDate changedDate) throws SQLException {
+        try (LibraryMetrics.Timer timer = metrics.time("rebaseDueDates")) {
+            int rebased = storage.loans().rebaseDueDates(changedDate, this::dueDateOf);
+            if (rebased > 0) {
+                loanCache.invalidateAll();
+            }
+            return rebased;
+        }
+    }
+
+    /**
+     * 모든 미반납 대출의 반납 예정일을 지금 달력으로 다시 계산합니다.
+     * 휴일을 바꾼 뒤 다시 계산하기 전에 프로세스가 끝났어도 다음 시작 때(warmUp) 바로잡힙니다.
+     * @return 반납 예정일이 바뀐 대출 수
+     * @throws SQLException DB 오류
+     */
+    public int reconcileDueDates() throws SQLException {
+        int rebased = storage.loans().rebaseDueDates(null, this::dueDateOf);
+        if (rebased > 0) {
+            loanCache.invalidateAll();
+        }
+        return rebased;
+    }
+
+    // 대출의 반납 예정일: 대출일 다음 날부터 (기본 대출 기간 + 연장한 일수) 번째 영업일
+    private LocalDate dueDateOf(LocalDate loanDate, int extendedDays) {
+        return calculateDueDate(loanDate, LOAN_PERIOD_DAYS + extendedDays);
+    }
+
+    /**
+     * 휴일 정책(미리 계산된 달력) 기준으로 영업일인지 확인합니다.
+     * @param date 확인할 날짜
+     * @return 휴일이 아니면 true
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return businessDayCalendar.isBusinessDay(date);
+    }
+
+    /**
+     * 반납 예정일이 지난 미반납 대출의 연체료를 휴일 정책의 영업일 기준으로 계산해 기록합니다. (야간 작업용)
+     * 금액은 library.fine.perDay(기본 100), 대출 한 건의 상한은 library.fine.max(기본 0: 없음)로 정합니다.
+     * @param asOf 기준 날짜
+     * @return 처리 결과, 실패하면 null
+     */
+    @SuppressWarnings("try")
+    public OverdueFineJob.Result assessOverdueFines(LocalDate asOf) {
+        try (LibraryMetrics.Timer timer = metrics.time("assessOverdueFines")) {
+            try {
+                OverdueFineJob job = new OverdueFineJob(requireConnections("연체료 계산"), businessDayCalendar,
+                        finePerDay, maxFine, fineChunkSize, fetchSize);
+                OverdueFineJob.Result result = job.run(asOf);
+                System.out.println("연체료 계산 완료 (" + asOf + " 기준): " + result);
+                return result;
+            } catch (LibraryException e) {
+                System.out.println(e.getMessage());
+            } catch (SQLException e) {
+                System.err.println("연체료 계산 중 오류 발생: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 휴일을 고려하여 반납 예정일을 계산합니다.
+     * @param startDate 시작 날짜
+     * @param daysToAdd 추가할 일수
+     * @return 계산된 반납 예정일
+     */
+    LocalDate calculateDueDate(LocalDate startDate, int daysToAdd) {
+        // 휴일 정책을 하루씩 조회하지 않고 미리 계산된 영업일 달력으로 바로 구한다.
+        return businessDayCalendar.plusBusinessDays(startDate, daysToAdd);
     }
 }
@@ -0,0 +1,38 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * 클래스패스의 db.properties 를 한 번만 읽어 프로세스 전체가 같은 Properties 를 쓰게 합니다.
+ * Main, Library 기본 생성자, CustomHoliday 가 각자 파일을 다시 읽지 않도록 여기서 읽은 값을 넘겨받습니다.
+ */
+public final class LibraryConfig {
+    private static final String RESOURCE = "db.properties";
+
+    private static Properties loaded;
+
+    private LibraryConfig() {
+    }
+
+    /**
+     * db.properties 를 읽어 돌려줍니다. 두 번째 호출부터는 처음 읽은 것을 그대로 돌려줍니다.
+     * @return 공유 설정, 파일이 없거나 읽지 못한 경우 null
+     */
+    public static synchronized Properties load() {
+        if (loaded != null) {
+            return loaded;
+        }
+        try (InputStream input = LibraryConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input == null) {
+                return null;
+            }
+            Properties props = new Properties();
+            props.load(input);
+            loaded = props;
+            return loaded;
+        } catch (IOException e) {
+            System.err.println("db.properties 읽기 중 오류 발생: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * 대출할 재고가 없거나 대상이 없는 등, DB 오류가 아닌 업무 규칙 때문에 작업이 실패했음을 알립니다.
+ * 메시지는 콘솔에 그대로 보여 줄 수 있는 문장이며, 원인은 getReason() 으로 구분합니다.
+ */
+public class LibraryException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        /** 도서/회원/대출 기록을 찾을 수 없음 */
+        NOT_FOUND,
+        /** 대출 가능한 재고가 없음 */
+        OUT_OF_STOCK,
+        /** 반납하지 않은 대출이 있어 삭제할 수 없음 */
+        ACTIVE_LOANS,
+        /** 현재 설정이나 상태에서는 할 수 없는 작업 */
+        NOT_ALLOWED
+    }
+
+    private final Reason reason;
+
+    public LibraryException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,600 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * 콘솔 메뉴와 같은 도서/회원/대출/휴일 관리 기능을 HTTP/JSON 으로 제공하는 내장 서버입니다.
+ * JDK 의 com.sun.net.httpserver 만 사용하며, 요청마다 가상 스레드 하나로 처리합니다.
+ * HTTP/1.1 연결은 유지(keep-alive)되고, 한 연결로 이어 보낸(pipelined) 요청은 보낸 순서대로 처리됩니다.
+ * 목록과 검색 응답은 chunked 전송으로 한 건씩 흘려보내므로 전체 목록을 메모리에 모으지 않습니다.
+ * <pre>
+ * GET    /books                       전체 도서 (스트리밍)
+ * GET    /books?title=키워드           제목 검색 (author=, isbn= 도 가능)
+ * POST   /books                       {"title","author","isbn","publisher","stock"}
+ * GET    /books/{id}
+ * PUT    /books/{id}/stock            {"stock"}
+ * DELETE /books/{id}
+ * POST   /books/{id}/hot              {"maxEscrow"}  인기 도서 지정
+ * DELETE /books/{id}/hot                              인기 도서 해제
+ * GET    /members                     전체 회원 (스트리밍)
+ * GET    /members?phone=5678          전화번호 뒷자리 검색 (name=이름 앞부분 도 가능)
+ * POST   /members                     {"name","phoneNumber"}
+ * GET    /members/{id}
+ * PUT    /members/{id}/phone          {"phoneNumber"}
+ * DELETE /members/{id}
+ * POST   /loans                       {"bookId","memberId"}
+ * GET    /loans/{id}
+ * POST   /loans/{id}/return
+ * POST   /loans/{id}/extend           {"days"}
+ * POST   /holds                       {"bookId","memberId"}  재고 없는 도서 예약 (library.holds.enabled)
+ * GET    /holds/{id}
+ * DELETE /holds/{id}                                  예약 취소
+ * GET    /holidays/{YYYY-MM-DD}
+ * PUT    /holidays/{YYYY-MM-DD}       {"description"}
+ * DELETE /holidays/{YYYY-MM-DD}
+ * </pre>
+ * 실패 응답은 {"error": 메시지, "reason": LibraryException 원인} 형식이며,
+ * 대상 없음은 404, 재고 없음/대출 중/중복은 409, 잘못된 요청은 400, DB 오류는 500 입니다.
+ * 휴일 추가/삭제는 다른 요청처럼 AsyncLibrary 의 동시 실행 한도 안에서 처리되며, 그 날짜가 대출 기간에 걸린
+ * 미반납 대출의 반납 예정일을 다시 계산합니다. PUT 과 DELETE 모두 {"date","holiday","rebasedLoans"} 로 응답합니다.
+ * 파일 일괄 등록은 서버 쪽 경로를 읽어야 하므로 HTTP 로 열지 않고 콘솔에서만 제공합니다.
+ */
+public class LibraryHttpServer implements AutoCloseable {
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AsyncLibrary library;
+    private final CustomHoliday customHoliday;
+
+    /**
+     * @param library 작업을 실행할 비동기 창구 (DB 동시 접근 수 제한 포함)
+     * @param customHoliday 휴일 관리 대상
+     * @param address 바인드할 주소
+     * @throws IOException 포트를 열 수 없는 경우
+     */
+    public LibraryHttpServer(AsyncLibrary library, CustomHoliday customHoliday, InetSocketAddress address) throws IOException {
+        this.library = library;
+        this.customHoliday = customHoliday;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("library-http-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/books", exchange -> handle(exchange, this::books));
+        server.createContext("/members", exchange -> handle(exchange, this::members));
+        server.createContext("/loans", exchange -> handle(exchange, this::loans));
+        server.createContext("/holds", exchange -> handle(exchange, this::holds));
+        server.createContext("/holidays", exchange -> handle(exchange, this::holidays));
+    }
+
+    /**
+     * db.properties 의 library.http.host (기본 127.0.0.1), library.http.port (기본 8080) 로 서버를 만듭니다.
+     */
+    public static LibraryHttpServer fromProperties(AsyncLibrary library, CustomHoliday customHoliday, Properties props)
+            throws IOException {
+        String host = props.getProperty("library.http.host", "127.0.0.1").trim();
+        int port = Integer.parseInt(props.getProperty("library.http.port", "8080").trim());
+        return new LibraryHttpServer(library, customHoliday, new InetSocketAddress(host, port));
+    }
+
+    public void start() {
+        server.start();
+        LibraryMetrics.global().markReady();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * 새 연결을 받지 않고, 처리 중인 요청이 끝나기를 최대 1초 기다린 뒤 서버를 멈춥니다.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void serve(Request request) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        Request request = new Request(exchange);
+        try {
+            route.serve(request);
+        } catch (LibraryException e) {
+            int status = e.getReason() == LibraryException.Reason.NOT_FOUND ? 404 : 409;
+            request.sendError(status, e.getMessage(), e.getReason().name());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            request.sendError(400, e.getMessage(), null);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            request.sendError(409, e.getMessage(), null);
+        } catch (SQLException e) {
+            request.sendError(500, "DB 오류: " + e.getMessage(), null);
+        } catch (Exception e) {
+            System.err.println("HTTP 요청 처리 중 오류 발생: " + e);
+            request.sendError(500, String.valueOf(e.getMessage()), null);
+        } finally {
+            if (!request.aborted) {
+                exchange.close();
+            }
+            LibraryMetrics.global().markFirstRequest();
+        }
+        if (request.aborted) {
+            // exchange.close() 는 chunked 응답의 마지막 조각을 보내 정상 응답처럼 끝내므로 닫지 않고 예외를 던진다.
+            // 핸들러가 예외를 던지면 HttpServer 가 연결을 끊어, 클라이언트는 응답이 잘렸음을 알 수 있다.
+            throw new IOException("HTTP 응답 도중 실패해 연결을 끊습니다: " + request.path());
+        }
+    }
+
+    // --- 도서 ---
+
+    private void books(Request request) throws Exception {
+        String[] path = request.segments();
+        String method = request.method();
+        if (path.length == 0) {
+            if (method.equals("GET")) {
+                Map<String, String> query = request.query();
+                if (query.containsKey("isbn")) {
+                    Book book = await(library.findBookByIsbn(query.get("isbn")))
+                            .orElseThrow(() -> notFound("ISBN " + query.get("isbn") + " 인 도서를 찾을 수 없습니다."));
+                    request.sendJson(200, toJson(book));
+                } else if (query.containsKey("title")) {
+                    request.sendArray(await(library.searchBooksByTitle(query.get("title"))), LibraryHttpServer::toJson);
+                } else if (query.containsKey("author")) {
+                    request.sendArray(await(library.searchBooksByAuthor(query.get("author"))), LibraryHttpServer::toJson);
+                } else {
+                    JsonArrayStream array = request.openArray();
+                    await(library.forEachBook(book -> array.add(toJson(book))));
+                    array.finish();
+                }
+                return;
+            }
+            if (method.equals("POST")) {
+                Map<String, Object> body = request.body();
+                Book book = await(library.addBook(string(body, "title"), string(body, "author"),
+                        string(body, "isbn"), string(body, "publisher"), integer(body, "stock")));
+                request.sendJson(201, toJson(book));
+                return;
+            }
+        } else {
+            int bookId = parseId(path[0]);
+            String action = path.length > 1 ? path[1] : "";
+            switch (method + " " + action) {
+                case "GET " -> {
+                    Book book = await(library.findBookById(bookId))
+                            .orElseThrow(() -> notFound("도서 ID " + bookId + " 를 찾을 수 없습니다."));
+                    request.sendJson(200, toJson(book));
+                    return;
+                }
+                case "DELETE " -> {
+                    await(library.deleteBook(bookId));
+                    request.sendNoContent();
+                    return;
+                }
+                case "PUT stock" -> {
+                    Book book = await(library.updateBookStock(bookId, integer(request.body(), "stock")));
+                    request.sendJson(200, toJson(book));
+                    return;
+                }
+                case "POST hot" -> {
+                    Map<String, Object> body = request.bodyOrEmpty();
+                    int maxEscrow = body.containsKey("maxEscrow") ? integer(body, "maxEscrow") : 0;
+                    int available = await(library.designateHotTitle(bookId, maxEscrow));
+                    request.sendJson(200, "{\"bookId\":" + bookId + ",\"available\":" + available + "}");
+                    return;
+                }
+                case "DELETE hot" -> {
+                    await(library.releaseHotTitle(bookId));
+                    request.sendNoContent();
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        request.sendError(405, method + " " + request.path() + " 는 지원하지 않습니다.", null);
+    }
+
+    // --- 회원 ---
+
+    private void members(Request request) throws Exception {
+        String[] path = request.segments();
+        String method = request.method();
+        if (path.length == 0) {
+            if (method.equals("GET")) {
+                Map<String, String> query = request.query();
+                if (query.containsKey("phone")) {
+                    request.sendArray(await(library.searchMembersByPhone(query.get("phone"))), LibraryHttpServer::toJson);
+                } else if (query.containsKey("name")) {
+                    request.sendArray(await(library.searchMembersByName(query.get("name"))), LibraryHttpServer::toJson);
+                } else {
+                    JsonArrayStream array = request.openArray();
+                    await(library.forEachMember(member -> array.add(toJson(member))));
+                    array.finish();
+                }
+                return;
+            }
+            if (method.equals("POST")) {
+                Map<String, Object> body = request.body();
+                Member member = await(library.addMember(string(body, "name"), string(body, "phoneNumber")));
+                request.sendJson(201, toJson(member));
+                return;
+            }
+        } else {
+            int memberId = parseId(path[0]);
+            String action = path.length > 1 ? path[1] : "";
+            switch (method + " " + action) {
+                case "GET " -> {
+                    Member member = await(library.findMemberById(memberId))
+                            .orElseThrow(() -> notFound("회원 ID " + memberId + " 를 찾을 수 없습니다."));
+                    request.sendJson(200, toJson(member));
+                    return;
+                }
+                case "DELETE " -> {
+                    await(library.deleteMember(memberId));
+                    request.sendNoContent();
+                    return;
+                }
+                case "PUT phone" -> {
+                    Member member = await(library.updateMemberPhoneNumber(memberId, string(request.body(), "phoneNumber")));
+                    request.sendJson(200, toJson(member));
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        request.sendError(405, method + " " + request.path() + " 는 지원하지 않습니다.", null);
+    }
+
+    // --- 대출/반납 ---
+
+    private void loans(Request request) throws Exception {
+        String[] path = request.segments();
+        String method = request.method();
+        if (path.length == 0 && method.equals("POST")) {
+            Map<String, Object> body = request.body();
+            Loan loan = await(library.borrowBook(integer(body, "bookId"), integer(body, "memberId")));
+            request.sendJson(201, toJson(loan));
+            return;
+        }
+        if (path.length > 0) {
+            int loanId = parseId(path[0]);
+            String action = path.length > 1 ? path[1] : "";
+            switch (method + " " + action) {
+                case "GET " -> {
+                    Loan loan = await(library.findLoanById(loanId))
+                            .orElseThrow(() -> notFound("대출 기록 ID " + loanId + " 를 찾을 수 없습니다."));
+                    request.sendJson(200, toJson(loan));
+                    return;
+                }
+                case "POST return" -> {
+                    request.sendJson(200, toJson(await(library.returnBook(loanId))));
+                    return;
+                }
+                case "POST extend" -> {
+                    request.sendJson(200, toJson(await(library.extendDueDate(loanId, integer(request.body(), "days")))));
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        request.sendError(405, method + " " + request.path() + " 는 지원하지 않습니다.", null);
+    }
+
+    // --- 예약 ---
+
+    private void holds(Request request) throws Exception {
+        String[] path = request.segments();
+        String method = request.method();
+        if (path.length == 0 && method.equals("POST")) {
+            Map<String, Object> body = request.body();
+            Hold hold = await(library.placeHold(integer(body, "bookId"), integer(body, "memberId")));
+            request.sendJson(201, toJson(hold, library.holdPosition(hold)));
+            return;
+        }
+        if (path.length == 1) {
+            int holdId = parseId(path[0]);
+            switch (method) {
+                case "GET" -> {
+                    Hold hold = await(library.findHoldById(holdId))
+                            .orElseThrow(() -> notFound("예약 ID " + holdId + " 를 찾을 수 없습니다."));
+                    request.sendJson(200, toJson(hold, library.holdPosition(hold)));
+                    return;
+                }
+                case "DELETE" -> {
+                    await(library.cancelHold(holdId));
+                    request.sendNoContent();
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        request.sendError(405, method + " " + request.path() + " 는 지원하지 않습니다.", null);
+    }
+
+    // --- 휴일 ---
+
+    private void holidays(Request request) throws Exception {
+        String[] path = request.segments();
+        if (path.length == 1) {
+            LocalDate date = LocalDate.parse(path[0]);
+            switch (request.method()) {
+                case "GET" -> {
+                    request.sendJson(200, "{\"date\":\"" + date + "\",\"holiday\":" + customHoliday.isHoliday(date) + "}");
+                    return;
+                }
+                case "PUT" -> {
+                    String description = string(request.body(), "description");
+                    int rebased = await(library.changeHolidays(() -> customHoliday.insertHoliday(date, description)));
+                    request.sendJson(201, "{\"date\":\"" + date + "\",\"holiday\":true,\"rebasedLoans\":" + rebased + "}");
+                    return;
+                }
+                case "DELETE" -> {
+                    int rebased = await(library.changeHolidays(() -> customHoliday.deleteHoliday(date)));
+                    request.sendJson(200, "{\"date\":\"" + date + "\",\"holiday\":false,\"rebasedLoans\":" + rebased + "}");
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        request.sendError(405, request.method() + " " + request.path() + " 는 지원하지 않습니다.", null);
+    }
+
+    // --- 변환 ---
+
+    static String toJson(Book book) {
+        return "{\"bookId\":" + book.getBookId()
+                + ",\"title\":" + Json.quote(book.getTitle())
+                + ",\"author\":" + Json.quote(book.getAuthor())
+                + ",\"isbn\":" + Json.quote(book.getIsbn())
+                + ",\"publisher\":" + Json.quote(book.getPublisher())
+                + ",\"stock\":" + book.getStock() + "}";
+    }
+
+    static String toJson(Member member) {
+        return "{\"memberId\":" + member.getMemberId()
+                + ",\"name\":" + Json.quote(member.getName())
+                + ",\"phoneNumber\":" + Json.quote(member.getPhoneNumber()) + "}";
+    }
+
+    static String toJson(Loan loan) {
+        return "{\"loanId\":" + loan.getLoanId()
+                + ",\"bookId\":" + loan.getBookId()
+                + ",\"memberId\":" + loan.getMemberId()
+                + ",\"loanDate\":\"" + loan.getLoanDate() + "\""
+                + ",\"dueDate\":\"" + loan.getDueDate() + "\""
+                + ",\"returnDate\":" + (loan.getReturnDate() == null ? "null" : "\"" + loan.getReturnDate() + "\"") + "}";
+    }
+
+    static String toJson(Hold hold, int position) {
+        return "{\"holdId\":" + hold.getHoldId()
+                + ",\"bookId\":" + hold.getBookId()
+                + ",\"memberId\":" + hold.getMemberId()
+                + ",\"placedOn\":\"" + hold.getPlacedOn() + "\""
+                + ",\"status\":\"" + hold.getStatus() + "\""
+                + ",\"position\":" + position
+                + ",\"readyUntil\":" + (hold.getReadyUntil() == null ? "null" : "\"" + hold.getReadyUntil() + "\"") + "}";
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static LibraryException notFound(String message) {
+        return new LibraryException(LibraryException.Reason.NOT_FOUND, message);
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 ID 입니다: " + segment);
+        }
+    }
+
+    private static String string(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("문자열 필드 '" + field + "' 가 필요합니다.");
+        }
+        return (String) value;
+    }
+
+    private static int integer(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException("정수 필드 '" + field + "' 가 필요합니다.");
+        }
+        return ((Long) value).intValue();
+    }
+
+    /**
+     * 요청 하나에 대한 읽기/응답 도우미.
+     */
+    private static final class Request {
+        private final HttpExchange exchange;
+        private final String path;
+        private boolean responded;
+        // 헤더를 보낸 뒤 실패해 연결을 끊어야 하는지
+        private boolean aborted;
+
+        private Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.path = exchange.getRequestURI().getPath();
+        }
+
+        String method() {
+            return exchange.getRequestMethod();
+        }
+
+        String path() {
+            return path;
+        }
+
+        /**
+         * 컨텍스트 경로 뒤의 경로 조각. /books/3/stock 이면 ["3", "stock"].
+         */
+        String[] segments() {
+            String rest = path.substring(exchange.getHttpContext().getPath().length());
+            if (rest.startsWith("/")) {
+                rest = rest.substring(1);
+            }
+            if (rest.endsWith("/")) {
+                rest = rest.substring(0, rest.length() - 1);
+            }
+            return rest.isEmpty() ? new String[0] : rest.split("/");
+        }
+
+        Map<String, String> query() {
+            Map<String, String> params = new HashMap<>();
+            String raw = exchange.getRequestURI().getRawQuery();
+            if (raw == null) {
+                return params;
+            }
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                params.put(key, value);
+            }
+            return params;
+        }
+
+        Map<String, Object> body() throws IOException {
+            String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (text.isBlank()) {
+                throw new IllegalArgumentException("JSON 본문이 필요합니다.");
+            }
+            return Json.parseObject(text);
+        }
+
+        Map<String, Object> bodyOrEmpty() throws IOException {
+            String text = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            return text.isBlank() ? Map.of() : Json.parseObject(text);
+        }
+
+        void sendJson(int status, String json) throws IOException {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+            exchange.sendResponseHeaders(status, bytes.length);
+            responded = true;
+            exchange.getResponseBody().write(bytes);
+        }
+
+        void sendNoContent() throws IOException {
+            exchange.sendResponseHeaders(204, -1);
+            responded = true;
+        }
+
+        void sendError(int status, String message, String reason) {
+            if (responded) {
+                // 스트리밍 도중 실패하면 상태 코드를 바꿀 수 없으므로 연결을 끊어 불완전한 응답임을 알린다. (handle 참고)
+                System.err.println("HTTP 응답 전송 중 오류 발생: " + message);
+                aborted = true;
+                return;
+            }
+            try {
+                sendJson(status, "{\"error\":" + Json.quote(message) + ",\"reason\":" + Json.quote(reason) + "}");
+            } catch (IOException e) {
+                System.err.println("HTTP 오류 응답 전송 중 오류 발생: " + e.getMessage());
+            }
+        }
+
+        <T> void sendArray(List<T> items, Function<T, String> encoder) throws IOException {
+            JsonArrayStream array = openArray();
+            for (T item : items) {
+                array.add(encoder.apply(item));
+            }
+            array.finish();
+        }
+
+        /**
+         * chunked 전송으로 JSON 배열을 흘려보내기 시작합니다. 헤더는 첫 요소를 쓸 때 보냅니다.
+         */
+        JsonArrayStream openArray() {
+            return new JsonArrayStream(this);
+        }
+    }
+
+    /**
+     * JSON 배열을 요소 단위로 응답에 쓰는 스트림. 첫 요소(또는 finish) 전까지는 헤더를 보내지 않으므로,
+     * 첫 페이지 조회가 실패하면 정상적인 오류 응답을 보낼 수 있습니다.
+     */
+    private static final class JsonArrayStream {
+        private final Request request;
+        private Writer writer;
+        private boolean first = true;
+
+        private JsonArrayStream(Request request) {
+            this.request = request;
+        }
+
+        void add(String json) {
+            try {
+                open();
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            open();
+            writer.write(']');
+            writer.flush();
+        }
+
+        private void open() throws IOException {
+            if (writer != null) {
+                return;
+            }
+            request.exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+            request.exchange.sendResponseHeaders(200, 0);
+            request.responded = true;
+            writer = new BufferedWriter(new OutputStreamWriter(request.exchange.getResponseBody(), StandardCharsets.UTF_8), 8192);
+            writer.write('[');
+        }
+    }
+}
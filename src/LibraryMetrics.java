@@ -0,0 +1,390 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 작업별 지연 시간 히스토그램과 JDBC 왕복 카운터를 모아 두는 곳입니다.
+ * 프로세스 전체에서 하나(global())를 공유하며, 다음 두 경로로 밖에서 볼 수 있습니다.
+ * <ul>
+ *     <li>JMX - library:type=Operation,name=작업이름 (p50/p90/p99/p99.9/max), library:type=Jdbc, library:type=Startup</li>
+ *     <li>JFR - 작업마다 library.Operation 이벤트, 주기적으로 library.OperationLatency / library.JdbcStatistics 이벤트</li>
+ * </ul>
+ * 사용법:
+ * <pre>
+ * try (LibraryMetrics.Timer timer = metrics.time("addBook")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class LibraryMetrics {
+    private static final String JMX_DOMAIN = "library";
+    private static final LibraryMetrics GLOBAL = new LibraryMetrics();
+
+    private final ConcurrentMap<String, LatencyHistogram> operations = new ConcurrentHashMap<>();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionsBorrowed = new LongAdder();
+    private final LongAdder statementsExecuted = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicLong timeToReadyMillis = new AtomicLong(-1);
+    private final AtomicLong timeToFirstRequestMillis = new AtomicLong(-1);
+    private final AtomicLong warmUpMillis = new AtomicLong(-1);
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private LibraryMetrics() {
+        register(JMX_DOMAIN + ":type=Jdbc", new JdbcStats());
+        register(JMX_DOMAIN + ":type=Startup", new StartupStats());
+        FlightRecorder.addPeriodicEvent(JdbcStatisticsEvent.class, this::emitJdbcStatistics);
+        FlightRecorder.addPeriodicEvent(OperationLatencyEvent.class, this::emitOperationLatencies);
+    }
+
+    public static LibraryMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 작업 시간을 재기 시작합니다. 돌려받은 Timer 를 close() 하면 기록됩니다.
+     * try-with-resources 로 구간을 감싸기만 하고 본문에서는 쓰지 않으므로, 쓰는 메서드에 @SuppressWarnings("try") 를 붙입니다.
+     * @param operation 작업 이름 (JMX/JFR 에 그대로 표시됨)
+     */
+    public Timer time(String operation) {
+        return new Timer(histogram(operation), operation);
+    }
+
+    /**
+     * 작업의 히스토그램을 돌려줍니다. 처음 쓰는 작업이면 만들고 JMX 에 등록합니다.
+     */
+    public LatencyHistogram histogram(String operation) {
+        LatencyHistogram histogram = operations.get(operation);
+        if (histogram != null) {
+            return histogram;
+        }
+        return operations.computeIfAbsent(operation, name -> {
+            LatencyHistogram created = new LatencyHistogram();
+            register(JMX_DOMAIN + ":type=Operation,name=" + ObjectName.quote(name), new OperationStats(created));
+            return created;
+        });
+    }
+
+    private void register(String objectName, Object mbean) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            if (!mbeanServer.isRegistered(name)) {
+                mbeanServer.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            System.err.println("JMX 등록 중 오류 발생: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 읽기 복제본 지표를 library:type=Replica,name=URL 로 등록합니다. (ReplicaRouter 에서 호출)
+     */
+    void registerReplica(String url, ReplicaStatsMXBean stats) {
+        register(JMX_DOMAIN + ":type=Replica,name=" + ObjectName.quote(url), stats);
+    }
+
+    // --- JDBC 카운터 (ConnectionPool 에서 호출) ---
+
+    void connectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    void connectionBorrowed() {
+        connectionsBorrowed.increment();
+    }
+
+    void statementExecuted() {
+        statementsExecuted.increment();
+    }
+
+    void rowFetched() {
+        rowsFetched.increment();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getConnectionsBorrowed() {
+        return connectionsBorrowed.sum();
+    }
+
+    public long getStatementsExecuted() {
+        return statementsExecuted.sum();
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched.sum();
+    }
+
+    // --- 시작 시간 (Main / LibraryHttpServer 에서 호출) ---
+
+    /**
+     * 요청을 받을 준비가 된 시점을 기록합니다. 처음 한 번만 남습니다.
+     */
+    public void markReady() {
+        timeToReadyMillis.compareAndSet(-1, System.currentTimeMillis() - jvmStartMillis);
+    }
+
+    /**
+     * 첫 요청을 처리한 시점을 기록합니다. 처음 한 번만 남고, 이후 호출은 읽기 한 번으로 끝납니다.
+     */
+    public void markFirstRequest() {
+        if (timeToFirstRequestMillis.get() < 0) {
+            timeToFirstRequestMillis.compareAndSet(-1, System.currentTimeMillis() - jvmStartMillis);
+        }
+    }
+
+    /**
+     * 백그라운드 예열이 끝나는 데 걸린 시간을 기록합니다.
+     */
+    public void warmUpFinished(long millis) {
+        warmUpMillis.set(millis);
+    }
+
+    public long getTimeToReadyMillis() {
+        return timeToReadyMillis.get();
+    }
+
+    public long getTimeToFirstRequestMillis() {
+        return timeToFirstRequestMillis.get();
+    }
+
+    public long getWarmUpMillis() {
+        return warmUpMillis.get();
+    }
+
+    /**
+     * 모든 작업의 통계와 JDBC 카운터를 여러 줄 문자열로 돌려줍니다.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("jdbc: connectionsOpened=%d, connectionsBorrowed=%d, statements=%d, rows=%d%n",
+                getConnectionsOpened(), getConnectionsBorrowed(), getStatementsExecuted(), getRowsFetched()));
+        sb.append(String.format("startup: timeToReady=%dms, timeToFirstRequest=%dms, warmUp=%dms%n",
+                getTimeToReadyMillis(), getTimeToFirstRequestMillis(), getWarmUpMillis()));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(operations).entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue().summary()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private void emitJdbcStatistics() {
+        JdbcStatisticsEvent event = new JdbcStatisticsEvent();
+        event.connectionsOpened = getConnectionsOpened();
+        event.connectionsBorrowed = getConnectionsBorrowed();
+        event.statementsExecuted = getStatementsExecuted();
+        event.rowsFetched = getRowsFetched();
+        event.commit();
+    }
+
+    private void emitOperationLatencies() {
+        for (Map.Entry<String, LatencyHistogram> entry : operations.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            OperationLatencyEvent event = new OperationLatencyEvent();
+            event.operation = entry.getKey();
+            event.count = histogram.getCount();
+            event.p50 = histogram.valueAtPercentile(50);
+            event.p99 = histogram.valueAtPercentile(99);
+            event.max = histogram.getMaxNanos();
+            event.commit();
+        }
+    }
+
+    /**
+     * 작업 하나의 시간을 잽니다. JFR 이 켜져 있으면 같은 구간을 library.Operation 이벤트로도 남깁니다.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final LatencyHistogram histogram;
+        private final OperationEvent event;
+        private final long start = System.nanoTime();
+
+        private Timer(LatencyHistogram histogram, String operation) {
+            this.histogram = histogram;
+            OperationEvent operationEvent = new OperationEvent();
+            if (operationEvent.isEnabled()) {
+                operationEvent.operation = operation;
+                operationEvent.begin();
+                this.event = operationEvent;
+            } else {
+                this.event = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            histogram.record(System.nanoTime() - start);
+            if (event != null) {
+                event.commit();
+            }
+        }
+    }
+
+    private static final class OperationStats implements OperationStatsMXBean {
+        private final LatencyHistogram histogram;
+
+        private OperationStats(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.getMeanNanos() / 1_000.0;
+        }
+
+        @Override
+        public long getP50Micros() {
+            return toMicros(histogram.valueAtPercentile(50));
+        }
+
+        @Override
+        public long getP90Micros() {
+            return toMicros(histogram.valueAtPercentile(90));
+        }
+
+        @Override
+        public long getP99Micros() {
+            return toMicros(histogram.valueAtPercentile(99));
+        }
+
+        @Override
+        public long getP999Micros() {
+            return toMicros(histogram.valueAtPercentile(99.9));
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return toMicros(histogram.getMaxNanos());
+        }
+
+        @Override
+        public void reset() {
+            histogram.reset();
+        }
+
+        private static long toMicros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+
+    private final class JdbcStats implements JdbcStatsMXBean {
+        @Override
+        public long getConnectionsOpened() {
+            return LibraryMetrics.this.getConnectionsOpened();
+        }
+
+        @Override
+        public long getConnectionsBorrowed() {
+            return LibraryMetrics.this.getConnectionsBorrowed();
+        }
+
+        @Override
+        public long getStatementsExecuted() {
+            return LibraryMetrics.this.getStatementsExecuted();
+        }
+
+        @Override
+        public long getRowsFetched() {
+            return LibraryMetrics.this.getRowsFetched();
+        }
+    }
+
+    private final class StartupStats implements StartupStatsMXBean {
+        @Override
+        public long getTimeToReadyMillis() {
+            return LibraryMetrics.this.getTimeToReadyMillis();
+        }
+
+        @Override
+        public long getTimeToFirstRequestMillis() {
+            return LibraryMetrics.this.getTimeToFirstRequestMillis();
+        }
+
+        @Override
+        public long getWarmUpMillis() {
+            return LibraryMetrics.this.getWarmUpMillis();
+        }
+    }
+
+    // --- JFR 이벤트 ---
+
+    @Name("library.Operation")
+    @Label("Library Operation")
+    @Category("Library")
+    @Description("Library 공개 작업 한 번의 실행 구간")
+    @StackTrace(false)
+    static final class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+    }
+
+    @Name("library.OperationLatency")
+    @Label("Library Operation Latency")
+    @Category("Library")
+    @Description("작업별 누적 지연 시간 백분위")
+    @Period("10 s")
+    @StackTrace(false)
+    static final class OperationLatencyEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Count")
+        long count;
+
+        @Label("p50")
+        @Timespan(Timespan.NANOSECONDS)
+        long p50;
+
+        @Label("p99")
+        @Timespan(Timespan.NANOSECONDS)
+        long p99;
+
+        @Label("Max")
+        @Timespan(Timespan.NANOSECONDS)
+        long max;
+    }
+
+    @Name("library.JdbcStatistics")
+    @Label("Library JDBC Statistics")
+    @Category("Library")
+    @Description("누적 JDBC 커넥션/문장/행 수")
+    @Period("10 s")
+    @StackTrace(false)
+    static final class JdbcStatisticsEvent extends Event {
+        @Label("Connections Opened")
+        long connectionsOpened;
+
+        @Label("Connections Borrowed")
+        long connectionsBorrowed;
+
+        @Label("Statements Executed")
+        long statementsExecuted;
+
+        @Label("Rows Fetched")
+        long rowsFetched;
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.Properties;
+
+/**
+ * Library 와 CustomHoliday 가 데이터를 읽고 쓰는 저장 엔진입니다. 엔진은 db.properties 의 library.storage 로 고릅니다.
+ * <ul>
+ *     <li>jdbc (기본) - db.url 의 MySQL. JdbcStorage. db.replica.url 을 주면 보고서성 조회는 복제본으로 보냅니다. (ReplicaRouter)</li>
+ *     <li>memory - 프로세스 안의 메모리. 지점 하나짜리 설치나 테스트용으로, DB 없이 마이크로초 단위로 동작합니다. InMemoryStorage</li>
+ * </ul>
+ * 인기 도서 재고, 오프라인 저널, 도서 스냅샷, 일괄 등록, 연체료 계산은 SQL 에 직접 기대므로
+ * connections() 가 커넥션을 줄 때(jdbc)만 쓸 수 있습니다.
+ */
+public interface LibraryStorage {
+    BookRepository books();
+
+    MemberRepository members();
+
+    LoanRepository loans();
+
+    HoldRepository holds();
+
+    HolidayRepository holidays();
+
+    /**
+     * @return 이 엔진의 JDBC 커넥션, SQL 을 쓰지 않는 엔진이면 null
+     */
+    ConnectionSource connections();
+
+    /**
+     * @return 동시에 처리할 수 있는 작업 수 (AsyncLibrary 의 동시 실행 한도)
+     */
+    int maxConcurrency();
+
+    /**
+     * 보고서성 조회(전체 목록, 검색)에 쓸 저장소를 돌려줍니다. 조회에만 쓰고 쓰기에는 쓰지 않습니다.
+     * 읽기 복제본이 없는 엔진은 자기 자신을 돌려줍니다.
+     * @param session 이 세션이 쓴 변경을 아직 받지 못한 복제본은 고르지 않습니다.
+     * @return 조회용 저장소
+     */
+    default LibraryStorage forReads(ReplicaRouter.Session session) {
+        return this;
+    }
+
+    /**
+     * 설정에 맞는 엔진을 돌려줍니다. 같은 설정이면 같은 데이터를 봅니다.
+     * (jdbc 는 ConnectionPool.shared 를 함께 쓰고, memory 는 library.storage.name 별로 하나씩 만들어 둡니다.)
+     * @param props db.properties 에서 읽은 설정
+     * @return 저장 엔진
+     */
+    static LibraryStorage shared(Properties props) {
+        String engine = props.getProperty("library.storage", "jdbc").trim();
+        switch (engine) {
+            case "jdbc":
+                return new JdbcStorage(props);
+            case "memory":
+                return InMemoryStorage.named(props.getProperty("library.storage.name", "default").trim());
+            default:
+                throw new IllegalArgumentException("알 수 없는 저장 엔진입니다: library.storage=" + engine);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.time.LocalDate;
+
+/**
+ * loans 테이블의 한 행을 나타내는 불변 값 객체입니다.
+ */
+public class Loan {
+    private final int loanId;
+    private final int bookId;
+    private final int memberId;
+    private final LocalDate loanDate;
+    private final LocalDate dueDate;
+    private final LocalDate returnDate;
+    private final int extendedDays;
+
+    public Loan(int loanId, int bookId, int memberId, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate) {
+        this(loanId, bookId, memberId, loanDate, dueDate, returnDate, 0);
+    }
+
+    public Loan(int loanId, int bookId, int memberId, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate,
+                int extendedDays) {
+        this.loanId = loanId;
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.loanDate = loanDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.extendedDays = extendedDays;
+    }
+
+    public int getLoanId() {
+        return loanId;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public int getMemberId() {
+        return memberId;
+    }
+
+    public LocalDate getLoanDate() {
+        return loanDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return 반납일, 아직 반납하지 않았으면 null
+     */
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    /**
+     * @return 대출 기간에 더해 연장한 영업일 수
+     */
+    public int getExtendedDays() {
+        return extendedDays;
+    }
+
+    public boolean isReturned() {
+        return returnDate != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, 도서 ID: %d, 회원 ID: %d, 대출일: %s, 반납 예정일: %s, 반납일: %s",
+                loanId, bookId, memberId, loanDate, dueDate, returnDate == null ? "-" : returnDate);
+    }
+}
@@ -0,0 +1,91 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * 대출 기록 저장소. 재고 증감과 대출 기록 변경은 구현이 하나의 원자적 단위로 처리합니다.
+ * 엔진마다 구현이 있습니다. (JdbcLoanRepository, InMemoryStorage)
+ */
+public interface LoanRepository {
+    /**
+     * 반납된 책을 다음 대기 예약에 넘길지 정합니다. (Library 의 HoldQueues)
+     */
+    interface HoldHandOff {
+        /** 예약 대기열을 쓰지 않는 경우 */
+        HoldHandOff NONE = new HoldHandOff() {
+            @Override
+            public LocalDate readyUntil(int bookId) {
+                return null;
+            }
+
+            @Override
+            public void handedOff(Hold hold) {
+            }
+        };
+
+        /**
+         * 반납 트랜잭션(잠금) 안에서 호출됩니다. 메모리만 보고 바로 답해야 합니다.
+         * @return 대기 예약에 넘길 때의 받기 기한, 이 도서의 대기 예약이 없으면 null (재고로 돌림)
+         */
+        LocalDate readyUntil(int bookId);
+
+        /**
+         * 책을 넘겨받은 예약을 커밋 뒤에 알립니다.
+         */
+        void handedOff(Hold hold);
+    }
+
+    /**
+     * 대출일과 연장한 영업일 수로 반납 예정일을 정합니다. (Library 의 영업일 달력)
+     * 휴일이 바뀌어도 같은 값으로 다시 계산하면 되므로, 몇 번을 다시 적용해도 결과가 같습니다.
+     */
+    @FunctionalInterface
+    interface DueDateRule {
+        LocalDate dueDate(LocalDate loanDate, int extendedDays);
+    }
+
+    /**
+     * 재고를 한 권 줄이고 대출 기록을 남깁니다.
+     * @return 새 대출 기록 ID 가 채워진 대출 기록
+     * @throws LibraryException 도서가 없거나(NOT_FOUND) 재고가 없는 경우(OUT_OF_STOCK)
+     */
+    Loan checkOut(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws SQLException;
+
+    /**
+     * 보관 중인 책(READY 예약)을 예약한 회원에게 대출합니다. 재고는 바꾸지 않고 예약을 FULFILLED 로 바꿉니다.
+     * @return 새 대출 기록 ID 가 채워진 대출 기록
+     * @throws LibraryException 예약이 없거나 READY 가 아닌 경우 (NOT_FOUND)
+     */
+    Loan checkOutHold(int holdId, LocalDate loanDate, LocalDate dueDate) throws SQLException;
+
+    /**
+     * 반납일을 기록하고, 이 도서의 대기 예약이 있으면 가장 먼저 들어온 예약에 책을 넘기고(READY)
+     * 없으면 재고를 한 권 늘립니다.
+     * @param handOff 대기 예약에 넘길지와 받기 기한을 정함 (HoldHandOff.NONE 이면 항상 재고로 돌림)
+     * @return 반납된 대출 기록
+     * @throws LibraryException 대출 기록이 없거나 이미 반납된 경우 (NOT_FOUND)
+     */
+    Loan checkIn(int loanId, LocalDate returnDate, HoldHandOff handOff) throws SQLException;
+
+    /**
+     * 반납하지 않은 대출의 연장 영업일 수를 늘리고 반납 예정일을 다시 계산합니다.
+     * @param days 더 연장할 영업일 수
+     * @param dueDates 새 반납 예정일 계산 (잠금 안에서 호출됨)
+     * @return 바뀐 대출 기록
+     * @throws LibraryException 대출 기록이 없거나 이미 반납된 경우 (NOT_FOUND)
+     */
+    Loan renew(int loanId, int days, DueDateRule dueDates) throws SQLException;
+
+    /**
+     * @return 대출 기록 (반납된 기록 포함), 없으면 null
+     */
+    Loan findById(int loanId) throws SQLException;
+
+    /**
+     * 대출 기간(대출일 다음 날 ~ 반납 예정일)에 date 가 들어 있는 미반납 대출의 반납 예정일을
+     * 대출일과 연장 영업일 수로 한 번에 다시 계산합니다. 이미 맞는 대출은 건드리지 않습니다.
+     * @param date 대출 기간에 들어 있어야 하는 날짜, null 이면 모든 미반납 대출
+     * @param dueDates 반납 예정일 계산
+     * @return 반납 예정일이 바뀐 대출 수
+     */
+    int rebaseDueDates(LocalDate date, DueDateRule dueDates) throws SQLException;
+}
@@ -1,39 +1,58 @@
 import java.io.IOException;
-import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 public class Main {
     public static void main(String[] args) {
-        // db.properties 파일 로드
-        Properties dbProps = new Properties();
-        try (InputStream input = Main.class.getClassLoader().getResourceAsStream("db.properties")) {
-            if (input == null) {
-                System.err.println("db.properties 파일을 찾을 수 없습니다. 경로를 확인해주세요.");
-                return;
-            }
-            dbProps.load(input);
-        } catch (IOException ex) {
-            ex.printStackTrace();
+        // db.properties 파일 로드 (한 번만 읽어 Library, CustomHoliday 와 공유)
+        Properties dbProps = LibraryConfig.load();
+        if (dbProps == null) {
+            System.err.println("db.properties 파일을 찾을 수 없습니다. 경로를 확인해주세요.");
             return;
         }
 
         // 휴일 정책 설정 (예: 주말 휴일 + 사용자 정의 휴일)
         WeekendHoliday weekendPolicy = new WeekendHoliday();
-        CustomHoliday customHolidayPolicy = new CustomHoliday(dbProps); // DB 연동 CustomHoliday
+        CustomHoliday customHolidayPolicy = new CustomHoliday(dbProps); // DB 연동 CustomHoliday (연도별로 필요할 때 읽음)
 
         // HolidayPolicy를 조합하여 사용하거나, 필요에 따라 하나만 사용할 수 있습니다.
-        // 여기서는 CustomHoliday만 사용하겠습니다.
+        // 조합된 정책은 compile() 로 연도별 비트맵에 미리 계산해 두면 휴일 확인이 비트 하나로 끝납니다.
         // Library library = new Library(weekendPolicy); // 주말만 휴일로 지정할 경우
-        Library library = new Library(customHolidayPolicy); // 사용자 정의 휴일 + 주말 (CustomHoliday 내부적으로 처리 가능)
+        HolidayPolicy holidayPolicy = weekendPolicy.or(customHolidayPolicy).compile(); // 주말 + 사용자 정의 휴일
+        Library library = new Library(holidayPolicy, dbProps);
+
+        // --assess-fines 는 연체료를 한 번 계산하고 끝낸다. (cron 등 야간 작업용)
+        if (Arrays.asList(args).contains("--assess-fines")) {
+            OverdueFineJob.Result result = library.assessOverdueFines(LocalDate.now());
+            customHolidayPolicy.close();
+            if (result == null) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        // 커넥션 풀과 올해 ±1년 휴일 달력은 메뉴를 띄우는 동안 백그라운드에서 준비한다.
+        library.warmUp();
+
+        // --http 로 실행하면 콘솔 메뉴 대신 여러 창구/키오스크가 함께 쓰는 HTTP/JSON 서버로 동작한다.
+        if (Arrays.asList(args).contains("--http")) {
+            runHttpServer(library, customHolidayPolicy, dbProps);
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("도서 관리 시스템에 오신 것을 환영합니다!");
+        LibraryMetrics.global().markReady();
 
         while (true) {
             System.out.println("\n--- 메뉴 ---");
+            if (library.isOffline()) {
+                System.out.println("[오프라인 모드] DB 에 연결되지 않아 변경을 로컬 저널에 기록합니다. (미반영 " + library.pendingOfflineChanges() + "건)");
+            }
             System.out.println("1. 도서 관리");
             System.out.println("2. 회원 관리");
             System.out.println("3. 대출/반납 관리");
@@ -55,15 +74,17 @@ public class Main {
                     handleLoanManagement(library, scanner);
                     break;
                 case 4: // 휴일 관리
-                    handleHolidayManagement(customHolidayPolicy, scanner);
+                    handleHolidayManagement(library, customHolidayPolicy, scanner);
                     break;
                 case 0:
                     System.out.println("프로그램을 종료합니다.");
+                    customHolidayPolicy.close();
                     scanner.close();
                     return;
                 default:
                     System.out.println("잘못된 메뉴 선택입니다. 다시 시도해주세요.");
             }
+            LibraryMetrics.global().markFirstRequest();
         }
     }
 
@@ -75,6 +96,8 @@ public class Main {
             System.out.println("3. 도서 제목으로 검색");
             System.out.println("4. 도서 재고 수정");
             System.out.println("5. 도서 삭제");
+            System.out.println("6. 도서 일괄 등록 (CSV/TSV/MARC 파일)");
+            System.out.println("7. ISBN 으로 도서 조회");
             System.out.println("0. 뒤로가기");
             System.out.print("메뉴를 선택하세요: ");
 
@@ -109,6 +132,15 @@ public class Main {
                     scanner.nextLine();
                     library.deleteBook(deleteBookId);
                     break;
+                case 6:
+                    System.out.print("등록할 파일 경로: "); String importPath = scanner.nextLine();
+                    library.importBooks(importPath);
+                    break;
+                case 7:
+                    System.out.print("조회할 ISBN: "); String lookupIsbn = scanner.nextLine();
+                    Book found = library.findBookByIsbn(lookupIsbn);
+                    System.out.println(found != null ? found : "해당 ISBN 의 도서가 없습니다.");
+                    break;
                 case 0:
                     return;
                 default:
@@ -124,6 +156,8 @@ public class Main {
             System.out.println("2. 모든 회원 보기");
             System.out.println("3. 회원 전화번호 수정");
             System.out.println("4. 회원 삭제");
+            System.out.println("5. 전화번호 뒷자리로 회원 찾기");
+            System.out.println("6. 이름으로 회원 찾기");
             System.out.println("0. 뒤로가기");
             System.out.print("메뉴를 선택하세요: ");
 
@@ -150,6 +184,14 @@ public class Main {
                     scanner.nextLine();
                     library.deleteMember(deleteMemberId);
                     break;
+                case 5:
+                    System.out.print("전화번호 뒷자리 (예: 5678): "); String phoneSuffix = scanner.nextLine();
+                    library.searchMembersByPhone(phoneSuffix);
+                    break;
+                case 6:
+                    System.out.print("이름 (앞부분만 입력해도 됩니다): "); String namePrefix = scanner.nextLine();
+                    library.searchMembersByName(namePrefix);
+                    break;
                 case 0:
                     return;
                 default:
@@ -164,6 +206,11 @@ public class Main {
             System.out.println("1. 도서 대출");
             System.out.println("2. 도서 반납");
             System.out.println("3. 반납일 연장");
+            System.out.println("4. 인기 도서 지정");
+            System.out.println("5. 인기 도서 해제");
+            System.out.println("6. 연체료 계산 (오늘 기준)");
+            System.out.println("7. 도서 예약 (재고 없을 때)");
+            System.out.println("8. 예약 취소");
             // System.out.println("4. 현재 대출 목록 조회"); // 필요시 구현
             System.out.println("0. 뒤로가기");
             System.out.print("메뉴를 선택하세요: ");
@@ -189,6 +236,31 @@ public class Main {
                     scanner.nextLine();
                     library.extendDueDate(extendLoanId, days);
                     break;
+                case 4:
+                    System.out.print("인기 도서로 지정할 도서 ID: "); int hotBookId = scanner.nextInt();
+                    System.out.print("메모리로 옮길 최대 재고 (0: 전부): "); int maxEscrow = scanner.nextInt();
+                    scanner.nextLine();
+                    library.designateHotTitle(hotBookId, maxEscrow);
+                    break;
+                case 5:
+                    System.out.print("해제할 도서 ID: "); int releaseBookId = scanner.nextInt();
+                    scanner.nextLine();
+                    library.releaseHotTitle(releaseBookId);
+                    break;
+                case 6:
+                    library.assessOverdueFines(LocalDate.now());
+                    break;
+                case 7:
+                    System.out.print("예약할 도서 ID: "); int holdBookId = scanner.nextInt();
+                    System.out.print("예약하는 회원 ID: "); int holdMemberId = scanner.nextInt();
+                    scanner.nextLine();
+                    library.reserveBook(holdBookId, holdMemberId);
+                    break;
+                case 8:
+                    System.out.print("취소할 예약 ID: "); int holdId = scanner.nextInt();
+                    scanner.nextLine();
+                    library.cancelReservation(holdId);
+                    break;
                 case 0:
                     return;
                 default:
@@ -197,7 +269,35 @@ public class Main {
         }
     }
 
-    private static void handleHolidayManagement(CustomHoliday customHolidayPolicy, Scanner scanner) {
+    private static void runHttpServer(Library library, CustomHoliday customHolidayPolicy, Properties dbProps) {
+        AsyncLibrary asyncLibrary = new AsyncLibrary(library);
+        LibraryHttpServer server;
+        try {
+            server = LibraryHttpServer.fromProperties(asyncLibrary, customHolidayPolicy, dbProps);
+        } catch (IOException e) {
+            System.err.println("HTTP 서버 시작 중 오류 발생: " + e.getMessage());
+            asyncLibrary.close();
+            customHolidayPolicy.close();
+            return;
+        }
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("HTTP 서버를 종료합니다.");
+            server.close();
+            asyncLibrary.close();
+            customHolidayPolicy.close();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("HTTP 서버가 " + server.getAddress() + " 에서 시작되었습니다. (Ctrl+C 로 종료)");
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void handleHolidayManagement(Library library, CustomHoliday customHolidayPolicy, Scanner scanner) {
         while (true) {
             System.out.println("\n--- 휴일 관리 ---");
             System.out.println("1. 휴일 추가");
@@ -213,11 +313,14 @@ public class Main {
                 case 1:
                     System.out.print("추가할 휴일 날짜 (YYYY-MM-DD): "); String dateStr = scanner.nextLine();
                     System.out.print("휴일 설명: "); String description = scanner.nextLine();
-                    customHolidayPolicy.addHoliday(LocalDate.parse(dateStr), description);
+                    LocalDate addDate = LocalDate.parse(dateStr);
+                    // 이미 나간 대출의 반납 예정일은 Library 가 휴일 변경 통지를 받아 다시 계산한다.
+                    customHolidayPolicy.addHoliday(addDate, description);
                     break;
                 case 2:
                     System.out.print("삭제할 휴일 날짜 (YYYY-MM-DD): "); String deleteDateStr = scanner.nextLine();
-                    customHolidayPolicy.removeHoliday(LocalDate.parse(deleteDateStr));
+                    LocalDate deleteDate = LocalDate.parse(deleteDateStr);
+                    customHolidayPolicy.removeHoliday(deleteDate);
                     break;
                 case 3:
                     System.out.print("확인할 날짜 (YYYY-MM-DD): "); String checkDateStr = scanner.nextLine();
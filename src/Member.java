@@ -0,0 +1,31 @@
+/**
+ * members 테이블의 한 행을 나타내는 불변 값 객체입니다.
+ */
+public class Member {
+    private final int memberId;
+    private final String name;
+    private final String phoneNumber;
+
+    public Member(int memberId, String name, String phoneNumber) {
+        this.memberId = memberId;
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+    }
+
+    public int getMemberId() {
+        return memberId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ID: %d, 이름: %s, 전화번호: %s", memberId, name, phoneNumber);
+    }
+}
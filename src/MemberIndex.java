@@ -0,0 +1,408 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 창구에서 회원을 찾기 위한 메모리 내 색인입니다. 전화번호 뒷자리와 이름 앞부분으로 찾습니다.
+ * <ul>
+ *     <li>전화번호: 숫자만 남겨 뒤집은 뒤 자리마다 4비트씩 long 하나에 담아 정렬해 둡니다.
+ *     뒷자리 검색어는 뒤집으면 키의 앞부분이 되므로 이진 탐색 두 번으로 구간을 찾습니다. (최대 15자리)</li>
+ *     <li>이름: NFC 정규화, 소문자, 공백 제거 후 한글 음절을 기본 자모(ㄱ, ㅏ ...)로 풀어 정렬해 둡니다.
+ *     정렬된 키 배열은 접두어 트라이를 펼친 것과 같아서, 접두어 하나가 연속 구간 하나에 대응합니다.
+ *     음절을 자모로 풀어 두므로 입력 중인 "김ㅊ", "김처" 로도 "김철수" 를 찾습니다.</li>
+ * </ul>
+ * 키는 원시 배열에 들어 있어 회원 백만 명이어도 객체를 거의 만들지 않으며, 검색은 O(log n + 결과 수) 입니다.
+ * 처음에는 build() 로 한꺼번에 채우고, 이후 추가/수정/삭제는 배열 안에서 자리를 옮기는 방식(O(n) 메모리 이동)이라
+ * 창구 변경 속도로는 충분합니다.
+ */
+public class MemberIndex {
+    private static final int MAX_PHONE_DIGITS = 15;
+    private static final int HANGUL_BASE = 0xAC00;
+    private static final int HANGUL_END = 0xD7A3;
+    // 초성/중성/종성을 기본 자모(겹자모는 둘로 나눔)의 호환 자모 문자열로 적어 둔다.
+    private static final String[] INITIALS = {
+            "ㄱ", "ㄱㄱ", "ㄴ", "ㄷ", "ㄷㄷ", "ㄹ", "ㅁ", "ㅂ", "ㅂㅂ", "ㅅ",
+            "ㅅㅅ", "ㅇ", "ㅈ", "ㅈㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    private static final String[] MEDIALS = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ",
+            "ㅗㅐ", "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"
+    };
+    private static final String[] FINALS = {
+            "", "ㄱ", "ㄱㄱ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ",
+            "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ",
+            "ㅅㅅ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    // 호환 자모 영역(ㄱ U+3131 ~ ㅣ U+3163)의 겹자모를 기본 자모로 푼 것. null 이면 그대로 쓴다.
+    private static final String[] COMPATIBILITY_JAMO = new String[0x3164 - 0x3131];
+
+    static {
+        String compound = "ㄲㄱㄱ ㄳㄱㅅ ㄵㄴㅈ ㄶㄴㅎ ㄸㄷㄷ ㄺㄹㄱ ㄻㄹㅁ ㄼㄹㅂ ㄽㄹㅅ ㄾㄹㅌ ㄿㄹㅍ ㅀㄹㅎ ㅃㅂㅂ ㅄㅂㅅ ㅆㅅㅅ ㅉㅈㅈ "
+                + "ㅘㅗㅏ ㅙㅗㅐ ㅚㅗㅣ ㅝㅜㅓ ㅞㅜㅔ ㅟㅜㅣ ㅢㅡㅣ";
+        for (String entry : compound.split(" ")) {
+            COMPATIBILITY_JAMO[entry.charAt(0) - 0x3131] = entry.substring(1);
+        }
+    }
+
+    // 전화번호 색인: phoneKeys 오름차순, 같은 키는 회원 ID 오름차순
+    private long[] phoneKeys = new long[16];
+    private int[] phoneIds = new int[16];
+    private int phoneSize;
+    // 이름 색인: nameKeys 오름차순, 같은 키는 회원 ID 오름차순
+    private String[] nameKeys = new String[16];
+    private int[] nameIds = new int[16];
+    private int nameSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // build() 가 DB 를 읽는 동안 add/remove 된 회원 ID. 읽어 온 값보다 이쪽이 최신이다.
+    private Set<Integer> touchedDuringBuild;
+
+    /**
+     * 회원 목록으로 색인을 한꺼번에 채웁니다. 전체를 모은 뒤 한 번만 정렬하므로 백만 명도 금방 만듭니다.
+     * 읽는 동안 add/remove 로 바뀐 회원은 읽어 온 값 대신 바뀐 값을 유지합니다.
+     * @param members 모든 회원 (스트림은 여기서 닫지 않음)
+     */
+    public void build(Stream<Member> members) {
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Member> loaded = new ArrayList<>();
+        try {
+            members.forEach(loaded::add);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                merge(loaded);
+            } finally {
+                touchedDuringBuild = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // 이미 들어 있거나 읽는 동안 바뀐 ID 는 건너뛰고, 나머지를 기존 항목과 합쳐 다시 정렬한다.
+    private void merge(List<Member> loaded) {
+        Set<Integer> skip = new HashSet<>(touchedDuringBuild);
+        for (int i = 0; i < nameSize; i++) {
+            skip.add(nameIds[i]);
+        }
+        for (int i = 0; i < phoneSize; i++) {
+            skip.add(phoneIds[i]);
+        }
+        int capacity = Math.max(16, nameSize + phoneSize + loaded.size());
+        String[] names = Arrays.copyOf(nameKeys, capacity);
+        int[] namedIds = Arrays.copyOf(nameIds, capacity);
+        long[] phones = Arrays.copyOf(phoneKeys, capacity);
+        int[] phonedIds = Arrays.copyOf(phoneIds, capacity);
+        int names0 = nameSize;
+        int phones0 = phoneSize;
+        for (Member member : loaded) {
+            if (skip.contains(member.getMemberId())) {
+                continue;
+            }
+            String nameKey = normalizeName(member.getName());
+            if (!nameKey.isEmpty()) {
+                names[names0] = nameKey;
+                namedIds[names0++] = member.getMemberId();
+            }
+            long phoneKey = phoneKey(digitsOf(member.getPhoneNumber()));
+            if (phoneKey != 0) {
+                phones[phones0] = phoneKey;
+                phonedIds[phones0++] = member.getMemberId();
+            }
+        }
+        Integer[] order = sortedOrder(names0, (a, b) -> {
+            int byKey = names[a].compareTo(names[b]);
+            return byKey != 0 ? byKey : Integer.compare(namedIds[a], namedIds[b]);
+        });
+        nameKeys = new String[capacity];
+        nameIds = new int[capacity];
+        for (int i = 0; i < names0; i++) {
+            nameKeys[i] = names[order[i]];
+            nameIds[i] = namedIds[order[i]];
+        }
+        nameSize = names0;
+        order = sortedOrder(phones0, (a, b) -> {
+            int byKey = Long.compare(phones[a], phones[b]);
+            return byKey != 0 ? byKey : Integer.compare(phonedIds[a], phonedIds[b]);
+        });
+        phoneKeys = new long[capacity];
+        phoneIds = new int[capacity];
+        for (int i = 0; i < phones0; i++) {
+            phoneKeys[i] = phones[order[i]];
+            phoneIds[i] = phonedIds[order[i]];
+        }
+        phoneSize = phones0;
+    }
+
+    private static Integer[] sortedOrder(int size, Comparator<Integer> comparator) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, comparator);
+        return order;
+    }
+
+    /**
+     * 회원을 색인합니다. 같은 ID 가 이미 있으면 기존 항목을 지우고 다시 넣습니다.
+     * @param memberId 회원 ID
+     * @param name 이름
+     * @param phoneNumber 전화번호 (숫자 외 문자는 무시)
+     */
+    public void add(int memberId, String name, String phoneNumber) {
+        String nameKey = normalizeName(name);
+        long phoneKey = phoneKey(digitsOf(phoneNumber));
+        lock.writeLock().lock();
+        try {
+            removeLocked(memberId);
+            if (!nameKey.isEmpty()) {
+                insertName(nameKey, memberId);
+            }
+            if (phoneKey != 0) {
+                insertPhone(phoneKey, memberId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 회원을 색인에서 제거합니다.
+     * @param memberId 회원 ID
+     */
+    public void remove(int memberId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(memberId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 색인을 모두 비웁니다.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(nameKeys, 0, nameSize, null);
+            phoneSize = 0;
+            nameSize = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 전화번호가 주어진 숫자로 끝나는 회원 ID 를 찾습니다. (예: "5678")
+     * @param suffix 뒷자리 (숫자 외 문자는 무시)
+     * @param limit 최대 개수
+     * @return 회원 ID (전화번호 뒷자리 순)
+     */
+    public int[] findByPhoneSuffix(String suffix, int limit) {
+        String digits = digitsOf(suffix);
+        if (digits.isEmpty()) {
+            return new int[0];
+        }
+        if (digits.length() > MAX_PHONE_DIGITS) {
+            digits = digits.substring(digits.length() - MAX_PHONE_DIGITS);
+        }
+        long low = phoneKey(digits);
+        long high = low | ((1L << (4 * (MAX_PHONE_DIGITS - digits.length()))) - 1);
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(phoneKeys, phoneSize, low);
+            int to = Math.min(lowerBound(phoneKeys, phoneSize, high + 1), from + Math.max(limit, 0));
+            return Arrays.copyOfRange(phoneIds, from, Math.max(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이름이 주어진 문자열로 시작하는 회원 ID 를 찾습니다. 한글은 자모 단위로 비교합니다.
+     * @param prefix 이름 앞부분
+     * @param limit 최대 개수
+     * @return 회원 ID (이름 순)
+     */
+    public int[] findByNamePrefix(String prefix, int limit) {
+        String key = normalizeName(prefix);
+        if (key.isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(nameKeys, nameSize, key);
+            int to = from;
+            int max = from + Math.max(limit, 0);
+            while (to < nameSize && to < max && nameKeys[to].startsWith(key)) {
+                to++;
+            }
+            return Arrays.copyOfRange(nameIds, from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 이름으로 색인된 회원 수
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nameSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- 정규화 ---
+
+    static String digitsOf(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // 마지막 자리부터 거꾸로 4비트씩(숫자 + 1) 상위 비트에서 채운다. 0 은 빈 번호.
+    private static long phoneKey(String digits) {
+        long key = 0;
+        int count = Math.min(digits.length(), MAX_PHONE_DIGITS);
+        for (int i = 0; i < count; i++) {
+            int digit = digits.charAt(digits.length() - 1 - i) - '0' + 1;
+            key |= (long) digit << (4 * (MAX_PHONE_DIGITS - 1 - i));
+        }
+        return key;
+    }
+
+    /**
+     * 이름을 비교용 키로 바꿉니다. 한글 음절과 겹자모는 기본 자모로 풀어 씁니다.
+     */
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(normalized.length() * 3);
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c >= HANGUL_BASE && c <= HANGUL_END) {
+                int offset = c - HANGUL_BASE;
+                sb.append(INITIALS[offset / (21 * 28)])
+                        .append(MEDIALS[(offset / 28) % 21])
+                        .append(FINALS[offset % 28]);
+            } else if (c >= 0x3131 && c < 0x3164 && COMPATIBILITY_JAMO[c - 0x3131] != null) {
+                sb.append(COMPATIBILITY_JAMO[c - 0x3131]);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // --- 정렬 배열 유지 ---
+
+    private void removeLocked(int memberId) {
+        if (touchedDuringBuild != null) {
+            touchedDuringBuild.add(memberId);
+        }
+        for (int i = 0; i < phoneSize; i++) {
+            if (phoneIds[i] == memberId) {
+                System.arraycopy(phoneKeys, i + 1, phoneKeys, i, phoneSize - i - 1);
+                System.arraycopy(phoneIds, i + 1, phoneIds, i, phoneSize - i - 1);
+                phoneSize--;
+                break;
+            }
+        }
+        for (int i = 0; i < nameSize; i++) {
+            if (nameIds[i] == memberId) {
+                System.arraycopy(nameKeys, i + 1, nameKeys, i, nameSize - i - 1);
+                System.arraycopy(nameIds, i + 1, nameIds, i, nameSize - i - 1);
+                nameKeys[--nameSize] = null;
+                break;
+            }
+        }
+    }
+
+    private void insertPhone(long key, int memberId) {
+        if (phoneSize == phoneKeys.length) {
+            phoneKeys = Arrays.copyOf(phoneKeys, phoneSize * 2);
+            phoneIds = Arrays.copyOf(phoneIds, phoneSize * 2);
+        }
+        int at = lowerBound(phoneKeys, phoneSize, key);
+        while (at < phoneSize && phoneKeys[at] == key && phoneIds[at] < memberId) {
+            at++;
+        }
+        System.arraycopy(phoneKeys, at, phoneKeys, at + 1, phoneSize - at);
+        System.arraycopy(phoneIds, at, phoneIds, at + 1, phoneSize - at);
+        phoneKeys[at] = key;
+        phoneIds[at] = memberId;
+        phoneSize++;
+    }
+
+    private void insertName(String key, int memberId) {
+        if (nameSize == nameKeys.length) {
+            nameKeys = Arrays.copyOf(nameKeys, nameSize * 2);
+            nameIds = Arrays.copyOf(nameIds, nameSize * 2);
+        }
+        int at = lowerBound(nameKeys, nameSize, key);
+        while (at < nameSize && nameKeys[at].equals(key) && nameIds[at] < memberId) {
+            at++;
+        }
+        System.arraycopy(nameKeys, at, nameKeys, at + 1, nameSize - at);
+        System.arraycopy(nameIds, at, nameIds, at + 1, nameSize - at);
+        nameKeys[at] = key;
+        nameIds[at] = memberId;
+        nameSize++;
+    }
+
+    // key 이상인 첫 위치. phoneKeys 는 상위 니블이 비어 있어 항상 양수이므로 부호 없는 비교가 필요 없다.
+    private static int lowerBound(long[] keys, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(String[] keys, int size, String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,50 @@
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 회원 저장소. 엔진마다 구현이 있습니다. (JdbcMemberRepository, InMemoryStorage)
+ */
+public interface MemberRepository {
+    /**
+     * @return 새 회원 ID 가 채워진 회원
+     */
+    Member insert(String name, String phoneNumber) throws SQLException;
+
+    /**
+     * @return 회원, 없으면 null
+     */
+    Member findById(int memberId) throws SQLException;
+
+    /**
+     * @param memberIds 찾을 회원 ID
+     * @return 있는 회원만, memberIds 의 순서대로
+     */
+    List<Member> findByIds(int[] memberIds) throws SQLException;
+
+    /**
+     * 이름이 prefix 로 시작하는 회원을 회원 ID 순으로 찾습니다. (회원 색인이 없을 때 쓰는 느린 경로)
+     */
+    List<Member> findByNamePrefix(String prefix, int limit) throws SQLException;
+
+    /**
+     * 저장된 전화번호가 suffix 로 끝나는 회원을 회원 ID 순으로 찾습니다. (회원 색인이 없을 때 쓰는 느린 경로)
+     */
+    List<Member> findByPhoneSuffix(String suffix, int limit) throws SQLException;
+
+    /**
+     * 모든 회원을 회원 ID 순으로 지연 조회합니다. 스트림은 반드시 닫아야 합니다.
+     */
+    Stream<Member> stream(int pageSize, int fetchSize);
+
+    /**
+     * @return 전화번호가 바뀐 회원, 회원이 없으면 null
+     */
+    Member updatePhoneNumber(int memberId, String newPhoneNumber) throws SQLException;
+
+    /**
+     * 반납하지 않은 대출이 없을 때만 회원을 지웁니다.
+     * @return APPLIED, NOT_FOUND, ACTIVE_LOANS 중 하나
+     */
+    Library.BulkOutcome delete(int memberId) throws SQLException;
+}
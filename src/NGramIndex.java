@@ -0,0 +1,351 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 문자열 필드(도서 제목, 저자 등)에 대한 메모리 내 n-gram 역색인입니다.
+ * 텍스트는 NFC 정규화 후 소문자로 바꾸고, UTF-16 문자가 아닌 코드 포인트 단위로 bigram/trigram 을 만듭니다.
+ * 한글 음절은 한 글자가 하나의 코드 포인트이므로 두세 음절 검색어도 그대로 색인을 탑니다.
+ * 포스팅 목록은 ID 차이값을 가변 길이 정수(varint)로 인코딩한 byte[] 로 보관합니다.
+ * 삭제는 묘비(tombstone)로 표시했다가 일정 비율이 넘으면 포스팅을 다시 만듭니다.
+ */
+public class NGramIndex {
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+
+    // 문서 ID -> 정규화된 텍스트 (후보 검증과 삭제, 재색인에 사용)
+    private final Map<Integer, String> documents = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+    private int tombstoneCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 검색과 색인에 공통으로 쓰는 정규화.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 문서를 색인합니다. 같은 ID 가 이미 있으면 기존 내용을 지우고 다시 색인합니다.
+     * @param id 문서 ID (book_id 등)
+     * @param text 색인할 텍스트
+     */
+    public void add(int id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            List<String> grams = gramsOf(normalized);
+            String previous = documents.get(id);
+            if (previous != null && !tombstones.get(id)) {
+                // 내용이 바뀌는 재색인: 묘비를 남기면 다시 넣을 때 전체를 재구성해야 하므로,
+                // 이전 텍스트에만 있던 n-gram 포스팅에서 바로 빼고 새로 생긴 n-gram 에만 넣는다.
+                Set<String> previousGrams = new HashSet<>(gramsOf(previous));
+                for (String gram : previousGrams) {
+                    if (!grams.contains(gram)) {
+                        unpostLocked(id, gram);
+                    }
+                }
+                grams.removeAll(previousGrams);
+            }
+            if (tombstones.get(id)) {
+                // 묘비가 남아 있는 ID 를 재사용하면 포스팅을 정리한 뒤 넣는다.
+                compactLocked();
+            }
+            documents.put(id, normalized);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 문서를 색인에서 제거합니다.
+     * @param id 문서 ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        if (documents.remove(id) == null) {
+            return;
+        }
+        tombstones.set(id);
+        tombstoneCount++;
+        if (tombstoneCount > Math.max(1024, documents.size() / 8)) {
+            compactLocked();
+        }
+    }
+
+    // n-gram 포스팅에서 id 를 뺀다. 비게 된 포스팅은 지운다.
+    private void unpostLocked(int id, String gram) {
+        PostingList list = postings.get(gram);
+        if (list != null && list.remove(id) && list.count == 0) {
+            postings.remove(gram);
+        }
+    }
+
+    // 묘비를 실제로 제거하도록 남은 문서로 포스팅을 다시 만든다.
+    private void compactLocked() {
+        postings.clear();
+        tombstones.clear();
+        tombstoneCount = 0;
+        Integer[] ids = documents.keySet().toArray(new Integer[0]);
+        Arrays.sort(ids);
+        for (Integer id : ids) {
+            for (String gram : gramsOf(documents.get(id))) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+            }
+        }
+    }
+
+    /**
+     * 색인을 모두 비웁니다.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            tombstones.clear();
+            tombstoneCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 키워드를 부분 문자열로 포함하는 문서 ID 를 오름차순으로 찾습니다.
+     * @param keyword 검색어
+     * @return 일치하는 문서 ID
+     */
+    public int[] search(String keyword) {
+        String normalized = normalize(keyword);
+        lock.readLock().lock();
+        try {
+            int length = normalized.codePointCount(0, normalized.length());
+            if (length < MIN_GRAM) {
+                // 한 글자 검색어는 색인 없이 메모리의 텍스트를 직접 확인한다.
+                return scan(normalized);
+            }
+            int n = Math.min(length, MAX_GRAM);
+            List<int[]> lists = new ArrayList<>();
+            for (String gram : gramsOf(normalized, n)) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list.decode());
+            }
+            lists.sort((a, b) -> Integer.compare(a.length, b.length));
+            int[] candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, lists.get(i));
+            }
+            // n-gram 교집합은 순서를 보장하지 않으므로 실제 포함 여부로 한 번 더 거른다.
+            int size = 0;
+            for (int id : candidates) {
+                if (!tombstones.get(id)) {
+                    String text = documents.get(id);
+                    if (text != null && text.contains(normalized)) {
+                        candidates[size++] = id;
+                    }
+                }
+            }
+            return Arrays.copyOf(candidates, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] scan(String normalized) {
+        int[] result = new int[16];
+        int size = 0;
+        for (Map.Entry<Integer, String> entry : documents.entrySet()) {
+            if (entry.getValue().contains(normalized)) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = entry.getKey();
+            }
+        }
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * @return 색인된 문서 수
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 모든 포스팅 목록의 인코딩된 바이트 합계
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (PostingList list : postings.values()) {
+                bytes += list.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static List<String> gramsOf(String normalized) {
+        List<String> grams = new ArrayList<>();
+        for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+            grams.addAll(gramsOf(normalized, n));
+        }
+        return grams;
+    }
+
+    private static List<String> gramsOf(String normalized, int n) {
+        int[] codePoints = normalized.codePoints().toArray();
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + n <= codePoints.length; i++) {
+            String gram = new String(codePoints, i, n);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 오름차순 ID 의 차이값을 varint 로 이어 붙인 포스팅 목록.
+     * ID 가 증가하는 순서로 들어오면(자동 증가 키) 끝에 덧붙이기만 하고,
+     * 그렇지 않으면 풀어서 끼워 넣은 뒤 다시 인코딩합니다.
+     */
+    private static final class PostingList {
+        private byte[] data = new byte[8];
+        private int length;
+        private int count;
+        private int lastId = -1;
+
+        void add(int id) {
+            if (id > lastId) {
+                append(id - lastId - 1);
+                lastId = id;
+                count++;
+                return;
+            }
+            int[] ids = decode();
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            int[] merged = new int[ids.length + 1];
+            System.arraycopy(ids, 0, merged, 0, insertAt);
+            merged[insertAt] = id;
+            System.arraycopy(ids, insertAt, merged, insertAt + 1, ids.length - insertAt);
+            rebuild(merged);
+        }
+
+        /**
+         * @return id 가 목록에 있어 뺐으면 true
+         */
+        boolean remove(int id) {
+            if (id > lastId) {
+                return false;
+            }
+            int[] ids = decode();
+            int index = Arrays.binarySearch(ids, id);
+            if (index < 0) {
+                return false;
+            }
+            int[] remaining = new int[ids.length - 1];
+            System.arraycopy(ids, 0, remaining, 0, index);
+            System.arraycopy(ids, index + 1, remaining, index, ids.length - index - 1);
+            rebuild(remaining);
+            return true;
+        }
+
+        private void rebuild(int[] sortedIds) {
+            length = 0;
+            count = 0;
+            lastId = -1;
+            for (int value : sortedIds) {
+                add(value);
+            }
+        }
+
+        private void append(int delta) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+        }
+
+        int[] decode() {
+            int[] ids = new int[count];
+            int position = 0;
+            int previous = -1;
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                previous = previous + delta + 1;
+                ids[i] = previous;
+            }
+            return ids;
+        }
+    }
+}
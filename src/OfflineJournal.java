@@ -0,0 +1,383 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * DB 에 닿지 않는 동안 대출/반납/재고 변경을 쌓아 두는 로컬 저널입니다.
+ * <p>
+ * 고정 크기 파일을 메모리 매핑해 레코드를 이어 붙이며, 레코드마다 CRC32C 를 붙여
+ * 쓰다 만 꼬리(torn write)는 다시 열 때 버립니다. append*() 는 매핑된 버퍼에 쓰고 순번만 돌려주며,
+ * sync(순번) 이 그 레코드가 디스크에 내려갈 때까지 기다립니다. 동시에 기다리는 레코드들은 한 번의 force() 로
+ * 함께 내려가므로(그룹 커밋) 창구가 많아도 fsync 가 병목이 되지 않습니다.
+ * <pre>
+ * 헤더 (64바이트): magic, version, journalId(UUID), replayedSequence
+ * 레코드: length(int), crc32c(int), sequence(long), type(byte), 본문
+ * </pre>
+ * replayedSequence 는 DB 에 반영을 마친 마지막 순번입니다. 재생 중 비정상 종료되어도
+ * DB 쪽 journal_checkpoints 가 같은 순번을 같은 트랜잭션에서 기록하므로 두 번 반영되지 않습니다.
+ */
+public class OfflineJournal implements AutoCloseable {
+    /**
+     * 저널에 남기는 작업 종류.
+     */
+    public enum Type {
+        BORROW, RETURN, STOCK
+    }
+
+    private static final int MAGIC = 0x4C424A31; // "LBJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int REPLAYED_OFFSET = 24;
+    private static final int RECORD_HEADER = 8;
+    // sequence(8) + type(1) + 가장 긴 본문(int 2개 + long 2개)
+    private static final int MAX_BODY = 8 + 1 + 4 + 4 + 8 + 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean fsync;
+    private final String journalId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private int writePosition = HEADER_SIZE;
+    // 아직 재생하지 않은 첫 레코드의 위치
+    private int replayPosition = HEADER_SIZE;
+    private int durablePosition = HEADER_SIZE;
+    // 순번은 저널을 비워도 계속 늘어나므로, 기다리는 조건은 위치가 아니라 순번으로 판단한다.
+    private long durableSequence;
+    private boolean forcing;
+    private long nextSequence;
+    private long replayedSequence;
+    private int pendingCount;
+
+    /**
+     * 저널 파일을 열거나 새로 만듭니다. 기존 파일이면 유효한 레코드까지만 읽고 그 뒤에 이어 씁니다.
+     * @param path 저널 파일 경로
+     * @param capacityBytes 파일 크기 (새로 만들 때만 사용)
+     * @param fsync false 이면 sync() 가 기다리지 않고 운영체제의 쓰기에 맡긴다
+     */
+    public OfflineJournal(Path path, int capacityBytes, boolean fsync) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        boolean fresh = size < HEADER_SIZE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fresh ? capacityBytes : size);
+        this.buffer.order(ByteOrder.BIG_ENDIAN);
+        this.fsync = fsync;
+        if (fresh || buffer.getInt(0) != MAGIC) {
+            UUID id = UUID.randomUUID();
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, id.getMostSignificantBits());
+            buffer.putLong(16, id.getLeastSignificantBits());
+            buffer.putLong(REPLAYED_OFFSET, 0L);
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.force(0, HEADER_SIZE + 4);
+        }
+        this.journalId = new UUID(buffer.getLong(8), buffer.getLong(16)).toString();
+        this.replayedSequence = buffer.getLong(REPLAYED_OFFSET);
+        recover();
+    }
+
+    // 유효한 레코드 끝을 찾고, 아직 재생하지 않은 레코드 수와 다음 순번을 정한다.
+    private void recover() {
+        long lastSequence = replayedSequence;
+        int position = HEADER_SIZE;
+        while (true) {
+            Record record = readAt(position);
+            if (record == null) {
+                break;
+            }
+            lastSequence = Math.max(lastSequence, record.sequence);
+            if (record.sequence > replayedSequence) {
+                pendingCount++;
+            } else {
+                replayPosition = record.nextPosition;
+            }
+            position = record.nextPosition;
+        }
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0); // 버려진 꼬리를 잘라 낸다.
+        }
+        writePosition = position;
+        durablePosition = position;
+        durableSequence = lastSequence;
+        nextSequence = lastSequence + 1;
+    }
+
+    /**
+     * 이 저널 파일의 고유 ID. DB 의 재생 체크포인트 키로 씁니다.
+     */
+    public String getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * @return 아직 DB 에 재생하지 않은 레코드 수
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pendingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendBorrow(int bookId, int memberId, LocalDate loanDate, LocalDate dueDate) throws IOException {
+        return append(Type.BORROW, bookId, memberId, loanDate.toEpochDay(), dueDate.toEpochDay());
+    }
+
+    public long appendReturn(int loanId, LocalDate returnDate) throws IOException {
+        return append(Type.RETURN, loanId, 0, returnDate.toEpochDay(), 0L);
+    }
+
+    public long appendStock(int bookId, int newStock) throws IOException {
+        return append(Type.STOCK, bookId, newStock, 0L, 0L);
+    }
+
+    private long append(Type type, int first, int second, long third, long fourth) throws IOException {
+        lock.lock();
+        try {
+            int length = bodyLength(type);
+            if (writePosition + RECORD_HEADER + length + 4 > buffer.capacity()) {
+                throw new IOException("오프라인 저널이 가득 찼습니다. (" + buffer.capacity() + " 바이트)");
+            }
+            long sequence = nextSequence++;
+            int bodyStart = writePosition + RECORD_HEADER;
+            buffer.putLong(bodyStart, sequence);
+            buffer.put(bodyStart + 8, (byte) type.ordinal());
+            buffer.putInt(bodyStart + 9, first);
+            if (type == Type.BORROW) {
+                buffer.putInt(bodyStart + 13, second);
+                buffer.putLong(bodyStart + 17, third);
+                buffer.putLong(bodyStart + 25, fourth);
+            } else if (type == Type.RETURN) {
+                buffer.putLong(bodyStart + 13, third);
+            } else {
+                buffer.putInt(bodyStart + 13, second);
+            }
+            // 다음 레코드 자리를 먼저 비워 두고, 길이는 본문과 CRC 를 쓴 뒤 마지막에 쓴다.
+            int end = bodyStart + length;
+            buffer.putInt(end, 0);
+            buffer.putInt(writePosition + 4, crc(bodyStart, length));
+            buffer.putInt(writePosition, length);
+            writePosition = end;
+            pendingCount++;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * sequence 까지의 레코드가 디스크에 내려갈 때까지 기다립니다.
+     * 먼저 온 스레드가 그때까지 쓰인 구간 전체를 force 하고, 나머지는 그 결과를 기다립니다.
+     */
+    public void sync(long sequence) {
+        if (!fsync) {
+            return;
+        }
+        lock.lock();
+        try {
+            awaitDurable(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        while (durableSequence < sequence) {
+            if (forcing) {
+                synced.awaitUninterruptibly();
+                continue;
+            }
+            forcing = true;
+            int from = durablePosition;
+            int to = writePosition;
+            long upTo = nextSequence - 1;
+            lock.unlock();
+            try {
+                buffer.force(from, to + 4 - from);
+            } finally {
+                lock.lock();
+                forcing = false;
+                if (writePosition >= to) {
+                    durablePosition = Math.max(durablePosition, to);
+                }
+                durableSequence = Math.max(durableSequence, upTo);
+                synced.signalAll();
+            }
+        }
+    }
+
+    /**
+     * 재생하지 않은 레코드를 순서대로 최대 limit 개 읽습니다.
+     */
+    public List<Record> pending(int limit) {
+        lock.lock();
+        try {
+            List<Record> records = new ArrayList<>();
+            int position = replayPosition;
+            while (records.size() < limit && position < writePosition) {
+                Record record = readAt(position);
+                if (record == null) {
+                    break;
+                }
+                records.add(record);
+                position = record.nextPosition;
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * sequence 까지 DB 에 반영했음을 기록합니다. 더 남은 레코드가 없으면 저널을 처음부터 다시 씁니다.
+     */
+    public void markReplayed(long sequence) {
+        lock.lock();
+        try {
+            if (sequence <= replayedSequence) {
+                return;
+            }
+            int replayed = 0;
+            while (replayPosition < writePosition) {
+                Record record = readAt(replayPosition);
+                if (record == null || record.sequence > sequence) {
+                    break;
+                }
+                replayed++;
+                replayPosition = record.nextPosition;
+            }
+            replayedSequence = sequence;
+            pendingCount -= replayed;
+            buffer.putLong(REPLAYED_OFFSET, sequence);
+            if (pendingCount == 0 && !forcing) {
+                // 모두 반영했으면 앞에서부터 다시 쓴다. 순번은 헤더의 replayedSequence 다음부터 이어진다.
+                buffer.putInt(HEADER_SIZE, 0);
+                writePosition = HEADER_SIZE;
+                durablePosition = HEADER_SIZE;
+                replayPosition = HEADER_SIZE;
+            }
+            buffer.force(0, HEADER_SIZE + 4);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Record readAt(int position) {
+        if (position + RECORD_HEADER > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > MAX_BODY || position + RECORD_HEADER + length > buffer.capacity()) {
+            return null;
+        }
+        int bodyStart = position + RECORD_HEADER;
+        if (buffer.getInt(position + 4) != crc(bodyStart, length)) {
+            return null;
+        }
+        int typeIndex = buffer.get(bodyStart + 8);
+        if (typeIndex < 0 || typeIndex >= Type.values().length || length != bodyLength(Type.values()[typeIndex])) {
+            return null;
+        }
+        Type type = Type.values()[typeIndex];
+        long sequence = buffer.getLong(bodyStart);
+        int first = buffer.getInt(bodyStart + 9);
+        Record record = switch (type) {
+            case BORROW -> new Record(sequence, type, first, buffer.getInt(bodyStart + 13),
+                    LocalDate.ofEpochDay(buffer.getLong(bodyStart + 17)), LocalDate.ofEpochDay(buffer.getLong(bodyStart + 25)));
+            case RETURN -> new Record(sequence, type, first, 0, LocalDate.ofEpochDay(buffer.getLong(bodyStart + 13)), null);
+            case STOCK -> new Record(sequence, type, first, buffer.getInt(bodyStart + 13), null, null);
+        };
+        record.nextPosition = bodyStart + length;
+        return record;
+    }
+
+    private static int bodyLength(Type type) {
+        return switch (type) {
+            case BORROW -> 8 + 1 + 4 + 4 + 8 + 8;
+            case RETURN -> 8 + 1 + 4 + 8;
+            case STOCK -> 8 + 1 + 4 + 4;
+        };
+    }
+
+    private int crc(int from, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(from, length));
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    /**
+     * 저널 레코드 하나. BORROW 는 (bookId, memberId, loanDate, dueDate),
+     * RETURN 은 (loanId, returnDate), STOCK 은 (bookId, newStock) 을 담습니다.
+     */
+    public static final class Record {
+        private final long sequence;
+        private final Type type;
+        private final int id;
+        private final int value;
+        private final LocalDate firstDate;
+        private final LocalDate secondDate;
+        private int nextPosition;
+
+        private Record(long sequence, Type type, int id, int value, LocalDate firstDate, LocalDate secondDate) {
+            this.sequence = sequence;
+            this.type = type;
+            this.id = id;
+            this.value = value;
+            this.firstDate = firstDate;
+            this.secondDate = secondDate;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /** BORROW/STOCK 는 도서 ID, RETURN 은 대출 기록 ID */
+        public int getId() {
+            return id;
+        }
+
+        /** BORROW 는 회원 ID, STOCK 은 새 재고 */
+        public int getValue() {
+            return value;
+        }
+
+        /** BORROW 는 대출일, RETURN 은 반납일 */
+        public LocalDate getFirstDate() {
+            return firstDate;
+        }
+
+        /** BORROW 의 반납 예정일 */
+        public LocalDate getSecondDate() {
+            return secondDate;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * DB 에 닿지 않을 때의 저하 모드(오프라인 모드)를 관리합니다.
+ * <ul>
+ *     <li>커넥션 자체를 얻지 못하면 오프라인으로 바뀌고, 그동안의 대출/반납/재고 변경은 OfflineJournal 에 쌓입니다.</li>
+ *     <li>백그라운드 스레드가 주기적으로 DB 를 확인하다가 닿으면 저널을 순서대로 재생합니다.
+ *     batchSize 개씩 한 트랜잭션으로 반영하고, 같은 트랜잭션에서 journal_checkpoints 의 순번을 올리므로
+ *     재생 도중 끊기거나 비정상 종료되어도 같은 레코드가 두 번 반영되지 않습니다.</li>
+ *     <li>재생한 반납은 온라인 반납과 같이, 대기 예약이 있으면 책을 넘기고(READY) 없으면 재고로 돌립니다.
+ *     넘겨받은 예약은 배치가 커밋된 뒤 대기열에 알립니다.</li>
+ *     <li>재생 시점에 재고가 없거나 이미 반납된 대출처럼 반영할 수 없는 레코드는 건너뛰고 로그를 남깁니다.</li>
+ *     <li>저널이 모두 비었을 때만 온라인으로 돌아옵니다.</li>
+ * </ul>
+ * <pre>
+ * CREATE TABLE journal_checkpoints (
+ *     journal_id VARCHAR(64) PRIMARY KEY,
+ *     last_sequence BIGINT NOT NULL
+ * );
+ * </pre>
+ */
+public class OfflineMode {
+    private static final String CHECKPOINT_SELECT_SQL = "SELECT last_sequence FROM journal_checkpoints WHERE journal_id = ? FOR UPDATE";
+    private static final String CHECKPOINT_INSERT_SQL = "INSERT INTO journal_checkpoints (journal_id, last_sequence) VALUES (?, 0)";
+    private static final String CHECKPOINT_UPDATE_SQL = "UPDATE journal_checkpoints SET last_sequence = ? WHERE journal_id = ?";
+    private static final String BORROW_STOCK_SQL = "UPDATE books SET stock = stock - 1 WHERE book_id = ? AND stock > 0";
+    private static final String BORROW_INSERT_SQL = "INSERT INTO loans (book_id, member_id, loan_date, due_date) VALUES (?, ?, ?, ?)";
+    private static final String RETURN_UPDATE_SQL = "UPDATE loans SET return_date = ? WHERE loan_id = ? AND return_date IS NULL";
+    private static final String RETURN_BOOK_SQL = "SELECT book_id FROM loans WHERE loan_id = ?";
+    private static final String STOCK_SQL = "UPDATE books SET stock = ? WHERE book_id = ?";
+
+    private final ConnectionSource connectionSource;
+    private final OfflineJournal journal;
+    private final int batchSize;
+    private final long probeIntervalMillis;
+    private final HandOffSource handOffs;
+    private final Runnable replayedListener;
+    private final Consumer<String> conflictLog;
+    private final ScheduledExecutorService prober;
+    // 온라인 전환(쓰기 잠금)과 저널 기록(읽기 잠금)이 엇갈리지 않게 한다.
+    private final ReentrantReadWriteLock modeLock = new ReentrantReadWriteLock();
+    private volatile boolean offline;
+    private ScheduledFuture<?> probe;
+
+    /**
+     * @param connectionSource 커넥션 풀
+     * @param journal 오프라인 저널
+     * @param batchSize 재생할 때 한 트랜잭션에 넣는 레코드 수
+     * @param probeIntervalMillis 오프라인일 때 DB 를 다시 확인하는 주기
+     * @param handOffs 재생한 반납을 대기 예약에 넘길 때 쓸 대기열
+     * @param replayedListener 재생으로 DB 가 바뀐 뒤 호출할 리스너 (캐시 정리용)
+     * @param conflictLog 재생하지 못하고 건너뛴 레코드와 재생된 대출 기록 ID 를 받을 로그
+     */
+    public OfflineMode(ConnectionSource connectionSource, OfflineJournal journal, int batchSize,
+                       long probeIntervalMillis, HandOffSource handOffs, Runnable replayedListener,
+                       Consumer<String> conflictLog) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 는 1 이상이어야 합니다: " + batchSize);
+        }
+        this.connectionSource = connectionSource;
+        this.journal = journal;
+        this.batchSize = batchSize;
+        this.probeIntervalMillis = probeIntervalMillis;
+        this.handOffs = handOffs;
+        this.replayedListener = replayedListener;
+        this.conflictLog = conflictLog;
+        this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "offline-journal-replayer");
+            t.setDaemon(true);
+            return t;
+        });
+        // 이전 실행에서 재생하지 못한 레코드가 남아 있다면 오프라인 상태로 시작해 먼저 재생한다.
+        if (journal.pendingCount() > 0) {
+            enter();
+        }
+    }
+
+    /**
+     * DB 에 닿지 못해 생긴 오류인지 판단합니다. 풀 대기 시간 초과처럼 DB 가 살아 있는 경우는 포함하지 않습니다.
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * @return 아직 DB 에 반영하지 않은 저널 레코드 수
+     */
+    public int pendingCount() {
+        return journal.pendingCount();
+    }
+
+    /**
+     * 오프라인으로 바꾸고 재생 스레드를 시작합니다. 이미 오프라인이면 아무 일도 하지 않습니다.
+     */
+    public void enter() {
+        modeLock.writeLock().lock();
+        try {
+            if (offline) {
+                return;
+            }
+            offline = true;
+            probe = prober.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            modeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 오프라인이면 작업을 저널에 기록합니다. 기록하기 전에 action 으로 로컬 상태(캐시)를 검사하고 바꿀 수 있습니다.
+     * 레코드가 디스크에 내려간 뒤에 돌아옵니다.
+     * @param writer 저널에 쓸 레코드 (순번을 돌려준다)
+     * @return 기록했으면 true, 그사이 온라인으로 돌아왔다면 false (호출자가 DB 로 처리해야 한다)
+     * @throws SQLException 저널이 가득 찼거나 쓸 수 없는 경우
+     */
+    public boolean record(JournalWriter writer) throws SQLException {
+        long sequence;
+        modeLock.readLock().lock();
+        try {
+            if (!offline) {
+                return false;
+            }
+            sequence = writer.write(journal);
+        } catch (IOException e) {
+            throw new SQLException("오프라인 저널 기록 실패: " + e.getMessage(), e);
+        } finally {
+            modeLock.readLock().unlock();
+        }
+        journal.sync(sequence);
+        return true;
+    }
+
+    /**
+     * 저널에 레코드 하나를 쓰는 작업.
+     */
+    @FunctionalInterface
+    public interface JournalWriter {
+        long write(OfflineJournal journal) throws IOException;
+    }
+
+    /**
+     * 재생 배치마다 반납한 책을 넘길 대기열을 돌려줍니다. (대기열을 쓰지 않으면 HoldHandOff.NONE)
+     */
+    @FunctionalInterface
+    public interface HandOffSource {
+        LoanRepository.HoldHandOff get() throws SQLException;
+    }
+
+    private void probe() {
+        try {
+            replay();
+        } catch (SQLException e) {
+            if (!isConnectionFailure(e)) {
+                System.err.println("오프라인 저널 재생 중 오류 발생: " + e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("오프라인 저널 재생 중 오류 발생: " + e);
+        }
+    }
+
+    /**
+     * 저널을 끝까지 재생하고, 모두 반영되었으면 온라인으로 돌아옵니다.
+     * @return 이번에 반영한 레코드 수
+     * @throws SQLException DB 에 아직 닿지 않는 경우 등
+     */
+    public int replay() throws SQLException {
+        int replayed = 0;
+        try {
+            while (true) {
+                List<OfflineJournal.Record> records = journal.pending(batchSize);
+                if (records.isEmpty()) {
+                    if (tryGoOnline()) {
+                        return replayed;
+                    }
+                    continue; // 확인하는 사이에 새 레코드가 들어왔다.
+                }
+                replayBatch(records);
+                replayed += records.size();
+            }
+        } finally {
+            if (replayed > 0) {
+                replayedListener.run();
+            }
+        }
+    }
+
+    private boolean tryGoOnline() {
+        modeLock.writeLock().lock();
+        try {
+            if (journal.pendingCount() > 0) {
+                return false;
+            }
+            offline = false;
+            if (probe != null) {
+                probe.cancel(false);
+                probe = null;
+            }
+            return true;
+        } finally {
+            modeLock.writeLock().unlock();
+        }
+    }
+
+    private void replayBatch(List<OfflineJournal.Record> records) throws SQLException {
+        long lastSequence = records.get(records.size() - 1).getSequence();
+        LoanRepository.HoldHandOff handOff = handOffs.get();
+        List<Hold> handedOff = new ArrayList<>();
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long checkpoint = lockCheckpoint(conn);
+                try (PreparedStatement borrowStock = conn.prepareStatement(BORROW_STOCK_SQL);
+                     PreparedStatement borrowInsert = conn.prepareStatement(BORROW_INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                     PreparedStatement returnUpdate = conn.prepareStatement(RETURN_UPDATE_SQL);
+                     PreparedStatement returnBook = conn.prepareStatement(RETURN_BOOK_SQL);
+                     PreparedStatement stock = conn.prepareStatement(STOCK_SQL)) {
+                    for (OfflineJournal.Record record : records) {
+                        if (record.getSequence() <= checkpoint) {
+                            continue; // 이전 재생에서 커밋까지 마쳤지만 저널에 표시하기 전에 멈춘 레코드
+                        }
+                        switch (record.getType()) {
+                            case BORROW -> replayBorrow(conn, borrowStock, borrowInsert, record);
+                            case RETURN -> replayReturn(conn, returnUpdate, returnBook, record, handOff, handedOff);
+                            case STOCK -> replayStock(stock, record);
+                        }
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(CHECKPOINT_UPDATE_SQL)) {
+                    pstmt.setLong(1, Math.max(checkpoint, lastSequence));
+                    pstmt.setString(2, journal.getJournalId());
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        journal.markReplayed(lastSequence);
+        handedOff.forEach(handOff::handedOff);
+    }
+
+    private long lockCheckpoint(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CHECKPOINT_SELECT_SQL)) {
+            pstmt.setString(1, journal.getJournalId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(CHECKPOINT_INSERT_SQL)) {
+            pstmt.setString(1, journal.getJournalId());
+            pstmt.executeUpdate();
+        }
+        return 0L;
+    }
+
+    private void replayBorrow(Connection conn, PreparedStatement borrowStock, PreparedStatement borrowInsert,
+                              OfflineJournal.Record record) throws SQLException {
+        int bookId = record.getId();
+        int memberId = record.getValue();
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            borrowStock.setInt(1, bookId);
+            if (borrowStock.executeUpdate() == 0) {
+                conn.releaseSavepoint(savepoint);
+                conflictLog.accept("오프라인 대출 #" + record.getSequence() + " 건너뜀: 도서 ID " + bookId + " 의 재고가 없거나 도서가 없습니다. (회원 ID " + memberId + ")");
+                return;
+            }
+            borrowInsert.setInt(1, bookId);
+            borrowInsert.setInt(2, memberId);
+            borrowInsert.setDate(3, Date.valueOf(record.getFirstDate()));
+            borrowInsert.setDate(4, Date.valueOf(record.getSecondDate()));
+            borrowInsert.executeUpdate();
+            try (ResultSet keys = borrowInsert.getGeneratedKeys()) {
+                String loanId = keys.next() ? String.valueOf(keys.getInt(1)) : "?";
+                conflictLog.accept("오프라인 대출 #" + record.getSequence() + " 반영: 도서 ID " + bookId + ", 회원 ID " + memberId + " -> 대출 기록 ID " + loanId);
+            }
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // 그사이 회원이 삭제된 경우 등. 이 레코드만 되돌리고 계속한다.
+            conn.rollback(savepoint);
+            conflictLog.accept("오프라인 대출 #" + record.getSequence() + " 건너뜀: " + e.getMessage());
+        }
+    }
+
+    // 온라인 반납(JdbcLoanRepository.checkIn)과 같이 대기 예약에 넘기거나 재고로 돌린다.
+    private void replayReturn(Connection conn, PreparedStatement returnUpdate, PreparedStatement returnBook,
+                              OfflineJournal.Record record, LoanRepository.HoldHandOff handOff,
+                              List<Hold> handedOff) throws SQLException {
+        int loanId = record.getId();
+        returnUpdate.setDate(1, Date.valueOf(record.getFirstDate()));
+        returnUpdate.setInt(2, loanId);
+        if (returnUpdate.executeUpdate() == 0) {
+            conflictLog.accept("오프라인 반납 #" + record.getSequence() + " 건너뜀: 대출 기록 ID " + loanId + " 를 찾을 수 없거나 이미 반납되었습니다.");
+            return;
+        }
+        returnBook.setInt(1, loanId);
+        int bookId;
+        try (ResultSet rs = returnBook.executeQuery()) {
+            if (!rs.next()) {
+                return;
+            }
+            bookId = rs.getInt(1);
+        }
+        Hold next = JdbcHoldRepository.handOffOrRestock(conn, bookId, handOff.readyUntil(bookId));
+        if (next != null) {
+            handedOff.add(next);
+        }
+    }
+
+    private void replayStock(PreparedStatement stock, OfflineJournal.Record record) throws SQLException {
+        stock.setInt(1, record.getValue());
+        stock.setInt(2, record.getId());
+        if (stock.executeUpdate() == 0) {
+            conflictLog.accept("오프라인 재고 변경 #" + record.getSequence() + " 건너뜀: 도서 ID " + record.getId() + " 를 찾을 수 없습니다.");
+        }
+    }
+
+    /**
+     * 재생 스레드를 멈추고 저널을 닫습니다.
+     */
+    public void close() {
+        prober.shutdown();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("오프라인 저널 닫기 중 오류 발생: " + e.getMessage());
+        }
+    }
+}
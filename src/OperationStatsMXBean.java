@@ -0,0 +1,21 @@
+/**
+ * 작업(도서 추가, 대출 등) 하나의 지연 시간 통계를 JMX 로 노출합니다.
+ * ObjectName 은 library:type=Operation,name=작업이름 입니다. 시간 단위는 마이크로초입니다.
+ */
+public interface OperationStatsMXBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,361 @@
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 반납하지 않은 연체 대출의 연체료를 일괄 계산해 loans.fine 에 기록하는 야간 작업입니다.
+ * <ul>
+ *     <li>읽기 스레드가 loan_id 기준 키셋 페이지로 연체 대출을 읽어 청크(원시 배열)로 넘깁니다.
+ *     페이지 안에서는 fetchSize 단위로 가져오므로 db.url 에 useCursorFetch=true 를 주면 서버 측 커서로 스트리밍됩니다.</li>
+ *     <li>청크마다 fork-join 으로 나누어 연체 영업일 수를 계산합니다. 영업일 수는 기준일까지의
+ *     누적 영업일 배열을 미리 만들어 두고 뺄셈 한 번으로 구합니다.</li>
+ *     <li>연체료가 바뀐 행만 JDBC 배치로 갱신하고 청크마다 커밋합니다.</li>
+ *     <li>마지막으로, 반납 예정일이 늦춰지는 등으로 더 이상 연체가 아닌 미반납 대출의 남은 연체료를 0 으로 되돌립니다.</li>
+ * </ul>
+ * 큐에 쌓이는 청크 수가 제한되어 있으므로 대출 행이 수천만 건이어도 메모리 사용량은 청크 크기에만 비례합니다.
+ * 중간에 실패해도 이미 커밋된 청크는 그대로 두며, 다시 실행하면 같은 결과로 덮어씁니다.
+ * <pre>
+ * ALTER TABLE loans ADD COLUMN fine INT NOT NULL DEFAULT 0;
+ * </pre>
+ */
+public class OverdueFineJob {
+    private static final int QUEUE_CAPACITY = 2;
+    // 이 개수 이하의 구간은 더 나누지 않고 한 작업에서 계산한다.
+    private static final int SPLIT_THRESHOLD = 4096;
+    // 누적 영업일 배열이 덮는 기간. 이보다 오래된 연체는 달력에서 나머지 구간을 따로 센다.
+    private static final int CALENDAR_WINDOW_YEARS = 5;
+
+    private static final String PAGE_SQL = "SELECT loan_id, due_date, fine FROM loans "
+            + "WHERE loan_id > ? AND return_date IS NULL AND due_date < ? ORDER BY loan_id LIMIT ?";
+    // 읽은 뒤 반납된 대출은 건드리지 않는다.
+    private static final String UPDATE_SQL = "UPDATE loans SET fine = ? WHERE loan_id = ? AND return_date IS NULL";
+    // 연체가 아닌데 연체료가 남아 있는 미반납 대출 (이전 실행 뒤 반납 예정일이 바뀐 경우)
+    private static final String CLEAR_SQL = "UPDATE loans SET fine = 0 "
+            + "WHERE return_date IS NULL AND due_date >= ? AND fine <> 0";
+
+    private final ConnectionSource connectionSource;
+    private final BusinessDayCalendar calendar;
+    private final int finePerDay;
+    private final int maxFine;
+    private final int chunkSize;
+    private final int fetchSize;
+
+    /**
+     * @param connectionSource 커넥션 풀
+     * @param calendar 영업일 달력 (Library 의 휴일 정책)
+     * @param finePerDay 연체 영업일 하루당 연체료
+     * @param maxFine 대출 한 건의 연체료 상한 (0 이하이면 상한 없음)
+     * @param chunkSize 한 번에 읽고 한 트랜잭션으로 쓰는 대출 수
+     * @param fetchSize 드라이버가 한 번에 받아 올 행 수
+     */
+    public OverdueFineJob(ConnectionSource connectionSource, BusinessDayCalendar calendar,
+                          int finePerDay, int maxFine, int chunkSize, int fetchSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+        }
+        this.connectionSource = connectionSource;
+        this.calendar = calendar;
+        this.finePerDay = finePerDay;
+        this.maxFine = maxFine;
+        this.chunkSize = chunkSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * asOf 기준으로 반납 예정일이 지난 모든 미반납 대출의 연체료를 계산해 기록합니다.
+     * 연체 일수는 반납 예정일 다음 날부터 asOf 까지의 영업일 수입니다.
+     * 반납 예정일이 asOf 이후인 미반납 대출에 남은 연체료는 0 으로 되돌립니다.
+     * @param asOf 기준 날짜 (보통 오늘)
+     * @return 처리 결과
+     * @throws SQLException DB 오류
+     */
+    public Result run(LocalDate asOf) throws SQLException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        CalendarWindow window = new CalendarWindow(calendar, asOf.minusYears(CALENDAR_WINDOW_YEARS), asOf);
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Reader reader = new Reader(asOf, queue);
+        Thread readerThread = new Thread(reader, "overdue-fine-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        try (Connection conn = connectionSource.getConnection()) {
+            conn.setAutoCommit(false);
+            while (true) {
+                Chunk chunk = takeChunk(queue);
+                if (chunk.isEnd()) {
+                    break;
+                }
+                pool.invoke(new FineTask(chunk, window, 0, chunk.size));
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+                    int batched = 0;
+                    for (int i = 0; i < chunk.size; i++) {
+                        result.totalFines += chunk.newFines[i];
+                        if (chunk.newFines[i] != chunk.oldFines[i]) {
+                            pstmt.setInt(1, chunk.newFines[i]);
+                            pstmt.setInt(2, chunk.loanIds[i]);
+                            pstmt.addBatch();
+                            batched++;
+                        }
+                    }
+                    if (batched > 0) {
+                        pstmt.executeBatch();
+                    }
+                    conn.commit();
+                    result.updated += batched;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    reader.cancel();
+                    throw e;
+                }
+                result.overdueLoans += chunk.size;
+            }
+            if (reader.failure == null) {
+                result.updated += clearStaleFines(conn, asOf);
+            }
+        } finally {
+            reader.cancel();
+        }
+        if (reader.failure != null) {
+            throw reader.failure;
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // 위의 페이지 조회는 연체 대출만 보므로, 연체가 풀린 대출의 연체료는 여기서 따로 지운다.
+    private int clearStaleFines(Connection conn, LocalDate asOf) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CLEAR_SQL)) {
+            pstmt.setDate(1, Date.valueOf(asOf));
+            int cleared = pstmt.executeUpdate();
+            conn.commit();
+            return cleared;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    private Chunk takeChunk(BlockingQueue<Chunk> queue) throws SQLException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("연체료 계산이 중단되었습니다.", e);
+        }
+    }
+
+    private int fineFor(long overdueDays) {
+        if (overdueDays <= 0) {
+            return 0;
+        }
+        long fine = overdueDays * finePerDay;
+        if (maxFine > 0 && fine > maxFine) {
+            fine = maxFine;
+        }
+        return (int) Math.min(fine, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 작업 결과. 처리한 연체 대출 수와 실제로 갱신한 행 수를 알려 줍니다.
+     */
+    public static class Result {
+        private long overdueLoans;
+        private long updated;
+        private long totalFines;
+        private long elapsedNanos;
+
+        public long getOverdueLoans() {
+            return overdueLoans;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getTotalFines() {
+            return totalFines;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : overdueLoans * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("연체 대출 %d건, 연체료 변경 %d건, 연체료 합계 %d, %.1f행/초",
+                    overdueLoans, updated, totalFines, getRowsPerSecond());
+        }
+    }
+
+    /**
+     * base 다음 날부터 asOf 까지의 누적 영업일 수. cumulative[i] 는 (base, base + i] 구간의 영업일 수입니다.
+     */
+    private static final class CalendarWindow {
+        private final BusinessDayCalendar calendar;
+        private final LocalDate base;
+        private final long baseEpochDay;
+        private final int[] cumulative;
+
+        private CalendarWindow(BusinessDayCalendar calendar, LocalDate base, LocalDate asOf) {
+            this.calendar = calendar;
+            this.base = base;
+            this.baseEpochDay = base.toEpochDay();
+            int days = (int) (asOf.toEpochDay() - baseEpochDay);
+            this.cumulative = new int[days + 1];
+            LocalDate date = base;
+            for (int i = 1; i <= days; i++) {
+                date = date.plusDays(1);
+                cumulative[i] = cumulative[i - 1] + (calendar.isBusinessDay(date) ? 1 : 0);
+            }
+        }
+
+        /**
+         * 반납 예정일 다음 날부터 asOf 까지의 영업일 수.
+         */
+        long overdueDays(long dueEpochDay) {
+            int last = cumulative.length - 1;
+            long offset = dueEpochDay - baseEpochDay;
+            if (offset >= last) {
+                return 0;
+            }
+            if (offset >= 0) {
+                return cumulative[last] - cumulative[(int) offset];
+            }
+            return calendar.businessDaysBetween(LocalDate.ofEpochDay(dueEpochDay), base) + cumulative[last];
+        }
+    }
+
+    private final class FineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // 한 번의 실행 안에서만 쓰는 작업이므로 직렬화하지 않는다.
+        private final transient Chunk chunk;
+        private final transient CalendarWindow window;
+        private final int from;
+        private final int to;
+
+        private FineTask(Chunk chunk, CalendarWindow window, int from, int to) {
+            this.chunk = chunk;
+            this.window = window;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    chunk.newFines[i] = fineFor(window.overdueDays(chunk.dueEpochDays[i]));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FineTask(chunk, window, from, mid), new FineTask(chunk, window, mid, to));
+        }
+    }
+
+    private static final class Chunk {
+        private static final Chunk END = new Chunk(0);
+
+        private final int[] loanIds;
+        private final long[] dueEpochDays;
+        private final int[] oldFines;
+        private final int[] newFines;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.loanIds = new int[capacity];
+            this.dueEpochDays = new long[capacity];
+            this.oldFines = new int[capacity];
+            this.newFines = new int[capacity];
+        }
+
+        private boolean isEnd() {
+            return this == END;
+        }
+    }
+
+    /**
+     * 연체 대출을 키셋 페이지로 읽어 큐에 넣습니다. 페이지 하나가 청크 하나입니다.
+     */
+    private final class Reader implements Runnable {
+        private final LocalDate asOf;
+        private final BlockingQueue<Chunk> queue;
+        private volatile boolean cancelled;
+        private volatile SQLException failure;
+
+        private Reader(LocalDate asOf, BlockingQueue<Chunk> queue) {
+            this.asOf = asOf;
+            this.queue = queue;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        @Override
+        public void run() {
+            try {
+                long lastLoanId = Long.MIN_VALUE;
+                while (!cancelled) {
+                    Chunk chunk = readPage(lastLoanId);
+                    if (chunk.size == 0) {
+                        break;
+                    }
+                    lastLoanId = chunk.loanIds[chunk.size - 1];
+                    offer(chunk);
+                    if (chunk.size < chunkSize) {
+                        break;
+                    }
+                }
+            } catch (SQLException e) {
+                failure = e;
+            } finally {
+                offer(Chunk.END);
+            }
+        }
+
+        private Chunk readPage(long lastLoanId) throws SQLException {
+            Chunk chunk = new Chunk(chunkSize);
+            try (Connection conn = connectionSource.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(PAGE_SQL)) {
+                pstmt.setFetchSize(fetchSize);
+                pstmt.setLong(1, lastLoanId);
+                pstmt.setDate(2, Date.valueOf(asOf));
+                pstmt.setInt(3, chunkSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        chunk.loanIds[chunk.size] = rs.getInt(1);
+                        chunk.dueEpochDays[chunk.size] = rs.getDate(2).toLocalDate().toEpochDay();
+                        chunk.oldFines[chunk.size] = rs.getInt(3);
+                        chunk.size++;
+                    }
+                }
+            }
+            return chunk;
+        }
+
+        private void offer(Chunk chunk) {
+            try {
+                while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled && chunk != Chunk.END) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 보고서성 조회(전체 도서/회원 목록, 제목/저자 검색)를 읽기 복제본으로 보내는 라우터입니다.
+ * 쓰기와 그 밖의 조회는 모두 주 DB(db.url)로 갑니다. db.properties 의 아래 키로 설정합니다.
+ * <ul>
+ *     <li>db.replica.url - 복제본 JDBC URL. 여러 대이면 db.replica.1.url, db.replica.2.url ... 로 적습니다.</li>
+ *     <li>db.replica.username / db.replica.password (기본 db.username / db.password)</li>
+ *     <li>db.replica.heartbeatMs (기본 500) - 주 DB 에 심장 박동을 쓰고 복제본에서 읽어 오는 주기</li>
+ *     <li>db.replica.maxLagMs (기본 2000) - 이보다 뒤처진 복제본은 고르지 않음</li>
+ *     <li>db.replica.heartbeatId (기본 1) - 심장 박동 행 ID. 여러 서버가 같은 주 DB 를 쓰면 서버마다 다르게 줍니다.</li>
+ * </ul>
+ * 복제 지연은 주 DB 의 replica_heartbeat 행에 이 프로세스의 시각을 주기적으로 쓰고, 복제본에 복제된 같은 행을 읽어
+ * (지금 - 복제본이 가진 시각) 으로 잽니다. 같은 프로세스의 시계끼리만 비교하므로 DB 서버 간 시계 차이는 영향이 없습니다.
+ * 복제본에 닿지 않거나 심장 박동이 멈추면 지연이 커지므로 자동으로 빠지고, 따라잡으면 다시 고릅니다.
+ * <pre>
+ * CREATE TABLE replica_heartbeat (
+ *     heartbeat_id INT PRIMARY KEY,
+ *     beat_millis  BIGINT NOT NULL
+ * );
+ * </pre>
+ * 세션(Session)이 쓴 뒤의 조회는 그 쓰기 뒤에 찍힌 심장 박동을 받은 복제본으로만 가고,
+ * 그런 복제본이 없으면 주 DB 로 갑니다. 그래서 방금 등록한 도서가 목록에서 빠져 보이지 않습니다.
+ */
+public class ReplicaRouter {
+    private static final Map<String, ReplicaRouter> SHARED_ROUTERS = new HashMap<>();
+    private static final String BEAT_UPDATE_SQL = "UPDATE replica_heartbeat SET beat_millis = ? WHERE heartbeat_id = ?";
+    private static final String BEAT_INSERT_SQL = "INSERT INTO replica_heartbeat (heartbeat_id, beat_millis) VALUES (?, ?)";
+    private static final String BEAT_SELECT_SQL = "SELECT beat_millis FROM replica_heartbeat WHERE heartbeat_id = ?";
+
+    private final Properties primaryProps;
+    private final List<Replica> replicas;
+    private final int heartbeatId;
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ScheduledExecutorService heartbeat;
+    // 심장 박동을 쓰지 못하는 동안 같은 오류를 주기마다 출력하지 않는다.
+    private volatile boolean beatFailing;
+
+    private ReplicaRouter(Properties primaryProps, List<String> replicaUrls) {
+        this.primaryProps = primaryProps;
+        this.heartbeatId = Integer.parseInt(primaryProps.getProperty("db.replica.heartbeatId", "1").trim());
+        this.maxLagMillis = Long.parseLong(primaryProps.getProperty("db.replica.maxLagMs", "2000").trim());
+        long heartbeatMillis = Long.parseLong(primaryProps.getProperty("db.replica.heartbeatMs", "500").trim());
+
+        List<Replica> list = new ArrayList<>(replicaUrls.size());
+        for (String url : replicaUrls) {
+            Replica replica = new Replica(url, replicaProperties(primaryProps, url));
+            LibraryMetrics.global().registerReplica(url, replica);
+            list.add(replica);
+        }
+        this.replicas = Collections.unmodifiableList(list);
+
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(this::beat, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 같은 주 DB 와 복제본 목록에 대해 하나의 라우터(심장 박동 스레드)를 공유합니다.
+     * @param dbProps db.properties 에서 읽은 설정
+     * @return 공유 라우터, 복제본이 설정되지 않았으면 null
+     */
+    public static synchronized ReplicaRouter shared(Properties dbProps) {
+        List<String> urls = replicaUrls(dbProps);
+        if (urls.isEmpty()) {
+            return null;
+        }
+        String key = dbProps.getProperty("db.url") + "|" + String.join("|", urls);
+        return SHARED_ROUTERS.computeIfAbsent(key, ignored -> new ReplicaRouter(dbProps, urls));
+    }
+
+    private static List<String> replicaUrls(Properties dbProps) {
+        List<String> urls = new ArrayList<>();
+        String single = dbProps.getProperty("db.replica.url");
+        if (single != null && !single.isBlank()) {
+            urls.add(single.trim());
+        }
+        for (int i = 1; ; i++) {
+            String url = dbProps.getProperty("db.replica." + i + ".url");
+            if (url == null || url.isBlank()) {
+                return urls;
+            }
+            urls.add(url.trim());
+        }
+    }
+
+    // 복제본 풀은 주 DB 와 같은 db.pool.* 설정을 쓰고 접속 정보만 바꾼다.
+    private static Properties replicaProperties(Properties primaryProps, String url) {
+        Properties props = new Properties();
+        props.putAll(primaryProps);
+        props.setProperty("db.url", url);
+        props.setProperty("db.username", primaryProps.getProperty("db.replica.username", primaryProps.getProperty("db.username", "")));
+        props.setProperty("db.password", primaryProps.getProperty("db.replica.password", primaryProps.getProperty("db.password", "")));
+        return props;
+    }
+
+    /**
+     * 세션이 쓴 변경을 이미 받은, 지연이 작은 복제본에서 커넥션을 빌립니다. 고를 복제본이 없으면 주 DB 에서 빌립니다.
+     * 복제본은 돌아가며 고릅니다.
+     * @param session 읽는 세션
+     * @return 조회용 커넥션 (쓰기에 쓰면 안 됩니다)
+     * @throws SQLException 주 DB 커넥션도 얻지 못한 경우
+     */
+    public Connection getReadConnection(Session session) throws SQLException {
+        long now = System.currentTimeMillis();
+        long lastWrite = session.lastWriteMillis.get();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            long beat = replica.appliedBeatMillis;
+            if (beat < 0 || now - beat > maxLagMillis || beat <= lastWrite) {
+                replica.skipped.increment();
+                continue;
+            }
+            try {
+                Connection conn = ConnectionPool.shared(replica.props).getConnection();
+                replica.reads.increment();
+                return conn;
+            } catch (SQLException e) {
+                replica.appliedBeatMillis = -1; // 다음 심장 박동을 읽을 때까지 고르지 않는다.
+                System.err.println("복제본 " + replica.url + " 에 연결할 수 없어 주 DB 에서 읽습니다: " + e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return ConnectionPool.shared(primaryProps).getConnection();
+    }
+
+    /**
+     * @return 복제본으로 보내지 못하고 주 DB 에서 읽은 조회 수
+     */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    /**
+     * @return 복제본별 지연과 조회 수 요약
+     */
+    public String statusSummary() {
+        StringBuilder sb = new StringBuilder("primaryReads=").append(primaryReads.sum());
+        for (Replica replica : replicas) {
+            sb.append(", ").append(replica.url).append("[lag=").append(replica.getLagMillis())
+                    .append("ms, reads=").append(replica.reads.sum())
+                    .append(", skipped=").append(replica.skipped.sum()).append(']');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 심장 박동을 한 번 쓰고 모든 복제본의 지연을 다시 확인합니다. (주기 작업과 같은 일을 바로 할 때)
+     */
+    public void beat() {
+        long now = System.currentTimeMillis();
+        try (Connection conn = ConnectionPool.shared(primaryProps).getConnection()) {
+            writeBeat(conn, now);
+            beatFailing = false;
+        } catch (SQLException e) {
+            if (!beatFailing) {
+                System.err.println("복제 심장 박동 기록 중 오류 발생: " + e.getMessage());
+                beatFailing = true;
+            }
+        }
+        for (Replica replica : replicas) {
+            readBeat(replica);
+        }
+    }
+
+    private void writeBeat(Connection conn, long beatMillis) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(BEAT_UPDATE_SQL)) {
+            pstmt.setLong(1, beatMillis);
+            pstmt.setInt(2, heartbeatId);
+            if (pstmt.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(BEAT_INSERT_SQL)) {
+            pstmt.setInt(1, heartbeatId);
+            pstmt.setLong(2, beatMillis);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void readBeat(Replica replica) {
+        boolean wasSelectable = replica.lastSelectable;
+        try (Connection conn = ConnectionPool.shared(replica.props).getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BEAT_SELECT_SQL)) {
+            pstmt.setInt(1, heartbeatId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                replica.appliedBeatMillis = rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            replica.appliedBeatMillis = -1;
+            if (wasSelectable) {
+                System.err.println("복제본 " + replica.url + " 확인 중 오류 발생: " + e.getMessage());
+            }
+        }
+        replica.lastSelectable = replica.isSelectable();
+        if (wasSelectable != replica.lastSelectable) {
+            System.out.println("복제본 " + replica.url + (wasSelectable ? " 을(를) 읽기에서 뺍니다." : " 을(를) 다시 읽기에 씁니다.")
+                    + " (지연 " + replica.getLagMillis() + "ms)");
+        }
+    }
+
+    /**
+     * 심장 박동을 멈춥니다. 복제본 풀은 ConnectionPool.shared 가 관리하므로 닫지 않습니다.
+     */
+    public void close() {
+        heartbeat.shutdownNow();
+        synchronized (ReplicaRouter.class) {
+            SHARED_ROUTERS.values().remove(this);
+        }
+    }
+
+    /**
+     * 한 사용자(콘솔 창구, HTTP 서버)의 마지막 쓰기 시각을 기억합니다.
+     * 이 시각 뒤의 심장 박동을 받지 못한 복제본은 그 세션의 조회에 고르지 않습니다.
+     */
+    public static final class Session {
+        private final AtomicLong lastWriteMillis = new AtomicLong(-1);
+
+        /**
+         * 쓰기가 커밋된 뒤 호출합니다.
+         */
+        public void noteWrite() {
+            lastWriteMillis.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    private final class Replica implements ReplicaStatsMXBean {
+        private final String url;
+        private final Properties props;
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        // 복제본이 가진 마지막 심장 박동 시각. 복제본에 닿지 않았으면 -1
+        private volatile long appliedBeatMillis = -1;
+        // 마지막 확인 때 고를 수 있었는지 (상태가 바뀔 때만 출력한다)
+        private volatile boolean lastSelectable;
+
+        private Replica(String url, Properties props) {
+            this.url = url;
+            this.props = props;
+        }
+
+        @Override
+        public long getLagMillis() {
+            long beat = appliedBeatMillis;
+            return beat < 0 ? -1 : Math.max(System.currentTimeMillis() - beat, 0);
+        }
+
+        @Override
+        public boolean isSelectable() {
+            long lag = getLagMillis();
+            return lag >= 0 && lag <= maxLagMillis;
+        }
+
+        @Override
+        public long getReadCount() {
+            return reads.sum();
+        }
+
+        @Override
+        public long getSkippedCount() {
+            return skipped.sum();
+        }
+    }
+}
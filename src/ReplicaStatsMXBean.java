@@ -0,0 +1,16 @@
+/**
+ * 읽기 복제본 하나의 지표를 JMX 로 노출합니다. ObjectName 은 library:type=Replica,name="복제본 URL" 입니다.
+ */
+public interface ReplicaStatsMXBean {
+    /** 마지막으로 확인한 복제 지연 (밀리초). 복제본에 닿지 않았거나 아직 확인하지 않았으면 -1 */
+    long getLagMillis();
+
+    /** 지금 조회를 보낼 수 있는지 (지연이 db.replica.maxLagMs 이하) */
+    boolean isSelectable();
+
+    /** 이 복제본으로 보낸 조회 수 */
+    long getReadCount();
+
+    /** 지연이 크거나 세션의 쓰기를 아직 받지 못해 건너뛴 횟수 */
+    long getSkippedCount();
+}
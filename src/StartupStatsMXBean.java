@@ -0,0 +1,14 @@
+/**
+ * 시작 시간 지표를 JMX 로 노출합니다. ObjectName 은 library:type=Startup 입니다.
+ * 모든 값은 JVM 시작 시각부터의 밀리초이며, 아직 일어나지 않았으면 -1 입니다.
+ */
+public interface StartupStatsMXBean {
+    /** 메뉴가 뜨거나 HTTP 서버가 요청을 받기 시작할 때까지 걸린 시간 */
+    long getTimeToReadyMillis();
+
+    /** 첫 요청(메뉴 선택 또는 HTTP 요청)을 처리하고 응답할 때까지 걸린 시간 */
+    long getTimeToFirstRequestMillis();
+
+    /** 백그라운드 예열(커넥션 풀, 휴일 달력, 색인)에 걸린 시간. JVM 시작 기준이 아닌 예열 자체의 소요 시간 */
+    long getWarmUpMillis();
+}
@@ -0,0 +1,14 @@
+import java.sql.SQLException;
+
+/**
+ * 저장소에 닿지 못해 아무 것도 바꾸지 못한 채 실패했음을 알립니다. (커넥션을 얻지 못한 경우)
+ * 이 예외라면 작업이 반영되지 않았음이 확실하므로, Library 는 오프라인 저널로 넘겨도 됩니다.
+ * 원래 예외의 SQLState 와 원인을 그대로 가집니다.
+ */
+public class StorageUnavailableException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    public StorageUnavailableException(SQLException cause) {
+        super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+    }
+}
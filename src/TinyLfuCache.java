@@ -0,0 +1,238 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 크기가 제한된 W-TinyLFU 캐시입니다.
+ * 새 항목은 작은 LRU 창(window, 전체의 1%)에 먼저 들어가고, 창에서 밀려난 항목은
+ * 주 영역(SLRU: probation 20% + protected 80%)의 희생 후보보다 최근 접근 빈도가 높을 때만 들어갑니다.
+ * 접근 빈도는 4비트 count-min sketch 로 추정하며, 일정 횟수마다 절반으로 줄여 오래된 인기를 잊습니다.
+ * 모든 연산은 캐시 객체 하나로 동기화합니다.
+ */
+public class TinyLfuCache<K, V> {
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize 는 1 이상이어야 합니다: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (int) ((maximumSize - windowMax) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * 캐시된 값을 돌려줍니다. 없으면 null.
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        value = protectedSegment.get(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            // 주 영역에서 두 번째로 접근되면 보호 영역으로 올린다.
+            hits++;
+            protectedSegment.put(key, value);
+            demoteProtectedOverflow();
+            return value;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * 값을 넣습니다. 이미 있는 키면 값만 바꿉니다.
+     */
+    public synchronized void put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+        sketch.increment(key);
+        window.put(key, value);
+        if (window.size() > windowMax) {
+            Iterator<Map.Entry<K, V>> it = window.entrySet().iterator();
+            Map.Entry<K, V> eldest = it.next();
+            it.remove();
+            admit(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    // 창에서 밀려난 후보를 주 영역에 넣을지 빈도로 결정한다.
+    private void admit(K candidate, V value) {
+        int mainMax = maximumSize - windowMax;
+        if (probation.size() + protectedSegment.size() < mainMax) {
+            probation.put(candidate, value);
+            return;
+        }
+        if (mainMax == 0) {
+            evictions++;
+            return;
+        }
+        LinkedHashMap<K, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        Iterator<Map.Entry<K, V>> it = victimSegment.entrySet().iterator();
+        K victim = it.next().getKey();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            it.remove();
+            probation.put(candidate, value);
+        }
+        evictions++;
+    }
+
+    private void demoteProtectedOverflow() {
+        while (protectedSegment.size() > protectedMax) {
+            Iterator<Map.Entry<K, V>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<K, V> eldest = it.next();
+            it.remove();
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * 키를 캐시에서 지웁니다.
+     */
+    public synchronized void invalidate(K key) {
+        if (window.remove(key) != null | probation.remove(key) != null | protectedSegment.remove(key) != null) {
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations += size();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    public synchronized String statsSummary() {
+        return String.format("size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, invalidations=%d",
+                size(), maximumSize, hits, misses, getHitRate() * 100, evictions, invalidations);
+    }
+
+    /**
+     * 4개 행, 4비트 카운터의 count-min sketch.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0x97cb3127L, 0xb4f5a6c9L, 0xc2b2ae3dL, 0x27d4eb2fL};
+
+        private final long[] table; // long 하나에 4비트 카운터 16개
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int counters = Integer.highestOneBit(Math.max(16, maximumSize) * 4 - 1) << 1;
+            this.table = new long[counters / 16];
+            this.mask = counters - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                added |= incrementAt(indexOf(hash, i));
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                min = Math.min(min, counterAt(indexOf(hash, i)));
+            }
+            return min;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+
+        private int counterAt(int index) {
+            return (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xF);
+        }
+
+        private boolean incrementAt(int index) {
+            int shift = (index & 15) << 2;
+            long word = table[index >>> 4];
+            if (((word >>> shift) & 0xF) == 0xF) {
+                return false;
+            }
+            table[index >>> 4] = word + (1L << shift);
+            return true;
+        }
+
+        // 모든 카운터를 절반으로 줄인다.
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
 
 public class WeekendHoliday implements HolidayPolicy {
     @Override
@@ -7,4 +9,19 @@ public class WeekendHoliday implements HolidayPolicy {
         DayOfWeek dayOfWeek = date.getDayOfWeek();
         return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
     }
+
+    @Override
+    public BitSet holidaysBetween(LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BitSet holidays = new BitSet(Math.max(days, 0));
+        // 첫 토요일부터 7일 간격으로 토/일 두 비트를 채운다.
+        int firstSaturday = (DayOfWeek.SATURDAY.getValue() - from.getDayOfWeek().getValue() + 7) % 7;
+        if (firstSaturday == 6 && days > 0) {
+            holidays.set(0); // from 이 일요일인 경우
+        }
+        for (int i = firstSaturday; i < days; i += 7) {
+            holidays.set(i, Math.min(i + 2, days));
+        }
+        return holidays;
+    }
 }
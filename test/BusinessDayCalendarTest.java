@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class BusinessDayCalendarTest {
+
+    // 주말과 지정한 날짜를 휴일로 보는 정책. 바뀌면 리스너에 알린다.
+    private static final class TestPolicy implements HolidayPolicy {
+        private final Set<LocalDate> holidays = ConcurrentHashMap.newKeySet();
+        private final List<Consumer<LocalDate>> listeners = new CopyOnWriteArrayList<>();
+
+        TestPolicy(LocalDate... dates) {
+            holidays.addAll(List.of(dates));
+        }
+
+        @Override
+        public boolean isHoliday(LocalDate date) {
+            DayOfWeek day = date.getDayOfWeek();
+            return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY || holidays.contains(date);
+        }
+
+        @Override
+        public void addChangeListener(Consumer<LocalDate> listener) {
+            listeners.add(listener);
+        }
+
+        void add(LocalDate date) {
+            holidays.add(date);
+            listeners.forEach(listener -> listener.accept(date));
+        }
+    }
+
+    private static LocalDate naivePlus(HolidayPolicy policy, LocalDate start, int businessDays) {
+        LocalDate date = start;
+        for (int counted = 0; counted < businessDays; ) {
+            date = date.plusDays(1);
+            if (!policy.isHoliday(date)) {
+                counted++;
+            }
+        }
+        return date;
+    }
+
+    private static long naiveBetween(HolidayPolicy policy, LocalDate from, LocalDate to) {
+        long count = 0;
+        for (LocalDate date = from.plusDays(1); !date.isAfter(to); date = date.plusDays(1)) {
+            if (!policy.isHoliday(date)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void prefixCountsMatchDayByDayCountingAcrossWordAndYearBoundaries() {
+        // 2024 는 윤년. 63/64, 127/128 번째 날은 비트맵 워드 경계다.
+        TestPolicy policy = new TestPolicy(
+                LocalDate.ofYearDay(2024, 64), LocalDate.ofYearDay(2024, 65),
+                LocalDate.ofYearDay(2024, 128), LocalDate.ofYearDay(2024, 366),
+                LocalDate.of(2025, 1, 1), LocalDate.ofYearDay(2025, 320));
+        BusinessDayCalendar calendar = new BusinessDayCalendar(policy);
+
+        LocalDate origin = LocalDate.of(2023, 12, 20);
+        for (int offset = 0; offset < 800; offset += 7) {
+            LocalDate start = origin.plusDays(offset);
+            for (int days : new int[]{0, 1, 5, 14, 63, 64, 300}) {
+                LocalDate expected = days == 0 ? start : naivePlus(policy, start, days);
+                assertEquals(expected, calendar.plusBusinessDays(start, days), start + " + " + days);
+                assertEquals(days, calendar.businessDaysBetween(start, expected), start + " .. " + expected);
+            }
+            LocalDate to = start.plusDays(offset % 400);
+            assertEquals(naiveBetween(policy, start, to), calendar.businessDaysBetween(start, to));
+            assertEquals(-naiveBetween(policy, start, to), calendar.businessDaysBetween(to, start));
+        }
+    }
+
+    @Test
+    void refreshUpdatesOnlyTheChangedDay() {
+        TestPolicy policy = new TestPolicy();
+        BusinessDayCalendar calendar = new BusinessDayCalendar(policy);
+        LocalDate monday = LocalDate.of(2025, 6, 2);
+        LocalDate friday = LocalDate.of(2025, 6, 6);
+        assertEquals(4, calendar.businessDaysBetween(monday, friday));
+        assertTrue(calendar.isBusinessDay(monday.plusDays(2)));
+
+        policy.add(monday.plusDays(2));
+
+        assertFalse(calendar.isBusinessDay(monday.plusDays(2)));
+        assertEquals(3, calendar.businessDaysBetween(monday, friday));
+        assertEquals(naivePlus(policy, monday, 10), calendar.plusBusinessDays(monday, 10));
+    }
+}
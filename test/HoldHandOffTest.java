@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HoldHandOffTest {
+    private Library library;
+    private Book book;
+    private Member borrower;
+    private Member first;
+    private Member second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("library.holds.enabled", "true");
+        library = new Library(new WeekendHoliday(), props, new InMemoryStorage());
+        book = library.insertBook("객체지향 설계", "김철수", "9780000000001", "테스트출판", 1);
+        borrower = library.insertMember("대출자", "010-0000-0001");
+        first = library.insertMember("첫 예약자", "010-0000-0002");
+        second = library.insertMember("둘째 예약자", "010-0000-0003");
+    }
+
+    @Test
+    void returnedCopyGoesToOldestWaitingHoldInsteadOfStock() throws Exception {
+        Loan loan = library.checkOut(book.getBookId(), borrower.getMemberId());
+        Hold firstHold = library.placeHold(book.getBookId(), first.getMemberId());
+        Hold secondHold = library.placeHold(book.getBookId(), second.getMemberId());
+        assertEquals(1, library.holdPosition(firstHold));
+        assertEquals(2, library.holdPosition(secondHold));
+
+        library.checkIn(loan.getLoanId());
+
+        assertEquals(Hold.Status.READY, library.findHoldById(firstHold.getHoldId()).getStatus());
+        assertEquals(Hold.Status.WAITING, library.findHoldById(secondHold.getHoldId()).getStatus());
+        assertEquals(0, library.findBookById(book.getBookId()).getStock());
+        // 보관 중인 책은 다른 회원이 빌릴 수 없다.
+        LibraryException e = assertThrows(LibraryException.class,
+                () -> library.checkOut(book.getBookId(), second.getMemberId()));
+        assertEquals(LibraryException.Reason.OUT_OF_STOCK, e.getReason());
+    }
+
+    @Test
+    void holderBorrowsTheHeldCopyAndNextReturnMovesQueueAlong() throws Exception {
+        Loan loan = library.checkOut(book.getBookId(), borrower.getMemberId());
+        Hold firstHold = library.placeHold(book.getBookId(), first.getMemberId());
+        Hold secondHold = library.placeHold(book.getBookId(), second.getMemberId());
+        library.checkIn(loan.getLoanId());
+
+        Loan held = library.checkOut(book.getBookId(), first.getMemberId());
+
+        assertEquals(Hold.Status.FULFILLED, library.findHoldById(firstHold.getHoldId()).getStatus());
+        assertEquals(0, library.findBookById(book.getBookId()).getStock());
+        assertEquals(1, library.holdPosition(library.findHoldById(secondHold.getHoldId())));
+
+        library.checkIn(held.getLoanId());
+
+        assertEquals(Hold.Status.READY, library.findHoldById(secondHold.getHoldId()).getStatus());
+        assertEquals(0, library.findBookById(book.getBookId()).getStock());
+    }
+
+    @Test
+    void cancellingReadyHoldPassesCopyOnThenRestocks() throws Exception {
+        Loan loan = library.checkOut(book.getBookId(), borrower.getMemberId());
+        Hold firstHold = library.placeHold(book.getBookId(), first.getMemberId());
+        Hold secondHold = library.placeHold(book.getBookId(), second.getMemberId());
+        library.checkIn(loan.getLoanId());
+
+        library.cancelHold(firstHold.getHoldId());
+        assertEquals(Hold.Status.READY, library.findHoldById(secondHold.getHoldId()).getStatus());
+        assertEquals(0, library.findBookById(book.getBookId()).getStock());
+
+        library.cancelHold(secondHold.getHoldId());
+        assertEquals(1, library.findBookById(book.getBookId()).getStock());
+    }
+}
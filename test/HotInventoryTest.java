@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 인기 도서 에스크로는 SQL 로만 동작하므로 MySQL 호환 모드의 내장 H2 에서 시험합니다.
+ */
+class HotInventoryTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    // 백그라운드 flush 가 끼어들지 않게 한다.
+    private static final long NO_FLUSH = 3_600_000L;
+
+    private String url;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:h2:mem:hot-" + SEQUENCE.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE books (book_id INT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL, "
+                    + "stock INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE loans (loan_id INT AUTO_INCREMENT PRIMARY KEY, book_id INT NOT NULL, "
+                    + "member_id INT NOT NULL, loan_date DATE NOT NULL, due_date DATE NOT NULL, return_date DATE)");
+            stmt.execute("CREATE TABLE hot_inventory (book_id INT PRIMARY KEY, escrow INT NOT NULL)");
+            stmt.execute("CREATE TABLE hot_reservations (loan_id INT PRIMARY KEY, book_id INT NOT NULL)");
+            stmt.execute("INSERT INTO books (title, stock) VALUES ('인기 도서', 10)");
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+
+    private HotInventory newInventory() {
+        return new HotInventory(this::connect, NO_FLUSH, bookId -> { });
+    }
+
+    // 예약 토큰으로 대출 행과 확정 예약 행을 한 트랜잭션에 남긴다. (Library.checkOutReserved 와 같은 순서)
+    private int borrowReserved(HotInventory inventory, int memberId) throws SQLException {
+        HotInventory.Reservation reservation = inventory.tryReserve(1);
+        assertNotNull(reservation);
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            int loanId;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO loans (book_id, member_id, loan_date, due_date) VALUES (1, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setInt(1, memberId);
+                pstmt.setDate(2, Date.valueOf(LocalDate.now()));
+                pstmt.setDate(3, Date.valueOf(LocalDate.now().plusDays(14)));
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    keys.next();
+                    loanId = keys.getInt(1);
+                }
+            }
+            inventory.recordConfirmed(conn, reservation, loanId);
+            conn.commit();
+            inventory.confirm(reservation);
+            return loanId;
+        }
+    }
+
+    private int queryInt(String sql) throws SQLException {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    @Test
+    void reconcileAfterCrashReturnsOnlyUnconsumedEscrow() throws SQLException {
+        HotInventory crashed = newInventory();
+        assertEquals(4, crashed.designate(1, 4));
+        borrowReserved(crashed, 1);
+        borrowReserved(crashed, 2);
+        assertEquals(6, queryInt("SELECT stock FROM books WHERE book_id = 1"));
+        // flush 도 close 도 하지 않고 멈춘 것으로 본다.
+
+        HotInventory restarted = newInventory();
+        restarted.reconcile();
+
+        assertEquals(8, queryInt("SELECT stock FROM books WHERE book_id = 1"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM hot_inventory"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM hot_reservations"));
+        // 재고와 대출 중인 책을 합치면 처음 재고와 같다. (초과 대출 없음)
+        assertEquals(10, queryInt("SELECT stock FROM books WHERE book_id = 1")
+                + queryInt("SELECT COUNT(*) FROM loans WHERE return_date IS NULL"));
+        restarted.close();
+    }
+
+    @Test
+    void flushSettlesReservationsAndTopsUpReturnsWithinCap() throws SQLException {
+        HotInventory inventory = newInventory();
+        inventory.designate(1, 3);
+        int loanId = borrowReserved(inventory, 1);
+        inventory.flushAll();
+        assertEquals(2, queryInt("SELECT escrow FROM hot_inventory WHERE book_id = 1"));
+
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE loans SET return_date = CURRENT_DATE WHERE loan_id = " + loanId);
+            stmt.executeUpdate("UPDATE books SET stock = stock + 1 WHERE book_id = 1");
+        }
+        inventory.flushAll();
+
+        assertEquals(3, queryInt("SELECT escrow FROM hot_inventory WHERE book_id = 1"));
+        assertEquals(7, queryInt("SELECT stock FROM books WHERE book_id = 1"));
+        assertEquals(3, inventory.available(1));
+        inventory.close();
+    }
+
+    @Test
+    void undesignateReturnsRemainingEscrowAndStopsReservations() throws SQLException {
+        HotInventory inventory = newInventory();
+        inventory.designate(1, 5);
+        borrowReserved(inventory, 1);
+
+        inventory.undesignate(1);
+
+        assertEquals(9, queryInt("SELECT stock FROM books WHERE book_id = 1"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM hot_inventory"));
+        assertNull(inventory.tryReserve(1));
+        inventory.close();
+    }
+}
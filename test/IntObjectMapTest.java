@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntObjectMapTest {
+
+    // 용량 16 인 맵에서 같은 칸에서 시작하는 키들을 찾는다. (IntObjectMap.mix 와 같은 섞기)
+    private static List<Integer> collidingKeys(int count) {
+        List<Integer> keys = new ArrayList<>();
+        int home = -1;
+        for (int key = 1; keys.size() < count; key++) {
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & 15;
+            if (home < 0) {
+                home = slot;
+            }
+            if (slot == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    void removingHeadOfProbeChainKeepsLaterKeysReachable() {
+        List<Integer> keys = collidingKeys(4);
+        IntObjectMap<String> map = new IntObjectMap<>(8); // 용량 16
+        for (int key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        assertEquals("v" + keys.get(0), map.remove(keys.get(0)));
+
+        assertNull(map.get(keys.get(0)));
+        for (int key : keys.subList(1, keys.size())) {
+            assertEquals("v" + key, map.get(key), "키 " + key + " 를 잃었습니다");
+        }
+        assertEquals(keys.size() - 1, map.size());
+    }
+
+    @Test
+    void removingMiddleOfProbeChainThenReinsertingDoesNotDuplicate() {
+        List<Integer> keys = collidingKeys(5);
+        IntObjectMap<String> map = new IntObjectMap<>(8);
+        for (int key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        map.remove(keys.get(2));
+        map.put(keys.get(4), "new");
+
+        assertEquals("new", map.get(keys.get(4)));
+        assertEquals(keys.size() - 1, map.size());
+        int[] seen = new int[1];
+        map.forEach((key, value) -> seen[0]++);
+        assertEquals(keys.size() - 1, seen[0]);
+    }
+
+    @Test
+    void keyZeroIsNeverPresent() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "one");
+
+        assertNull(map.get(0));
+        assertFalse(map.containsKey(0));
+        assertNull(map.remove(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 1; key <= 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertTrue(map.size() > 0);
+    }
+}
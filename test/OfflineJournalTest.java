@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OfflineJournalTest {
+    // 헤더 64바이트 뒤 첫 레코드, STOCK 레코드 하나는 레코드 헤더 8 + 본문 17 바이트
+    private static final int FIRST_RECORD = 64;
+    private static final int STOCK_RECORD_SIZE = 8 + 17;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopenedJournalReturnsPendingRecordsInOrder() throws Exception {
+        Path path = dir.resolve("journal.bin");
+        LocalDate day = LocalDate.of(2025, 3, 4);
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            journal.appendBorrow(1, 2, day, day.plusDays(14));
+            journal.appendReturn(7, day.plusDays(1));
+            journal.sync(journal.appendStock(3, 9));
+        }
+
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            List<OfflineJournal.Record> records = journal.pending(10);
+            assertEquals(3, journal.pendingCount());
+            assertEquals(List.of(1L, 2L, 3L), records.stream().map(OfflineJournal.Record::getSequence).toList());
+            assertEquals(OfflineJournal.Type.BORROW, records.get(0).getType());
+            assertEquals(2, records.get(0).getValue());
+            assertEquals(day.plusDays(14), records.get(0).getSecondDate());
+            assertEquals(7, records.get(1).getId());
+            assertEquals(day.plusDays(1), records.get(1).getFirstDate());
+            assertEquals(9, records.get(2).getValue());
+            assertEquals(4L, journal.appendStock(3, 10));
+        }
+    }
+
+    @Test
+    void tornTailIsDroppedAndOverwritten() throws Exception {
+        Path path = dir.resolve("journal.bin");
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            journal.appendStock(1, 5);
+            journal.sync(journal.appendStock(2, 6));
+        }
+        // 두 번째 레코드의 본문 한 바이트를 망가뜨려 쓰다 만 꼬리처럼 만든다.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55}), FIRST_RECORD + STOCK_RECORD_SIZE + 8 + 10);
+        }
+
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            assertEquals(1, journal.pendingCount());
+            assertEquals(1L, journal.pending(10).get(0).getSequence());
+            // 버린 꼬리 자리에 이어 쓰고, 순번은 마지막 유효 레코드 다음부터 이어진다.
+            journal.sync(journal.appendStock(3, 7));
+        }
+
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            List<OfflineJournal.Record> records = journal.pending(10);
+            assertEquals(2, records.size());
+            assertEquals(2L, records.get(1).getSequence());
+            assertEquals(3, records.get(1).getId());
+        }
+    }
+
+    @Test
+    void replayedSequenceSurvivesReopen() throws Exception {
+        Path path = dir.resolve("journal.bin");
+        String journalId;
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            journalId = journal.getJournalId();
+            long first = journal.appendStock(1, 5);
+            journal.sync(journal.appendStock(2, 6));
+            journal.markReplayed(first);
+        }
+
+        try (OfflineJournal journal = new OfflineJournal(path, 4096, true)) {
+            assertEquals(journalId, journal.getJournalId());
+            assertEquals(1, journal.pendingCount());
+            assertEquals(2L, journal.pending(10).get(0).getSequence());
+
+            journal.markReplayed(2L);
+            assertEquals(0, journal.pendingCount());
+            // 모두 반영하면 앞에서부터 다시 쓰지만 순번은 계속 늘어난다.
+            assertEquals(3L, journal.appendStock(1, 1));
+        }
+    }
+}